@@ -0,0 +1,101 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import platform.dependencies.JacksonProvider;
+import platform.web.Page;
+import service.models.requests.UserRequest;
+import service.models.responses.UserResponse;
+
+/**
+ * Compares JSON with the binary formats negotiated by {@link platform.web.StreamingJsonMapper} for
+ * service-to-service calls.
+ *
+ * <p>Payload sizes are reported as {@link PayloadSizes} counters next to the scores. JMH sums event
+ * counters over the measurement iterations, so a counter divided by {@code Cnt} is the size in
+ * bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinaryFormatsBenchmark {
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"json", "smile", "cbor"})
+  private String format;
+
+  private ObjectMapper objectMapper;
+  private Page<UserResponse> page;
+  private byte[] pageBytes;
+  private byte[] userRequestBytes;
+
+  @Setup
+  public void setUp() throws IOException {
+    final var jacksonProvider = new JacksonProvider();
+    final var platformMapper = jacksonProvider.objectMapper();
+    objectMapper =
+        switch (format) {
+          case "json" -> platformMapper;
+          case "smile" -> jacksonProvider.smileObjectMapper(platformMapper);
+          case "cbor" -> jacksonProvider.cborObjectMapper(platformMapper);
+          default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+
+    page =
+        new Page<>(
+            IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> new UserResponse(UuidCreator.getTimeOrderedEpoch(), "user-" + i, 1L))
+                .toList(),
+            null);
+    pageBytes = objectMapper.writeValueAsBytes(page);
+    userRequestBytes =
+        objectMapper.writeValueAsBytes(
+            new UserRequest("benchmark-user", "benchmark-password".toCharArray()));
+  }
+
+  @Benchmark
+  public byte[] serializeUsersPage(PayloadSizes sizes) throws IOException {
+    sizes.record(this);
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public Page<?> deserializeUsersPage(PayloadSizes sizes) throws IOException {
+    sizes.record(this);
+    return objectMapper.readValue(pageBytes, Page.class);
+  }
+
+  @Benchmark
+  public UserRequest deserializeUserRequest(PayloadSizes sizes) throws IOException {
+    sizes.record(this);
+    return objectMapper.readValue(userRequestBytes, UserRequest.class);
+  }
+
+  /**
+   * Sizes of the payloads in the benchmarked format. JMH resets auxiliary counters after the
+   * iteration setup, so they are assigned on every call and reported as they are.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSizes {
+    public long usersPageBytes;
+    public long userRequestBytes;
+
+    void record(BinaryFormatsBenchmark benchmark) {
+      usersPageBytes = benchmark.pageBytes.length;
+      userRequestBytes = benchmark.userRequestBytes.length;
+    }
+  }
+}
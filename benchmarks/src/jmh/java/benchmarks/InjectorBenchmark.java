@@ -0,0 +1,104 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.suppierk.inject.Injector;
+import io.javalin.json.JavalinJackson;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import platform.dependencies.JacksonProvider;
+import platform.wiring.WiredDependencies;
+
+/**
+ * Measures the cost of resolving dependencies by the {@link Injector}: both looking up an already
+ * created singleton and building the dependency graph from scratch, as done during startup.
+ *
+ * <p>The same is measured for {@link WiredDependencies}, which call the code generated by {@code
+ * platform-processor} instead of using reflection. Every benchmark has a {@code Generated}
+ * counterpart, so both sides have to be run together to be compared:
+ *
+ * <pre>{@code
+ * ./gradlew -p benchmarks jmh -Pjmh.includes=InjectorBenchmark
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InjectorBenchmark {
+  private static final Map<Class<?>, Object> REGISTRATIONS =
+      Map.of(JacksonProvider.class, JacksonProvider.class, JsonConsumer.class, JsonConsumer.class);
+
+  private Injector injector;
+  private WiredDependencies wiredDependencies;
+
+  @Setup
+  public void setUp() {
+    injector = newInjector();
+    injector.get(JsonConsumer.class);
+
+    wiredDependencies = WiredDependencies.of(REGISTRATIONS).orElseThrow();
+    wiredDependencies.get(JsonConsumer.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    injector.close();
+    wiredDependencies.close();
+  }
+
+  @Benchmark
+  public JsonConsumer resolveSingleton() {
+    return injector.get(JsonConsumer.class);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public JsonConsumer buildAndResolve() {
+    final var freshInjector = newInjector();
+
+    try {
+      return freshInjector.get(JsonConsumer.class);
+    } finally {
+      freshInjector.close();
+    }
+  }
+
+  @Benchmark
+  public JsonConsumer resolveSingletonGenerated() {
+    return wiredDependencies.get(JsonConsumer.class);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public JsonConsumer buildAndResolveGenerated() {
+    try (final var freshDependencies = WiredDependencies.of(REGISTRATIONS).orElseThrow()) {
+      return freshDependencies.get(JsonConsumer.class);
+    }
+  }
+
+  private static Injector newInjector() {
+    return Injector.injector().add(JacksonProvider.class, JsonConsumer.class).build();
+  }
+
+  /** A typical component depending on the platform provided singletons. */
+  @Singleton
+  public static class JsonConsumer {
+    private final ObjectMapper objectMapper;
+    private final JavalinJackson javalinJackson;
+
+    @Inject
+    public JsonConsumer(ObjectMapper objectMapper, JavalinJackson javalinJackson) {
+      this.objectMapper = objectMapper;
+      this.javalinJackson = javalinJackson;
+    }
+  }
+}
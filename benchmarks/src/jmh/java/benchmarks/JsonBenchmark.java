@@ -0,0 +1,74 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import platform.dependencies.JacksonProvider;
+import platform.web.Page;
+import service.models.requests.UserRequest;
+import service.models.responses.UserResponse;
+
+/** Measures JSON (de)serialization of the service models with the platform {@link ObjectMapper}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+  private static final int PAGE_SIZE = 50;
+
+  private ObjectMapper objectMapper;
+  private UserResponse userResponse;
+  private Page<UserResponse> page;
+  private String userRequestJson;
+  private String userResponseJson;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    objectMapper = new JacksonProvider().objectMapper();
+    userResponse = new UserResponse(UuidCreator.getTimeOrderedEpoch(), "benchmark-user", 1L);
+    page =
+        new Page<>(
+            IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> new UserResponse(UuidCreator.getTimeOrderedEpoch(), "user-" + i, 1L))
+                .toList(),
+            null);
+    userRequestJson =
+        objectMapper.writeValueAsString(
+            new UserRequest("benchmark-user", "benchmark-password".toCharArray()));
+    userResponseJson = objectMapper.writeValueAsString(userResponse);
+  }
+
+  /** Mirrors Javalin, which serializes responses into a string. */
+  @Benchmark
+  public String serializeUserResponse() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(userResponse);
+  }
+
+  @Benchmark
+  public byte[] serializeUserResponseToBytes() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(userResponse);
+  }
+
+  @Benchmark
+  public String serializeUsersPage() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(page);
+  }
+
+  @Benchmark
+  public UserRequest deserializeUserRequest() throws JsonProcessingException {
+    return objectMapper.readValue(userRequestJson, UserRequest.class);
+  }
+
+  @Benchmark
+  public UserResponse deserializeUserResponse() throws JsonProcessingException {
+    return objectMapper.readValue(userResponseJson, UserResponse.class);
+  }
+}
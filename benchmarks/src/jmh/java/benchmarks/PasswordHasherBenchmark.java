@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import platform.security.PasswordHasher;
+
+/**
+ * Measures the CPU time of hashing a single password, which the amount of iterations has to keep
+ * within the latency budget of creating a user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHasherBenchmark {
+  private static final char[] PASSWORD = "benchmark-password".toCharArray();
+
+  @Param({"50000", "100000", "210000", "600000"})
+  private int iterations;
+
+  private PasswordHasher passwordHasher;
+  private String hash;
+
+  @Setup
+  public void setUp() {
+    passwordHasher = new PasswordHasher(iterations);
+    hash = passwordHasher.hash(PASSWORD);
+  }
+
+  @Benchmark
+  public String hash() {
+    return passwordHasher.hash(PASSWORD);
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return passwordHasher.matches(PASSWORD, hash);
+  }
+}
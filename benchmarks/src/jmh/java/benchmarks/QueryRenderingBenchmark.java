@@ -0,0 +1,84 @@
+package benchmarks;
+
+import static service.db.Tables.USERS;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures jOOQ rendering of the statements issued by {@link service.services.UsersService}, which
+ * is paid on every query in addition to the database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryRenderingBenchmark {
+  private static final int PAGE_FETCH_SIZE = 51;
+  private static final int BATCH_SIZE = 100;
+
+  private DSLContext dsl;
+  private UUID userId;
+  private List<UUID> userIds;
+
+  @Setup
+  public void setUp() {
+    dsl = DSL.using(SQLDialect.POSTGRES);
+    userId = UuidCreator.getTimeOrderedEpoch();
+    userIds =
+        IntStream.range(0, BATCH_SIZE).mapToObj(i -> UuidCreator.getTimeOrderedEpoch()).toList();
+  }
+
+  @Benchmark
+  public String selectPage() {
+    return dsl.selectFrom(USERS)
+        .where(USERS.ID.gt(userId))
+        .orderBy(USERS.ID)
+        .limit(PAGE_FETCH_SIZE)
+        .getSQL();
+  }
+
+  @Benchmark
+  public String selectOne() {
+    return dsl.selectFrom(USERS).where(USERS.ID.eq(userId)).getSQL();
+  }
+
+  @Benchmark
+  public String update() {
+    return dsl.update(USERS)
+        .set(USERS.NAME, "benchmark-user")
+        .set(USERS.PASSWORD, "benchmark-password")
+        .where(USERS.ID.eq(userId))
+        .getSQL();
+  }
+
+  @Benchmark
+  public String batchInsert() {
+    final var createdAt = OffsetDateTime.now();
+    var insert = dsl.insertInto(USERS, USERS.ID, USERS.CREATED_AT, USERS.NAME, USERS.PASSWORD);
+
+    for (final UUID id : userIds) {
+      insert = insert.values(id, createdAt, "benchmark-user", "benchmark-password");
+    }
+
+    return insert.getSQL();
+  }
+
+  @Benchmark
+  public String batchDelete() {
+    return dsl.deleteFrom(USERS).where(USERS.ID.in(userIds)).returning(USERS.ID).getSQL();
+  }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import platform.web.RateLimiter;
+
+/**
+ * Measures the per-request cost of {@link RateLimiter}, including the response headers it sets.
+ *
+ * <p>The limit is high enough to never reject, so that every invocation takes the admission path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+  private static final String API_KEY = "X-Api-Key";
+
+  private RateLimiter rateLimiter;
+  private Context context;
+
+  @Setup
+  public void setUp() {
+    rateLimiter =
+        new RateLimiter(
+            1_000_000_000,
+            Duration.ofSeconds(1),
+            Integer.MAX_VALUE,
+            100_000,
+            RateLimiter.KeyExtractor.of("header:" + API_KEY),
+            List.of("/api/health"));
+
+    context =
+        ContextMock.create()
+            .build(
+                "/api/users",
+                Body.ofString(""),
+                config -> config.getReq().addHeader(API_KEY, "benchmark-client"))
+            .execute(new Endpoint(HandlerType.GET, "/api/users", ctx -> {}));
+  }
+
+  @Benchmark
+  public Context check() {
+    rateLimiter.check(context);
+    return context;
+  }
+
+  /** Every thread competes for the same bucket, which is the worst case for compare-and-set. */
+  @Benchmark
+  @Threads(4)
+  public Context checkContended() {
+    rateLimiter.check(context);
+    return context;
+  }
+}
@@ -0,0 +1,215 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.f4b6a3.uuid.UuidCreator;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import platform.concurrency.CpuExecutor;
+import platform.contracts.ConfigurationReader;
+import platform.database.DatabaseNotifications;
+import platform.database.ReadOnlyDsl;
+import platform.database.WriteBatchers;
+import platform.dependencies.CacheProvider;
+import platform.dependencies.JacksonProvider;
+import platform.primitives.PageLimits;
+import platform.security.PasswordHasher;
+import platform.web.ConcurrencyLimiter;
+import platform.web.EntityTags;
+import platform.web.Page;
+import platform.web.PageRequest;
+import platform.web.RequestDeadlines;
+import platform.web.SingleFlight;
+import platform.web.StreamingJsonMapper;
+import service.endpoints.UsersEndpointGroup;
+import service.models.requests.UserRequest;
+import service.models.responses.UserResponse;
+import service.services.UsersService;
+
+/**
+ * Measures the request handling overhead of {@link UsersEndpointGroup}: parameter validation, body
+ * parsing and response serialization, without the database.
+ *
+ * <p>Requests are dispatched through a mocked Javalin context, so the numbers include the cost of
+ * creating the mocked request, which is constant across benchmarks and is still useful to compare
+ * runs with each other.
+ *
+ * <p>Responses are written either through intermediate strings by {@link JavalinJackson}, or
+ * straight into the response by {@link StreamingJsonMapper}, which the platform uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UsersEndpointBenchmark {
+  private static final String PLURAL_USERS_ENDPOINT = "/api/users";
+  private static final String SINGULAR_USER_ENDPOINT = "/api/users/{userId}";
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"javalin", "streaming"})
+  private String jsonMapper;
+
+  private DatabaseNotifications notifications;
+  private CpuExecutor cpuExecutor;
+  private ContextMock contextMock;
+  private String userPath;
+  private String userEtag;
+  private UserRequest userRequest;
+
+  private Endpoint getOneEndpoint;
+  private Endpoint getAllEndpoint;
+  private Endpoint createEndpoint;
+
+  @Setup
+  public void setUp() {
+    final ObjectMapper objectMapper = new JacksonProvider().objectMapper();
+    final var user = new UserResponse(UuidCreator.getTimeOrderedEpoch(), "benchmark-user", 1L);
+
+    // Closed upfront, so that the service does not try to connect to the database
+    notifications = new DatabaseNotifications("jdbc:postgresql://localhost/benchmarks", "", "");
+    notifications.close();
+    cpuExecutor = new CpuExecutor(1, 1, Duration.ofSeconds(1));
+
+    final var group =
+        new UsersEndpointGroup(
+            new StubUsersService(notifications, cpuExecutor, user),
+            new PageLimits(PAGE_SIZE, 500),
+            objectMapper,
+            new SingleFlight(Duration.ZERO, new SimpleMeterRegistry()),
+            new RequestDeadlines(Duration.ZERO, Duration.ZERO),
+            new ConcurrencyLimiter(1, 1, 1, Duration.ZERO, List.of()),
+            new SimpleMeterRegistry());
+
+    final var javalinJackson = new JavalinJackson(objectMapper, true);
+    final JsonMapper mapper =
+        switch (jsonMapper) {
+          case "javalin" -> javalinJackson;
+          case "streaming" -> new StreamingJsonMapper(objectMapper, javalinJackson);
+          default -> throw new IllegalArgumentException("Unknown JSON mapper " + jsonMapper);
+        };
+
+    // Every request creates its own Javalin instance, which would start a thread warning that it
+    // was never started, dwarfing the measured serialization with logging
+    contextMock =
+        ContextMock.create(
+            config ->
+                config.javalinConfig(
+                    javalin -> {
+                      javalin.jsonMapper(mapper);
+                      javalin.startupWatcherEnabled = false;
+                    }));
+    userPath = PLURAL_USERS_ENDPOINT + "/" + user.id();
+    userEtag = EntityTags.of(user.version());
+    userRequest = new UserRequest("benchmark-user", "benchmark-password".toCharArray());
+
+    getOneEndpoint =
+        new Endpoint(
+            HandlerType.GET,
+            SINGULAR_USER_ENDPOINT,
+            context -> group.getOne(context, context.pathParam("userId")));
+    getAllEndpoint = new Endpoint(HandlerType.GET, PLURAL_USERS_ENDPOINT, group::getAll);
+    createEndpoint = new Endpoint(HandlerType.POST, PLURAL_USERS_ENDPOINT, group::create);
+  }
+
+  @TearDown
+  public void tearDown() {
+    notifications.close();
+    cpuExecutor.close();
+  }
+
+  @Benchmark
+  public Context getOne() {
+    return contextMock.build(userPath).execute(getOneEndpoint);
+  }
+
+  @Benchmark
+  public Context getOneNotModified() {
+    return contextMock
+        .build(
+            userPath,
+            Body.Companion.ofString(""),
+            config -> config.getReq().addHeader(Header.IF_NONE_MATCH, userEtag))
+        .execute(getOneEndpoint);
+  }
+
+  @Benchmark
+  public Context getAll() {
+    return contextMock.build(PLURAL_USERS_ENDPOINT).execute(getAllEndpoint);
+  }
+
+  @Benchmark
+  public Context create() {
+    return contextMock
+        .build(PLURAL_USERS_ENDPOINT, Body.Companion.ofObject(userRequest))
+        .execute(createEndpoint);
+  }
+
+  /** Replaces the database with precomputed responses. */
+  private static final class StubUsersService extends UsersService {
+    private final UserResponse user;
+    private final List<UserResponse> users;
+
+    private StubUsersService(
+        DatabaseNotifications notifications, CpuExecutor cpuExecutor, UserResponse user) {
+      super(
+          DSL.using(SQLDialect.POSTGRES),
+          new ReadOnlyDsl(DSL.using(SQLDialect.POSTGRES), null),
+          new CacheProvider().caches(new EmptyConfigurationReader(), new SimpleMeterRegistry()),
+          notifications,
+          cpuExecutor,
+          new PasswordHasher(1),
+          new WriteBatchers(Duration.ZERO, 1, new SimpleMeterRegistry()));
+      this.user = user;
+      this.users =
+          IntStream.range(0, PAGE_SIZE + 1)
+              .mapToObj(i -> new UserResponse(UuidCreator.getTimeOrderedEpoch(), "user-" + i, 1L))
+              .toList();
+    }
+
+    @Override
+    public UserResponse create(UserRequest userRequest) {
+      return user;
+    }
+
+    @Override
+    public Optional<UserResponse> getOne(UUID userId) {
+      return Optional.of(user);
+    }
+
+    @Override
+    public Page<UserResponse> getAll(PageRequest pageRequest) {
+      return Page.of(users, pageRequest, UserResponse::id);
+    }
+  }
+
+  /** Makes every cache to use default settings. */
+  private static final class EmptyConfigurationReader implements ConfigurationReader {
+    @Override
+    public <T> T read(String path, Class<T> clazz) {
+      throw new NoSuchElementException("No configuration at " + path);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import com.github.f4b6a3.uuid.util.UuidValidator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Measures validation and parsing of user IDs taken from the path parameters. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UuidBenchmark {
+  private String validUuid;
+  private String invalidUuid;
+
+  @Setup
+  public void setUp() {
+    validUuid = UuidCreator.getTimeOrderedEpoch().toString();
+    invalidUuid = validUuid.replace('-', 'x');
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return UuidValidator.isValid(validUuid);
+  }
+
+  @Benchmark
+  public boolean validateInvalid() {
+    return UuidValidator.isValid(invalidUuid);
+  }
+
+  @Benchmark
+  public UUID parse() {
+    return UuidCreator.fromString(validUuid);
+  }
+
+  /** Mirrors the endpoint, which validates the path parameter before parsing it. */
+  @Benchmark
+  public UUID validateAndParse() {
+    return UuidValidator.isValid(validUuid) ? UuidCreator.fromString(validUuid) : null;
+  }
+
+  /** Baseline to compare with. */
+  @Benchmark
+  public UUID parseWithJdk() {
+    return UUID.fromString(validUuid);
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * JMH benchmarks of the platform and the service hot paths.
+ *
+ * <p>Every benchmark returns its result to let JMH consume it, which prevents dead code
+ * elimination.
+ */
+package benchmarks;
@@ -4,26 +4,68 @@ import io.github.suppierk.inject.Injector;
 import io.github.suppierk.utils.Memoized;
 import io.javalin.Javalin;
 import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import platform.dependencies.*;
 import platform.endpoints.HealthcheckEndpointGroup;
+import platform.endpoints.MetricsEndpointGroup;
+import platform.endpoints.QueryProfilerEndpointGroup;
+import platform.endpoints.ReadYourWritesEndpointGroup;
+import platform.endpoints.StartupEndpointGroup;
 import platform.primitives.ServerPort;
+import platform.wiring.WiredDependencies;
 
 /**
  * Provides functionality similar to SpringBootApplication, wrapping application internals and
  * preparing a majority of the functionality for use.
  */
 public final class ApplicationWrapper implements Closeable {
-  private final Injector injector;
+  /** System property which makes the application stop right after the startup. */
+  public static final String TRAINING_RUN_PROPERTY = "platform.training-run";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationWrapper.class);
+
+  private final Memoized<Injector> injector;
+  private final Map<Class<?>, Object> registrations;
+  private final StartupTimeline startupTimeline;
+  private final boolean concurrentStartup;
+  private final boolean eagerStartup;
+  private final boolean generatedWiring;
   private final Memoized<Javalin> javalin;
 
+  private volatile WiredDependencies wiredDependencies;
+
   /**
    * Default constructor.
    *
-   * @param injector with application dependencies.
+   * @param injector with application dependencies, which is only built if it is used, as building
+   *     it inspects the registered classes using reflection
+   * @param registrations of the types registered in the injector, to derive startup order from
+   * @param startupTimeline registered in the injector, to record the startup into
+   * @param concurrentStartup whether to initialize independent dependencies concurrently
+   * @param eagerStartup whether to initialize all dependencies, rather than the ones the web server
+   *     requires
+   * @param generatedWiring whether to create dependencies using the generated wiring, if possible
    */
-  private ApplicationWrapper(Injector injector) {
-    this.injector = injector;
-    this.javalin = Memoized.memoizedSupplier(() -> injector.get(Javalin.class));
+  private ApplicationWrapper(
+      Supplier<Injector> injector,
+      Map<Class<?>, Object> registrations,
+      StartupTimeline startupTimeline,
+      boolean concurrentStartup,
+      boolean eagerStartup,
+      boolean generatedWiring) {
+    this.injector = Memoized.memoizedSupplier(injector);
+    this.registrations = Map.copyOf(registrations);
+    this.startupTimeline = startupTimeline;
+    this.concurrentStartup = concurrentStartup;
+    this.eagerStartup = eagerStartup;
+    this.generatedWiring = generatedWiring;
+    this.javalin = Memoized.memoizedSupplier(this::initialize);
   }
 
   /**
@@ -47,15 +89,77 @@ public final class ApplicationWrapper implements Closeable {
     return javalin.get();
   }
 
-  /** Starts Javalin web server. */
+  /**
+   * @return timeline of the dependencies initialization, empty until {@link #javalin()} or {@link
+   *     #start()} is called
+   */
+  public StartupTimeline.Snapshot startupTimeline() {
+    return startupTimeline.snapshot();
+  }
+
+  /**
+   * Starts Javalin web server.
+   *
+   * <p>When started with {@value #TRAINING_RUN_PROPERTY} system property set to {@code true}, stops
+   * the web server and closes the dependencies right after the startup instead, leaving it to the
+   * launcher to end the process: this way JVM can record classes loaded during the startup into
+   * AppCDS archive once it exits.
+   */
   public void start() {
-    javalin().start(injector.get(ServerPort.class).get());
+    javalin().start(get(ServerPort.class).get());
+
+    if (Boolean.getBoolean(TRAINING_RUN_PROPERTY)) {
+      LOGGER.info("Training run is complete, stopping");
+      close();
+    }
   }
 
   /** {@inheritDoc} */
   @Override
   public void close() {
-    injector.close();
+    final var wired = wiredDependencies;
+
+    if (wired == null) {
+      injector.get().close();
+    } else {
+      wired.close();
+    }
+  }
+
+  /**
+   * Initializes the web server and the registered dependencies it requires, or all of them if the
+   * startup is eager, recording the startup timeline.
+   *
+   * <p>Dependencies are created by the generated wiring when every registered class has one, and by
+   * the reflection-based {@link Injector} otherwise.
+   *
+   * @return initialized web server
+   */
+  private Javalin initialize() {
+    final var wired =
+        generatedWiring ? WiredDependencies.of(registrations) : Optional.<WiredDependencies>empty();
+    final StartupPlan plan;
+    final Function<Class<?>, ?> resolver;
+
+    if (wired.isPresent()) {
+      wiredDependencies = wired.get();
+      plan = new StartupPlan(wired.get());
+      resolver = wired.get()::get;
+    } else {
+      plan = new StartupPlan(registrations);
+      resolver = injector.get()::get;
+    }
+
+    (eagerStartup ? plan : plan.requiredBy(Javalin.class))
+        .run(resolver, concurrentStartup, startupTimeline);
+
+    LOGGER.info("{}", startupTimeline);
+    return get(Javalin.class);
+  }
+
+  private <T> T get(Class<T> type) {
+    final var wired = wiredDependencies;
+    return wired == null ? injector.get().get(type) : wired.get(type);
   }
 
   /**
@@ -64,28 +168,101 @@ public final class ApplicationWrapper implements Closeable {
    */
   public static class Builder {
     private final Injector.Builder injectorBuilder;
+    private final Map<Class<?>, Object> registrations;
+    private final StartupTimeline startupTimeline;
+    private boolean concurrentStartup;
+    private boolean eagerStartup;
+    private boolean generatedWiring;
 
     /** Default constructor. */
     private Builder() {
-      this.injectorBuilder =
-          Injector.injector()
-              // Registering default platform dependencies
-              .add(ConfigurationReaderProvider.class)
-              .add(ConfigurationProvider.class)
-              .add(JooqProvider.class)
-              .add(JacksonProvider.class)
-              .add(HealthcheckEndpointGroup.class);
+      this.injectorBuilder = Injector.injector();
+      this.registrations = new LinkedHashMap<>();
+      this.startupTimeline = new StartupTimeline();
+      this.generatedWiring = true;
+
+      // Registering default platform dependencies
+      add(startupTimeline);
+      add(ConfigurationReaderProvider.class);
+      add(MetricsProvider.class);
+      add(ConfigurationProvider.class);
+      add(JooqProvider.class);
+      add(JacksonProvider.class);
+      add(CacheProvider.class);
+      add(HealthcheckEndpointGroup.class);
+      add(MetricsEndpointGroup.class);
+      add(QueryProfilerEndpointGroup.class);
+      add(ReadYourWritesEndpointGroup.class);
+      add(StartupEndpointGroup.class);
     }
 
     /** Delegates to {@link Injector.Builder#add(Object, Object...)} */
     public Builder add(Object object, Object... additionalObjects) {
       injectorBuilder.add(object, additionalObjects);
+
+      registrations.put(object.getClass(), object);
+      for (Object additionalObject : additionalObjects) {
+        registrations.put(additionalObject.getClass(), additionalObject);
+      }
+
       return this;
     }
 
     /** Delegates to {@link Injector.Builder#add(Class, Class[])} */
     public Builder add(Class<?> clazz, Class<?>... additionalClasses) {
       injectorBuilder.add(clazz, additionalClasses);
+
+      registrations.put(clazz, clazz);
+      for (Class<?> additionalClass : additionalClasses) {
+        registrations.put(additionalClass, additionalClass);
+      }
+
+      return this;
+    }
+
+    /**
+     * Initializes independent dependencies concurrently on virtual threads, while still respecting
+     * the dependency order, to reduce the startup time. Disabled by default.
+     *
+     * <p>Only enable this if dependencies added by you do not rely on being initialized on a
+     * specific thread or in the registration order.
+     *
+     * @param enabled whether to initialize dependencies concurrently
+     * @return this builder
+     */
+    public Builder concurrentStartup(boolean enabled) {
+      this.concurrentStartup = enabled;
+      return this;
+    }
+
+    /**
+     * Initializes every registered dependency on startup, rather than only the ones required by the
+     * web server, which are otherwise the only ones created until they are used. Disabled by
+     * default.
+     *
+     * <p>Useful to fail fast on broken dependencies which are only used later, or to move their
+     * initialization cost out of the first requests.
+     *
+     * @param enabled whether to initialize all dependencies on startup
+     * @return this builder
+     */
+    public Builder eagerStartup(boolean enabled) {
+      this.eagerStartup = enabled;
+      return this;
+    }
+
+    /**
+     * Creates dependencies by calling the code generated by {@code platform-processor} instead of
+     * using reflection. Enabled by default.
+     *
+     * <p>Dependencies are still created by the {@link Injector} when any of the registered classes
+     * has no generated wiring, for example, when it is private.
+     *
+     * @param enabled whether to use the generated wiring
+     * @return this builder
+     */
+    public Builder generatedWiring(boolean enabled) {
+      this.generatedWiring = enabled;
       return this;
     }
 
@@ -93,7 +270,15 @@ public final class ApplicationWrapper implements Closeable {
      * @return {@link ApplicationWrapper} instance
      */
     public ApplicationWrapper build() {
-      return new ApplicationWrapper(injectorBuilder.add(JavalinProvider.class).build());
+      add(EndpointGroupsProvider.class);
+      add(JavalinProvider.class);
+      return new ApplicationWrapper(
+          injectorBuilder::build,
+          registrations,
+          startupTimeline,
+          concurrentStartup,
+          eagerStartup,
+          generatedWiring);
     }
   }
 
@@ -103,6 +288,11 @@ public final class ApplicationWrapper implements Closeable {
    */
   public static class Modifier {
     private final Injector.CopyBuilder builder;
+    private final Map<Class<?>, Object> registrations;
+    private final StartupTimeline startupTimeline;
+    private final boolean concurrentStartup;
+    private final boolean eagerStartup;
+    private final boolean generatedWiring;
 
     /**
      * Default constructor.
@@ -110,18 +300,28 @@ public final class ApplicationWrapper implements Closeable {
      * @param wrapper to copy dependencies from
      */
     private Modifier(ApplicationWrapper wrapper) {
-      this.builder = wrapper.injector.copy();
+      this.builder = wrapper.injector.get().copy();
+      this.registrations = new LinkedHashMap<>(wrapper.registrations);
+      this.startupTimeline = new StartupTimeline();
+      this.concurrentStartup = wrapper.concurrentStartup;
+      this.eagerStartup = wrapper.eagerStartup;
+      this.generatedWiring = wrapper.generatedWiring;
+
+      // Copy must not record its startup into the timeline of the original
+      replace(wrapper.startupTimeline, startupTimeline);
     }
 
     /** Delegates to {@link Injector.CopyBuilder#replace(Class, Class)} */
     public <F, T extends F> Modifier replace(Class<F> from, Class<T> to) {
       builder.replace(from, to);
+      registrations.put(from, to);
       return this;
     }
 
     /** Delegates to {@link Injector.CopyBuilder#replace(Object, Object)} */
     public <F, T extends F> Modifier replace(F from, T to) {
       builder.replace(from, to);
+      registrations.put(from.getClass(), to);
       return this;
     }
 
@@ -129,7 +329,13 @@ public final class ApplicationWrapper implements Closeable {
      * @return {@link ApplicationWrapper} instance
      */
     public ApplicationWrapper build() {
-      return new ApplicationWrapper(builder.build());
+      return new ApplicationWrapper(
+          builder::build,
+          registrations,
+          startupTimeline,
+          concurrentStartup,
+          eagerStartup,
+          generatedWiring);
     }
   }
 }
@@ -0,0 +1,334 @@
+package platform;
+
+import io.github.suppierk.inject.Injector;
+import io.github.suppierk.inject.Provides;
+import io.javalin.apibuilder.EndpointGroup;
+import jakarta.inject.Inject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import platform.primitives.EndpointGroups;
+import platform.wiring.WiredDependencies;
+
+/**
+ * Initializes registered dependencies in the dependency order, recording the time each of them took
+ * into {@link StartupTimeline}.
+ *
+ * <p>The dependency graph is derived the same way the {@link Injector} does it: from the {@link
+ * Inject} constructors of the registered classes and from the parameters of their {@link Provides}
+ * methods. Types which are not registered are left to the {@link Injector} to resolve. When the
+ * dependencies are wired by the generated code, the graph is taken from it instead. {@link
+ * EndpointGroups} depend on every registered {@link EndpointGroup}, which they are collected from.
+ *
+ * <p>When initialized concurrently, each dependency is resolved on its own virtual thread as soon
+ * as all of its dependencies are ready, so that independent slow dependencies, like the database
+ * migration and the web server setup, overlap. Dependencies which take {@link Injector} itself can
+ * look up anything, so they are initialized last and sequentially.
+ */
+final class StartupPlan {
+  private final List<Node> nodes;
+  private final List<Node> tail;
+
+  /**
+   * Default constructor.
+   *
+   * @param registrations of the registered types to either the implementation class or the instance
+   * @throws IllegalStateException if dependencies form a cycle
+   */
+  StartupPlan(Map<Class<?>, Object> registrations) {
+    this(nodes(registrations));
+  }
+
+  /**
+   * Creates the plan from the generated wiring, without using reflection.
+   *
+   * @param dependencies to initialize
+   * @throws IllegalStateException if dependencies form a cycle
+   */
+  StartupPlan(WiredDependencies dependencies) {
+    this(
+        dependencies.bindings().stream()
+            .map(binding -> new Node(binding.type(), binding.provider(), binding.dependencies()))
+            .toList());
+  }
+
+  /**
+   * @param nodes of the dependency graph, in the registration order
+   * @throws IllegalStateException if dependencies form a cycle
+   */
+  private StartupPlan(List<Node> nodes) {
+    final Map<Class<?>, Node> byType = new LinkedHashMap<>();
+    nodes.forEach(node -> byType.putIfAbsent(node.type(), node));
+    byType.computeIfPresent(EndpointGroups.class, (type, node) -> collecting(node, byType));
+
+    final var ordered = sort(byType);
+    final Set<Class<?>> late = new HashSet<>();
+
+    // Topological order guarantees that dependencies are checked before their dependents
+    for (final Node node : ordered) {
+      if (node.dependencies().contains(Injector.class)
+          || node.dependencies().stream().anyMatch(late::contains)) {
+        late.add(node.type());
+      }
+    }
+
+    this.nodes = ordered.stream().filter(node -> !late.contains(node.type())).toList();
+    this.tail = ordered.stream().filter(node -> late.contains(node.type())).toList();
+  }
+
+  /**
+   * @param nodes to initialize
+   * @param tail to initialize last and sequentially
+   */
+  private StartupPlan(List<Node> nodes, List<Node> tail) {
+    this.nodes = nodes;
+    this.tail = tail;
+  }
+
+  /**
+   * Narrows the plan down to the dependencies required to initialize the given type, as they would
+   * be initialized lazily when the type is requested.
+   *
+   * @param type to initialize
+   * @return plan initializing the type and its registered dependencies only
+   */
+  StartupPlan requiredBy(Class<?> type) {
+    final Map<Class<?>, Node> byType = new HashMap<>();
+    nodes.forEach(node -> byType.put(node.type(), node));
+    tail.forEach(node -> byType.put(node.type(), node));
+
+    final Set<Class<?>> required = new HashSet<>();
+    final var pending = new ArrayDeque<Class<?>>(List.of(type));
+
+    while (!pending.isEmpty()) {
+      final var current = pending.poll();
+      final var node = byType.get(current);
+
+      if (node != null && required.add(current)) {
+        pending.addAll(node.dependencies());
+      }
+    }
+
+    return new StartupPlan(
+        nodes.stream().filter(node -> required.contains(node.type())).toList(),
+        tail.stream().filter(node -> required.contains(node.type())).toList());
+  }
+
+  /**
+   * Replaces the lookup of the endpoint groups with the dependencies on every one of them, so that
+   * the web server is initialized as soon as they are ready rather than last.
+   *
+   * @param node collecting {@link EndpointGroups}
+   * @param byType all nodes to find endpoint groups in
+   * @return node depending on every registered {@link EndpointGroup}
+   */
+  private static Node collecting(Node node, Map<Class<?>, Node> byType) {
+    final List<Class<?>> dependencies = new ArrayList<>();
+
+    node.dependencies().stream()
+        .filter(dependency -> dependency != Injector.class)
+        .forEach(dependencies::add);
+    byType.keySet().stream()
+        .filter(EndpointGroup.class::isAssignableFrom)
+        .forEach(dependencies::add);
+
+    return new Node(node.type(), node.provider(), dependencies);
+  }
+
+  /**
+   * Derives the dependency graph using reflection.
+   *
+   * @param registrations of the registered types to either the implementation class or the instance
+   * @return nodes of the dependency graph, in the registration order
+   */
+  private static List<Node> nodes(Map<Class<?>, Object> registrations) {
+    final Map<Class<?>, Node> byType = new LinkedHashMap<>();
+
+    for (final Map.Entry<Class<?>, Object> registration : registrations.entrySet()) {
+      final var type = registration.getKey();
+      final var implementation =
+          registration.getValue() instanceof Class<?> clazz
+              ? clazz
+              : registration.getValue().getClass();
+      final var constructorParameters =
+          registration.getValue() instanceof Class<?>
+              ? injectConstructorParameters(implementation)
+              : List.<Class<?>>of();
+
+      byType.putIfAbsent(type, new Node(type, null, constructorParameters));
+
+      for (final Method method : providerMethods(implementation)) {
+        final List<Class<?>> dependencies = new ArrayList<>();
+        dependencies.add(type);
+        dependencies.addAll(Arrays.asList(method.getParameterTypes()));
+        byType.putIfAbsent(
+            method.getReturnType(), new Node(method.getReturnType(), type, dependencies));
+      }
+    }
+
+    return List.copyOf(byType.values());
+  }
+
+  /**
+   * Initializes all dependencies.
+   *
+   * @param resolver to initialize a dependency of the given type with
+   * @param concurrently whether to initialize independent dependencies concurrently
+   * @param timeline to record the initialization into
+   * @throws RuntimeException thrown by the resolver, after all running initializations complete
+   */
+  void run(Function<Class<?>, ?> resolver, boolean concurrently, StartupTimeline timeline) {
+    timeline.begin(concurrently);
+    final var origin = System.nanoTime();
+
+    if (concurrently) {
+      runConcurrently(resolver, timeline, origin);
+    } else {
+      nodes.forEach(node -> resolve(node, resolver, timeline, origin));
+    }
+
+    tail.forEach(node -> resolve(node, resolver, timeline, origin));
+    timeline.end(System.nanoTime() - origin);
+  }
+
+  private void runConcurrently(
+      Function<Class<?>, ?> resolver, StartupTimeline timeline, long origin) {
+    final Map<Class<?>, CompletableFuture<Void>> futures = new HashMap<>();
+
+    try (final var executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("startup-", 0).factory())) {
+      for (final Node node : nodes) {
+        final var dependencies =
+            node.dependencies().stream()
+                .map(futures::get)
+                .filter(Objects::nonNull)
+                .toArray(CompletableFuture<?>[]::new);
+
+        // Failed dependency fails its dependents without initializing them
+        futures.put(
+            node.type(),
+            CompletableFuture.allOf(dependencies)
+                .thenRunAsync(() -> resolve(node, resolver, timeline, origin), executor));
+      }
+
+      CompletableFuture.allOf(futures.values().toArray(CompletableFuture<?>[]::new)).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+
+      throw new IllegalStateException("Failed to initialize dependencies", e.getCause());
+    }
+  }
+
+  private static void resolve(
+      Node node, Function<Class<?>, ?> resolver, StartupTimeline timeline, long origin) {
+    final var startedAt = System.nanoTime();
+    resolver.apply(node.type());
+    final var completedAt = System.nanoTime();
+
+    timeline.record(
+        new StartupTimeline.Step(
+            node.type().getSimpleName(),
+            node.provider() == null ? null : node.provider().getSimpleName(),
+            StartupTimeline.toMillis(startedAt - origin),
+            StartupTimeline.toMillis(completedAt - startedAt),
+            Thread.currentThread().getName()));
+  }
+
+  /**
+   * Orders nodes so that every node comes after its registered dependencies, keeping the
+   * registration order otherwise.
+   */
+  private static List<Node> sort(Map<Class<?>, Node> byType) {
+    final Map<Class<?>, Integer> pending = new HashMap<>();
+    final Map<Class<?>, List<Node>> dependents = new HashMap<>();
+
+    for (final Node node : byType.values()) {
+      final var dependencies =
+          node.dependencies().stream().filter(byType::containsKey).distinct().toList();
+      pending.put(node.type(), dependencies.size());
+      dependencies.forEach(
+          dependency -> dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(node));
+    }
+
+    final var ready = new ArrayDeque<Node>();
+    byType.values().stream().filter(node -> pending.get(node.type()) == 0).forEach(ready::add);
+
+    final List<Node> ordered = new ArrayList<>(byType.size());
+
+    while (!ready.isEmpty()) {
+      final var node = ready.poll();
+      ordered.add(node);
+
+      for (final Node dependent : dependents.getOrDefault(node.type(), List.of())) {
+        if (pending.merge(dependent.type(), -1, Integer::sum) == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+
+    if (ordered.size() != byType.size()) {
+      final Set<Class<?>> cyclic = new LinkedHashSet<>(byType.keySet());
+      ordered.forEach(node -> cyclic.remove(node.type()));
+      throw new IllegalStateException("Dependency cycle between %s".formatted(cyclic));
+    }
+
+    return ordered;
+  }
+
+  private static List<Class<?>> injectConstructorParameters(Class<?> clazz) {
+    for (final Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+      if (constructor.isAnnotationPresent(Inject.class)) {
+        return Arrays.asList(constructor.getParameterTypes());
+      }
+    }
+
+    return List.of();
+  }
+
+  /**
+   * @return {@link Provides} methods declared by the class or its superclasses, including ones
+   *     overridden without repeating the annotation
+   */
+  private static List<Method> providerMethods(Class<?> clazz) {
+    final Map<Class<?>, Method> methods = new LinkedHashMap<>();
+
+    for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+      for (final Method method : current.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Provides.class)) {
+          methods.putIfAbsent(method.getReturnType(), method);
+        }
+      }
+    }
+
+    return List.copyOf(methods.values());
+  }
+
+  /**
+   * Dependency to initialize.
+   *
+   * @param type to resolve
+   * @param provider declaring the {@link Provides} method, {@code null} for the registered classes
+   * @param dependencies types required to initialize this one
+   */
+  private record Node(Class<?> type, Class<?> provider, List<Class<?>> dependencies) {}
+}
@@ -0,0 +1,113 @@
+package platform;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each dependency took to initialize during the application startup, to find out
+ * where the boot time goes.
+ *
+ * <p>Durations are exclusive: dependencies are initialized in the dependency order, so the time
+ * spent on the dependencies of a dependency is recorded separately.
+ */
+public final class StartupTimeline {
+  private final List<Step> steps;
+
+  private volatile boolean concurrent;
+  private volatile double totalMillis;
+
+  /** Default constructor. */
+  public StartupTimeline() {
+    this.steps = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * @return snapshot of the timeline, empty if the application was not started yet
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(
+        concurrent,
+        totalMillis,
+        steps.stream().sorted(Comparator.comparingDouble(Step::startMillis)).toList());
+  }
+
+  /**
+   * Discards recorded steps before the new startup.
+   *
+   * @param concurrent whether dependencies are initialized concurrently
+   */
+  void begin(boolean concurrent) {
+    this.steps.clear();
+    this.concurrent = concurrent;
+    this.totalMillis = 0.0;
+  }
+
+  /**
+   * Records initialization of a single dependency. Safe to call concurrently.
+   *
+   * @param step to record
+   */
+  void record(Step step) {
+    steps.add(step);
+  }
+
+  /**
+   * @param totalNanos spent to initialize all dependencies
+   */
+  void end(long totalNanos) {
+    this.totalMillis = toMillis(totalNanos);
+  }
+
+  /**
+   * @return human-readable table of the steps
+   */
+  @Override
+  public String toString() {
+    final var snapshot = snapshot();
+    final var table = new StringBuilder();
+    table.append(
+        "Dependencies initialized %s in %.1f ms%n"
+            .formatted(
+                snapshot.concurrent() ? "concurrently" : "sequentially", snapshot.totalMillis()));
+
+    for (final Step step : snapshot.steps()) {
+      table.append(
+          "%10.1f ms %10.1f ms  %s%s [%s]%n"
+              .formatted(
+                  step.startMillis(),
+                  step.durationMillis(),
+                  step.name(),
+                  step.provider() == null ? "" : " from " + step.provider(),
+                  step.thread()));
+    }
+
+    return table.toString();
+  }
+
+  static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * Startup timeline snapshot.
+   *
+   * @param concurrent whether dependencies were initialized concurrently
+   * @param totalMillis spent to initialize all dependencies
+   * @param steps ordered by their start
+   */
+  public record Snapshot(boolean concurrent, double totalMillis, List<Step> steps) {}
+
+  /**
+   * Initialization of a single dependency.
+   *
+   * @param name of the dependency type
+   * @param provider which declares the dependency, {@code null} for the registered classes
+   * @param startMillis since the startup began
+   * @param durationMillis spent to initialize the dependency
+   * @param thread which initialized the dependency
+   */
+  public record Step(
+      String name, String provider, double startMillis, double durationMillis, String thread) {}
+}
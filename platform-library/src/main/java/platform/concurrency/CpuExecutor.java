@@ -0,0 +1,253 @@
+package platform.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs CPU-heavy tasks, like password hashing, on a bounded pool of platform threads.
+ *
+ * <p>Request handlers run on virtual threads, which share a carrier pool sized to the amount of
+ * cores. A virtual thread busy with computations is never unmounted, so a few of them can occupy
+ * every carrier and stall all other requests, even those which only wait for the database. Instead,
+ * handlers pass such work to this executor and park until the result is ready, releasing their
+ * carrier for other requests.
+ *
+ * <p>Only a bounded amount of tasks can wait for a thread. Everything beyond that fails fast with
+ * {@link ExecutorOverloadedException}, as queueing more work than the CPU can handle would only
+ * increase latency of every request. Tasks are bound by the {@link Deadline} of their caller, so
+ * that tasks which waited for a thread past it are not started at all.
+ */
+public final class CpuExecutor implements MeterBinder, AutoCloseable {
+  private static final String THREAD_NAME_PREFIX = "cpu-";
+
+  private final int threads;
+  private final Duration retryAfter;
+
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder started;
+  private final LongAdder rejected;
+  private final LongAdder waitNanos;
+  private final LongAccumulator maxObservedWaitNanos;
+
+  /**
+   * Default constructor.
+   *
+   * @param threads to run tasks on, typically the amount of cores
+   * @param maxQueue amount of tasks allowed to wait for a thread
+   * @param retryAfter to suggest to the rejected clients
+   * @throws IllegalArgumentException if threads or queue size are not positive, or duration is
+   *     negative
+   */
+  public CpuExecutor(int threads, int maxQueue, Duration retryAfter) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Threads %s must be positive".formatted(threads));
+    }
+
+    if (maxQueue <= 0) {
+      throw new IllegalArgumentException("Queue size %s must be positive".formatted(maxQueue));
+    }
+
+    if (retryAfter.isNegative()) {
+      throw new IllegalArgumentException(
+          "Retry after %s must not be negative".formatted(retryAfter));
+    }
+
+    this.threads = threads;
+    this.retryAfter = retryAfter;
+
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueue),
+            Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    this.started = new LongAdder();
+    this.rejected = new LongAdder();
+    this.waitNanos = new LongAdder();
+    this.maxObservedWaitNanos = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * Runs the task on the executor and waits for its result.
+   *
+   * <p>If the waiting thread is interrupted, the task is cancelled.
+   *
+   * @param task to run
+   * @return the result of the task
+   * @param <T> type of the result
+   * @throws ExecutorOverloadedException if too many tasks are waiting for a thread
+   * @throws CancellationException if the waiting thread was interrupted
+   * @throws DeadlineExceededException if the deadline of the caller passed before the task started
+   * @throws CompletionException if the task threw a checked exception, while unchecked exceptions
+   *     are rethrown as is
+   */
+  public <T> T compute(Supplier<T> task) {
+    return computeAll(List.of(task)).getFirst();
+  }
+
+  /**
+   * Runs all tasks on the executor at once, so that they use every thread, and waits for their
+   * results.
+   *
+   * <p>If any task fails or the waiting thread is interrupted, the remaining tasks are cancelled.
+   *
+   * @param tasks to run
+   * @return the results of the tasks in the same order
+   * @param <T> type of the results
+   * @throws ExecutorOverloadedException if too many tasks are waiting for a thread
+   * @throws CancellationException if the waiting thread was interrupted
+   * @throws DeadlineExceededException if the deadline of the caller passed before a task started
+   * @throws CompletionException if a task threw a checked exception, while unchecked exceptions are
+   *     rethrown as is
+   */
+  public <T> List<T> computeAll(List<? extends Supplier<T>> tasks) {
+    final var deadline = Deadline.current().orElse(null);
+    final List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+    try {
+      for (final Supplier<T> task : tasks) {
+        futures.add(submit(task, deadline));
+      }
+
+      final List<T> results = new ArrayList<>(futures.size());
+      for (final Future<T> future : futures) {
+        results.add(future.get());
+      }
+
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for a CPU task");
+    } catch (ExecutionException e) {
+      switch (e.getCause()) {
+        case RuntimeException runtimeException -> throw runtimeException;
+        case Error error -> throw error;
+        default -> throw new CompletionException(e.getCause());
+      }
+    } finally {
+      // No-op for completed tasks
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * @return snapshot of the executor state
+   */
+  public Statistics statistics() {
+    return new Statistics(
+        threads,
+        executor.getActiveCount(),
+        executor.getQueue().size(),
+        started.sum(),
+        rejected.sum(),
+        waitNanos.sum(),
+        maxObservedWaitNanos.get());
+  }
+
+  /**
+   * Exposes the executor state as metrics.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("cpu.executor.threads", this, cpuExecutor -> cpuExecutor.threads)
+        .description("Amount of threads running CPU-heavy tasks")
+        .register(registry);
+    Gauge.builder("cpu.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Amount of threads currently running a task")
+        .register(registry);
+    Gauge.builder("cpu.executor.queue.depth", executor, pool -> pool.getQueue().size())
+        .description("Amount of tasks waiting for a thread")
+        .register(registry);
+    FunctionCounter.builder("cpu.executor.rejected", rejected, LongAdder::sum)
+        .description("Amount of tasks rejected due to the CPU overload")
+        .register(registry);
+    FunctionTimer.builder(
+            "cpu.executor.wait",
+            this,
+            cpuExecutor -> cpuExecutor.started.sum(),
+            cpuExecutor -> cpuExecutor.waitNanos.sum(),
+            TimeUnit.NANOSECONDS)
+        .description("Time spent by tasks waiting for a thread")
+        .register(registry);
+    Gauge.builder(
+            "cpu.executor.wait.max",
+            maxObservedWaitNanos,
+            max -> max.get() / (double) TimeUnit.SECONDS.toNanos(1))
+        .description("Maximum time spent by a task waiting for a thread")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /** This will allow {@link io.github.suppierk.inject.Injector} to stop the threads */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private <T> Future<T> submit(Supplier<T> task, Deadline deadline) {
+    final long submittedAt = System.nanoTime();
+
+    try {
+      return executor.submit(
+          () -> {
+            if (deadline != null) {
+              deadline.check("CPU task");
+            }
+
+            final long waited = System.nanoTime() - submittedAt;
+            waitNanos.add(waited);
+            maxObservedWaitNanos.accumulate(waited);
+            started.increment();
+
+            return task.get();
+          });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new ExecutorOverloadedException("Too many tasks are waiting for a CPU", retryAfter);
+    }
+  }
+
+  /**
+   * Executor state snapshot.
+   *
+   * @param threads total amount of threads running tasks
+   * @param active amount of threads currently running a task
+   * @param queueDepth amount of tasks currently waiting for a thread
+   * @param started total amount of tasks which got a thread
+   * @param rejected total amount of rejected tasks
+   * @param waitNanos total time spent by tasks waiting in the queue
+   * @param maxWaitNanos maximum time spent by a single task waiting in the queue
+   */
+  public record Statistics(
+      int threads,
+      int active,
+      int queueDepth,
+      long started,
+      long rejected,
+      long waitNanos,
+      long maxWaitNanos) {}
+}
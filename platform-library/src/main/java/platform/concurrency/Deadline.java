@@ -0,0 +1,118 @@
+package platform.concurrency;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Moment after which nobody waits for the result of the current work anymore, like a request the
+ * client gave up on.
+ *
+ * <p>Deadline is bound to the current thread, so that services and database components can find it
+ * without passing it through every method. Every request is handled by its own virtual thread, so
+ * the request deadline applies to everything the handler does on that thread, while work passed to
+ * other threads is not bounded by it.
+ */
+public final class Deadline {
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final long expiresAtNanos;
+
+  private Deadline(long expiresAtNanos) {
+    this.expiresAtNanos = expiresAtNanos;
+  }
+
+  /**
+   * @param timeout from now
+   * @return deadline expiring after the timeout
+   */
+  public static Deadline after(Duration timeout) {
+    return new Deadline(System.nanoTime() + timeout.toNanos());
+  }
+
+  /**
+   * @return deadline bound to the current thread, if there is one
+   */
+  public static Optional<Deadline> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  /**
+   * Binds the deadline to the current thread until {@link #unbind()}, for the cases where the
+   * bounded work cannot be wrapped, like a pair of {@code before} and {@code after} handlers.
+   *
+   * @param deadline to bind, {@code null} to remove the current one
+   */
+  public static void bind(Deadline deadline) {
+    if (deadline == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(deadline);
+    }
+  }
+
+  /** Removes the deadline bound to the current thread. */
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Runs the task with the given deadline bound to the current thread, restoring the previous one
+   * afterward.
+   *
+   * @param deadline to bind, {@code null} to run the task without any deadline
+   * @param task to run
+   * @return the result of the task
+   * @param <T> type of the result
+   */
+  public static <T> T call(Deadline deadline, Supplier<T> task) {
+    final var previous = CURRENT.get();
+    bind(deadline);
+
+    try {
+      return task.get();
+    } finally {
+      bind(previous);
+    }
+  }
+
+  /**
+   * Runs the task with the given deadline bound to the current thread, restoring the previous one
+   * afterward.
+   *
+   * @param deadline to bind, {@code null} to run the task without any deadline
+   * @param task to run
+   */
+  public static void run(Deadline deadline, Runnable task) {
+    call(
+        deadline,
+        () -> {
+          task.run();
+          return null;
+        });
+  }
+
+  /**
+   * @return time left until the deadline, {@link Duration#ZERO} if it has passed
+   */
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0L, expiresAtNanos - System.nanoTime()));
+  }
+
+  /**
+   * @return {@code true} if the deadline has passed
+   */
+  public boolean isExpired() {
+    return expiresAtNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @param work which is about to start, for the error message
+   * @throws DeadlineExceededException if the deadline has passed
+   */
+  public void check(String work) {
+    if (isExpired()) {
+      throw new DeadlineExceededException("Deadline passed before " + work);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package platform.concurrency;
+
+/**
+ * Thrown when the work is about to start or still runs after its {@link Deadline}, meaning that
+ * nobody waits for its result anymore.
+ */
+public final class DeadlineExceededException extends RuntimeException {
+  /**
+   * Default constructor.
+   *
+   * @param message with the details
+   */
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  /**
+   * Constructor to replace the failure caused by the deadline.
+   *
+   * @param message with the details
+   * @param cause of the failure
+   */
+  public DeadlineExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
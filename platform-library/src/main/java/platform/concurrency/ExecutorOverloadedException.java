@@ -0,0 +1,30 @@
+package platform.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when the task cannot be queued within the {@link CpuExecutor} limits, meaning that the
+ * application is out of CPU and the request should be retried later.
+ */
+public final class ExecutorOverloadedException extends RejectedExecutionException {
+  private final transient Duration retryAfter;
+
+  /**
+   * Default constructor.
+   *
+   * @param message with the details
+   * @param retryAfter to suggest the client to wait before retrying
+   */
+  public ExecutorOverloadedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return how long the client should wait before retrying
+   */
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * This package defines components to bound the work of the request handling threads and to run it
+ * outside of them.
+ */
+package platform.concurrency;
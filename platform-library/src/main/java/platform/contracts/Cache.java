@@ -0,0 +1,48 @@
+package platform.contracts;
+
+import java.util.function.Function;
+
+/**
+ * Defines common expectation for the in-process cache.
+ *
+ * <p>The exact eviction policy is irrelevant, but implementations are expected to be bounded.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public interface Cache<K, V> {
+  /**
+   * Returns cached value or loads it, making sure that concurrent callers for the same key wait for
+   * a single load.
+   *
+   * @param key to get the value for
+   * @param loader to compute the value if it is absent, returning {@code null} prevents caching
+   * @return cached or loaded value, {@code null} if the loader returned {@code null}
+   */
+  V get(K key, Function<? super K, ? extends V> loader);
+
+  /**
+   * Discards cached value for the key.
+   *
+   * @param key to discard the value for
+   */
+  void invalidate(K key);
+
+  /** Discards all cached values. */
+  void invalidateAll();
+
+  /**
+   * @return snapshot of this cache statistics
+   */
+  Statistics statistics();
+
+  /**
+   * Cache statistics snapshot.
+   *
+   * @param size approximate amount of cached values
+   * @param hits amount of times the value was found in the cache
+   * @param misses amount of times the value had to be loaded
+   * @param evictions amount of values evicted due to size or expiration
+   */
+  record Statistics(long size, long hits, long misses, long evictions) {}
+}
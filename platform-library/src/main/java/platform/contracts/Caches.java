@@ -0,0 +1,26 @@
+package platform.contracts;
+
+import java.util.Map;
+
+/**
+ * Defines common expectation for the registry of named {@link Cache}s.
+ *
+ * <p>Each cache is configured separately by its name, which allows tuning caches for different
+ * entities without code changes.
+ */
+public interface Caches {
+  /**
+   * Get existing or create new cache.
+   *
+   * @param name of the cache to get
+   * @param <K> type of the keys
+   * @param <V> type of the values
+   * @return the cache with the given name
+   */
+  <K, V> Cache<K, V> cache(String name);
+
+  /**
+   * @return statistics snapshots of all created caches by their names
+   */
+  Map<String, Cache.Statistics> statistics();
+}
@@ -1,5 +1,7 @@
 package platform.contracts;
 
+import java.util.NoSuchElementException;
+
 /**
  * Defines common expectation for the functionality which reads properties from configuration.
  *
@@ -13,6 +15,30 @@ public interface ConfigurationReader {
    * @param clazz class to get the class for
    * @param <T> type of class to get
    * @return the configuration as a specified type
+   * @throws NoSuchElementException if the path is not defined
+   * @throws IllegalStateException if the path cannot be read as a specified type
    */
   <T> T read(String path, Class<T> clazz);
+
+  /**
+   * Get a config for a path and a given class, falling back to the default value if the path is not
+   * defined.
+   *
+   * <p>Useful for optional settings, which services do not have to define explicitly. Values which
+   * are defined, but cannot be read as a specified type, are still reported as errors.
+   *
+   * @param path path to get the config for
+   * @param clazz class to get the class for
+   * @param defaultValue to return if the path is not defined
+   * @param <T> type of class to get
+   * @return the configuration as a specified type or the default value
+   * @throws IllegalStateException if the path cannot be read as a specified type
+   */
+  default <T> T read(String path, Class<T> clazz, T defaultValue) {
+    try {
+      return read(path, clazz);
+    } catch (NoSuchElementException e) {
+      return defaultValue;
+    }
+  }
 }
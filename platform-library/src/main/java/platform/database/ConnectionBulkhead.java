@@ -0,0 +1,231 @@
+package platform.database;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * Limits the amount of concurrent requests waiting for a database connection.
+ *
+ * <p>Request handlers run on virtual threads, so there is no thread pool limiting concurrency
+ * anymore: under a spike every request would block in the connection pool for its whole connection
+ * timeout, piling up memory and latency. Instead, requests are admitted in the arrival order by a
+ * fair semaphore sized to the connection pool, while only a bounded amount of requests can wait for
+ * a short time. Everything beyond that fails fast with {@link DatabaseOverloadedException}.
+ */
+public final class ConnectionBulkhead implements MeterBinder {
+  private final int permits;
+  private final int maxQueue;
+  private final long maxWaitNanos;
+  private final Duration retryAfter;
+
+  private final Semaphore semaphore;
+  private final AtomicInteger queued;
+
+  private final LongAdder acquired;
+  private final LongAdder rejected;
+  private final LongAdder waitNanos;
+  private final LongAccumulator maxObservedWaitNanos;
+
+  /**
+   * Default constructor.
+   *
+   * @param permits amount of concurrently used connections, typically the connection pool size
+   * @param maxQueue amount of requests allowed to wait for a connection
+   * @param maxWait for a connection before rejecting the request
+   * @param retryAfter to suggest to the rejected clients
+   * @throws IllegalArgumentException if permits are not positive, queue size or durations are
+   *     negative
+   */
+  public ConnectionBulkhead(int permits, int maxQueue, Duration maxWait, Duration retryAfter) {
+    if (permits <= 0) {
+      throw new IllegalArgumentException("Permits %s must be positive".formatted(permits));
+    }
+
+    if (maxQueue < 0) {
+      throw new IllegalArgumentException("Queue size %s must not be negative".formatted(maxQueue));
+    }
+
+    if (maxWait.isNegative() || retryAfter.isNegative()) {
+      throw new IllegalArgumentException(
+          "Wait %s and retry after %s must not be negative".formatted(maxWait, retryAfter));
+    }
+
+    this.permits = permits;
+    this.maxQueue = maxQueue;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.retryAfter = retryAfter;
+
+    this.semaphore = new Semaphore(permits, true);
+    this.queued = new AtomicInteger();
+
+    this.acquired = new LongAdder();
+    this.rejected = new LongAdder();
+    this.waitNanos = new LongAdder();
+    this.maxObservedWaitNanos = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * Guards the connection provider with this bulkhead: a permit is held from the connection
+   * acquisition until its release.
+   *
+   * @param delegate to obtain connections from
+   * @return guarded {@link ConnectionProvider}
+   */
+  public ConnectionProvider wrap(ConnectionProvider delegate) {
+    return new ConnectionProvider() {
+      @Override
+      public Connection acquire() {
+        enter();
+
+        try {
+          return delegate.acquire();
+        } catch (RuntimeException e) {
+          semaphore.release();
+          throw e;
+        }
+      }
+
+      @Override
+      public void release(Connection connection) {
+        try {
+          delegate.release(connection);
+        } finally {
+          semaphore.release();
+        }
+      }
+    };
+  }
+
+  /**
+   * @return snapshot of the bulkhead state
+   */
+  public Statistics statistics() {
+    return new Statistics(
+        permits,
+        permits - semaphore.availablePermits(),
+        queued.get(),
+        acquired.sum(),
+        rejected.sum(),
+        waitNanos.sum(),
+        maxObservedWaitNanos.get());
+  }
+
+  /**
+   * Exposes the bulkhead state as metrics.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("db.bulkhead.permits", this, bulkhead -> bulkhead.permits)
+        .description("Amount of connections which can be used at once")
+        .register(registry);
+    Gauge.builder(
+            "db.bulkhead.in.use",
+            this,
+            bulkhead -> bulkhead.permits - bulkhead.semaphore.availablePermits())
+        .description("Amount of currently used connections")
+        .register(registry);
+    Gauge.builder("db.bulkhead.queue.depth", queued, AtomicInteger::get)
+        .description("Amount of requests waiting for a connection")
+        .register(registry);
+    FunctionCounter.builder("db.bulkhead.rejected", rejected, LongAdder::sum)
+        .description("Amount of requests rejected due to the database overload")
+        .register(registry);
+    FunctionTimer.builder(
+            "db.bulkhead.wait",
+            this,
+            bulkhead -> bulkhead.acquired.sum() + bulkhead.rejected.sum(),
+            bulkhead -> bulkhead.waitNanos.sum(),
+            TimeUnit.NANOSECONDS)
+        .description("Time spent by requests waiting for a connection")
+        .register(registry);
+    Gauge.builder(
+            "db.bulkhead.wait.max",
+            maxObservedWaitNanos,
+            max -> max.get() / (double) TimeUnit.SECONDS.toNanos(1))
+        .description("Maximum time spent by a request waiting for a connection")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /**
+   * Waits for the permit within the configured limits.
+   *
+   * @throws DatabaseOverloadedException if the permit cannot be obtained
+   */
+  private void enter() {
+    // Zero timeout honors fairness, unlike untimed tryAcquire which barges ahead of waiting threads
+    if (tryAcquire(0L)) {
+      acquired.increment();
+      return;
+    }
+
+    if (queued.incrementAndGet() > maxQueue) {
+      queued.decrementAndGet();
+      throw reject("Too many requests are waiting for a database connection");
+    }
+
+    final long startedAt = System.nanoTime();
+
+    try {
+      if (!tryAcquire(maxWaitNanos)) {
+        throw reject("Timed out waiting for a database connection");
+      }
+
+      acquired.increment();
+    } finally {
+      queued.decrementAndGet();
+
+      final long waited = System.nanoTime() - startedAt;
+      waitNanos.add(waited);
+      maxObservedWaitNanos.accumulate(waited);
+    }
+  }
+
+  private boolean tryAcquire(long timeoutNanos) {
+    try {
+      return semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataAccessException("Interrupted while waiting for a database connection", e);
+    }
+  }
+
+  private DatabaseOverloadedException reject(String message) {
+    rejected.increment();
+    return new DatabaseOverloadedException(message, retryAfter);
+  }
+
+  /**
+   * Bulkhead state snapshot.
+   *
+   * @param permits total amount of connections which can be used at once
+   * @param inUse amount of currently used connections
+   * @param queueDepth amount of requests currently waiting for a connection
+   * @param acquired total amount of admitted requests
+   * @param rejected total amount of rejected requests
+   * @param waitNanos total time spent by requests waiting in the queue
+   * @param maxWaitNanos maximum time spent by a single request waiting in the queue
+   */
+  public record Statistics(
+      int permits,
+      int inUse,
+      int queueDepth,
+      long acquired,
+      long rejected,
+      long waitNanos,
+      long maxWaitNanos) {}
+}
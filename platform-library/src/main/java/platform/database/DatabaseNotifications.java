@@ -0,0 +1,461 @@
+package platform.database;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers PostgreSQL {@code NOTIFY} messages to the registered listeners across all application
+ * instances.
+ *
+ * <p>Holds a single dedicated connection outside the connection pool, because {@code LISTEN} is
+ * bound to the database session. The connection is opened lazily on the first {@link
+ * #listen(String, Listener)} call and is re-established if it is lost.
+ *
+ * <p>Notifications are not persisted by PostgreSQL, hence every (re)connect makes listeners discard
+ * everything they could have missed via {@link Listener#onReconnect()}.
+ *
+ * @see <a href="https://www.postgresql.org/docs/current/sql-notify.html">PostgreSQL NOTIFY</a>
+ */
+public final class DatabaseNotifications implements Closeable, MeterBinder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseNotifications.class);
+
+  private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+  private static final String APPLICATION_NAME = "platform-notifications";
+
+  // PostgreSQL limits payloads to 8000 bytes by default, leaving room for the header
+  private static final int MAX_PAYLOAD_BYTES = 7_900;
+  private static final char HEADER_SEPARATOR = '|';
+  private static final char PAYLOAD_SEPARATOR = '\n';
+
+  private static final int POLL_TIMEOUT_MILLIS = 500;
+  private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+  private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+  private final String jdbcUrl;
+  private final Properties connectionProperties;
+
+  private final Map<String, List<Listener>> listeners;
+  private final Set<String> listenedChannels;
+  private final AtomicBoolean started;
+  private final AtomicBoolean closed;
+
+  private final LongAdder received;
+  private final LongAdder reconnects;
+  private final AtomicLong lastLagMillis;
+  private final LongAccumulator maxLagMillis;
+
+  private volatile boolean connected;
+  private volatile Thread worker;
+
+  /**
+   * Default constructor.
+   *
+   * @param jdbcUrl of the PostgreSQL database
+   * @param username to connect with
+   * @param password to connect with
+   */
+  public DatabaseNotifications(String jdbcUrl, String username, String password) {
+    this.jdbcUrl = jdbcUrl;
+    this.connectionProperties = new Properties();
+    this.connectionProperties.setProperty("user", username);
+    this.connectionProperties.setProperty("password", password);
+    this.connectionProperties.setProperty("ApplicationName", APPLICATION_NAME);
+    this.connectionProperties.setProperty("tcpKeepAlive", "true");
+
+    this.listeners = new ConcurrentHashMap<>();
+    this.listenedChannels = ConcurrentHashMap.newKeySet();
+    this.started = new AtomicBoolean(false);
+    this.closed = new AtomicBoolean(false);
+
+    this.received = new LongAdder();
+    this.reconnects = new LongAdder();
+    this.lastLagMillis = new AtomicLong();
+    this.maxLagMillis = new LongAccumulator(Math::max, 0L);
+  }
+
+  /**
+   * Registers the listener and starts listening to the channel.
+   *
+   * @param channel to listen to, must be a lowercase PostgreSQL identifier
+   * @param listener to deliver payloads to
+   * @throws IllegalArgumentException if channel name is not a valid identifier
+   */
+  public void listen(String channel, Listener listener) {
+    validateChannel(channel);
+    listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+
+    if (started.compareAndSet(false, true)) {
+      worker = Thread.ofVirtual().name(APPLICATION_NAME).start(this::run);
+    }
+  }
+
+  /**
+   * Sends payloads to the channel as a part of the current transaction.
+   *
+   * <p>PostgreSQL delivers notifications only after the transaction commits and drops them if it
+   * rolls back, so listeners never observe uncommitted changes.
+   *
+   * <p>Payloads are packed into as few notifications as possible, all of which are sent in a single
+   * statement.
+   *
+   * @param dsl bound to the current transaction
+   * @param channel to send payloads to
+   * @param payloads to send, must not contain line breaks
+   * @throws IllegalArgumentException if channel name is not a valid identifier
+   */
+  public void notify(DSLContext dsl, String channel, Collection<String> payloads) {
+    validateChannel(channel);
+
+    if (payloads.isEmpty()) {
+      return;
+    }
+
+    final var notifications =
+        pack(payloads).stream()
+            .map(message -> DSL.function("pg_notify", Object.class, DSL.val(channel), message))
+            .toList();
+
+    dsl.select(notifications).execute();
+  }
+
+  /**
+   * Builds a notification to embed into another statement, for example to select it next to the
+   * rows returned by {@code UPDATE ... RETURNING}, which sends it without an extra round trip.
+   *
+   * <p>Like {@link #notify(DSLContext, String, Collection)}, the notification is only delivered
+   * once the transaction of the statement commits, and carries the same header with the send
+   * timestamp, so that its delivery lag is measured as well.
+   *
+   * @param channel to send the payload to
+   * @param payload to send, one notification per row, must not contain line breaks
+   * @return field sending the notification when selected
+   * @throws IllegalArgumentException if channel name is not a valid identifier
+   */
+  public Field<Object> notification(String channel, Field<String> payload) {
+    validateChannel(channel);
+    return DSL.function(
+        "pg_notify", Object.class, DSL.val(channel), DSL.concat(DSL.val(header()), payload));
+  }
+
+  /**
+   * @return snapshot of the delivery statistics
+   */
+  public Statistics statistics() {
+    return new Statistics(
+        connected, received.sum(), reconnects.sum(), lastLagMillis.get(), maxLagMillis.get());
+  }
+
+  /**
+   * Exposes the delivery statistics as metrics.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("db.notifications.connected", this, self -> self.connected ? 1 : 0)
+        .description("Whether the listening connection is established")
+        .register(registry);
+    FunctionCounter.builder("db.notifications.received", received, LongAdder::sum)
+        .description("Amount of received notification payloads")
+        .register(registry);
+    FunctionCounter.builder("db.notifications.reconnects", reconnects, LongAdder::sum)
+        .description("Amount of times the listening connection was re-established")
+        .register(registry);
+    Gauge.builder("db.notifications.lag", lastLagMillis, AtomicLong::get)
+        .description("Delay between sending and receiving the latest notification")
+        .baseUnit("milliseconds")
+        .register(registry);
+    Gauge.builder("db.notifications.lag.max", maxLagMillis, LongAccumulator::get)
+        .description("Maximum delay between sending and receiving a notification")
+        .baseUnit("milliseconds")
+        .register(registry);
+  }
+
+  /** Stops listening and releases the dedicated connection. */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true) && worker != null) {
+      worker.interrupt();
+    }
+  }
+
+  /**
+   * Packs payloads into messages not exceeding PostgreSQL payload limit, which applies to the UTF-8
+   * encoded payload rather than to the amount of characters.
+   *
+   * @param payloads to pack
+   * @return messages with the header carrying the send timestamp to measure the delivery lag
+   */
+  private static List<Field<String>> pack(Collection<String> payloads) {
+    final var header = header();
+    final var messages = new ArrayList<Field<String>>();
+    var message = new StringBuilder(header);
+    var messageBytes = header.length();
+
+    for (final String payload : new LinkedHashSet<>(payloads)) {
+      final var payloadBytes = payload.getBytes(StandardCharsets.UTF_8).length;
+
+      if (message.length() > header.length()
+          && messageBytes + payloadBytes + 1 > MAX_PAYLOAD_BYTES) {
+        messages.add(DSL.val(message.toString()));
+        message = new StringBuilder(header);
+        messageBytes = header.length();
+      }
+
+      if (message.length() > header.length()) {
+        message.append(PAYLOAD_SEPARATOR);
+        messageBytes++;
+      }
+
+      message.append(payload);
+      messageBytes += payloadBytes;
+    }
+
+    messages.add(DSL.val(message.toString()));
+    return messages;
+  }
+
+  /**
+   * @return header carrying the current time, which is ASCII, so its length is the same in bytes
+   */
+  private static String header() {
+    return Long.toString(System.currentTimeMillis()) + HEADER_SEPARATOR;
+  }
+
+  /**
+   * @param channel to check
+   * @throws IllegalArgumentException if channel name is not a valid identifier
+   */
+  private static void validateChannel(String channel) {
+    if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Channel name '%s' is not allowed".formatted(channel));
+    }
+  }
+
+  /** Listening loop, which keeps reconnecting until closed. */
+  private void run() {
+    var reconnectDelay = Duration.ofMillis(100);
+    var everConnected = false;
+
+    while (!closed.get()) {
+      try (final var connection = DriverManager.getConnection(jdbcUrl, connectionProperties)) {
+        listenedChannels.clear();
+        listenToNewChannels(connection);
+
+        if (everConnected) {
+          reconnects.increment();
+        }
+
+        everConnected = true;
+        connected = true;
+        reconnectDelay = Duration.ofMillis(100);
+
+        // Anything could have happened while we were not listening
+        listeners.values().stream().flatMap(List::stream).forEach(this::flush);
+
+        poll(connection);
+      } catch (SQLException e) {
+        if (closed.get()) {
+          break;
+        }
+
+        connected = false;
+        LOGGER.warn("Lost database notifications connection, reconnecting", e);
+
+        try {
+          Thread.sleep(reconnectDelay);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+
+        reconnectDelay = min(reconnectDelay.multipliedBy(2), MAX_RECONNECT_DELAY);
+      }
+    }
+
+    connected = false;
+  }
+
+  /**
+   * Receives notifications until the connection fails or the component is closed.
+   *
+   * @param connection to receive notifications from
+   * @throws SQLException if the connection fails
+   */
+  private void poll(Connection connection) throws SQLException {
+    final var pgConnection = connection.unwrap(PGConnection.class);
+    var lastActivity = System.nanoTime();
+
+    while (!closed.get()) {
+      listenToNewChannels(connection);
+
+      final PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+
+      if (notifications != null && notifications.length > 0) {
+        dispatch(notifications);
+        lastActivity = System.nanoTime();
+      } else if (System.nanoTime() - lastActivity > VALIDATION_INTERVAL_NANOS) {
+        // Idle connection might be silently dropped by the network
+        if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+          throw new SQLException("Database notifications connection is no longer valid");
+        }
+
+        lastActivity = System.nanoTime();
+      }
+    }
+  }
+
+  /**
+   * Issues {@code LISTEN} for channels registered since the last check.
+   *
+   * @param connection to listen on
+   * @throws SQLException if the statement fails
+   */
+  private void listenToNewChannels(Connection connection) throws SQLException {
+    for (final String channel : listeners.keySet()) {
+      if (!listenedChannels.contains(channel)) {
+        try (final var statement = connection.createStatement()) {
+          // Channel name is validated, and LISTEN does not accept bind values
+          statement.execute("LISTEN " + channel);
+        }
+
+        listenedChannels.add(channel);
+      }
+    }
+  }
+
+  /**
+   * Groups received notifications by channel and delivers every distinct payload once.
+   *
+   * @param notifications to deliver
+   */
+  private void dispatch(PGNotification[] notifications) {
+    final var now = System.currentTimeMillis();
+    final Map<String, Set<String>> payloadsByChannel = new LinkedHashMap<>();
+
+    for (final PGNotification notification : notifications) {
+      final var message = notification.getParameter();
+      final var payloads =
+          payloadsByChannel.computeIfAbsent(notification.getName(), key -> new LinkedHashSet<>());
+
+      for (final String payload : unpack(message, now).split(String.valueOf(PAYLOAD_SEPARATOR))) {
+        payloads.add(payload);
+        received.increment();
+      }
+    }
+
+    payloadsByChannel.forEach(
+        (channel, payloads) -> {
+          final var payloadList = List.copyOf(payloads);
+
+          for (final Listener listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+              listener.onNotifications(payloadList);
+            } catch (RuntimeException e) {
+              LOGGER.error("Database notifications listener failed on channel {}", channel, e);
+            }
+          }
+        });
+  }
+
+  /**
+   * Strips the header from the message, recording the delivery lag.
+   *
+   * <p>Messages sent without the header, for example, manually, are delivered as is.
+   *
+   * @param message to unpack
+   * @param now current time in milliseconds
+   * @return payloads joined by the payload separator
+   */
+  private String unpack(String message, long now) {
+    final var headerEnd = message.indexOf(HEADER_SEPARATOR);
+
+    if (headerEnd <= 0) {
+      return message;
+    }
+
+    try {
+      final var lag = Math.max(0L, now - Long.parseLong(message, 0, headerEnd, 10));
+      lastLagMillis.set(lag);
+      maxLagMillis.accumulate(lag);
+      return message.substring(headerEnd + 1);
+    } catch (NumberFormatException e) {
+      return message;
+    }
+  }
+
+  /**
+   * @param listener to ask to discard everything it could have missed
+   */
+  private void flush(Listener listener) {
+    try {
+      listener.onReconnect();
+    } catch (RuntimeException e) {
+      LOGGER.error("Database notifications listener failed to handle reconnect", e);
+    }
+  }
+
+  private static Duration min(Duration left, Duration right) {
+    return left.compareTo(right) <= 0 ? left : right;
+  }
+
+  /** Receives notifications from a single channel. */
+  public interface Listener {
+    /**
+     * Called with distinct payloads received at once.
+     *
+     * @param payloads received from the channel
+     */
+    void onNotifications(List<String> payloads);
+
+    /**
+     * Called when the listening connection is (re)established, as any notifications sent while the
+     * connection was down are lost.
+     */
+    void onReconnect();
+  }
+
+  /**
+   * Delivery statistics snapshot.
+   *
+   * @param connected whether the listening connection is currently established
+   * @param received amount of received payloads
+   * @param reconnects amount of times the listening connection was re-established
+   * @param lastLagMillis delay between sending and receiving the latest notification
+   * @param maxLagMillis maximum observed delay between sending and receiving a notification
+   */
+  public record Statistics(
+      boolean connected, long received, long reconnects, long lastLagMillis, long maxLagMillis) {}
+}
@@ -0,0 +1,30 @@
+package platform.database;
+
+import java.time.Duration;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * Thrown when the database connection cannot be obtained within the {@link ConnectionBulkhead}
+ * limits, meaning that the database is overloaded and the request should be retried later.
+ */
+public final class DatabaseOverloadedException extends DataAccessException {
+  private final transient Duration retryAfter;
+
+  /**
+   * Default constructor.
+   *
+   * @param message with the details
+   * @param retryAfter to suggest the client to wait before retrying
+   */
+  public DatabaseOverloadedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return how long the client should wait before retrying
+   */
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,98 @@
+package platform.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.jooq.ConnectionProvider;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.exception.DataAccessException;
+import platform.concurrency.Deadline;
+import platform.concurrency.DeadlineExceededException;
+
+/**
+ * Stops database work once the {@link Deadline} of the current thread has passed.
+ *
+ * <p>Connections are not acquired and statements are not executed after the deadline, while every
+ * statement gets a query timeout of the time left, so that PostgreSQL cancels it when the deadline
+ * passes during execution. JDBC timeouts have a granularity of seconds, so the time left is rounded
+ * up.
+ *
+ * <p>Work without a deadline is not affected.
+ */
+public final class DeadlineGuard implements ExecuteListener {
+  private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /** PostgreSQL error code of a statement cancelled on request, including by the query timeout. */
+  private static final String QUERY_CANCELED = "57014";
+
+  /** Default constructor. */
+  public DeadlineGuard() {
+    // No operations required
+  }
+
+  /**
+   * Guards the connection provider, so that no connection is acquired after the deadline.
+   *
+   * <p>Should wrap other guards, like {@link ConnectionBulkhead}, to avoid waiting for a connection
+   * which will not be used.
+   *
+   * @param delegate to obtain connections from
+   * @return guarded {@link ConnectionProvider}
+   */
+  public ConnectionProvider wrap(ConnectionProvider delegate) {
+    return new ConnectionProvider() {
+      @Override
+      public Connection acquire() {
+        Deadline.current().ifPresent(deadline -> deadline.check("acquiring a connection"));
+        return delegate.acquire();
+      }
+
+      @Override
+      public void release(Connection connection) {
+        delegate.release(connection);
+      }
+    };
+  }
+
+  @Override
+  public void start(ExecuteContext ctx) {
+    Deadline.current().ifPresent(deadline -> deadline.check("executing a query"));
+  }
+
+  @Override
+  public void prepareEnd(ExecuteContext ctx) {
+    final var deadline = Deadline.current();
+
+    if (deadline.isEmpty() || ctx.statement() == null) {
+      return;
+    }
+
+    final var remainingNanos = deadline.get().remaining().toNanos();
+    if (remainingNanos == 0) {
+      throw new DeadlineExceededException("Deadline passed before executing a query");
+    }
+
+    try {
+      ctx.statement()
+          .setQueryTimeout(
+              (int) Math.min(Integer.MAX_VALUE, Math.ceilDiv(remainingNanos, SECOND_NANOS)));
+    } catch (SQLException e) {
+      throw new DataAccessException("Cannot set query timeout", e);
+    }
+  }
+
+  @Override
+  public void exception(ExecuteContext ctx) {
+    final var deadline = Deadline.current();
+
+    if (deadline.isPresent()
+        && deadline.get().isExpired()
+        && ctx.sqlException() != null
+        && QUERY_CANCELED.equals(ctx.sqlException().getSQLState())) {
+      ctx.exception(
+          new DeadlineExceededException(
+              "Deadline passed while executing a query", ctx.exception()));
+    }
+  }
+}
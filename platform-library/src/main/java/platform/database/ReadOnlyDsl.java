@@ -0,0 +1,56 @@
+package platform.database;
+
+import java.util.function.Supplier;
+import org.jooq.DSLContext;
+
+/**
+ * Routes read-only queries to the {@link ReadReplica}, falling back to the primary database.
+ *
+ * <p>Queries are executed against the primary database if the replica is not configured or if the
+ * current request is pinned to the primary database via {@link #pinToPrimary()}.
+ *
+ * <p><b>NOTE</b>: use this only for queries which tolerate slightly outdated data, because the
+ * replica may lag behind the primary database even outside the read-your-writes window.
+ */
+public final class ReadOnlyDsl implements Supplier<DSLContext> {
+  private static final ThreadLocal<Boolean> PINNED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+  private final DSLContext primary;
+  private final DSLContext replica;
+
+  /**
+   * Default constructor.
+   *
+   * @param primary to execute queries against the primary database
+   * @param replica to execute queries against the replica, {@code null} if there is no replica
+   */
+  public ReadOnlyDsl(DSLContext primary, DSLContext replica) {
+    this.primary = primary;
+    this.replica = replica;
+  }
+
+  /**
+   * @return {@link DSLContext} to execute read-only queries with in the current request
+   */
+  @Override
+  public DSLContext get() {
+    return replica == null || PINNED.get() ? primary : replica;
+  }
+
+  /**
+   * @return {@code true} if read-only queries can be routed to the replica
+   */
+  public boolean hasReplica() {
+    return replica != null;
+  }
+
+  /** Routes read-only queries of the current request to the primary database. */
+  public static void pinToPrimary() {
+    PINNED.set(Boolean.TRUE);
+  }
+
+  /** Restores default routing for the current thread once the request is completed. */
+  public static void unpin() {
+    PINNED.remove();
+  }
+}
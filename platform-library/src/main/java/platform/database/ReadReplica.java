@@ -0,0 +1,61 @@
+package platform.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Optional connection pool to the read replica of the primary database.
+ *
+ * <p>Replicas apply changes asynchronously, so a client reading right after its own write may not
+ * see it yet. To avoid that, clients are pinned to the primary database for {@link
+ * #readYourWritesWindow()} after each write, which should exceed the typical replication lag.
+ */
+public final class ReadReplica implements Closeable {
+  private final HikariDataSource dataSource;
+  private final Duration readYourWritesWindow;
+
+  /**
+   * Default constructor.
+   *
+   * @param dataSource to the replica database, {@code null} if there is no replica
+   * @param readYourWritesWindow to route client reads to the primary database after a write
+   * @throws NullPointerException if read-your-writes window is {@code null}
+   * @throws IllegalArgumentException if read-your-writes window is negative
+   */
+  public ReadReplica(HikariDataSource dataSource, Duration readYourWritesWindow) {
+    Objects.requireNonNull(readYourWritesWindow, "Read-your-writes window must not be null");
+
+    if (readYourWritesWindow.isNegative()) {
+      throw new IllegalArgumentException(
+          "Read-your-writes window %s must not be negative".formatted(readYourWritesWindow));
+    }
+
+    this.dataSource = dataSource;
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
+  /**
+   * @return connection pool to the replica database, if configured
+   */
+  public Optional<HikariDataSource> dataSource() {
+    return Optional.ofNullable(dataSource);
+  }
+
+  /**
+   * @return how long clients should read from the primary database after their write
+   */
+  public Duration readYourWritesWindow() {
+    return readYourWritesWindow;
+  }
+
+  /** Releases the replica connection pool, if any. */
+  @Override
+  public void close() {
+    if (dataSource != null) {
+      dataSource.close();
+    }
+  }
+}
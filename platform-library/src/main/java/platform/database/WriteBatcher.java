@@ -0,0 +1,274 @@
+package platform.database;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.IntegrityConstraintViolationException;
+import org.jooq.exception.SQLStateClass;
+import platform.concurrency.Deadline;
+
+/**
+ * Collects concurrent writes into batches, so that many callers share a single statement and
+ * commit.
+ *
+ * <p>The first caller opens a batch and waits for the configured window, or until the batch is
+ * full, while callers arriving meanwhile join the batch and wait for its result. Then the first
+ * caller writes the whole batch at once and completes every caller individually. There is no
+ * background thread: request handlers run on virtual threads, which park cheaply while waiting.
+ *
+ * <p>If the batch fails because of the data, like a constraint violation of a single row, every
+ * item is written again on its own, so that only the callers of the failing rows get an error. Any
+ * other failure, like an overloaded or unavailable database, fails every caller of the batch, as
+ * writing items one by one would only add load while failing the same way.
+ *
+ * @param <T> type of the items to write
+ * @param <R> type of the write results
+ */
+public final class WriteBatcher<T, R> implements MeterBinder {
+  private final String name;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final Writer<T, R> writer;
+
+  private final ReentrantLock lock;
+  private Batch<T, R> open;
+
+  private final LongAdder flushes;
+  private final LongAdder items;
+  private final LongAdder fallbacks;
+
+  /**
+   * Default constructor.
+   *
+   * @param name of the batcher to tag metrics with
+   * @param window to collect items for, {@link Duration#ZERO} writes every item on its own
+   * @param maxBatchSize amount of items to write at once
+   * @param writer to write batches with
+   * @throws IllegalArgumentException if batch size is not positive or window is negative
+   */
+  public WriteBatcher(String name, Duration window, int maxBatchSize, Writer<T, R> writer) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Batch size %s must be positive".formatted(maxBatchSize));
+    }
+
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("Window %s must not be negative".formatted(window));
+    }
+
+    this.name = name;
+    this.windowNanos = window.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.writer = writer;
+
+    this.lock = new ReentrantLock();
+
+    this.flushes = new LongAdder();
+    this.items = new LongAdder();
+    this.fallbacks = new LongAdder();
+  }
+
+  /**
+   * Writes the item together with the items of concurrent callers and waits for its result.
+   *
+   * @param item to write
+   * @return the result of writing the item
+   * @throws RuntimeException thrown by the writer for this item
+   */
+  public R write(T item) {
+    if (windowNanos == 0 || maxBatchSize == 1) {
+      return flush(List.of(item)).getFirst();
+    }
+
+    final Batch<T, R> batch;
+    final CompletableFuture<R> result;
+    final boolean first;
+
+    lock.lock();
+    try {
+      first = open == null;
+      if (first) {
+        open = new Batch<>();
+      }
+
+      batch = open;
+      result = batch.add(item);
+
+      if (batch.items.size() == maxBatchSize) {
+        open = null;
+        batch.full.countDown();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (first) {
+      awaitWindow(batch);
+      complete(batch);
+    }
+
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      switch (e.getCause()) {
+        case RuntimeException runtimeException -> throw runtimeException;
+        case Error error -> throw error;
+        default -> throw e;
+      }
+    }
+  }
+
+  /**
+   * Exposes batching efficiency as metrics, where the average batch size is the amount of items
+   * divided by the amount of flushes.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("database.write.batch.flushes", flushes, LongAdder::sum)
+        .description("Amount of batches written")
+        .tag("name", name)
+        .register(registry);
+    FunctionCounter.builder("database.write.batch.items", items, LongAdder::sum)
+        .description("Amount of items written in batches")
+        .tag("name", name)
+        .register(registry);
+    FunctionCounter.builder("database.write.batch.fallbacks", fallbacks, LongAdder::sum)
+        .description("Amount of failed batches written again item by item")
+        .tag("name", name)
+        .register(registry);
+  }
+
+  /** Waits until the window passes or the batch is full, closing the batch for new items. */
+  private void awaitWindow(Batch<T, R> batch) {
+    try {
+      batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      // Callers which joined the batch still wait for it, so it is written right away
+      Thread.currentThread().interrupt();
+    }
+
+    lock.lock();
+    try {
+      if (open == batch) {
+        open = null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the closed batch, falling back to item by item writes if it fails because of the data.
+   *
+   * <p>The batch is written on behalf of every caller, so it is not bounded by the {@link Deadline}
+   * of the first one.
+   */
+  private void complete(Batch<T, R> batch) {
+    Deadline.run(null, () -> writeBatch(batch));
+  }
+
+  private void writeBatch(Batch<T, R> batch) {
+    try {
+      final var results = flush(batch.items);
+      for (int i = 0; i < results.size(); i++) {
+        batch.results.get(i).complete(results.get(i));
+      }
+    } catch (RuntimeException e) {
+      if (batch.items.size() == 1 || !isDataError(e)) {
+        batch.results.forEach(result -> result.completeExceptionally(e));
+        return;
+      }
+
+      fallbacks.increment();
+      for (int i = 0; i < batch.items.size(); i++) {
+        try {
+          batch.results.get(i).complete(flush(List.of(batch.items.get(i))).getFirst());
+        } catch (RuntimeException itemException) {
+          batch.results.get(i).completeExceptionally(itemException);
+        }
+      }
+    } catch (Error e) {
+      batch.results.forEach(result -> result.completeExceptionally(e));
+      throw e;
+    }
+  }
+
+  /**
+   * @param e thrown by the writer
+   * @return {@code true} if the failure is caused by some of the written items, as opposed to the
+   *     database state, so that the other items can succeed on their own
+   */
+  private static boolean isDataError(RuntimeException e) {
+    if (e instanceof IntegrityConstraintViolationException) {
+      return true;
+    }
+
+    return e instanceof DataAccessException dataAccessException
+        && (dataAccessException.sqlStateClass() == SQLStateClass.C22_DATA_EXCEPTION
+            || dataAccessException.sqlStateClass()
+                == SQLStateClass.C23_INTEGRITY_CONSTRAINT_VIOLATION);
+  }
+
+  private List<R> flush(List<T> batch) {
+    final var results = writer.write(batch);
+
+    if (results.size() != batch.size()) {
+      throw new IllegalStateException(
+          "Writer returned %d results for %d items".formatted(results.size(), batch.size()));
+    }
+
+    flushes.increment();
+    items.add(batch.size());
+    return results;
+  }
+
+  /**
+   * Writes items at once, typically as a single statement.
+   *
+   * @param <T> type of the items to write
+   * @param <R> type of the write results
+   */
+  @FunctionalInterface
+  public interface Writer<T, R> {
+    /**
+     * Writes all items atomically: if any item fails, none of them must be written, as they will be
+     * written again one by one if the failure is a jOOQ {@link DataAccessException} of SQLState
+     * class 22 (data exception) or 23 (integrity constraint violation).
+     *
+     * @param items to write
+     * @return results of the items in the same order as items
+     */
+    List<R> write(List<T> items);
+  }
+
+  /** Items of a single batch with their results, modified only while holding the lock. */
+  private static final class Batch<T, R> {
+    private final List<T> items;
+    private final List<CompletableFuture<R>> results;
+    private final CountDownLatch full;
+
+    private Batch() {
+      this.items = new ArrayList<>();
+      this.results = new ArrayList<>();
+      this.full = new CountDownLatch(1);
+    }
+
+    private CompletableFuture<R> add(T item) {
+      final var result = new CompletableFuture<R>();
+      items.add(item);
+      results.add(result);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package platform.database;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+
+/** Creates {@link WriteBatcher}s sharing the same settings, each exposing its own metrics. */
+public final class WriteBatchers {
+  private final Duration window;
+  private final int maxBatchSize;
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Default constructor.
+   *
+   * @param window to collect items for, {@link Duration#ZERO} disables batching
+   * @param maxBatchSize amount of items to write at once
+   * @param meterRegistry to expose batching efficiency with
+   * @throws IllegalArgumentException if batch size is not positive or window is negative
+   */
+  public WriteBatchers(Duration window, int maxBatchSize, MeterRegistry meterRegistry) {
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Batch size %s must be positive".formatted(maxBatchSize));
+    }
+
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("Window %s must not be negative".formatted(window));
+    }
+
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * @param name of the batcher to tag metrics with
+   * @param writer to write batches with
+   * @return new {@link WriteBatcher}
+   * @param <T> type of the items to write
+   * @param <R> type of the write results
+   */
+  public <T, R> WriteBatcher<T, R> batcher(String name, WriteBatcher.Writer<T, R> writer) {
+    final var batcher = new WriteBatcher<>(name, window, maxBatchSize, writer);
+    batcher.bindTo(meterRegistry);
+    return batcher;
+  }
+}
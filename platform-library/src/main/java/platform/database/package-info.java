@@ -0,0 +1,2 @@
+/** This package defines database-related components built on top of the connection pool. */
+package platform.database;
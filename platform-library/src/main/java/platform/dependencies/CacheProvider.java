@@ -0,0 +1,115 @@
+package platform.dependencies;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.suppierk.inject.Provides;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import platform.contracts.Cache;
+import platform.contracts.Caches;
+import platform.contracts.ConfigurationReader;
+
+/**
+ * Factory to create an instance of {@link Caches}.
+ *
+ * <p>Here we are using <a href="https://github.com/ben-manes/caffeine">Caffeine</a> and this can be
+ * replaced as needed.
+ *
+ * <p>Every cache is bounded by the amount of entries and time-to-live, which can be configured per
+ * cache name using {@code cache.<name>.max-size} and {@code cache.<name>.ttl} properties.
+ *
+ * <p>This class is {@code final} which prohibits its replacement in the {@link
+ * io.github.suppierk.inject.Injector} exposed to the consumers.
+ */
+@Singleton
+public final class CacheProvider {
+  private static final long DEFAULT_MAX_SIZE = 10_000L;
+  private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+  /**
+   * Initialize new {@link Caches} instance.
+   *
+   * <p>Every cache exposes its statistics as metrics tagged with the cache name.
+   *
+   * @param reader to read cache settings with
+   * @param meterRegistry to expose cache statistics with
+   * @return Caffeine-backed {@link Caches}
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public Caches caches(ConfigurationReader reader, MeterRegistry meterRegistry) {
+    final Map<String, CaffeineCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    return new Caches() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <K, V> Cache<K, V> cache(String name) {
+        return (Cache<K, V>)
+            caches.computeIfAbsent(
+                name,
+                key ->
+                    new CaffeineCache<>(
+                        CaffeineCacheMetrics.monitor(
+                            meterRegistry,
+                            Caffeine.newBuilder()
+                                .maximumSize(
+                                    reader.read(
+                                        "cache.%s.max-size".formatted(key),
+                                        Long.class,
+                                        DEFAULT_MAX_SIZE))
+                                .expireAfterWrite(
+                                    reader.read(
+                                        "cache.%s.ttl".formatted(key), Duration.class, DEFAULT_TTL))
+                                .recordStats()
+                                .build(),
+                            key)));
+      }
+
+      @Override
+      public Map<String, Cache.Statistics> statistics() {
+        return caches.entrySet().stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    Map.Entry::getKey, entry -> entry.getValue().statistics()));
+      }
+    };
+  }
+
+  /**
+   * Adapts Caffeine cache to the {@link Cache} contract.
+   *
+   * @param delegate to store the values in
+   * @param <K> type of the keys
+   * @param <V> type of the values
+   */
+  private record CaffeineCache<K, V>(com.github.benmanes.caffeine.cache.Cache<K, V> delegate)
+      implements Cache<K, V> {
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+      return delegate.get(key, loader);
+    }
+
+    @Override
+    public void invalidate(K key) {
+      delegate.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+      delegate.invalidateAll();
+    }
+
+    @Override
+    public Statistics statistics() {
+      final var stats = delegate.stats();
+      return new Statistics(
+          delegate.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+  }
+}
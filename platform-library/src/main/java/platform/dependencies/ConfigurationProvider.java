@@ -2,13 +2,31 @@ package platform.dependencies;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
 import io.github.suppierk.inject.Provides;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.List;
 import org.flywaydb.core.Flyway;
+import platform.concurrency.CpuExecutor;
 import platform.contracts.ConfigurationReader;
+import platform.database.ConnectionBulkhead;
+import platform.database.DatabaseNotifications;
+import platform.database.ReadReplica;
+import platform.database.WriteBatchers;
+import platform.metrics.QueryProfiler;
+import platform.primitives.AdminEndpoints;
+import platform.primitives.ApiDocumentation;
 import platform.primitives.ApplicationName;
+import platform.primitives.PageLimits;
 import platform.primitives.ServerPort;
+import platform.security.PasswordHasher;
+import platform.web.ConcurrencyLimiter;
+import platform.web.RateLimiter;
+import platform.web.RequestDeadlines;
+import platform.web.SingleFlight;
 
 /**
  * Initializes common configuration used by other components.
@@ -18,6 +36,31 @@ import platform.primitives.ServerPort;
  */
 @Singleton
 public final class ConfigurationProvider {
+  private static final int DEFAULT_PAGE_LIMIT = 50;
+  private static final int MAX_PAGE_LIMIT = 500;
+  private static final Duration DEFAULT_READ_YOUR_WRITES_WINDOW = Duration.ofSeconds(5);
+  private static final String PRIMARY_POOL = "primary";
+  private static final String REPLICA_POOL = "replica";
+  private static final int DEFAULT_QUEUE_PER_CONNECTION = 4;
+  private static final Duration DEFAULT_BULKHEAD_MAX_WAIT = Duration.ofMillis(200);
+  private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+  private static final Duration DEFAULT_SLOW_QUERY_THRESHOLD = Duration.ofSeconds(1);
+  private static final int DEFAULT_MAX_QUERY_SHAPES = 1_000;
+  private static final int DEFAULT_QUEUE_PER_CPU_THREAD = 16;
+  private static final int DEFAULT_PASSWORD_ITERATIONS = 100_000;
+  private static final Duration DEFAULT_SINGLE_FLIGHT_MAX_WAIT = Duration.ofSeconds(1);
+  private static final int DEFAULT_CONCURRENCY_LIMIT = 200;
+  private static final int DEFAULT_MIN_CONCURRENCY_LIMIT = 20;
+  private static final int DEFAULT_MAX_CONCURRENCY_LIMIT = 2_000;
+  private static final List<String> UNLIMITED_PATHS = List.of("/api/health", "/admin/", "/metrics");
+  private static final Duration DEFAULT_RATE_LIMIT_PERIOD = Duration.ofSeconds(1);
+  private static final long DEFAULT_RATE_LIMIT_MAX_KEYS = 100_000L;
+  private static final String DEFAULT_RATE_LIMIT_KEY = "ip";
+  private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration DEFAULT_MAX_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+  private static final Duration DEFAULT_WRITE_BATCH_WINDOW = Duration.ofMillis(2);
+  private static final int DEFAULT_WRITE_BATCH_MAX_SIZE = 500;
+
   private final ConfigurationReader reader;
 
   /**
@@ -50,6 +93,48 @@ public final class ConfigurationProvider {
     return new ApplicationName(reader.read("name", String.class));
   }
 
+  /**
+   * @return a {@link PageLimits} to guard paginated endpoints with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public PageLimits pageLimits() {
+    return new PageLimits(
+        reader.read("pagination.default-limit", Integer.class, DEFAULT_PAGE_LIMIT),
+        reader.read("pagination.max-limit", Integer.class, MAX_PAGE_LIMIT));
+  }
+
+  /**
+   * Swagger UI can be turned off using {@code openapi.swagger-enabled}, which saves its setup on
+   * startup where nobody browses the API.
+   *
+   * @return an {@link ApiDocumentation} to configure served API documentation with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public ApiDocumentation apiDocumentation() {
+    return new ApiDocumentation(reader.read("openapi.swagger-enabled", Boolean.class, true));
+  }
+
+  /**
+   * Administrative endpoints expose internals of the app and have no authentication, hence they are
+   * disabled by default. The query profiler report and the startup timeline can be turned on using
+   * {@code admin.query-profiler-enabled} and {@code admin.startup-enabled} where the port is not
+   * reachable by the public.
+   *
+   * @return an {@link AdminEndpoints} to configure served administrative endpoints with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public AdminEndpoints adminEndpoints() {
+    return new AdminEndpoints(
+        reader.read("admin.query-profiler-enabled", Boolean.class, false),
+        reader.read("admin.startup-enabled", Boolean.class, false));
+  }
+
   /**
    * Creates database connection and applies Flyway migrations.
    *
@@ -57,22 +142,302 @@ public final class ConfigurationProvider {
    * because {@link HikariDataSource} is {@link java.io.Closeable} - which will allow {@link
    * io.github.suppierk.inject.Injector} to automatically release its resources.
    *
+   * @param meterRegistry to record connection pool metrics into
    * @return a {@link HikariDataSource} to query the database
    */
   @Provides
   @Singleton
   @SuppressWarnings("unused")
-  public HikariDataSource dataSource() {
-    final var config = new HikariConfig();
-    config.setDriverClassName(org.postgresql.Driver.class.getName());
-    config.setJdbcUrl(reader.read("database.url", String.class));
-    config.setUsername(reader.read("database.username", String.class));
-    config.setPassword(reader.read("database.password", String.class));
-    final var dataSource = new HikariDataSource(config);
+  public HikariDataSource dataSource(MeterRegistry meterRegistry) {
+    final var dataSource = createDataSource("database", PRIMARY_POOL, meterRegistry);
 
     // Apply database migration
     Flyway.configure().dataSource(dataSource).load().migrate();
 
     return dataSource;
   }
+
+  /**
+   * Creates an optional connection to the read replica if {@code database.replica.url} is set.
+   *
+   * <p>The replica uses the same credentials as the primary database unless {@code
+   * database.replica.username} and {@code database.replica.password} are set.
+   *
+   * @param meterRegistry to record connection pool metrics into
+   * @return a {@link ReadReplica} to route read-only queries to
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public ReadReplica readReplica(MeterRegistry meterRegistry) {
+    final var window =
+        reader.read(
+            "database.replica.read-your-writes-window",
+            Duration.class,
+            DEFAULT_READ_YOUR_WRITES_WINDOW);
+
+    if (reader.read("database.replica.url", String.class, null) == null) {
+      return new ReadReplica(null, window);
+    }
+
+    final var dataSource = createDataSource("database.replica", REPLICA_POOL, meterRegistry);
+    dataSource.setReadOnly(true);
+    return new ReadReplica(dataSource, window);
+  }
+
+  /**
+   * Creates admission control in front of the {@link HikariDataSource}, sized to its pool.
+   *
+   * <p>Can be tuned using {@code database.bulkhead.max-queue}, {@code database.bulkhead.max-wait}
+   * and {@code database.bulkhead.retry-after} properties.
+   *
+   * @param dataSource to take the pool size from
+   * @param meterRegistry to expose bulkhead state with
+   * @return a {@link ConnectionBulkhead} to guard database connections with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public ConnectionBulkhead connectionBulkhead(
+      HikariDataSource dataSource, MeterRegistry meterRegistry) {
+    final var permits = dataSource.getMaximumPoolSize();
+
+    final var bulkhead =
+        new ConnectionBulkhead(
+            permits,
+            reader.read(
+                "database.bulkhead.max-queue",
+                Integer.class,
+                permits * DEFAULT_QUEUE_PER_CONNECTION),
+            reader.read("database.bulkhead.max-wait", Duration.class, DEFAULT_BULKHEAD_MAX_WAIT),
+            reader.read("database.bulkhead.retry-after", Duration.class, DEFAULT_RETRY_AFTER));
+
+    bulkhead.bindTo(meterRegistry);
+    return bulkhead;
+  }
+
+  /**
+   * Creates an executor for CPU-heavy work, sized to the amount of cores.
+   *
+   * <p>Can be tuned using {@code cpu.threads}, {@code cpu.max-queue} and {@code cpu.retry-after}
+   * properties.
+   *
+   * @param meterRegistry to expose executor state with
+   * @return a {@link CpuExecutor} to offload computations from request handling threads to
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public CpuExecutor cpuExecutor(MeterRegistry meterRegistry) {
+    final var threads =
+        reader.read("cpu.threads", Integer.class, Runtime.getRuntime().availableProcessors());
+
+    final var cpuExecutor =
+        new CpuExecutor(
+            threads,
+            reader.read("cpu.max-queue", Integer.class, threads * DEFAULT_QUEUE_PER_CPU_THREAD),
+            reader.read("cpu.retry-after", Duration.class, DEFAULT_RETRY_AFTER));
+
+    cpuExecutor.bindTo(meterRegistry);
+    return cpuExecutor;
+  }
+
+  /**
+   * Can be tuned using {@code security.password.iterations} property, which defaults to 100k
+   * iterations of PBKDF2 with SHA-256, taking around 40 ms of CPU per password, see {@code
+   * PasswordHasherBenchmark}. OWASP recommends 600k, which takes around 230 ms and is worth it
+   * where there are spare cores for the {@link CpuExecutor}.
+   *
+   * @return a {@link PasswordHasher} to store passwords with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public PasswordHasher passwordHasher() {
+    return new PasswordHasher(
+        reader.read("security.password.iterations", Integer.class, DEFAULT_PASSWORD_ITERATIONS));
+  }
+
+  /**
+   * Creates a limiter of the requests handled at once, which never limits health checks, metrics
+   * and admin endpoints.
+   *
+   * <p>Can be tuned using {@code web.concurrency.initial-limit}, {@code web.concurrency.min-limit},
+   * {@code web.concurrency.max-limit} and {@code web.concurrency.retry-after} properties.
+   *
+   * @param meterRegistry to expose limiter state with
+   * @return a {@link ConcurrencyLimiter} to shed load with when latency grows
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public ConcurrencyLimiter concurrencyLimiter(MeterRegistry meterRegistry) {
+    final var concurrencyLimiter =
+        new ConcurrencyLimiter(
+            reader.read("web.concurrency.initial-limit", Integer.class, DEFAULT_CONCURRENCY_LIMIT),
+            reader.read("web.concurrency.min-limit", Integer.class, DEFAULT_MIN_CONCURRENCY_LIMIT),
+            reader.read("web.concurrency.max-limit", Integer.class, DEFAULT_MAX_CONCURRENCY_LIMIT),
+            reader.read("web.concurrency.retry-after", Duration.class, DEFAULT_RETRY_AFTER),
+            UNLIMITED_PATHS);
+
+    concurrencyLimiter.bindTo(meterRegistry);
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Creates a per-client rate limiter, which never limits health checks, metrics and admin
+   * endpoints.
+   *
+   * <p>Rate is only limited once {@code web.rate-limit.requests} is set. Clients get that many
+   * requests per {@code web.rate-limit.period}, with bursts up to {@code web.rate-limit.burst}
+   * requests, which defaults to the amount of requests. Clients are told apart by {@code
+   * web.rate-limit.key}, which is {@code ip}, {@code route} or {@code header:<name>}, while at most
+   * {@code web.rate-limit.max-keys} clients are tracked. Header values have to be authenticated,
+   * like an API key checked by a gateway, as clients can make up new ones otherwise.
+   *
+   * <p>Behind a load balancer, every request comes from its IP address, so set {@code
+   * web.rate-limit.forwarded-header} to the header the balancer puts the client IP address into,
+   * like {@code X-Forwarded-For}. Only do that if the service is not reachable bypassing the
+   * balancer, as clients can set the header themselves.
+   *
+   * @param meterRegistry to expose limiter state with
+   * @return a {@link RateLimiter} to stop a single client from saturating the service with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public RateLimiter rateLimiter(MeterRegistry meterRegistry) {
+    final var requests = reader.read("web.rate-limit.requests", Integer.class, null);
+
+    if (requests == null) {
+      return RateLimiter.disabled();
+    }
+
+    final var rateLimiter =
+        new RateLimiter(
+            requests,
+            reader.read("web.rate-limit.period", Duration.class, DEFAULT_RATE_LIMIT_PERIOD),
+            reader.read("web.rate-limit.burst", Integer.class, requests),
+            reader.read("web.rate-limit.max-keys", Long.class, DEFAULT_RATE_LIMIT_MAX_KEYS),
+            RateLimiter.KeyExtractor.of(
+                reader.read("web.rate-limit.key", String.class, DEFAULT_RATE_LIMIT_KEY),
+                reader.read("web.rate-limit.forwarded-header", String.class, null)),
+            UNLIMITED_PATHS);
+
+    rateLimiter.bindTo(meterRegistry);
+    return rateLimiter;
+  }
+
+  /**
+   * Can be tuned using {@code web.deadline.default-timeout} and {@code web.deadline.max-timeout}
+   * properties, where zero means no deadline and no cap respectively.
+   *
+   * @return a {@link RequestDeadlines} to stop the work of requests clients do not wait for with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public RequestDeadlines requestDeadlines() {
+    return new RequestDeadlines(
+        reader.read("web.deadline.default-timeout", Duration.class, DEFAULT_REQUEST_TIMEOUT),
+        reader.read("web.deadline.max-timeout", Duration.class, DEFAULT_MAX_REQUEST_TIMEOUT));
+  }
+
+  /**
+   * Can be tuned using {@code web.single-flight.max-wait} property.
+   *
+   * @param meterRegistry to expose collapsed requests with
+   * @return a {@link SingleFlight} to collapse identical concurrent requests of hot routes with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public SingleFlight singleFlight(MeterRegistry meterRegistry) {
+    return new SingleFlight(
+        reader.read("web.single-flight.max-wait", Duration.class, DEFAULT_SINGLE_FLIGHT_MAX_WAIT),
+        meterRegistry);
+  }
+
+  /**
+   * Can be tuned using {@code database.write-batch.window} and {@code
+   * database.write-batch.max-size} properties, zero window disables batching.
+   *
+   * @param meterRegistry to expose batching efficiency with
+   * @return a {@link WriteBatchers} to combine concurrent writes into single statements with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public WriteBatchers writeBatchers(MeterRegistry meterRegistry) {
+    return new WriteBatchers(
+        reader.read("database.write-batch.window", Duration.class, DEFAULT_WRITE_BATCH_WINDOW),
+        reader.read("database.write-batch.max-size", Integer.class, DEFAULT_WRITE_BATCH_MAX_SIZE),
+        meterRegistry);
+  }
+
+  /**
+   * Creates a profiler of the database queries.
+   *
+   * <p>Can be tuned using {@code database.profiler.slow-query-threshold} and {@code
+   * database.profiler.max-shapes} properties.
+   *
+   * @return a {@link QueryProfiler} to find the most expensive queries with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public QueryProfiler queryProfiler() {
+    return new QueryProfiler(
+        reader.read(
+            "database.profiler.slow-query-threshold", Duration.class, DEFAULT_SLOW_QUERY_THRESHOLD),
+        reader.read("database.profiler.max-shapes", Integer.class, DEFAULT_MAX_QUERY_SHAPES));
+  }
+
+  /**
+   * Creates a component to deliver PostgreSQL notifications across the application instances.
+   *
+   * <p>It reuses the connection settings of the {@link HikariDataSource}, but maintains its own
+   * dedicated connection, because {@code LISTEN} requires a long-living database session.
+   *
+   * @param dataSource to take connection settings from
+   * @param meterRegistry to expose delivery statistics with
+   * @return a {@link DatabaseNotifications} to send and receive notifications
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public DatabaseNotifications databaseNotifications(
+      HikariDataSource dataSource, MeterRegistry meterRegistry) {
+    final var notifications =
+        new DatabaseNotifications(
+            dataSource.getJdbcUrl(), dataSource.getUsername(), dataSource.getPassword());
+
+    notifications.bindTo(meterRegistry);
+    return notifications;
+  }
+
+  /**
+   * Creates a connection pool using properties under the given prefix, falling back to the primary
+   * database credentials.
+   *
+   * @param prefix of the connection properties
+   * @param poolName to distinguish connection pool metrics
+   * @param meterRegistry to record connection pool metrics into
+   * @return a {@link HikariDataSource} to query the database
+   */
+  private HikariDataSource createDataSource(
+      String prefix, String poolName, MeterRegistry meterRegistry) {
+    final var config = new HikariConfig();
+    config.setPoolName(poolName);
+    config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    config.setDriverClassName(org.postgresql.Driver.class.getName());
+    config.setJdbcUrl(reader.read(prefix + ".url", String.class));
+    config.setUsername(
+        reader.read(
+            prefix + ".username", String.class, reader.read("database.username", String.class)));
+    config.setPassword(
+        reader.read(
+            prefix + ".password", String.class, reader.read("database.password", String.class)));
+    return new HikariDataSource(config);
+  }
 }
@@ -2,6 +2,8 @@ package platform.dependencies;
 
 import io.github.suppierk.inject.Provides;
 import jakarta.inject.Singleton;
+import java.util.NoSuchElementException;
+import org.github.gestalt.config.Gestalt;
 import org.github.gestalt.config.builder.GestaltBuilder;
 import org.github.gestalt.config.exceptions.GestaltException;
 import org.github.gestalt.config.source.ClassPathConfigSourceBuilder;
@@ -39,12 +41,27 @@ public class ConfigurationReaderProvider {
 
     gestalt.loadConfigs();
 
+    return reader(gestalt);
+  }
+
+  /**
+   * Adapts {@link Gestalt} to {@link ConfigurationReader}, telling paths which are not defined
+   * apart from the values which cannot be decoded.
+   *
+   * @param gestalt with loaded configuration
+   * @return {@link ConfigurationReader} backed by {@link Gestalt}
+   */
+  protected static ConfigurationReader reader(Gestalt gestalt) {
     return new ConfigurationReader() {
       @Override
       public <T> T read(String path, Class<T> clazz) {
         try {
           return gestalt.getConfig(path, clazz);
         } catch (GestaltException e) {
+          if (gestalt.getConfigOptional(path, String.class).isEmpty()) {
+            throw new NoSuchElementException("Path " + path + " is not defined", e);
+          }
+
           throw new IllegalStateException(e);
         }
       }
@@ -0,0 +1,31 @@
+package platform.dependencies;
+
+import io.github.suppierk.inject.Injector;
+import io.github.suppierk.inject.Provides;
+import io.javalin.apibuilder.EndpointGroup;
+import jakarta.inject.Singleton;
+import platform.primitives.EndpointGroups;
+
+/**
+ * Collects the {@link EndpointGroup}s registered in the {@link Injector}.
+ *
+ * <p>Dependencies wired by the generated code collect the endpoint groups without the {@link
+ * Injector}, see {@link platform.wiring.WiredDependencies}.
+ *
+ * <p>This class is {@code final} which prohibits its replacement in the {@link
+ * io.github.suppierk.inject.Injector} exposed to the consumers.
+ */
+@Singleton
+public final class EndpointGroupsProvider {
+  /**
+   * @param injector to find {@link EndpointGroup}s in
+   * @return all registered {@link EndpointGroup}s
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public EndpointGroups endpointGroups(Injector injector) {
+    return new EndpointGroups(
+        injector.findAll(EndpointGroup.class).stream().<EndpointGroup>map(injector::get).toList());
+  }
+}
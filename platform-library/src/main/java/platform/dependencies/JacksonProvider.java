@@ -1,9 +1,16 @@
 package platform.dependencies;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import io.github.suppierk.inject.Provides;
 import io.javalin.json.JavalinJackson;
 import jakarta.inject.Singleton;
+import java.util.Map;
+import platform.web.StreamingJsonMapper;
 
 /**
  * Provides singletons to manage {@link ObjectMapper} instances.
@@ -16,13 +23,20 @@ public final class JacksonProvider {
   /**
    * A good place to apply some common configuration, for example, date formatting.
    *
+   * <p>Default thread-local recycler pool does not reuse buffers across virtual threads, each of
+   * which serves a single request, so buffers are pooled in the factory instead. {@link
+   * BlackbirdModule} replaces reflective access to properties and constructors with generated
+   * lambdas.
+   *
    * @return a {@link ObjectMapper} instance
    */
   @Provides
   @Singleton
   @SuppressWarnings("unused")
   public ObjectMapper objectMapper() {
-    return new ObjectMapper();
+    final var jsonFactory =
+        JsonFactory.builder().recyclerPool(JsonRecyclerPools.newConcurrentDequePool()).build();
+    return new ObjectMapper(jsonFactory).registerModule(new BlackbirdModule());
   }
 
   /**
@@ -37,4 +51,45 @@ public final class JacksonProvider {
   public JavalinJackson javalinJackson(ObjectMapper objectMapper) {
     return new JavalinJackson(objectMapper, true);
   }
+
+  /**
+   * @param objectMapper from {@link #objectMapper()} autowired by {@link
+   *     io.github.suppierk.inject.Injector}
+   * @param javalinJackson from {@link #javalinJackson(ObjectMapper)} autowired by {@link
+   *     io.github.suppierk.inject.Injector}
+   * @return a {@link StreamingJsonMapper} instance for Javalin to write responses without
+   *     intermediate strings, which also speaks Smile and CBOR with the same configuration
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public StreamingJsonMapper streamingJsonMapper(
+      ObjectMapper objectMapper, JavalinJackson javalinJackson) {
+    return new StreamingJsonMapper(
+        objectMapper,
+        javalinJackson,
+        Map.of(
+            StreamingJsonMapper.SMILE,
+            smileObjectMapper(objectMapper),
+            StreamingJsonMapper.CBOR,
+            cborObjectMapper(objectMapper)));
+  }
+
+  /**
+   * @param objectMapper from {@link #objectMapper()} to copy the configuration from
+   * @return a {@link ObjectMapper} for Smile bodies, pooling buffers the same way as for JSON
+   */
+  public ObjectMapper smileObjectMapper(ObjectMapper objectMapper) {
+    return objectMapper.copyWith(
+        SmileFactory.builder().recyclerPool(JsonRecyclerPools.newConcurrentDequePool()).build());
+  }
+
+  /**
+   * @param objectMapper from {@link #objectMapper()} to copy the configuration from
+   * @return a {@link ObjectMapper} for CBOR bodies, pooling buffers the same way as for JSON
+   */
+  public ObjectMapper cborObjectMapper(ObjectMapper objectMapper) {
+    return objectMapper.copyWith(
+        CBORFactory.builder().recyclerPool(JsonRecyclerPools.newConcurrentDequePool()).build());
+  }
 }
@@ -4,14 +4,28 @@ import io.github.suppierk.inject.Injector;
 import io.github.suppierk.inject.Provides;
 import io.javalin.Javalin;
 import io.javalin.apibuilder.EndpointGroup;
-import io.javalin.json.JavalinJackson;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
 import io.javalin.openapi.plugin.OpenApiPlugin;
 import io.javalin.openapi.plugin.swagger.SwaggerPlugin;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import platform.concurrency.DeadlineExceededException;
+import platform.concurrency.ExecutorOverloadedException;
+import platform.database.DatabaseOverloadedException;
+import platform.primitives.ApiDocumentation;
 import platform.primitives.ApplicationName;
+import platform.primitives.EndpointGroups;
+import platform.web.ConcurrencyLimitExceededException;
+import platform.web.ConcurrencyLimiter;
+import platform.web.OpenApiDocument;
+import platform.web.RateLimitExceededException;
+import platform.web.RateLimiter;
+import platform.web.RequestDeadlines;
+import platform.web.StreamingJsonMapper;
 
 /**
  * Everything necessary for the web server in the app.
@@ -22,8 +36,12 @@ import platform.primitives.ApplicationName;
 @Singleton
 public final class JavalinProvider implements AutoCloseable {
   private final ApplicationName applicationName;
-  private final JavalinJackson javalinJackson;
-  private final Set<EndpointGroup> endpoints;
+  private final ApiDocumentation apiDocumentation;
+  private final StreamingJsonMapper jsonMapper;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final RateLimiter rateLimiter;
+  private final RequestDeadlines requestDeadlines;
+  private final EndpointGroups endpointGroups;
 
   private final Javalin javalin;
 
@@ -34,19 +52,29 @@ public final class JavalinProvider implements AutoCloseable {
    * close web server.
    *
    * @param applicationName to set in Swagger API
-   * @param javalinJackson to use during requests / responses handling
-   * @param injector to find {@link EndpointGroup}s to register in the web server
+   * @param apiDocumentation to decide whether Swagger UI is served
+   * @param jsonMapper to use during requests / responses handling
+   * @param concurrencyLimiter to reject requests beyond the concurrency limit with
+   * @param rateLimiter to reject requests of clients exceeding their rate limit with
+   * @param requestDeadlines to bound the work of every request with
+   * @param endpointGroups to register in the web server
    */
   @Inject
   public JavalinProvider(
-      ApplicationName applicationName, JavalinJackson javalinJackson, Injector injector) {
+      ApplicationName applicationName,
+      ApiDocumentation apiDocumentation,
+      StreamingJsonMapper jsonMapper,
+      ConcurrencyLimiter concurrencyLimiter,
+      RateLimiter rateLimiter,
+      RequestDeadlines requestDeadlines,
+      EndpointGroups endpointGroups) {
     this.applicationName = applicationName;
-    this.javalinJackson = javalinJackson;
-
-    this.endpoints =
-        injector.findAll(EndpointGroup.class).stream()
-            .map(injector::get)
-            .collect(Collectors.toUnmodifiableSet());
+    this.apiDocumentation = apiDocumentation;
+    this.jsonMapper = jsonMapper;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.rateLimiter = rateLimiter;
+    this.requestDeadlines = requestDeadlines;
+    this.endpointGroups = endpointGroups;
 
     this.javalin = initializeJavalin();
   }
@@ -80,21 +108,93 @@ public final class JavalinProvider implements AutoCloseable {
 
           config.useVirtualThreads = true;
 
-          config.jsonMapper(javalinJackson);
+          config.jsonMapper(jsonMapper);
+
+          // Registering OpenAPI, serving the document rendered at build time if there is one
+          OpenApiDocument.load()
+              .ifPresentOrElse(
+                  document ->
+                      config.router.mount(router -> router.get(OpenApiDocument.PATH, document)),
+                  () ->
+                      config.registerPlugin(
+                          new OpenApiPlugin(
+                              pluginConfig ->
+                                  pluginConfig.withDefinitionConfiguration(
+                                      (version, definition) ->
+                                          definition.withInfo(
+                                              info -> info.setTitle(applicationName.get()))))));
+
+          if (apiDocumentation.swaggerEnabled()) {
+            config.registerPlugin(new SwaggerPlugin());
+          }
+
+          // Shedding load when there are too many requests, or the database or CPU is overloaded
+          config.router.mount(
+              router -> {
+                router.before(concurrencyLimiter::acquire);
+                router.after(concurrencyLimiter::release);
 
-          // Registering OpenAPI
-          config.registerPlugin(new SwaggerPlugin());
-          config.registerPlugin(
-              new OpenApiPlugin(
-                  pluginConfig ->
-                      pluginConfig.withDefinitionConfiguration(
-                          (version, definition) ->
-                              definition.withInfo(info -> info.setTitle(applicationName.get())))));
+                // Matched routes only, as clients can be limited per route
+                router.beforeMatched(rateLimiter::check);
+
+                router.exception(
+                    RateLimitExceededException.class,
+                    (exception, context) ->
+                        reject(context, HttpStatus.TOO_MANY_REQUESTS, exception.retryAfter()));
+                router.exception(
+                    ConcurrencyLimitExceededException.class,
+                    (exception, context) -> overloaded(context, exception.retryAfter()));
+                router.exception(
+                    DatabaseOverloadedException.class,
+                    (exception, context) -> overloaded(context, exception.retryAfter()));
+                router.exception(
+                    ExecutorOverloadedException.class,
+                    (exception, context) -> overloaded(context, exception.retryAfter()));
+              });
+
+          // Stopping the work of requests once their clients do not wait for them anymore
+          config.router.mount(
+              router -> {
+                router.beforeMatched(requestDeadlines::bind);
+                router.after(requestDeadlines::unbind);
+
+                router.exception(
+                    DeadlineExceededException.class,
+                    (exception, context) ->
+                        context
+                            .status(HttpStatus.GATEWAY_TIMEOUT)
+                            .result(HttpStatus.GATEWAY_TIMEOUT.getMessage()));
+              });
 
           // Registering endpoints
-          for (EndpointGroup endpoint : endpoints) {
+          for (EndpointGroup endpoint : endpointGroups.get()) {
             config.router.apiBuilder(endpoint);
           }
         });
   }
+
+  /**
+   * Rejects the request, suggesting the client to retry later.
+   *
+   * @param context of the rejected request
+   * @param retryAfter to suggest the client to wait before retrying
+   */
+  private static void overloaded(Context context, Duration retryAfter) {
+    reject(context, HttpStatus.SERVICE_UNAVAILABLE, retryAfter);
+  }
+
+  /**
+   * Rejects the request with the given status, suggesting the client to retry later.
+   *
+   * @param context of the rejected request
+   * @param status to reject the request with
+   * @param retryAfter to suggest the client to wait before retrying, rounded up to seconds
+   */
+  private static void reject(Context context, HttpStatus status, Duration retryAfter) {
+    final var seconds = Math.ceilDiv(retryAfter.toNanos(), TimeUnit.SECONDS.toNanos(1));
+    context
+        .header(Header.RETRY_AFTER, Long.toString(Math.max(1L, seconds)))
+        .status(status)
+        .result(status.getMessage());
+  }
 }
@@ -2,10 +2,19 @@ package platform.dependencies;
 
 import com.zaxxer.hikari.HikariDataSource;
 import io.github.suppierk.inject.Provides;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.inject.Singleton;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
+import org.jooq.impl.DefaultConfiguration;
+import platform.database.ConnectionBulkhead;
+import platform.database.DeadlineGuard;
+import platform.database.ReadOnlyDsl;
+import platform.database.ReadReplica;
+import platform.metrics.QueryMetricsListener;
+import platform.metrics.QueryProfiler;
 
 /**
  * Everything necessary to query the database in the app.
@@ -21,13 +30,73 @@ public final class JooqProvider {
    * <p><b>NOTE</b>: this implementation is hardcoded to PostgreSQL, and there is freedom of not
    * only configuration, but also creation of additional connections as needed.
    *
+   * <p>Connections are obtained through the {@link ConnectionBulkhead}, so that overload is
+   * reported immediately instead of waiting for the connection pool timeout.
+   *
+   * <p>Statements are bounded by the deadline of the current request through {@link DeadlineGuard},
+   * which also skips acquiring a connection once the deadline has passed.
+   *
    * @param dataSource to use to connect to the database
+   * @param bulkhead to guard connections with
+   * @param meterRegistry to record query metrics into
+   * @param queryProfiler to profile queries with
    * @return jOOQ {@link DSLContext}
    */
   @Provides
   @Singleton
   @SuppressWarnings("unused")
-  public DSLContext dsl(HikariDataSource dataSource) {
-    return DSL.using(dataSource, SQLDialect.POSTGRES);
+  public DSLContext dsl(
+      HikariDataSource dataSource,
+      ConnectionBulkhead bulkhead,
+      MeterRegistry meterRegistry,
+      QueryProfiler queryProfiler) {
+    final var deadlineGuard = new DeadlineGuard();
+
+    return DSL.using(
+        new DefaultConfiguration()
+            .set(deadlineGuard.wrap(bulkhead.wrap(new DataSourceConnectionProvider(dataSource))))
+            .set(SQLDialect.POSTGRES)
+            .set(
+                deadlineGuard,
+                new QueryMetricsListener(meterRegistry, dataSource.getPoolName()),
+                queryProfiler));
+  }
+
+  /**
+   * Creates {@link ReadOnlyDsl} to route read-only queries to the replica, if it is configured.
+   *
+   * <p>Queries to the replica are bounded by the request deadline like the ones to the primary.
+   *
+   * @param dsl to query the primary database with
+   * @param readReplica to route read-only queries to
+   * @param meterRegistry to record query metrics into
+   * @param queryProfiler to profile queries with
+   * @return {@link ReadOnlyDsl}
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public ReadOnlyDsl readOnlyDsl(
+      DSLContext dsl,
+      ReadReplica readReplica,
+      MeterRegistry meterRegistry,
+      QueryProfiler queryProfiler) {
+    final var deadlineGuard = new DeadlineGuard();
+
+    return new ReadOnlyDsl(
+        dsl,
+        readReplica
+            .dataSource()
+            .map(
+                dataSource ->
+                    DSL.using(
+                        new DefaultConfiguration()
+                            .set(deadlineGuard.wrap(new DataSourceConnectionProvider(dataSource)))
+                            .set(SQLDialect.POSTGRES)
+                            .set(
+                                deadlineGuard,
+                                new QueryMetricsListener(meterRegistry, dataSource.getPoolName()),
+                                queryProfiler)))
+            .orElse(null));
   }
 }
@@ -0,0 +1,80 @@
+package platform.dependencies;
+
+import io.github.suppierk.inject.Provides;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmInfoMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.inject.Singleton;
+
+/**
+ * Everything necessary to collect application metrics.
+ *
+ * <p>Here we are using <a href="https://micrometer.io/">Micrometer</a> with Prometheus registry,
+ * which can be replaced as needed: components record their metrics using {@link MeterRegistry}
+ * abstraction, while only the metrics endpoint depends on Prometheus.
+ *
+ * <p>This class is {@code final} which prohibits its replacement in the {@link
+ * io.github.suppierk.inject.Injector} exposed to the consumers.
+ */
+@Singleton
+public final class MetricsProvider implements AutoCloseable {
+  private final PrometheusMeterRegistry registry;
+  private final JvmGcMetrics gcMetrics;
+  private final VirtualThreadMetrics virtualThreadMetrics;
+
+  /**
+   * Default constructor.
+   *
+   * <p>In this particular case we need internal state to be able to release JVM event listeners.
+   */
+  public MetricsProvider() {
+    this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    this.gcMetrics = new JvmGcMetrics();
+    this.virtualThreadMetrics = new VirtualThreadMetrics();
+
+    new ClassLoaderMetrics().bindTo(registry);
+    new JvmInfoMetrics().bindTo(registry);
+    new JvmMemoryMetrics().bindTo(registry);
+    new JvmThreadMetrics().bindTo(registry);
+    new ProcessorMetrics().bindTo(registry);
+    new UptimeMetrics().bindTo(registry);
+    gcMetrics.bindTo(registry);
+    virtualThreadMetrics.bindTo(registry);
+  }
+
+  /**
+   * @return a {@link PrometheusMeterRegistry} to expose metrics with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public PrometheusMeterRegistry prometheusMeterRegistry() {
+    return registry;
+  }
+
+  /**
+   * @return a {@link MeterRegistry} to record metrics with
+   */
+  @Provides
+  @Singleton
+  @SuppressWarnings("unused")
+  public MeterRegistry meterRegistry() {
+    return registry;
+  }
+
+  /** This will allow {@link io.github.suppierk.inject.Injector} to release JVM event listeners */
+  @Override
+  public void close() {
+    virtualThreadMetrics.close();
+    gcMetrics.close();
+    registry.close();
+  }
+}
@@ -0,0 +1,57 @@
+package platform.endpoints;
+
+import static io.javalin.apibuilder.ApiBuilder.after;
+import static io.javalin.apibuilder.ApiBuilder.before;
+import static io.javalin.apibuilder.ApiBuilder.get;
+
+import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import platform.metrics.HttpMetrics;
+
+/**
+ * Standard metrics endpoint in Prometheus text format, which also records HTTP requests latency.
+ *
+ * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats">Prometheus exposition
+ *     formats</a>
+ */
+@Singleton
+public final class MetricsEndpointGroup implements EndpointGroup {
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final PrometheusMeterRegistry registry;
+  private final HttpMetrics httpMetrics;
+
+  /**
+   * Default constructor.
+   *
+   * @param registry to expose metrics from
+   */
+  @Inject
+  public MetricsEndpointGroup(PrometheusMeterRegistry registry) {
+    this.registry = registry;
+    this.httpMetrics = new HttpMetrics(registry);
+  }
+
+  @Override
+  public void addEndpoints() {
+    before(httpMetrics::start);
+    after(httpMetrics::stop);
+
+    get("/metrics", this::scrape);
+  }
+
+  /**
+   * Writes metrics straight into the response, without building the whole text in memory.
+   *
+   * @param context of the current request
+   * @throws IOException if the response cannot be written
+   */
+  private void scrape(Context context) throws IOException {
+    context.contentType(CONTENT_TYPE);
+    registry.scrape(context.outputStream(), CONTENT_TYPE);
+  }
+}
@@ -0,0 +1,77 @@
+package platform.endpoints;
+
+import static io.javalin.apibuilder.ApiBuilder.delete;
+import static io.javalin.apibuilder.ApiBuilder.get;
+
+import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import platform.metrics.QueryProfiler;
+import platform.primitives.AdminEndpoints;
+
+/**
+ * Exposes the database queries which consumed the most time, as collected by {@link QueryProfiler}.
+ *
+ * <p><b>NOTE</b>: these are administrative endpoints without authentication, which are only served
+ * when enabled by {@link AdminEndpoints#queryProfilerEnabled()} and should not be reachable by the
+ * public.
+ */
+@Singleton
+public final class QueryProfilerEndpointGroup implements EndpointGroup {
+  private static final String QUERIES_ENDPOINT = "/admin/queries";
+  private static final String LIMIT = "limit";
+  private static final int DEFAULT_LIMIT = 20;
+
+  private final QueryProfiler queryProfiler;
+  private final AdminEndpoints adminEndpoints;
+
+  /**
+   * Default constructor.
+   *
+   * @param queryProfiler to read query profiles from
+   * @param adminEndpoints to check whether the endpoints are enabled
+   */
+  @Inject
+  public QueryProfilerEndpointGroup(QueryProfiler queryProfiler, AdminEndpoints adminEndpoints) {
+    this.queryProfiler = queryProfiler;
+    this.adminEndpoints = adminEndpoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void addEndpoints() {
+    if (!adminEndpoints.queryProfilerEnabled()) {
+      return;
+    }
+
+    get(QUERIES_ENDPOINT, this::top);
+    delete(QUERIES_ENDPOINT, this::reset);
+  }
+
+  /**
+   * Responds with the query shapes sorted by the total time in descending order.
+   *
+   * @param context of the current request
+   */
+  private void top(Context context) {
+    final int limit =
+        context
+            .queryParamAsClass(LIMIT, Integer.class)
+            .check(value -> value > 0, "Limit must be positive")
+            .getOrDefault(DEFAULT_LIMIT);
+
+    context.json(queryProfiler.top(limit));
+  }
+
+  /**
+   * Discards collected profiles, for example, to measure the effect of a change.
+   *
+   * @param context of the current request
+   */
+  private void reset(Context context) {
+    queryProfiler.reset();
+    context.status(HttpStatus.NO_CONTENT);
+  }
+}
@@ -0,0 +1,108 @@
+package platform.endpoints;
+
+import static io.javalin.apibuilder.ApiBuilder.after;
+import static io.javalin.apibuilder.ApiBuilder.before;
+
+import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Set;
+import platform.database.ReadOnlyDsl;
+import platform.database.ReadReplica;
+
+/**
+ * Pins clients to the primary database for a short time after their writes, so they always see
+ * their own changes even if the read replica is lagging behind.
+ *
+ * <p>The pin is stored in a cookie holding the time until which reads must go to the primary
+ * database, which makes it work across multiple application instances without shared state.
+ */
+@Singleton
+public final class ReadYourWritesEndpointGroup implements EndpointGroup {
+  /** Cookie holding the epoch millisecond until which the client is pinned to the primary. */
+  public static final String COOKIE = "primary-until";
+
+  private static final Set<HandlerType> READ_METHODS =
+      Set.of(HandlerType.GET, HandlerType.HEAD, HandlerType.OPTIONS);
+
+  private final ReadReplica readReplica;
+
+  /**
+   * Default constructor.
+   *
+   * <p>Depends on the {@link ReadReplica} alone, so that applications without a database do not
+   * initialize one for this group.
+   *
+   * @param readReplica to check whether the replica is configured and to get read-your-writes
+   *     window from
+   */
+  @Inject
+  public ReadYourWritesEndpointGroup(ReadReplica readReplica) {
+    this.readReplica = readReplica;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void addEndpoints() {
+    if (readReplica.dataSource().isEmpty() || readReplica.readYourWritesWindow().isZero()) {
+      return;
+    }
+
+    before(this::pin);
+    after(this::unpin);
+  }
+
+  /**
+   * Routes reads to the primary database for writes and for recently writing clients.
+   *
+   * @param context of the current request
+   */
+  private void pin(Context context) {
+    if (!READ_METHODS.contains(context.method()) || pinnedUntil(context) > now()) {
+      ReadOnlyDsl.pinToPrimary();
+    }
+  }
+
+  /**
+   * Restores routing and pins the client to the primary database after a successful write.
+   *
+   * @param context of the current request
+   */
+  private void unpin(Context context) {
+    ReadOnlyDsl.unpin();
+
+    if (READ_METHODS.contains(context.method()) || context.statusCode() >= 400) {
+      return;
+    }
+
+    final var window = readReplica.readYourWritesWindow();
+    context.cookie(
+        COOKIE,
+        Long.toString(now() + window.toMillis()),
+        (int) Math.max(1L, window.toSeconds() + 1L));
+  }
+
+  /**
+   * @param context of the current request
+   * @return epoch millisecond until which the client is pinned, or {@code 0} if it is not pinned
+   */
+  private static long pinnedUntil(Context context) {
+    final var cookie = context.cookie(COOKIE);
+
+    if (cookie == null) {
+      return 0L;
+    }
+
+    try {
+      return Long.parseLong(cookie);
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+
+  private static long now() {
+    return System.currentTimeMillis();
+  }
+}
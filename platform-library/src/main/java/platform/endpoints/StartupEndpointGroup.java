@@ -0,0 +1,57 @@
+package platform.endpoints;
+
+import static io.javalin.apibuilder.ApiBuilder.get;
+
+import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import platform.StartupTimeline;
+import platform.primitives.AdminEndpoints;
+
+/**
+ * Exposes how long each dependency took to initialize during the application startup, as recorded
+ * by {@link StartupTimeline}.
+ *
+ * <p><b>NOTE</b>: this is an administrative endpoint without authentication, which is only served
+ * when enabled by {@link AdminEndpoints#startupEnabled()} and should not be reachable by the
+ * public.
+ */
+@Singleton
+public final class StartupEndpointGroup implements EndpointGroup {
+  private static final String STARTUP_ENDPOINT = "/admin/startup";
+
+  private final StartupTimeline startupTimeline;
+  private final AdminEndpoints adminEndpoints;
+
+  /**
+   * Default constructor.
+   *
+   * @param startupTimeline to read the startup steps from
+   * @param adminEndpoints to check whether the endpoint is enabled
+   */
+  @Inject
+  public StartupEndpointGroup(StartupTimeline startupTimeline, AdminEndpoints adminEndpoints) {
+    this.startupTimeline = startupTimeline;
+    this.adminEndpoints = adminEndpoints;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void addEndpoints() {
+    if (!adminEndpoints.startupEnabled()) {
+      return;
+    }
+
+    get(STARTUP_ENDPOINT, this::timeline);
+  }
+
+  /**
+   * Responds with the startup steps ordered by their start.
+   *
+   * @param context of the current request
+   */
+  private void timeline(Context context) {
+    context.json(startupTimeline.snapshot());
+  }
+}
@@ -0,0 +1,96 @@
+package platform.metrics;
+
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency histograms of HTTP requests per route, method and status.
+ *
+ * <p>Routes are taken from the endpoint path templates rather than the actual request paths to keep
+ * the amount of time series bounded. Timers are created once per route and reused afterward, so
+ * recording a request is a lock-free map lookup followed by a lock-free histogram update.
+ */
+public final class HttpMetrics {
+  /** Metric name of the HTTP requests timer. */
+  public static final String REQUESTS = "http.server.requests";
+
+  private static final String STARTED_AT = HttpMetrics.class.getName() + ".startedAt";
+  private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+  private final MeterRegistry registry;
+  private final Map<Route, Timer> timers;
+
+  /**
+   * Default constructor.
+   *
+   * @param registry to record metrics into
+   */
+  public HttpMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.timers = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Marks the start of the request, to be used as a {@code before} handler.
+   *
+   * @param context of the current request
+   */
+  public void start(Context context) {
+    context.attribute(STARTED_AT, System.nanoTime());
+  }
+
+  /**
+   * Records the request latency, to be used as an {@code after} handler.
+   *
+   * @param context of the current request
+   */
+  public void stop(Context context) {
+    final Long startedAt = context.attribute(STARTED_AT);
+
+    if (startedAt == null) {
+      return;
+    }
+
+    final var route = new Route(context.method().name(), route(context), context.statusCode());
+    timers
+        .computeIfAbsent(route, this::timer)
+        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param context of the current request
+   * @return path template of the matched endpoint
+   */
+  private static String route(Context context) {
+    final var path = context.endpointHandlerPath();
+
+    // Unmatched requests only go through the wildcard before handlers
+    return path.isEmpty() || "*".equals(path) ? UNMATCHED_ROUTE : path;
+  }
+
+  private Timer timer(Route route) {
+    return Timer.builder(REQUESTS)
+        .description("HTTP requests latency")
+        .tag("method", route.method())
+        .tag("uri", route.uri())
+        .tag("status", Integer.toString(route.status()))
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(30))
+        .register(registry);
+  }
+
+  /**
+   * Identifies the timer of the request.
+   *
+   * @param method of the request
+   * @param uri path template of the matched endpoint
+   * @param status of the response
+   */
+  private record Route(String method, String uri, int status) {}
+}
@@ -0,0 +1,81 @@
+package platform.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteType;
+
+/**
+ * Records latency histograms of jOOQ queries per query type and outcome.
+ *
+ * <p>The time covers the whole query lifecycle, including rendering, execution and fetching the
+ * results. All timers are registered upfront, so recording a query never touches the registry.
+ */
+public final class QueryMetricsListener implements ExecuteListener {
+  /** Metric name of the database queries timer. */
+  public static final String QUERIES = "db.queries";
+
+  private static final String STARTED_AT = QueryMetricsListener.class.getName() + ".startedAt";
+
+  private final Timer[] succeeded;
+  private final Timer[] failed;
+
+  /**
+   * Default constructor.
+   *
+   * @param registry to record metrics into
+   * @param pool name of the database connection pool to distinguish queries to different databases
+   */
+  public QueryMetricsListener(MeterRegistry registry, String pool) {
+    final var types = ExecuteType.values();
+    this.succeeded = new Timer[types.length];
+    this.failed = new Timer[types.length];
+
+    for (final ExecuteType type : types) {
+      succeeded[type.ordinal()] = timer(registry, pool, type, "success");
+      failed[type.ordinal()] = timer(registry, pool, type, "error");
+    }
+  }
+
+  @Override
+  public void start(ExecuteContext ctx) {
+    ctx.data(STARTED_AT, System.nanoTime());
+  }
+
+  @Override
+  public void exception(ExecuteContext ctx) {
+    record(ctx, failed);
+  }
+
+  @Override
+  public void end(ExecuteContext ctx) {
+    record(ctx, ctx.exception() == null ? succeeded : failed);
+  }
+
+  /**
+   * Records the query once, as {@link #end(ExecuteContext)} may follow {@link
+   * #exception(ExecuteContext)}.
+   */
+  private static void record(ExecuteContext ctx, Timer[] timers) {
+    if (ctx.data().remove(STARTED_AT) instanceof Long startedAt) {
+      timers[ctx.type().ordinal()].record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static Timer timer(
+      MeterRegistry registry, String pool, ExecuteType type, String outcome) {
+    return Timer.builder(QUERIES)
+        .description("Database queries latency")
+        .tag("pool", pool)
+        .tag("type", type.name().toLowerCase(Locale.ROOT))
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(100_000))
+        .maximumExpectedValue(Duration.ofSeconds(30))
+        .register(registry);
+  }
+}
@@ -0,0 +1,383 @@
+package platform.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Profiles jOOQ queries grouped by their shape, to find out which statements consume the database
+ * time.
+ *
+ * <p>The shape is the rendered SQL with literals replaced by placeholders and variable-length lists
+ * collapsed, so that {@code IN} lists or multi-row {@code VALUES} of different sizes share the same
+ * shape. Shapes are cached by the rendered SQL, which means that normalization is done once per
+ * distinct statement, and the amount of tracked shapes is bounded.
+ *
+ * <p>All counters are striped, so concurrent queries do not contend on the same memory location.
+ * Queries slower than the configured threshold are logged without bind values.
+ */
+public final class QueryProfiler implements ExecuteListener {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryProfiler.class);
+
+  private static final String EXECUTION = QueryProfiler.class.getName() + ".execution";
+  private static final String OTHER_SHAPE = "<other>";
+  private static final int MAX_CACHED_STATEMENTS = 10_000;
+
+  private static final Pattern LISTS = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+  private static final Pattern TUPLES =
+      Pattern.compile("\\((\\?(?:, \\.\\.\\.)?)\\)(?:\\s*,\\s*\\(\\1\\))+");
+
+  private final long slowQueryThresholdNanos;
+  private final int maxShapes;
+
+  private final Cache<String, ShapeStatistics> statements;
+  private final Map<String, ShapeStatistics> shapes;
+
+  /**
+   * Default constructor.
+   *
+   * @param slowQueryThreshold to log queries slower than that, {@link Duration#ZERO} to disable
+   * @param maxShapes to track, queries of any other shapes are tracked together
+   * @throws IllegalArgumentException if threshold is negative or max shapes is not positive
+   */
+  public QueryProfiler(Duration slowQueryThreshold, int maxShapes) {
+    if (slowQueryThreshold.isNegative()) {
+      throw new IllegalArgumentException(
+          "Slow query threshold %s must not be negative".formatted(slowQueryThreshold));
+    }
+
+    if (maxShapes <= 0) {
+      throw new IllegalArgumentException("Max shapes %s must be positive".formatted(maxShapes));
+    }
+
+    this.slowQueryThresholdNanos =
+        slowQueryThreshold.isZero() ? Long.MAX_VALUE : slowQueryThreshold.toNanos();
+    this.maxShapes = maxShapes;
+
+    this.statements = Caffeine.newBuilder().maximumSize(MAX_CACHED_STATEMENTS).build();
+    this.shapes = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void start(ExecuteContext ctx) {
+    ctx.data(EXECUTION, new Execution(System.nanoTime()));
+  }
+
+  @Override
+  public void recordEnd(ExecuteContext ctx) {
+    if (ctx.data(EXECUTION) instanceof Execution execution) {
+      execution.rows++;
+    }
+  }
+
+  @Override
+  public void exception(ExecuteContext ctx) {
+    if (ctx.data(EXECUTION) instanceof Execution execution) {
+      execution.failed = true;
+    }
+  }
+
+  @Override
+  public void end(ExecuteContext ctx) {
+    if (!(ctx.data().remove(EXECUTION) instanceof Execution execution)) {
+      return;
+    }
+
+    final var elapsedNanos = System.nanoTime() - execution.startedAt;
+    final var sql = sql(ctx);
+
+    if (sql == null) {
+      return;
+    }
+
+    final var rows = execution.rows > 0 ? execution.rows : Math.max(0, ctx.rows());
+    statements.get(sql, this::shape).record(elapsedNanos, rows, execution.failed);
+
+    if (elapsedNanos >= slowQueryThresholdNanos) {
+      LOGGER.warn(
+          "Slow query took {} ms and returned {} rows: {}",
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+          rows,
+          sql);
+    }
+  }
+
+  /**
+   * @param limit of shapes to return
+   * @return profiles of the shapes which consumed the most database time, in descending order
+   */
+  public List<QueryProfile> top(int limit) {
+    return shapes.entrySet().stream()
+        .map(entry -> entry.getValue().profile(entry.getKey()))
+        .sorted(Comparator.comparingDouble(QueryProfile::totalMillis).reversed())
+        .limit(limit)
+        .toList();
+  }
+
+  /** Discards all collected profiles. */
+  public void reset() {
+    statements.invalidateAll();
+    shapes.clear();
+  }
+
+  /**
+   * Replaces literals with placeholders and collapses variable-length lists of placeholders.
+   *
+   * @param sql to normalize
+   * @return shape of the query
+   */
+  static String normalize(String sql) {
+    final var shape = new StringBuilder(sql.length());
+    final var length = sql.length();
+    int i = 0;
+
+    while (i < length) {
+      final var c = sql.charAt(i);
+
+      if (c == '\'') {
+        i = skipString(sql, i + 1);
+        shape.append('?');
+      } else if (c == '"') {
+        final var end = sql.indexOf('"', i + 1);
+        final var next = end < 0 ? length : end + 1;
+        shape.append(sql, i, next);
+        i = next;
+      } else if (Character.isDigit(c) && !isPartOfIdentifier(shape)) {
+        while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+
+        shape.append('?');
+      } else {
+        shape.append(c);
+        i++;
+      }
+    }
+
+    final var lists = LISTS.matcher(shape).replaceAll("?, ...");
+    return TUPLES.matcher(lists).replaceAll("($1), ...");
+  }
+
+  /**
+   * @param sql containing the string literal
+   * @param from position right after the opening quote
+   * @return position right after the closing quote
+   */
+  private static int skipString(String sql, int from) {
+    int i = from;
+
+    while (i < sql.length()) {
+      if (sql.charAt(i) == '\'') {
+        // Two quotes in a row is an escaped quote
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+          i += 2;
+          continue;
+        }
+
+        return i + 1;
+      }
+
+      i++;
+    }
+
+    return i;
+  }
+
+  private static boolean isPartOfIdentifier(StringBuilder shape) {
+    if (shape.isEmpty()) {
+      return false;
+    }
+
+    final var previous = shape.charAt(shape.length() - 1);
+    return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+  }
+
+  private static String sql(ExecuteContext ctx) {
+    if (ctx.sql() != null) {
+      return ctx.sql();
+    }
+
+    final var batch = ctx.batchSQL();
+    return batch.length == 0 ? null : batch[0];
+  }
+
+  private ShapeStatistics shape(String sql) {
+    final var shape = normalize(sql);
+    final var statistics = shapes.get(shape);
+
+    if (statistics != null) {
+      return statistics;
+    }
+
+    return shapes.size() < maxShapes
+        ? shapes.computeIfAbsent(shape, key -> new ShapeStatistics())
+        : shapes.computeIfAbsent(OTHER_SHAPE, key -> new ShapeStatistics());
+  }
+
+  /** Tracks a single query execution. */
+  private static final class Execution {
+    private final long startedAt;
+    private long rows;
+    private boolean failed;
+
+    private Execution(long startedAt) {
+      this.startedAt = startedAt;
+    }
+  }
+
+  /**
+   * Aggregated statistics of a single shape.
+   *
+   * <p>The latency histogram has 8 linear buckets per power of two microseconds, which bounds the
+   * error of the reported percentiles to 12.5%. Buckets are allocated on the first use.
+   */
+  private static final class ShapeStatistics {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder rows = new LongAdder();
+    private final AtomicReferenceArray<LongAdder> histogram = new AtomicReferenceArray<>(BUCKETS);
+
+    private void record(long elapsedNanos, long fetchedRows, boolean failed) {
+      count.increment();
+      totalNanos.add(elapsedNanos);
+      maxNanos.accumulate(elapsedNanos);
+      rows.add(fetchedRows);
+
+      if (failed) {
+        errors.increment();
+      }
+
+      bucket(index(TimeUnit.NANOSECONDS.toMicros(elapsedNanos))).increment();
+    }
+
+    private LongAdder bucket(int index) {
+      final var bucket = histogram.get(index);
+
+      if (bucket != null) {
+        return bucket;
+      }
+
+      histogram.compareAndSet(index, null, new LongAdder());
+      return histogram.get(index);
+    }
+
+    private QueryProfile profile(String shape) {
+      final var counts = new long[BUCKETS];
+      long total = 0;
+
+      for (int i = 0; i < BUCKETS; i++) {
+        final var bucket = histogram.get(i);
+        counts[i] = bucket == null ? 0L : bucket.sum();
+        total += counts[i];
+      }
+
+      final var executions = count.sum();
+      final var totalMillis = toMillis(totalNanos.sum());
+
+      return new QueryProfile(
+          shape,
+          executions,
+          errors.sum(),
+          rows.sum(),
+          totalMillis,
+          executions == 0 ? 0.0 : totalMillis / executions,
+          toMillis(maxNanos.get()),
+          percentile(counts, total, 0.50),
+          percentile(counts, total, 0.95),
+          percentile(counts, total, 0.99));
+    }
+
+    private static int index(long micros) {
+      if (micros < SUB_BUCKETS) {
+        return (int) Math.max(0L, micros);
+      }
+
+      final var exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(micros));
+      final var subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return Math.min(BUCKETS - 1, (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    /**
+     * @return upper bound of the bucket in milliseconds
+     */
+    private static double upperBoundMillis(int index) {
+      if (index < SUB_BUCKETS) {
+        return index / 1_000.0;
+      }
+
+      final var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      final var subBucket = index % SUB_BUCKETS;
+      final var width = 1L << (exponent - SUB_BUCKET_BITS);
+      return ((SUB_BUCKETS + subBucket) * width + width - 1) / 1_000.0;
+    }
+
+    private static double percentile(long[] counts, long total, double quantile) {
+      if (total == 0) {
+        return 0.0;
+      }
+
+      final var rank = (long) Math.ceil(total * quantile);
+      long seen = 0;
+
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+
+        if (seen >= rank) {
+          return upperBoundMillis(i);
+        }
+      }
+
+      return upperBoundMillis(counts.length - 1);
+    }
+
+    private static double toMillis(long nanos) {
+      return nanos / 1_000_000.0;
+    }
+  }
+
+  /**
+   * Profile of the queries sharing the same shape.
+   *
+   * @param shape of the queries
+   * @param count of executions
+   * @param errors amount of failed executions
+   * @param rows total amount of fetched or affected rows
+   * @param totalMillis total execution time
+   * @param meanMillis mean execution time
+   * @param maxMillis maximum execution time
+   * @param p50Millis median execution time
+   * @param p95Millis 95th percentile of the execution time
+   * @param p99Millis 99th percentile of the execution time
+   */
+  public record QueryProfile(
+      String shape,
+      long count,
+      long errors,
+      long rows,
+      double totalMillis,
+      double meanMillis,
+      double maxMillis,
+      double p50Millis,
+      double p95Millis,
+      double p99Millis) {}
+}
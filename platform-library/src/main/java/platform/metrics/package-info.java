@@ -0,0 +1,2 @@
+/** This package defines instrumentation recording application metrics into the meter registry. */
+package platform.metrics;
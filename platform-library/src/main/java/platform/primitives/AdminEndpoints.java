@@ -0,0 +1,63 @@
+package platform.primitives;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Wraps settings of the administrative endpoints served by the app.
+ *
+ * <p>Required to make {@link io.github.suppierk.inject.Injector} work, because it relies on the
+ * object type for injection.
+ */
+public final class AdminEndpoints {
+  private final boolean queryProfilerEnabled;
+  private final boolean startupEnabled;
+
+  /**
+   * Default constructor.
+   *
+   * @param queryProfilerEnabled to serve the query profiler report
+   * @param startupEnabled to serve the startup timeline
+   */
+  public AdminEndpoints(boolean queryProfilerEnabled, boolean startupEnabled) {
+    this.queryProfilerEnabled = queryProfilerEnabled;
+    this.startupEnabled = startupEnabled;
+  }
+
+  /**
+   * @return {@code true} if the query profiler report should be served
+   */
+  public boolean queryProfilerEnabled() {
+    return queryProfilerEnabled;
+  }
+
+  /**
+   * @return {@code true} if the startup timeline should be served
+   */
+  public boolean startupEnabled() {
+    return startupEnabled;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof AdminEndpoints that)) return false;
+    return queryProfilerEnabled == that.queryProfilerEnabled
+        && startupEnabled == that.startupEnabled;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Objects.hash(queryProfilerEnabled, startupEnabled);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", AdminEndpoints.class.getSimpleName() + "[", "]")
+        .add("queryProfilerEnabled=" + queryProfilerEnabled)
+        .add("startupEnabled=" + startupEnabled)
+        .toString();
+  }
+}
@@ -0,0 +1,50 @@
+package platform.primitives;
+
+import java.util.StringJoiner;
+
+/**
+ * Wraps settings of the API documentation served by the app.
+ *
+ * <p>Required to make {@link io.github.suppierk.inject.Injector} work, because it relies on the
+ * object type for injection.
+ */
+public final class ApiDocumentation {
+  private final boolean swaggerEnabled;
+
+  /**
+   * Default constructor.
+   *
+   * @param swaggerEnabled to serve Swagger UI next to the OpenAPI document
+   */
+  public ApiDocumentation(boolean swaggerEnabled) {
+    this.swaggerEnabled = swaggerEnabled;
+  }
+
+  /**
+   * @return {@code true} if Swagger UI should be served
+   */
+  public boolean swaggerEnabled() {
+    return swaggerEnabled;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof ApiDocumentation that)) return false;
+    return swaggerEnabled == that.swaggerEnabled;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Boolean.hashCode(swaggerEnabled);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ApiDocumentation.class.getSimpleName() + "[", "]")
+        .add("swaggerEnabled=" + swaggerEnabled)
+        .toString();
+  }
+}
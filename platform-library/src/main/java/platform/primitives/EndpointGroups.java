@@ -0,0 +1,54 @@
+package platform.primitives;
+
+import io.javalin.apibuilder.EndpointGroup;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Wraps all {@link EndpointGroup}s registered in the app, to be registered in the web server.
+ *
+ * <p>Required to make {@link io.github.suppierk.inject.Injector} work, because it relies on the
+ * object type for injection. Taking the endpoint groups instead of looking them up also makes them
+ * visible dependencies of the web server, so that the startup can be ordered by them.
+ */
+public final class EndpointGroups {
+  private final List<EndpointGroup> endpointGroups;
+
+  /**
+   * Default constructor.
+   *
+   * @param endpointGroups to register in the web server
+   */
+  public EndpointGroups(List<EndpointGroup> endpointGroups) {
+    this.endpointGroups = List.copyOf(endpointGroups);
+  }
+
+  /**
+   * @return endpoint groups to register in the web server
+   */
+  public List<EndpointGroup> get() {
+    return endpointGroups;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof EndpointGroups that)) return false;
+    return Objects.equals(endpointGroups, that.endpointGroups);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(endpointGroups);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", EndpointGroups.class.getSimpleName() + "[", "]")
+        .add("endpointGroups=" + endpointGroups)
+        .toString();
+  }
+}
@@ -0,0 +1,78 @@
+package platform.primitives;
+
+import java.util.StringJoiner;
+
+/**
+ * Wraps page size limits used by paginated endpoints.
+ *
+ * <p>Required to make {@link io.github.suppierk.inject.Injector} work, because it relies on the
+ * object type for injection.
+ */
+public final class PageLimits {
+  private static final String LIMIT_IS_NOT_POSITIVE = "Page size limit %s must be positive";
+  private static final String DEFAULT_EXCEEDS_MAX =
+      "Default page size %s cannot exceed maximum page size %s";
+
+  private final int defaultLimit;
+  private final int maxLimit;
+
+  /**
+   * Default constructor.
+   *
+   * @param defaultLimit to use when consumer did not request specific page size
+   * @param maxLimit to guard the database from too large pages
+   * @throws IllegalArgumentException if any limit is not positive or default limit exceeds maximum
+   */
+  public PageLimits(int defaultLimit, int maxLimit) {
+    if (defaultLimit <= 0) {
+      throw new IllegalArgumentException(LIMIT_IS_NOT_POSITIVE.formatted(defaultLimit));
+    }
+
+    if (maxLimit <= 0) {
+      throw new IllegalArgumentException(LIMIT_IS_NOT_POSITIVE.formatted(maxLimit));
+    }
+
+    if (defaultLimit > maxLimit) {
+      throw new IllegalArgumentException(DEFAULT_EXCEEDS_MAX.formatted(defaultLimit, maxLimit));
+    }
+
+    this.defaultLimit = defaultLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * @return page size to use when consumer did not request specific page size
+   */
+  public int defaultLimit() {
+    return defaultLimit;
+  }
+
+  /**
+   * @return maximum page size consumer can request
+   */
+  public int maxLimit() {
+    return maxLimit;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof PageLimits that)) return false;
+    return defaultLimit == that.defaultLimit && maxLimit == that.maxLimit;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return 31 * defaultLimit + maxLimit;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", PageLimits.class.getSimpleName() + "[", "]")
+        .add("defaultLimit=" + defaultLimit)
+        .add("maxLimit=" + maxLimit)
+        .toString();
+  }
+}
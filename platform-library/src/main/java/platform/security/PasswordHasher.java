@@ -0,0 +1,102 @@
+package platform.security;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes passwords with salted PBKDF2, which is available in the JDK without extra dependencies.
+ *
+ * <p>Hashing is deliberately slow, taking tens to hundreds of milliseconds of CPU per password, so
+ * it should run on {@link platform.concurrency.CpuExecutor} rather than on request handling
+ * threads.
+ *
+ * <p>Hashes are encoded together with their parameters as {@code
+ * pbkdf2-sha256$iterations$salt$hash}, so that the amount of iterations can be raised over time
+ * without breaking existing passwords.
+ *
+ * @see <a href="https://cheatsheetseries.owasp.org/cheatsheets/Password_Storage_Cheat_Sheet.html">
+ *     OWASP Password Storage Cheat Sheet</a>
+ */
+public final class PasswordHasher {
+  private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+  private static final String SCHEME = "pbkdf2-sha256";
+  private static final String SEPARATOR = "$";
+  private static final int SALT_BYTES = 16;
+  private static final int HASH_BITS = 256;
+
+  private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+  private final int iterations;
+  private final SecureRandom random;
+
+  /**
+   * Default constructor.
+   *
+   * @param iterations of PBKDF2 for new hashes
+   * @throws IllegalArgumentException if iterations are not positive
+   */
+  public PasswordHasher(int iterations) {
+    if (iterations <= 0) {
+      throw new IllegalArgumentException("Iterations %s must be positive".formatted(iterations));
+    }
+
+    this.iterations = iterations;
+    this.random = new SecureRandom();
+  }
+
+  /**
+   * @param password to hash
+   * @return encoded hash with a random salt
+   */
+  public String hash(char[] password) {
+    final var salt = new byte[SALT_BYTES];
+    random.nextBytes(salt);
+
+    return String.join(
+        SEPARATOR,
+        SCHEME,
+        Integer.toString(iterations),
+        ENCODER.encodeToString(salt),
+        ENCODER.encodeToString(derive(password, salt, iterations)));
+  }
+
+  /**
+   * @param password to check
+   * @param encoded hash produced by {@link #hash(char[])}
+   * @return {@code true} if the password matches the hash
+   */
+  public boolean matches(char[] password, String encoded) {
+    final var parts = encoded.split("\\" + SEPARATOR);
+
+    if (parts.length != 4 || !parts[0].equals(SCHEME)) {
+      return false;
+    }
+
+    try {
+      final var expected = DECODER.decode(parts[3]);
+      final var actual = derive(password, DECODER.decode(parts[2]), Integer.parseInt(parts[1]));
+
+      // Constant time comparison does not reveal how many leading bytes match
+      return MessageDigest.isEqual(expected, actual);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static byte[] derive(char[] password, byte[] salt, int iterations) {
+    final var spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+
+    try {
+      return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(ALGORITHM + " is not available", e);
+    } finally {
+      spec.clearPassword();
+    }
+  }
+}
@@ -0,0 +1,2 @@
+/** This package defines components protecting sensitive data of the application users. */
+package platform.security;
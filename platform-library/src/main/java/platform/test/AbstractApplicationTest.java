@@ -7,7 +7,6 @@ import java.time.Duration;
 import org.flywaydb.core.Flyway;
 import org.github.gestalt.config.Gestalt;
 import org.github.gestalt.config.builder.GestaltBuilder;
-import org.github.gestalt.config.exceptions.GestaltException;
 import org.github.gestalt.config.source.ClassPathConfigSourceBuilder;
 import org.github.gestalt.config.source.ConfigSourcePackage;
 import org.github.gestalt.config.source.MapConfigSourceBuilder;
@@ -91,6 +90,14 @@ public abstract class AbstractApplicationTest {
     return dsl;
   }
 
+  /**
+   * @return connection pool to the test database, to be used in tests independently from {@link
+   *     ApplicationWrapper} context, for example, to construct database-bound components directly.
+   */
+  protected static HikariDataSource testDataSource() {
+    return dataSource;
+  }
+
   /**
    * An override of the {@link ConfigurationReaderProvider} for tests, enabling us to create {@link
    * #useTestDatabase(ApplicationWrapper)} functionality.
@@ -118,16 +125,7 @@ public abstract class AbstractApplicationTest {
 
       gestalt.loadConfigs();
 
-      return new ConfigurationReader() {
-        @Override
-        public <T> T read(String path, Class<T> clazz) {
-          try {
-            return gestalt.getConfig(path, clazz);
-          } catch (GestaltException e) {
-            throw new IllegalStateException(e);
-          }
-        }
-      };
+      return reader(gestalt);
     }
   }
 }
@@ -0,0 +1,29 @@
+package platform.web;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the server already works on as many requests as the {@link ConcurrencyLimiter}
+ * allows, meaning that the request should be retried later.
+ */
+public final class ConcurrencyLimitExceededException extends RuntimeException {
+  private final transient Duration retryAfter;
+
+  /**
+   * Default constructor.
+   *
+   * @param message with the details
+   * @param retryAfter to suggest the client to wait before retrying
+   */
+  public ConcurrencyLimitExceededException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return how long the client should wait before retrying
+   */
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,268 @@
+package platform.web;
+
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the amount of requests the server works on at once, adjusting the limit to the observed
+ * latency.
+ *
+ * <p>Request handlers run on virtual threads, so there is no thread pool limiting concurrency
+ * anymore: when a dependency slows down, requests pile up and latency grows for everyone until
+ * timeouts cascade. Instead, requests beyond the limit are rejected right away with {@link
+ * ConcurrencyLimitExceededException}.
+ *
+ * <p>The limit follows the gradient between the long-term and the recent average latency: while
+ * latency stays close to its baseline, the limit grows by its square root per window of samples,
+ * and as soon as latency grows beyond the tolerance, the limit shrinks proportionally. The limit
+ * only grows while it is actually used, and stays within the configured bounds.
+ *
+ * <p>Requests with exempt path prefixes, like health checks, are never limited. Long-running
+ * streams should be exempt as well, as otherwise each of them holds a slot for its whole duration
+ * and skews the latency. Latency of the requests which were rejected, rather than handled, is not
+ * taken into account either.
+ */
+public final class ConcurrencyLimiter implements MeterBinder {
+  private static final String PERMIT = ConcurrencyLimiter.class.getName() + ".permit";
+
+  /** Amount of completed requests to average the recent latency over. */
+  private static final int WINDOW_SAMPLES = 20;
+
+  /** Amount of windows the long-term latency average follows changes over. */
+  private static final int LONG_WINDOWS = 30;
+
+  /** Latency growth ratio which is still considered normal. */
+  private static final double LATENCY_TOLERANCE = 1.5;
+
+  /** Share of the new limit estimate applied per window, to avoid oscillations. */
+  private static final double SMOOTHING = 0.2;
+
+  private static final double MIN_GRADIENT = 0.5;
+
+  /** Statuses of the requests rejected without doing their work, which tell nothing of latency. */
+  private static final Set<HttpStatus> REJECTED =
+      EnumSet.of(
+          HttpStatus.TOO_MANY_REQUESTS, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final Duration retryAfter;
+  private final CopyOnWriteArrayList<String> exemptPaths;
+
+  private final AtomicInteger inFlight;
+  private final LongAdder rejected;
+  private volatile int limit;
+
+  private final ReentrantLock lock;
+  private double estimatedLimit;
+  private double longLatencyNanos;
+  private long windowLatencyNanos;
+  private int windowSamples;
+  private int windowMaxInFlight;
+
+  /**
+   * Default constructor.
+   *
+   * @param initialLimit to start with
+   * @param minLimit below which the limit never goes
+   * @param maxLimit above which the limit never goes
+   * @param retryAfter to suggest to the rejected clients
+   * @param exemptPaths prefixes of the request paths which are never limited
+   * @throws IllegalArgumentException if limits are not positive or not ordered, or duration is
+   *     negative
+   */
+  public ConcurrencyLimiter(
+      int initialLimit, int minLimit, int maxLimit, Duration retryAfter, List<String> exemptPaths) {
+    if (minLimit <= 0 || initialLimit < minLimit || maxLimit < initialLimit) {
+      throw new IllegalArgumentException(
+          "Limits must be positive and ordered, got minimum %s, initial %s and maximum %s"
+              .formatted(minLimit, initialLimit, maxLimit));
+    }
+
+    if (retryAfter.isNegative()) {
+      throw new IllegalArgumentException(
+          "Retry after %s must not be negative".formatted(retryAfter));
+    }
+
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.retryAfter = retryAfter;
+    this.exemptPaths = new CopyOnWriteArrayList<>(exemptPaths);
+
+    this.inFlight = new AtomicInteger();
+    this.rejected = new LongAdder();
+    this.limit = initialLimit;
+
+    this.lock = new ReentrantLock();
+    this.estimatedLimit = initialLimit;
+  }
+
+  /**
+   * Exempts requests from the limit, for example streams running for as long as the client reads
+   * them.
+   *
+   * @param path prefix of the request paths which are never limited
+   * @return this instance
+   */
+  public ConcurrencyLimiter exempt(String path) {
+    exemptPaths.addIfAbsent(path);
+    return this;
+  }
+
+  /**
+   * Admits the request, to be used as a {@code before} handler.
+   *
+   * @param context of the current request
+   * @throws ConcurrencyLimitExceededException if the server already works on as many requests as
+   *     the limit allows
+   */
+  public void acquire(Context context) {
+    if (isExempt(context.path())) {
+      return;
+    }
+
+    final var current = inFlight.incrementAndGet();
+
+    if (current > limit) {
+      inFlight.decrementAndGet();
+      rejected.increment();
+      throw new ConcurrencyLimitExceededException("Too many requests in flight", retryAfter);
+    }
+
+    context.attribute(PERMIT, new Permit(System.nanoTime(), current));
+  }
+
+  /**
+   * Releases the request admitted by {@link #acquire(Context)} and takes its latency into account,
+   * unless it was rejected by later handlers, to be used as an {@code after} handler.
+   *
+   * @param context of the current request
+   */
+  public void release(Context context) {
+    final Permit permit = context.attribute(PERMIT);
+
+    if (permit == null) {
+      return;
+    }
+
+    context.req().removeAttribute(PERMIT);
+    inFlight.decrementAndGet();
+
+    if (!REJECTED.contains(context.status())) {
+      update(System.nanoTime() - permit.acquiredAt(), permit.inFlight());
+    }
+  }
+
+  /**
+   * @return snapshot of the limiter state
+   */
+  public Statistics statistics() {
+    return new Statistics(limit, inFlight.get(), rejected.sum());
+  }
+
+  /**
+   * Exposes the limiter state as metrics.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("http.concurrency.limit", this, limiter -> limiter.limit)
+        .description("Amount of requests which can be handled at once")
+        .register(registry);
+    Gauge.builder("http.concurrency.in.flight", inFlight, AtomicInteger::get)
+        .description("Amount of requests currently handled")
+        .register(registry);
+    FunctionCounter.builder("http.concurrency.rejected", rejected, LongAdder::sum)
+        .description("Amount of requests rejected due to the concurrency limit")
+        .register(registry);
+  }
+
+  /**
+   * Takes the latency of a completed request into account, adjusting the limit once per window.
+   *
+   * @param latencyNanos of the request
+   * @param inFlight amount of requests in flight when the request was admitted
+   */
+  void update(long latencyNanos, int inFlight) {
+    lock.lock();
+    try {
+      windowLatencyNanos += latencyNanos;
+      windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+
+      if (++windowSamples < WINDOW_SAMPLES) {
+        return;
+      }
+
+      final double shortLatencyNanos = Math.max(1.0, (double) windowLatencyNanos / windowSamples);
+      final var maxInFlight = windowMaxInFlight;
+
+      windowLatencyNanos = 0;
+      windowSamples = 0;
+      windowMaxInFlight = 0;
+
+      if (longLatencyNanos == 0) {
+        longLatencyNanos = shortLatencyNanos;
+      } else {
+        longLatencyNanos += (shortLatencyNanos - longLatencyNanos) / LONG_WINDOWS;
+      }
+
+      // Latency went well below its baseline, for example after a recovery, so follow it faster
+      if (longLatencyNanos > 2 * shortLatencyNanos) {
+        longLatencyNanos = (longLatencyNanos + shortLatencyNanos) / 2;
+      }
+
+      // Samples of a barely used limit tell nothing about the latency at higher concurrency
+      if (maxInFlight < estimatedLimit / 2) {
+        return;
+      }
+
+      final var gradient =
+          Math.clamp(LATENCY_TOLERANCE * longLatencyNanos / shortLatencyNanos, MIN_GRADIENT, 1.0);
+      final var newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+
+      estimatedLimit =
+          Math.clamp(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit);
+      limit = (int) estimatedLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isExempt(String path) {
+    for (final String exemptPath : exemptPaths) {
+      if (path.startsWith(exemptPath)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param acquiredAt time of the request admission
+   * @param inFlight amount of requests in flight including this one
+   */
+  private record Permit(long acquiredAt, int inFlight) {}
+
+  /**
+   * Limiter state snapshot.
+   *
+   * @param limit current amount of requests which can be handled at once
+   * @param inFlight amount of requests currently handled
+   * @param rejected total amount of rejected requests
+   */
+  public record Statistics(int limit, int inFlight, long rejected) {}
+}
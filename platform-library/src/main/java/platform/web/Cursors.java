@@ -0,0 +1,50 @@
+package platform.web;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes keyset pagination positions into opaque cursors.
+ *
+ * <p>Cursors are deliberately opaque to consumers: they must not rely on the cursor structure,
+ * which allows changing the underlying ordering without breaking the API.
+ */
+public final class Cursors {
+  private static final int UUID_BYTES = 16;
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  /** Utility class. */
+  private Cursors() {
+    // No instances
+  }
+
+  /**
+   * @param key of the last element on the page
+   * @return opaque URL-safe cursor
+   */
+  public static String encode(UUID key) {
+    return ENCODER.encodeToString(
+        ByteBuffer.allocate(UUID_BYTES)
+            .putLong(key.getMostSignificantBits())
+            .putLong(key.getLeastSignificantBits())
+            .array());
+  }
+
+  /**
+   * @param cursor produced by {@link #encode(UUID)}
+   * @return key of the last element on the previous page
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static UUID decodeUuid(String cursor) {
+    final var bytes = DECODER.decode(cursor);
+
+    if (bytes.length != UUID_BYTES) {
+      throw new IllegalArgumentException("Cursor '%s' is malformed".formatted(cursor));
+    }
+
+    final var buffer = ByteBuffer.wrap(bytes);
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,135 @@
+package platform.web;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Answers conditional requests with entity tags, so that clients which already have the current
+ * representation get {@code 304 Not Modified} without the body being serialized and sent again.
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc9110#name-conditional-requests">RFC 9110</a>
+ */
+public final class EntityTags {
+  private static final String WEAK_PREFIX = "W/";
+  private static final String ANY = "*";
+  private static final String QUOTE = "\"";
+  private static final char VARIANT_SEPARATOR = '-';
+
+  /** Utility class. */
+  private EntityTags() {
+    // No instances
+  }
+
+  /**
+   * @param version of the entity, which must change whenever the entity changes
+   * @return quoted strong entity tag
+   */
+  public static String of(long version) {
+    return QUOTE + version + QUOTE;
+  }
+
+  /**
+   * Representations in other formats than JSON carry different bytes, so they get the content type
+   * appended, while JSON keeps the plain tag of {@link #of(long)}.
+   *
+   * @param version of the entity, which must change whenever the entity changes
+   * @param contentType of the representation
+   * @return quoted strong entity tag of the representation
+   */
+  public static String of(long version, String contentType) {
+    final var etag = of(version);
+    return ContentType.JSON.equals(contentType) ? etag : variant(etag, contentType);
+  }
+
+  /**
+   * Tags another representation of the same entity, like a compressed one, which must not share the
+   * tag, as clients and caches take the same strong tag for the same bytes.
+   *
+   * @param etag of the entity, quoted
+   * @param variant of the representation, like {@code gzip}
+   * @return quoted entity tag with the variant appended
+   */
+  public static String variant(String etag, String variant) {
+    return etag.substring(0, etag.length() - 1) + VARIANT_SEPARATOR + variant + QUOTE;
+  }
+
+  /**
+   * Sets the {@code ETag} header and responds with {@code 304 Not Modified} if the client already
+   * has the entity with this tag.
+   *
+   * @param context of the current request
+   * @param etag of the entity, quoted
+   * @return {@code true} if the response is complete and the body must not be written
+   */
+  public static boolean notModified(Context context, String etag) {
+    context.header(Header.ETAG, etag);
+
+    if (matches(context.header(Header.IF_NONE_MATCH), etag)) {
+      context.status(HttpStatus.NOT_MODIFIED);
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Uses strong comparison, as required for {@code If-Match}: weak tags and tags not produced by
+   * {@link #of(long)} or {@link #of(long, String)} never match, while the representation variant is
+   * ignored, as every representation of the same version is current.
+   *
+   * @param header with the list of entity tags, can be {@code null}
+   * @return versions listed by the header, which is empty if none of the tags can match, or {@code
+   *     null} if there is no header or it accepts any version with {@code *}
+   */
+  public static Set<Long> versions(String header) {
+    if (header == null || header.strip().equals(ANY)) {
+      return null;
+    }
+
+    final var versions = new HashSet<Long>();
+
+    for (final String tag : header.split(",")) {
+      final var value = tag.strip();
+
+      if (value.length() > 2 && value.startsWith(QUOTE) && value.endsWith(QUOTE)) {
+        final var variant = value.indexOf(VARIANT_SEPARATOR, 2);
+        final var end = variant < 0 ? value.length() - 1 : variant;
+
+        try {
+          versions.add(Long.parseLong(value.substring(1, end)));
+        } catch (NumberFormatException e) {
+          // Tag of something else, which cannot match
+        }
+      }
+    }
+
+    return versions;
+  }
+
+  /**
+   * Uses weak comparison, as required for {@code If-None-Match}.
+   *
+   * @param header with the list of entity tags, can be {@code null}
+   * @param etag of the entity, quoted
+   * @return {@code true} if the header lists the entity tag or {@code *}
+   */
+  public static boolean matches(String header, String etag) {
+    if (header == null) {
+      return false;
+    }
+
+    for (final String tag : header.split(",")) {
+      final var value = tag.strip();
+
+      if (value.equals(ANY) || value.equals(etag) || value.equals(WEAK_PREFIX + etag)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
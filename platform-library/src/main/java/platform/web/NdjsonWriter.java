@@ -0,0 +1,152 @@
+package platform.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams newline-delimited JSON directly into the response.
+ *
+ * <p>Each element is serialized straight into the response output stream, so the memory footprint
+ * stays constant regardless of how many elements are written.
+ *
+ * <p>If the client disconnects, {@link #write(Object)} throws {@link UncheckedIOException}, which
+ * allows the producer to stop fetching the data early.
+ *
+ * <p>Once closed, the amount of streamed elements and the duration of the stream are recorded per
+ * route and outcome as {@value #ROWS} and {@value #DURATION} metrics, which together give the
+ * throughput of the exports.
+ *
+ * @see <a href="https://github.com/ndjson/ndjson-spec">NDJSON specification</a>
+ */
+public final class NdjsonWriter implements Closeable {
+  /** Content type of the NDJSON response. */
+  public static final String CONTENT_TYPE = "application/x-ndjson";
+
+  /** Metric name of the amount of elements streamed per response. */
+  public static final String ROWS = "http.ndjson.rows";
+
+  /** Metric name of the duration of the streamed responses. */
+  public static final String DURATION = "http.ndjson.duration";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NdjsonWriter.class);
+  private static final char LINE_SEPARATOR = '\n';
+
+  private final String path;
+  private final String route;
+  private final MeterRegistry meterRegistry;
+  private final ObjectWriter writer;
+  private final JsonGenerator generator;
+  private final long startedAt;
+
+  private long rows;
+  private boolean aborted;
+
+  /**
+   * Default constructor.
+   *
+   * @param objectMapper to serialize elements with
+   * @param context of the current request
+   * @param meterRegistry to record the throughput into
+   * @throws UncheckedIOException if the response output stream cannot be opened
+   */
+  public NdjsonWriter(ObjectMapper objectMapper, Context context, MeterRegistry meterRegistry) {
+    this.path = context.path();
+    this.route = context.endpointHandlerPath();
+    this.meterRegistry = meterRegistry;
+
+    // Flushing after every element defeats response buffering
+    this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    try {
+      context.contentType(CONTENT_TYPE);
+      this.generator = objectMapper.getFactory().createGenerator(context.outputStream());
+      this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Lines are separated by the writer, the default root separator would prefix them with a
+      // space
+      this.generator.setRootValueSeparator(null);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    this.startedAt = System.nanoTime();
+  }
+
+  /**
+   * Writes a single element as a separate line.
+   *
+   * @param element to write
+   * @throws UncheckedIOException if the element cannot be written, for example, when the client
+   *     disconnected
+   */
+  public void write(Object element) {
+    try {
+      writer.writeValue(generator, element);
+      generator.writeRaw(LINE_SEPARATOR);
+      rows++;
+    } catch (IOException e) {
+      aborted = true;
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return amount of elements written so far
+   */
+  public long rows() {
+    return rows;
+  }
+
+  /**
+   * @return average throughput since the writer was created
+   */
+  public double rowsPerSecond() {
+    final var elapsedNanos = Math.max(1L, System.nanoTime() - startedAt);
+    return rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /** Flushes remaining data, releases serialization buffers and records the throughput. */
+  @Override
+  public void close() {
+    try {
+      generator.close();
+    } catch (IOException e) {
+      aborted = true;
+    } finally {
+      final var elapsedNanos = System.nanoTime() - startedAt;
+      final var outcome = aborted ? "aborted" : "completed";
+
+      DistributionSummary.builder(ROWS)
+          .description("Amount of elements streamed per NDJSON response")
+          .baseUnit("rows")
+          .tag("uri", route)
+          .tag("outcome", outcome)
+          .register(meterRegistry)
+          .record(rows);
+      Timer.builder(DURATION)
+          .description("Duration of NDJSON responses")
+          .tag("uri", route)
+          .tag("outcome", outcome)
+          .register(meterRegistry)
+          .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+      LOGGER.debug(
+          "Streamed {} rows from {} at {} rows/s{}",
+          rows,
+          path,
+          Math.round(rowsPerSecond()),
+          aborted ? ", aborted by client" : "");
+    }
+  }
+}
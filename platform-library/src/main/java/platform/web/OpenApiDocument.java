@@ -0,0 +1,128 @@
+package platform.web;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.Header;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the OpenAPI document rendered at build time by the {@code openApiDocument} task of the
+ * platform plugin, together with its gzip-compressed copy and its {@code ETag}, which gets a {@code
+ * -gzip} suffix for the compressed copy.
+ *
+ * <p>Unlike the OpenAPI plugin of Javalin, which assembles the document on startup and serializes
+ * it on every request, this handler only picks between two prepared byte arrays, while clients
+ * which already have the document get {@code 304 Not Modified}.
+ */
+public final class OpenApiDocument implements Handler {
+  /** Path the document is served at, same as the one of the OpenAPI plugin of Javalin. */
+  public static final String PATH = "/openapi";
+
+  /** Path of the document among the resources. */
+  public static final String RESOURCE = "openapi/openapi.json";
+
+  private static final String GZIP = "gzip";
+  private static final String CACHE_CONTROL = "public, max-age=86400";
+  private static final Pattern REJECTED = Pattern.compile("[qQ]=0(\\.0{0,3})?");
+
+  private final byte[] json;
+  private final byte[] gzip;
+  private final String etag;
+  private final String gzipEtag;
+
+  private OpenApiDocument(byte[] json, byte[] gzip, String etag) {
+    this.json = json;
+    this.gzip = gzip;
+    this.etag = etag;
+    this.gzipEtag = EntityTags.variant(etag, GZIP);
+  }
+
+  /**
+   * @return the document rendered at build time, if it is among the resources
+   * @throws UncheckedIOException if the document cannot be read
+   */
+  public static Optional<OpenApiDocument> load() {
+    return load(OpenApiDocument.class.getClassLoader());
+  }
+
+  /**
+   * @param classLoader to look up the resources with
+   * @return the document rendered at build time, if it is among the resources
+   * @throws UncheckedIOException if the document cannot be read
+   */
+  public static Optional<OpenApiDocument> load(ClassLoader classLoader) {
+    final var json = read(classLoader, RESOURCE);
+    final var gzip = read(classLoader, RESOURCE + ".gz");
+    final var etag = read(classLoader, RESOURCE + ".etag");
+
+    if (json == null || gzip == null || etag == null) {
+      return Optional.empty();
+    }
+
+    return Optional.of(
+        new OpenApiDocument(json, gzip, new String(etag, StandardCharsets.US_ASCII).strip()));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void handle(Context context) {
+    context.header(Header.CACHE_CONTROL, CACHE_CONTROL);
+    context.header(Header.VARY, Header.ACCEPT_ENCODING);
+
+    final var compressed = acceptsGzip(context.header(Header.ACCEPT_ENCODING));
+
+    if (EntityTags.notModified(context, compressed ? gzipEtag : etag)) {
+      return;
+    }
+
+    context.contentType(ContentType.JSON);
+
+    if (compressed) {
+      // Javalin leaves responses with Content-Encoding set as they are
+      context.header(Header.CONTENT_ENCODING, GZIP);
+      context.result(gzip);
+    } else {
+      context.result(json);
+    }
+  }
+
+  /**
+   * @return {@code true} if the {@code Accept-Encoding} header lists gzip without rejecting it
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (final String coding : acceptEncoding.split(",")) {
+      final var parameters = coding.split(";");
+
+      if (parameters[0].strip().toLowerCase(Locale.ROOT).equals(GZIP)) {
+        for (int i = 1; i < parameters.length; i++) {
+          if (REJECTED.matcher(parameters[i].strip()).matches()) {
+            return false;
+          }
+        }
+
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static byte[] read(ClassLoader classLoader, String name) {
+    try (InputStream input = classLoader.getResourceAsStream(name)) {
+      return input == null ? null : input.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package platform.web;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination response envelope.
+ *
+ * @param items on the current page
+ * @param nextCursor to request the next page with, {@code null} if this is the last page
+ * @param <T> type of the page elements
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+  /**
+   * Default constructor.
+   *
+   * @throws NullPointerException if items are {@code null}
+   */
+  public Page {
+    items = List.copyOf(items);
+  }
+
+  /**
+   * Creates a page out of the elements fetched using {@link PageRequest#fetchSize()}.
+   *
+   * @param fetched elements ordered by the key
+   * @param request used to fetch the elements
+   * @param keyExtractor to build the cursor from the last element on the page
+   * @return a new {@link Page}
+   * @param <T> type of the page elements
+   */
+  public static <T> Page<T> of(
+      List<T> fetched, PageRequest request, Function<T, UUID> keyExtractor) {
+    if (fetched.size() <= request.limit()) {
+      return new Page<>(fetched, null);
+    }
+
+    final var items = fetched.subList(0, request.limit());
+    return new Page<>(items, Cursors.encode(keyExtractor.apply(items.getLast())));
+  }
+
+  /**
+   * Writes this page as JSON, also exposing the next page location via the {@code Link} header.
+   *
+   * @param context of the current request
+   * @param request used to fetch this page
+   * @see <a href="https://www.rfc-editor.org/rfc/rfc8288">RFC 8288 - Web Linking</a>
+   */
+  public void writeTo(Context context, PageRequest request) {
+    if (nextCursor != null) {
+      context.header(
+          Header.LINK,
+          "<%s?%s=%d&%s=%s>; rel=\"next\""
+              .formatted(
+                  context.path(),
+                  PageRequest.LIMIT,
+                  request.limit(),
+                  PageRequest.CURSOR,
+                  URLEncoder.encode(nextCursor, StandardCharsets.UTF_8)));
+    }
+
+    StreamingJsonMapper.write(context, this);
+  }
+}
@@ -0,0 +1,85 @@
+package platform.web;
+
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import platform.primitives.PageLimits;
+
+/**
+ * Keyset pagination request parameters.
+ *
+ * <p>Unlike offset pagination, keyset pagination lets the database seek directly to the cursor
+ * position using the index, so each page costs the same regardless of how deep the consumer
+ * scrolled.
+ *
+ * @param limit maximum amount of elements to return
+ * @param cursor opaque position after which elements should be returned, {@code null} for the first
+ *     page
+ */
+public record PageRequest(int limit, String cursor) {
+  /** Query parameter name for the page size. */
+  public static final String LIMIT = "limit";
+
+  /** Query parameter name for the cursor. */
+  public static final String CURSOR = "cursor";
+
+  /**
+   * Default constructor.
+   *
+   * @throws IllegalArgumentException if limit is not positive
+   */
+  public PageRequest {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page size limit %s must be positive".formatted(limit));
+    }
+  }
+
+  /**
+   * Reads pagination parameters from the request.
+   *
+   * <p>Page sizes above {@link PageLimits#maxLimit()} are reduced to the maximum.
+   *
+   * @param context of the current request
+   * @param limits to apply
+   * @return validated {@link PageRequest}
+   * @throws BadRequestResponse if the limit is not a positive number
+   */
+  public static PageRequest from(Context context, PageLimits limits) {
+    final int limit =
+        context
+            .queryParamAsClass(LIMIT, Integer.class)
+            .check(value -> value > 0, "Page size limit must be positive")
+            .getOrDefault(limits.defaultLimit());
+
+    return new PageRequest(Math.min(limit, limits.maxLimit()), context.queryParam(CURSOR));
+  }
+
+  /**
+   * @return decoded position for the tables keyed by time-ordered {@link UUID}s
+   * @throws BadRequestResponse if the cursor is malformed
+   */
+  public Optional<UUID> uuidCursor() {
+    if (cursor == null || cursor.isBlank()) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(Cursors.decodeUuid(cursor));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestResponse(HttpStatus.BAD_REQUEST.getMessage(), Map.of(CURSOR, cursor));
+    }
+  }
+
+  /**
+   * The amount of elements to fetch from the database, which includes one extra element to detect
+   * whether the next page exists without issuing a separate count query.
+   *
+   * @return amount of elements to fetch
+   */
+  public int fetchSize() {
+    return limit + 1;
+  }
+}
@@ -0,0 +1,297 @@
+package platform.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate of requests per client with token buckets, so that a single client cannot
+ * saturate the service for everyone else.
+ *
+ * <p>Every key, like an API key or a client IP, gets its own bucket holding up to {@code burst}
+ * tokens and refilled with {@code requests} tokens per {@code period}. A bucket is a single atomic
+ * number, the moment when it becomes full again, which is advanced by one token interval per
+ * request with a compare-and-set, so the check never locks.
+ *
+ * <p>Buckets are kept in a bounded map and expire once they would be full again, as such a bucket
+ * is no different from a new one, so that the amount of distinct keys does not affect memory.
+ *
+ * <p>Admitted responses carry {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code
+ * RateLimit-Reset} headers, while rejected requests get {@link RateLimitExceededException}.
+ *
+ * <p>Behind a load balancer or a reverse proxy, the IP address of the connection is the one of the
+ * balancer, which would make a limit per IP address a global one. In that case, clients have to be
+ * told apart by the forwarded header the balancer sets, see {@link KeyExtractor#of(String,
+ * String)}.
+ *
+ * @see <a href="https://datatracker.ietf.org/doc/draft-ietf-httpapi-ratelimit-headers">RateLimit
+ *     header fields for HTTP</a>
+ */
+public final class RateLimiter implements MeterBinder {
+  /** Header with the amount of requests a client can send at once. */
+  public static final String LIMIT_HEADER = "RateLimit-Limit";
+
+  /** Header with the amount of requests a client can still send right away. */
+  public static final String REMAINING_HEADER = "RateLimit-Remaining";
+
+  /** Header with the amount of seconds until the client can send the limit of requests again. */
+  public static final String RESET_HEADER = "RateLimit-Reset";
+
+  private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final boolean enabled;
+  private final int burst;
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final String limitHeader;
+  private final KeyExtractor keyExtractor;
+  private final List<String> exemptPaths;
+
+  private final Cache<String, AtomicLong> buckets;
+  private final LongAdder rejected;
+
+  /**
+   * Default constructor.
+   *
+   * @param requests amount of tokens added to a bucket per period
+   * @param period to add tokens over
+   * @param burst amount of tokens a bucket holds, which is the amount of requests a client can send
+   *     at once
+   * @param maxKeys amount of buckets to keep at most
+   * @param keyExtractor to tell clients apart with
+   * @param exemptPaths prefixes of the request paths which are never limited
+   * @throws IllegalArgumentException if amounts or period are not positive
+   */
+  public RateLimiter(
+      int requests,
+      Duration period,
+      int burst,
+      long maxKeys,
+      KeyExtractor keyExtractor,
+      List<String> exemptPaths) {
+    if (requests <= 0 || burst <= 0 || maxKeys <= 0) {
+      throw new IllegalArgumentException(
+          "Requests %s, burst %s and keys %s must be positive".formatted(requests, burst, maxKeys));
+    }
+
+    if (period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("Period %s must be positive".formatted(period));
+    }
+
+    this.enabled = true;
+    this.burst = burst;
+    this.intervalNanos = Math.max(1L, period.toNanos() / requests);
+    this.burstNanos = intervalNanos * burst;
+    this.limitHeader = Integer.toString(burst);
+    this.keyExtractor = keyExtractor;
+    this.exemptPaths = List.copyOf(exemptPaths);
+
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(Duration.ofNanos(burstNanos))
+            .build();
+    this.rejected = new LongAdder();
+  }
+
+  /** Limiter admitting every request without keeping any buckets. */
+  private RateLimiter() {
+    this.enabled = false;
+    this.burst = 0;
+    this.intervalNanos = 0L;
+    this.burstNanos = 0L;
+    this.limitHeader = null;
+    this.keyExtractor = null;
+    this.exemptPaths = List.of();
+
+    this.buckets = null;
+    this.rejected = new LongAdder();
+  }
+
+  /**
+   * @return limiter admitting every request, for the services which do not limit the rate
+   */
+  public static RateLimiter disabled() {
+    return new RateLimiter();
+  }
+
+  /**
+   * Admits the request if its client has tokens left, to be used as a {@code beforeMatched}
+   * handler, which is necessary to tell clients apart by the route.
+   *
+   * @param context of the current request
+   * @throws RateLimitExceededException if the client has no tokens left
+   */
+  public void check(Context context) {
+    if (!enabled || isExempt(context.path())) {
+      return;
+    }
+
+    final var now = System.nanoTime();
+    final var key = keyExtractor.key(context);
+    var bucket = buckets.getIfPresent(key);
+
+    if (bucket == null) {
+      bucket = buckets.get(key, ignored -> new AtomicLong(now));
+    }
+
+    while (true) {
+      final var fullAt = bucket.get();
+      final var next = Math.max(fullAt - now, 0L) + intervalNanos;
+
+      if (next > burstNanos) {
+        rejected.increment();
+        setHeaders(context, 0, fullAt - now);
+        throw new RateLimitExceededException(
+            "Too many requests", Duration.ofNanos(next - burstNanos));
+      }
+
+      if (bucket.compareAndSet(fullAt, now + next)) {
+        setHeaders(context, (burstNanos - next) / intervalNanos, next);
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return snapshot of the limiter state
+   */
+  public Statistics statistics() {
+    return new Statistics(enabled ? buckets.estimatedSize() : 0L, rejected.sum());
+  }
+
+  /**
+   * Exposes the limiter state as metrics.
+   *
+   * @param registry to register metrics in
+   */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (!enabled) {
+      return;
+    }
+
+    Gauge.builder("http.rate.limit.keys", buckets, Cache::estimatedSize)
+        .description("Amount of clients with a recently used token bucket")
+        .register(registry);
+    FunctionCounter.builder("http.rate.limit.rejected", rejected, LongAdder::sum)
+        .description("Amount of requests rejected due to the rate limit")
+        .register(registry);
+  }
+
+  private void setHeaders(Context context, long remaining, long resetNanos) {
+    context.header(LIMIT_HEADER, limitHeader);
+    context.header(REMAINING_HEADER, Long.toString(Math.min(remaining, burst)));
+    context.header(RESET_HEADER, Long.toString(Math.ceilDiv(resetNanos, SECOND_NANOS)));
+  }
+
+  private boolean isExempt(String path) {
+    for (final String exemptPath : exemptPaths) {
+      if (path.startsWith(exemptPath)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /** Tells clients apart. */
+  @FunctionalInterface
+  public interface KeyExtractor {
+    /**
+     * @param context of the current request
+     * @return key of the client, never {@code null}
+     */
+    String key(Context context);
+
+    /**
+     * Parses the key extractor definition, taking the client IP address from the connection.
+     *
+     * @param definition of the key extractor
+     * @return matching key extractor
+     * @throws IllegalArgumentException if definition is unknown
+     * @see #of(String, String)
+     */
+    static KeyExtractor of(String definition) {
+      return of(definition, null);
+    }
+
+    /**
+     * Parses the key extractor definition, which is one of:
+     *
+     * <ul>
+     *   <li>{@code ip} - the client IP address
+     *   <li>{@code route} - the matched route, which limits every client together
+     *   <li>{@code header:<name>} - the value of the header, like an API key, falling back to the
+     *       client IP address when there is none
+     * </ul>
+     *
+     * <p>Header values are only a fair key if they are authenticated, like an API key checked
+     * before the limiter or by a gateway in front of the service, otherwise a client gets a fresh
+     * bucket for every value it makes up. Header keys are prefixed with {@code h:} and the IP
+     * address fallback with {@code ip:}, so that a header value cannot take the bucket of an IP
+     * address.
+     *
+     * <p>Client IP address is the last entry of the forwarded header, like {@code X-Forwarded-For},
+     * which is the one appended by the trusted load balancer, as the preceding ones can be set by
+     * the client itself. Without the forwarded header, or when the request has none, the IP address
+     * of the connection is used.
+     *
+     * @param definition of the key extractor
+     * @param forwardedHeader set by the trusted load balancer, {@code null} if there is none
+     * @return matching key extractor
+     * @throws IllegalArgumentException if definition is unknown
+     */
+    static KeyExtractor of(String definition, String forwardedHeader) {
+      final KeyExtractor ip = forwardedHeader == null ? Context::ip : forwarded(forwardedHeader);
+
+      if ("ip".equals(definition)) {
+        return ip;
+      }
+
+      if ("route".equals(definition)) {
+        return Context::endpointHandlerPath;
+      }
+
+      if (definition.startsWith("header:") && definition.length() > "header:".length()) {
+        final var header = definition.substring("header:".length());
+        return context -> {
+          final var value = context.header(header);
+          return value == null ? "ip:" + ip.key(context) : "h:" + value;
+        };
+      }
+
+      throw new IllegalArgumentException("Unknown rate limit key %s".formatted(definition));
+    }
+
+    private static KeyExtractor forwarded(String forwardedHeader) {
+      return context -> {
+        final var value = context.header(forwardedHeader);
+
+        if (value == null) {
+          return context.ip();
+        }
+
+        final var address = value.substring(value.lastIndexOf(',') + 1).strip();
+        return address.isEmpty() ? context.ip() : address;
+      };
+    }
+  }
+
+  /**
+   * Limiter state snapshot.
+   *
+   * @param keys approximate amount of clients with a recently used bucket
+   * @param rejected total amount of rejected requests
+   */
+  public record Statistics(long keys, long rejected) {}
+}
@@ -0,0 +1,99 @@
+package platform.web;
+
+import io.javalin.http.Context;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import platform.concurrency.Deadline;
+
+/**
+ * Binds a {@link Deadline} to every matched request, so that the work behind the request stops once
+ * the client is not waiting for it anymore.
+ *
+ * <p>Clients can tell how long they wait with the {@value #TIMEOUT_HEADER} header in milliseconds,
+ * which is capped by the maximum timeout. Otherwise, the timeout of the route is used, falling back
+ * to the default one. Zero timeout means no deadline.
+ */
+public final class RequestDeadlines {
+  /** Header with the amount of milliseconds the client waits for the response. */
+  public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+  private final Duration defaultTimeout;
+  private final Duration maxTimeout;
+  private final Map<String, Duration> routeTimeouts;
+
+  /**
+   * Default constructor.
+   *
+   * @param defaultTimeout for routes without their own timeout, {@link Duration#ZERO} for none
+   * @param maxTimeout clients can ask for, {@link Duration#ZERO} for no limit
+   * @throws IllegalArgumentException if timeouts are negative
+   */
+  public RequestDeadlines(Duration defaultTimeout, Duration maxTimeout) {
+    if (defaultTimeout.isNegative() || maxTimeout.isNegative()) {
+      throw new IllegalArgumentException(
+          "Timeouts %s and %s must not be negative".formatted(defaultTimeout, maxTimeout));
+    }
+
+    this.defaultTimeout = defaultTimeout;
+    this.maxTimeout = maxTimeout;
+    this.routeTimeouts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Overrides the default timeout for the route, for example to let long exports run.
+   *
+   * @param route path template, as registered in Javalin
+   * @param timeout of the route, {@link Duration#ZERO} for none
+   * @return this instance
+   * @throws IllegalArgumentException if timeout is negative
+   */
+  public RequestDeadlines route(String route, Duration timeout) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("Timeout %s must not be negative".formatted(timeout));
+    }
+
+    routeTimeouts.put(route, timeout);
+    return this;
+  }
+
+  /**
+   * Binds the deadline of the request, to be used as a {@code beforeMatched} handler, which is
+   * necessary to find the timeout of the route.
+   *
+   * @param context of the current request
+   */
+  public void bind(Context context) {
+    final var timeout = timeout(context);
+    Deadline.bind(timeout.isZero() ? null : Deadline.after(timeout));
+  }
+
+  /**
+   * Removes the deadline of the request, to be used as an {@code after} handler.
+   *
+   * @param context of the current request
+   */
+  public void unbind(Context context) {
+    Deadline.unbind();
+  }
+
+  private Duration timeout(Context context) {
+    final var header = context.header(TIMEOUT_HEADER);
+
+    if (header != null) {
+      try {
+        final var requested = Duration.ofMillis(Long.parseLong(header.strip()));
+
+        if (requested.isPositive()) {
+          return maxTimeout.isZero() || requested.compareTo(maxTimeout) < 0
+              ? requested
+              : maxTimeout;
+        }
+      } catch (NumberFormatException e) {
+        // Invalid header is ignored, as the request itself can still be served
+      }
+    }
+
+    return routeTimeouts.getOrDefault(context.endpointHandlerPath(), defaultTimeout);
+  }
+}
@@ -0,0 +1,453 @@
+package platform.web;
+
+import io.javalin.config.Key;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.javalin.json.JsonMapper;
+import io.javalin.plugin.ContextPlugin;
+import io.javalin.security.RouteRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import platform.concurrency.DeadlineExceededException;
+
+/**
+ * Collapses identical concurrent {@code GET} requests into a single execution of the handler.
+ *
+ * <p>When many clients request the same hot resource at once, each request would otherwise run the
+ * same query and serialize the same response. Instead, the first request executes the handler and
+ * records its status, headers and body, while identical requests arriving in the meantime wait for
+ * it and get the same bytes. Requests are identical if they have the same path, query string and
+ * the request headers which change the response, which are {@code Accept} and {@code
+ * If-None-Match}.
+ *
+ * <p>Collapsing is opt-in per route with {@link #collapse(Handler)}, and must only be used for
+ * handlers whose response depends on nothing else, for example not on the caller identity.
+ *
+ * <p>Waiting is bounded: if the running request takes longer than the configured wait, the waiting
+ * request executes the handler on its own. If the running request fails, every waiting request
+ * fails with the same exception.
+ */
+public final class SingleFlight {
+  private static final List<String> VARYING_HEADERS = List.of(Header.ACCEPT, Header.IF_NONE_MATCH);
+
+  private final long maxWaitNanos;
+  private final MeterRegistry registry;
+  private final Map<FlightKey, CompletableFuture<RecordedResponse>> flights;
+  private final Map<String, RouteMetrics> routes;
+
+  /**
+   * Default constructor.
+   *
+   * @param maxWait for the running request before executing the handler independently
+   * @param registry to record collapsed requests per route in
+   * @throws IllegalArgumentException if wait is negative
+   */
+  public SingleFlight(Duration maxWait, MeterRegistry registry) {
+    if (maxWait.isNegative()) {
+      throw new IllegalArgumentException("Wait %s must not be negative".formatted(maxWait));
+    }
+
+    this.maxWaitNanos = maxWait.toNanos();
+    this.registry = registry;
+    this.flights = new ConcurrentHashMap<>();
+    this.routes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param handler of a {@code GET} route to collapse identical concurrent requests of
+   * @return handler which executes the given one once per group of identical concurrent requests
+   */
+  public Handler collapse(Handler handler) {
+    return context -> {
+      if (context.method() != HandlerType.GET) {
+        handler.handle(context);
+        return;
+      }
+
+      final var metrics = routes.computeIfAbsent(context.endpointHandlerPath(), RouteMetrics::new);
+      final var key = FlightKey.of(context);
+      final var flight = new CompletableFuture<RecordedResponse>();
+      final var running = flights.putIfAbsent(key, flight);
+
+      if (running == null) {
+        metrics.executed.increment();
+        lead(handler, context, key, flight);
+      } else {
+        follow(handler, context, running, metrics);
+      }
+    };
+  }
+
+  /** Executes the handler, sharing the recorded response with requests which arrive meanwhile. */
+  private void lead(
+      Handler handler, Context context, FlightKey key, CompletableFuture<RecordedResponse> flight)
+      throws Exception {
+    try {
+      final var recordingContext = new RecordingContext(context);
+      handler.handle(recordingContext);
+
+      final var response = recordingContext.response();
+      context.result(response.body());
+      flight.complete(response);
+    } catch (Exception | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  /** Waits for the running request, falling back to the handler once the wait is over. */
+  private void follow(
+      Handler handler,
+      Context context,
+      CompletableFuture<RecordedResponse> running,
+      RouteMetrics metrics)
+      throws Exception {
+    final RecordedResponse response;
+
+    try {
+      response = running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      metrics.timedOut.increment();
+      handler.handle(context);
+      return;
+    } catch (ExecutionException e) {
+      // Deadline of the running request tells nothing about this one
+      if (e.getCause() instanceof DeadlineExceededException) {
+        metrics.executed.increment();
+        handler.handle(context);
+        return;
+      }
+
+      metrics.collapsed.increment();
+      switch (e.getCause()) {
+        case Exception exception -> throw exception;
+        case Error error -> throw error;
+        default -> throw new CompletionException(e.getCause());
+      }
+    }
+
+    metrics.collapsed.increment();
+    response.replay(context);
+  }
+
+  /**
+   * Request identity for collapsing.
+   *
+   * @param path of the request
+   * @param query string of the request, can be {@code null}
+   * @param headers which change the response, in the order of {@link #VARYING_HEADERS}
+   */
+  private record FlightKey(String path, String query, List<String> headers) {
+    private static FlightKey of(Context context) {
+      final var headers = new ArrayList<String>(VARYING_HEADERS.size());
+      for (final String header : VARYING_HEADERS) {
+        headers.add(context.header(header));
+      }
+
+      return new FlightKey(context.path(), context.queryString(), headers);
+    }
+  }
+
+  /**
+   * Response as seen by the client, which can be applied to another request.
+   *
+   * @param status set by the handler, or {@code 0} if it was not set
+   * @param headers set by the handler, in the order they were set
+   * @param body of the response
+   */
+  private record RecordedResponse(int status, List<RecordedHeader> headers, byte[] body) {
+    private void replay(Context context) {
+      if (status > 0) {
+        context.status(status);
+      }
+
+      for (final RecordedHeader header : headers) {
+        header.applyTo(context.res());
+      }
+
+      context.result(body);
+    }
+  }
+
+  /**
+   * @param name of the header, or {@code null} for the content type
+   * @param value of the header
+   * @param added {@code true} if the header was added rather than set
+   */
+  private record RecordedHeader(String name, String value, boolean added) {
+    private void applyTo(HttpServletResponse response) {
+      if (name == null) {
+        response.setContentType(value);
+      } else if (added) {
+        response.addHeader(name, value);
+      } else {
+        response.setHeader(name, value);
+      }
+    }
+  }
+
+  /** Counters of a single route. */
+  private final class RouteMetrics {
+    private final Counter executed;
+    private final Counter collapsed;
+    private final Counter timedOut;
+
+    private RouteMetrics(String route) {
+      this.executed =
+          Counter.builder("http.single.flight.executed")
+              .description("Amount of requests which executed the handler")
+              .tag("route", route)
+              .register(registry);
+      this.collapsed =
+          Counter.builder("http.single.flight.collapsed")
+              .description("Amount of requests which got the response of an identical request")
+              .tag("route", route)
+              .register(registry);
+      this.timedOut =
+          Counter.builder("http.single.flight.timed.out")
+              .description("Amount of requests which stopped waiting for an identical request")
+              .tag("route", route)
+              .register(registry);
+
+      Gauge.builder("http.single.flight.collapse.ratio", this, RouteMetrics::ratio)
+          .description("Share of requests served by collapsing them into identical requests")
+          .tag("route", route)
+          .register(registry);
+    }
+
+    private double ratio() {
+      final var total = executed.count() + collapsed.count() + timedOut.count();
+      return total == 0 ? 0 : collapsed.count() / total;
+    }
+  }
+
+  /**
+   * Context of the request executing the handler, which records everything the handler sets, so
+   * that it can be replayed for the identical requests.
+   *
+   * <p>Status and headers still reach the original response, while the body is buffered.
+   */
+  private static final class RecordingContext implements Context {
+    private final Context delegate;
+    private final RecordingResponse response;
+    private final ByteArrayOutputStream body;
+    private final ServletOutputStream outputStream;
+
+    private InputStream result;
+
+    private RecordingContext(Context delegate) {
+      this.delegate = delegate;
+      this.response = new RecordingResponse(delegate.res());
+      this.body = new ByteArrayOutputStream();
+      this.outputStream = new BufferingOutputStream(body);
+    }
+
+    private RecordedResponse response() throws IOException {
+      if (result != null) {
+        try (final var input = result) {
+          input.transferTo(body);
+        }
+      }
+
+      return new RecordedResponse(
+          response.status, List.copyOf(response.headers), body.toByteArray());
+    }
+
+    @Override
+    public HttpServletRequest req() {
+      return delegate.req();
+    }
+
+    @Override
+    public HttpServletResponse res() {
+      return response;
+    }
+
+    @Override
+    public HandlerType handlerType() {
+      return delegate.handlerType();
+    }
+
+    @Override
+    public String matchedPath() {
+      return delegate.matchedPath();
+    }
+
+    @Override
+    public String endpointHandlerPath() {
+      return delegate.endpointHandlerPath();
+    }
+
+    @Override
+    public <T> T appData(Key<T> key) {
+      return delegate.appData(key);
+    }
+
+    @Override
+    public JsonMapper jsonMapper() {
+      return delegate.jsonMapper();
+    }
+
+    @Override
+    public <T> T with(Class<? extends ContextPlugin<?, T>> clazz) {
+      return delegate.with(clazz);
+    }
+
+    @Override
+    public boolean strictContentTypes() {
+      return delegate.strictContentTypes();
+    }
+
+    @Override
+    public String pathParam(String key) {
+      return delegate.pathParam(key);
+    }
+
+    @Override
+    public Map<String, String> pathParamMap() {
+      return delegate.pathParamMap();
+    }
+
+    @Override
+    public ServletOutputStream outputStream() {
+      return outputStream;
+    }
+
+    @Override
+    public Context minSizeForCompression(int minSizeForCompression) {
+      delegate.minSizeForCompression(minSizeForCompression);
+      return this;
+    }
+
+    @Override
+    public Context result(InputStream resultStream) {
+      this.result = resultStream;
+      return this;
+    }
+
+    @Override
+    public InputStream resultInputStream() {
+      return result;
+    }
+
+    @Override
+    public void future(Supplier<? extends CompletableFuture<?>> future) {
+      throw new UnsupportedOperationException("Asynchronous handlers cannot be collapsed");
+    }
+
+    @Override
+    public void redirect(String location, HttpStatus status) {
+      header(Header.LOCATION, location);
+      status(status);
+    }
+
+    @Override
+    public void writeJsonStream(Stream<?> stream) {
+      contentType(ContentType.APPLICATION_JSON);
+      jsonMapper().writeToOutputStream(stream, outputStream);
+    }
+
+    @Override
+    public Context skipRemainingHandlers() {
+      delegate.skipRemainingHandlers();
+      return this;
+    }
+
+    @Override
+    public Set<RouteRole> routeRoles() {
+      return delegate.routeRoles();
+    }
+  }
+
+  /** Passes status and headers to the original response while recording them. */
+  private static final class RecordingResponse extends HttpServletResponseWrapper {
+    private final List<RecordedHeader> headers;
+    private int status;
+
+    private RecordingResponse(HttpServletResponse response) {
+      super(response);
+      this.headers = new ArrayList<>();
+    }
+
+    @Override
+    public void setStatus(int sc) {
+      super.setStatus(sc);
+      this.status = sc;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+      super.setHeader(name, value);
+      headers.add(new RecordedHeader(name, value, false));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      super.addHeader(name, value);
+      headers.add(new RecordedHeader(name, value, true));
+    }
+
+    @Override
+    public void setContentType(String type) {
+      super.setContentType(type);
+      headers.add(new RecordedHeader(null, type, false));
+    }
+  }
+
+  /** Buffers the body written by the handler. */
+  private static final class BufferingOutputStream extends ServletOutputStream {
+    private final ByteArrayOutputStream buffer;
+
+    private BufferingOutputStream(ByteArrayOutputStream buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      throw new UnsupportedOperationException("Asynchronous writes cannot be collapsed");
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      buffer.write(b, off, len);
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package platform.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import io.javalin.validation.BodyValidator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link JsonMapper} which serializes responses straight into the response output stream, while
+ * {@link Context#json(Object)} builds an intermediate {@link String} first, which is then encoded
+ * into bytes and copied into the response.
+ *
+ * <p>{@link ObjectWriter}s and {@link ObjectReader}s are cached per type, so that serializers are
+ * looked up once instead of once per request. Serialization buffers are recycled by the recycler
+ * pool of the {@link ObjectMapper} factory.
+ *
+ * <p>Besides JSON, {@link #write(Context, Object)} and {@link #bodyValidator(Context, Class)}
+ * negotiate binary formats, like {@value #SMILE} and {@value #CBOR}, by the {@code Accept} and
+ * {@code Content-Type} headers. Javalin passes request and response bodies to {@link JsonMapper} as
+ * strings, which cannot hold binary data, so {@link Context#json(Object)} and {@link
+ * Context#bodyValidator(Class)} always use JSON.
+ *
+ * <p>Streams of elements are handled by {@link JavalinJackson}.
+ */
+public final class StreamingJsonMapper implements JsonMapper {
+  /** Content type of the Smile binary JSON. */
+  public static final String SMILE = "application/x-jackson-smile";
+
+  /** Content type of the Concise Binary Object Representation. */
+  public static final String CBOR = "application/cbor";
+
+  private final JavalinJackson javalinJackson;
+  private final Format json;
+  private final Map<String, Format> binaryFormats;
+
+  /**
+   * Constructor for JSON only.
+   *
+   * @param objectMapper to serialize and deserialize values with
+   * @param javalinJackson to delegate streams of elements to, must use the same {@link
+   *     ObjectMapper}
+   */
+  public StreamingJsonMapper(ObjectMapper objectMapper, JavalinJackson javalinJackson) {
+    this(objectMapper, javalinJackson, Map.of());
+  }
+
+  /**
+   * Default constructor.
+   *
+   * @param objectMapper to serialize and deserialize values with
+   * @param javalinJackson to delegate streams of elements to, must use the same {@link
+   *     ObjectMapper}
+   * @param binaryMappers by the content type of their format, which should be copies of {@code
+   *     objectMapper} with a different factory
+   */
+  public StreamingJsonMapper(
+      ObjectMapper objectMapper,
+      JavalinJackson javalinJackson,
+      Map<String, ObjectMapper> binaryMappers) {
+    this.javalinJackson = javalinJackson;
+    this.json = new Format(ContentType.JSON, objectMapper);
+    this.binaryFormats = new LinkedHashMap<>();
+
+    for (final Map.Entry<String, ObjectMapper> entry : binaryMappers.entrySet()) {
+      binaryFormats.put(mediaType(entry.getKey()), new Format(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  /**
+   * Writes the value as a response in the format requested by the {@code Accept} header, directly
+   * into the response output stream if Javalin is configured with {@link StreamingJsonMapper},
+   * otherwise as JSON through {@link Context#json(Object)}.
+   *
+   * <p>Status and headers must be set before calling this method, as they might be sent together
+   * with the first bytes of the body.
+   *
+   * @param context of the current request
+   * @param value to write
+   * @throws UncheckedIOException if the value cannot be written
+   */
+  public static void write(Context context, Object value) {
+    if (context.jsonMapper() instanceof StreamingJsonMapper streamingJsonMapper) {
+      streamingJsonMapper.writeTo(context, value);
+    } else {
+      context.json(value);
+    }
+  }
+
+  /**
+   * Picks the format {@link #write(Context, Object)} is going to use, so that the representation
+   * can be tagged before the body is written, and sets {@code Vary: Accept} if there is a choice of
+   * formats, as responses without a body, like {@code 304 Not Modified}, need it as well.
+   *
+   * @param context of the current request
+   * @return content type of the response
+   */
+  public static String negotiate(Context context) {
+    if (context.jsonMapper() instanceof StreamingJsonMapper streamingJsonMapper) {
+      streamingJsonMapper.varyByAccept(context);
+      return streamingJsonMapper.format(context.header(Header.ACCEPT)).contentType;
+    }
+
+    return ContentType.JSON;
+  }
+
+  /**
+   * Reads the request body in the format declared by the {@code Content-Type} header, falling back
+   * to {@link Context#bodyValidator(Class)} for JSON.
+   *
+   * @param context of the current request
+   * @param type of the request body
+   * @return validator of the request body
+   * @param <T> type of the request body
+   */
+  public static <T> BodyValidator<T> bodyValidator(Context context, Class<T> type) {
+    if (context.jsonMapper() instanceof StreamingJsonMapper streamingJsonMapper
+        && context.contentType() != null) {
+      final var format = streamingJsonMapper.binaryFormats.get(mediaType(context.contentType()));
+
+      if (format != null) {
+        // Binary body cannot be shown in validation errors
+        return new BodyValidator<>("", type, () -> format.read(context.bodyAsBytes(), type));
+      }
+    }
+
+    return context.bodyValidator(type);
+  }
+
+  /**
+   * Writes the value as a response in the format requested by the {@code Accept} header directly
+   * into the response output stream.
+   *
+   * @param context of the current request
+   * @param value to write
+   * @throws UncheckedIOException if the value cannot be written
+   */
+  public void writeTo(Context context, Object value) {
+    final var format = format(context.header(Header.ACCEPT));
+    varyByAccept(context);
+    context.contentType(format.contentType);
+
+    try {
+      final var generator =
+          format.objectMapper.getFactory().createGenerator(context.outputStream());
+
+      // Javalin closes the response itself, while flushing it early would defeat its buffering
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+      try (generator) {
+        format.writer(value.getClass()).writeValue(generator, value);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toJsonString(Object obj, Type type) {
+    if (obj instanceof String string) {
+      return string;
+    }
+
+    try {
+      return json.writer(obj.getClass()).writeValueAsString(obj);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public InputStream toJsonStream(Object obj, Type type) {
+    return javalinJackson.toJsonStream(obj, type);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeToOutputStream(Stream<?> stream, OutputStream outputStream) {
+    javalinJackson.writeToOutputStream(stream, outputStream);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> T fromJsonString(String json, Type targetType) {
+    try {
+      return this.json.reader(targetType).readValue(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> T fromJsonStream(InputStream json, Type targetType) {
+    try {
+      return this.json.reader(targetType).readValue(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Media ranges are taken in the order they are listed, without weights: callers asking for a
+   * binary format list it first, while anything else, including wildcards, gets JSON.
+   *
+   * @param accept header of the request
+   * @return the format to write the response in
+   */
+  private Format format(String accept) {
+    if (accept == null || binaryFormats.isEmpty()) {
+      return json;
+    }
+
+    for (final String range : accept.split(",")) {
+      final var mediaType = mediaType(range);
+
+      if (mediaType.equals(ContentType.JSON) || mediaType.endsWith("*")) {
+        return json;
+      }
+
+      final var format = binaryFormats.get(mediaType);
+      if (format != null) {
+        return format;
+      }
+    }
+
+    return json;
+  }
+
+  /** Adds {@code Vary: Accept} once, keeping the values other handlers vary by. */
+  private void varyByAccept(Context context) {
+    if (binaryFormats.isEmpty()) {
+      return;
+    }
+
+    final var response = context.res();
+    if (!response.containsHeader(Header.VARY)
+        || !response.getHeaders(Header.VARY).contains(Header.ACCEPT)) {
+      response.addHeader(Header.VARY, Header.ACCEPT);
+    }
+  }
+
+  /**
+   * @return lower case media type without parameters
+   */
+  private static String mediaType(String contentType) {
+    final var parameters = contentType.indexOf(';');
+    return (parameters < 0 ? contentType : contentType.substring(0, parameters))
+        .strip()
+        .toLowerCase(Locale.ROOT);
+  }
+
+  /** Serialization format with its own cache of writers and readers. */
+  private static final class Format {
+    private final String contentType;
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers;
+    private final Map<Type, ObjectReader> readers;
+
+    private Format(String contentType, ObjectMapper objectMapper) {
+      this.contentType = contentType;
+      this.objectMapper = objectMapper;
+      this.writers = new ConcurrentHashMap<>();
+      this.readers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Like {@link JavalinJackson}, serializes values by their runtime type, so that subclasses and
+     * generic containers are written completely.
+     */
+    private ObjectWriter writer(Class<?> type) {
+      return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    private ObjectReader reader(Type type) {
+      return readers.computeIfAbsent(
+          type, key -> objectMapper.readerFor(objectMapper.constructType(key)));
+    }
+
+    private <T> T read(byte[] body, Class<T> type) {
+      try {
+        return reader(type).readValue(body);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,2 @@
+/** Defines reusable building blocks for HTTP endpoints, such as pagination. */
+package platform.web;
@@ -0,0 +1,31 @@
+package platform.wiring;
+
+import java.util.List;
+
+/**
+ * Product of the dependency {@code @Provides} method.
+ *
+ * @param type of the product
+ * @param dependencies types required by the method, apart from the dependency itself
+ * @param factory calling the method
+ * @param <P> type of the dependency providing the product
+ * @param <T> type of the product
+ */
+public record Product<P, T>(Class<T> type, List<Class<?>> dependencies, Factory<P, T> factory) {
+  /**
+   * Calls the {@code @Provides} method.
+   *
+   * @param <P> type of the dependency providing the product
+   * @param <T> type of the product
+   */
+  @FunctionalInterface
+  public interface Factory<P, T> {
+    /**
+     * @param provider to call the method on
+     * @param resolver to obtain the method parameters from
+     * @return the product
+     * @throws Exception thrown by the method
+     */
+    T create(P provider, Resolver resolver) throws Exception;
+  }
+}
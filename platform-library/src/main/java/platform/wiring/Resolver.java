@@ -0,0 +1,12 @@
+package platform.wiring;
+
+/** Resolves dependencies required by the generated {@link Wiring}. */
+public interface Resolver {
+  /**
+   * @param type of the dependency to resolve
+   * @param <T> type of the dependency
+   * @return initialized dependency
+   * @throws IllegalStateException if the dependency cannot be resolved
+   */
+  <T> T get(Class<T> type);
+}
@@ -0,0 +1,289 @@
+package platform.wiring;
+
+import io.github.suppierk.inject.Injector;
+import io.javalin.apibuilder.EndpointGroup;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import platform.primitives.EndpointGroups;
+
+/**
+ * Dependencies created by the generated {@link Wiring}s instead of the reflection-based {@link
+ * Injector}, with the same lifecycle: every dependency is a singleton created on the first use,
+ * while {@link AutoCloseable} dependencies and products are closed in the reverse order of their
+ * creation. Only the instances registered as objects belong to the caller and are not closed.
+ *
+ * <p>{@link EndpointGroups} are collected from the wired {@link EndpointGroup}s directly, instead
+ * of being looked up in the {@link Injector}. Other dependencies which take {@link Injector} itself
+ * are left to the {@link Injector} to create.
+ */
+public final class WiredDependencies implements Resolver, AutoCloseable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WiredDependencies.class);
+
+  private final Map<Class<?>, Binding> bindings;
+  private final Deque<AutoCloseable> closeables;
+
+  /**
+   * Default constructor.
+   *
+   * @param registrations of the registered types to either the implementation class or the instance
+   */
+  private WiredDependencies(Map<Class<?>, Object> registrations) {
+    this.bindings = new LinkedHashMap<>();
+    this.closeables = new ConcurrentLinkedDeque<>();
+
+    for (final Map.Entry<Class<?>, Object> registration : registrations.entrySet()) {
+      final var type = registration.getKey();
+
+      if (registration.getValue() instanceof Class<?> implementation) {
+        final var wiring = Wirings.BY_TYPE.get(implementation);
+        bindings.putIfAbsent(
+            type, new Binding(type, null, wiring.dependencies(), () -> create(wiring), true));
+        addProducts(type, wiring);
+      } else {
+        final var instance = registration.getValue();
+        bindings.putIfAbsent(type, new Binding(type, null, List.of(), () -> instance, false));
+
+        final var wiring = Wirings.BY_TYPE.get(instance.getClass());
+        if (wiring != null) {
+          addProducts(type, wiring);
+        }
+      }
+    }
+
+    final var endpointGroups = bindings.get(EndpointGroups.class);
+    if (endpointGroups != null) {
+      final List<Class<?>> types =
+          bindings.keySet().stream().filter(EndpointGroup.class::isAssignableFrom).toList();
+
+      bindings.put(
+          EndpointGroups.class,
+          new Binding(
+              EndpointGroups.class,
+              endpointGroups.provider(),
+              types,
+              () -> new EndpointGroups(types.stream().map(t -> (EndpointGroup) get(t)).toList()),
+              true));
+    }
+  }
+
+  /**
+   * Wires the registered dependencies, if all of them have generated {@link Wiring}.
+   *
+   * @param registrations of the registered types to either the implementation class or the instance
+   * @return wired dependencies, or empty if some of them have to be created by the {@link Injector}
+   */
+  public static Optional<WiredDependencies> of(Map<Class<?>, Object> registrations) {
+    for (final Object registration : registrations.values()) {
+      if (registration instanceof Class<?> implementation
+          && !Wirings.BY_TYPE.containsKey(implementation)) {
+        LOGGER.info(
+            "Using reflection to wire dependencies: {} has no generated wiring", registration);
+        return Optional.empty();
+      }
+    }
+
+    final var dependencies = new WiredDependencies(registrations);
+
+    for (final Binding binding : dependencies.bindings.values()) {
+      for (final Class<?> dependency : binding.dependencies()) {
+        if (!dependencies.bindings.containsKey(dependency)) {
+          LOGGER.info(
+              "Using reflection to wire dependencies: {} required by {} has no generated wiring",
+              dependency.getName(),
+              binding.type().getName());
+          return Optional.empty();
+        }
+      }
+    }
+
+    return Optional.of(dependencies);
+  }
+
+  /**
+   * @return all dependencies which can be resolved, in the registration order
+   */
+  public Collection<Binding> bindings() {
+    return bindings.values();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public <T> T get(Class<T> type) {
+    final var binding = bindings.get(type);
+
+    if (binding == null) {
+      throw new IllegalStateException("No wiring for %s".formatted(type.getName()));
+    }
+
+    return type.cast(binding.get());
+  }
+
+  /** Closes created dependencies in the reverse order of their creation. */
+  @Override
+  public void close() {
+    for (AutoCloseable closeable = closeables.pollLast();
+        closeable != null;
+        closeable = closeables.pollLast()) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        LOGGER.warn("Failed to close {}", closeable.getClass().getName(), e);
+      }
+    }
+  }
+
+  private <T> T create(Wiring<T> wiring) throws Exception {
+    return wiring.create(this);
+  }
+
+  private <P> void addProducts(Class<?> provider, Wiring<P> wiring) {
+    for (final Product<P, ?> product : wiring.products()) {
+      final List<Class<?>> dependencies = new ArrayList<>();
+      dependencies.add(provider);
+      dependencies.addAll(product.dependencies());
+
+      bindings.putIfAbsent(
+          product.type(),
+          new Binding(
+              product.type(),
+              provider,
+              dependencies,
+              () -> product.factory().create(wiring.type().cast(get(provider)), this),
+              true));
+    }
+  }
+
+  /** Creates a dependency or a product. */
+  @FunctionalInterface
+  private interface Factory {
+    Object create() throws Exception;
+  }
+
+  /**
+   * Lazily created singleton.
+   *
+   * <p>Uses {@link ReentrantLock} instead of {@code synchronized}, which would pin the virtual
+   * thread creating the dependency to its carrier thread.
+   */
+  public final class Binding {
+    private final Class<?> type;
+    private final Class<?> provider;
+    private final List<Class<?>> dependencies;
+    private final Factory factory;
+    private final boolean owned;
+    private final ReentrantLock lock;
+
+    private volatile Object instance;
+
+    private Binding(
+        Class<?> type,
+        Class<?> provider,
+        List<Class<?>> dependencies,
+        Factory factory,
+        boolean owned) {
+      this.type = type;
+      this.provider = provider;
+      this.dependencies = List.copyOf(dependencies);
+      this.factory = factory;
+      this.owned = owned;
+      this.lock = new ReentrantLock();
+    }
+
+    /**
+     * @return type of the dependency
+     */
+    public Class<?> type() {
+      return type;
+    }
+
+    /**
+     * @return registered type declaring the {@code @Provides} method, {@code null} for the
+     *     registered types
+     */
+    public Class<?> provider() {
+      return provider;
+    }
+
+    /**
+     * @return types required to create the dependency
+     */
+    public List<Class<?>> dependencies() {
+      return dependencies;
+    }
+
+    private Object get() {
+      final var existing = instance;
+      if (existing != null) {
+        return existing;
+      }
+
+      lock.lock();
+      try {
+        if (instance == null) {
+          final var created = createInstance();
+
+          // Instances registered as objects belong to the caller, while the same instance can be
+          // provided as several types
+          if (owned
+              && created instanceof AutoCloseable closeable
+              && closeables.stream().noneMatch(added -> added == closeable)) {
+            closeables.addLast(closeable);
+          }
+
+          instance = created;
+        }
+
+        return instance;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private Object createInstance() {
+      try {
+        final var created = factory.create();
+
+        if (created == null) {
+          throw new IllegalStateException("%s was created as null".formatted(type.getName()));
+        }
+
+        return created;
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException("Failed to create %s".formatted(type.getName()), e);
+      }
+    }
+  }
+
+  /** Generated wirings found on the class path, loaded once. */
+  private static final class Wirings {
+    private static final Map<Class<?>, Wiring<?>> BY_TYPE = load();
+
+    private static Map<Class<?>, Wiring<?>> load() {
+      final Map<Class<?>, Wiring<?>> wirings = new HashMap<>();
+
+      try {
+        for (final Wiring<?> wiring : ServiceLoader.load(Wiring.class)) {
+          wirings.putIfAbsent(wiring.type(), wiring);
+        }
+      } catch (ServiceConfigurationError e) {
+        LOGGER.warn("Failed to load generated wiring", e);
+      }
+
+      return Map.copyOf(wirings);
+    }
+  }
+}
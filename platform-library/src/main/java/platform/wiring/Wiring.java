@@ -0,0 +1,36 @@
+package platform.wiring;
+
+import java.util.List;
+
+/**
+ * Creates a dependency and its products without reflection.
+ *
+ * <p>Implementations are generated at compile time by {@code platform-processor} for the classes
+ * having {@code @Inject} constructors, {@code @Provides} methods or {@code @Singleton} annotation,
+ * and are found using {@link java.util.ServiceLoader}.
+ *
+ * @param <T> type of the dependency
+ */
+public interface Wiring<T> {
+  /**
+   * @return type of the dependency
+   */
+  Class<T> type();
+
+  /**
+   * @return types required by the dependency constructor
+   */
+  List<Class<?>> dependencies();
+
+  /**
+   * @param resolver to obtain {@link #dependencies()} from
+   * @return new instance of the dependency
+   * @throws Exception thrown by the dependency constructor
+   */
+  T create(Resolver resolver) throws Exception;
+
+  /**
+   * @return products of the dependency {@code @Provides} methods
+   */
+  List<Product<T, ?>> products();
+}
@@ -0,0 +1,5 @@
+/**
+ * Defines contracts of the dependency wiring generated at compile time, which replaces reflection
+ * during the startup.
+ */
+package platform.wiring;
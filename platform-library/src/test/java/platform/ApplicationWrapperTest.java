@@ -3,6 +3,7 @@ package platform;
 import static io.javalin.apibuilder.ApiBuilder.get;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.javalin.apibuilder.EndpointGroup;
 import io.javalin.http.HttpStatus;
@@ -53,4 +54,36 @@ class ApplicationWrapperTest extends AbstractApplicationTest {
           }
         });
   }
+
+  @Test
+  void recordsConcurrentStartupTimeline() {
+    final var wrapper =
+        useTestDatabase(
+            ApplicationWrapper.createApplication()
+                .concurrentStartup(true)
+                .eagerStartup(true)
+                .build());
+
+    try {
+      JavalinTest.test(
+          wrapper.javalin(),
+          (server, client) -> {
+            try (final var startupResponse = client.get("/admin/startup")) {
+              assertEquals(
+                  HttpStatus.OK.getCode(), startupResponse.code(), "Response code is not OK");
+            }
+          });
+
+      final var timeline = wrapper.startupTimeline();
+      assertTrue(timeline.concurrent(), "Startup must be concurrent");
+      assertTrue(
+          timeline.steps().stream().anyMatch(step -> step.name().equals("HikariDataSource")),
+          "Database must be initialized during the startup");
+      assertTrue(
+          timeline.steps().stream().anyMatch(step -> step.name().equals("Javalin")),
+          "Web server must be initialized during the startup");
+    } finally {
+      wrapper.close();
+    }
+  }
 }
@@ -0,0 +1,234 @@
+package platform;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.suppierk.inject.Injector;
+import io.github.suppierk.inject.Provides;
+import io.javalin.apibuilder.EndpointGroup;
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import platform.primitives.EndpointGroups;
+
+class StartupPlanTest {
+  record Config() {}
+
+  record Database() {}
+
+  record Server() {}
+
+  static class ConfigProvider {
+    @Provides
+    public Config config() {
+      return new Config();
+    }
+  }
+
+  static class DatabaseProvider {
+    @Provides
+    public Database database(Config config) {
+      return new Database();
+    }
+  }
+
+  static class ServerProvider {
+    @Inject
+    public ServerProvider(Config config, Injector injector) {}
+
+    @Provides
+    public Server server() {
+      return new Server();
+    }
+  }
+
+  static class Service {
+    @Inject
+    public Service(Database database) {}
+  }
+
+  static class DatabaseEndpoints implements EndpointGroup {
+    @Inject
+    public DatabaseEndpoints(Database database) {}
+
+    @Override
+    public void addEndpoints() {
+      // No endpoints required
+    }
+  }
+
+  static class EndpointGroupsCollector {
+    @Provides
+    public EndpointGroups endpointGroups(Injector injector) {
+      return new EndpointGroups(List.of());
+    }
+  }
+
+  static class WebServer {
+    @Inject
+    public WebServer(EndpointGroups endpointGroups) {}
+  }
+
+  @Test
+  void initializesInDependencyOrderTest() {
+    for (final boolean concurrently : List.of(false, true)) {
+      final List<Class<?>> resolved = new CopyOnWriteArrayList<>();
+      final var timeline = new StartupTimeline();
+
+      plan().run(resolved::add, concurrently, timeline);
+
+      assertEquals(7, resolved.size());
+      assertTrue(resolved.indexOf(Config.class) < resolved.indexOf(Database.class));
+      assertTrue(resolved.indexOf(Database.class) < resolved.indexOf(Service.class));
+      assertEquals(
+          List.of(ServerProvider.class, Server.class),
+          resolved.subList(5, 7),
+          "Dependencies taking injector must be initialized last");
+
+      final var snapshot = timeline.snapshot();
+      assertEquals(concurrently, snapshot.concurrent());
+      assertEquals(7, snapshot.steps().size());
+      assertEquals(
+          "DatabaseProvider",
+          snapshot.steps().stream()
+              .filter(step -> step.name().equals("Database"))
+              .findFirst()
+              .orElseThrow()
+              .provider());
+    }
+  }
+
+  @Test
+  void initializesIndependentDependenciesConcurrentlyTest() {
+    final var bothStarted = new CountDownLatch(2);
+    final Function<Class<?>, Object> resolver =
+        type -> {
+          if (type == ConfigProvider.class || type == DatabaseProvider.class) {
+            bothStarted.countDown();
+            await(bothStarted);
+          }
+
+          return type;
+        };
+
+    plan().run(resolver, true, new StartupTimeline());
+    assertEquals(0, bothStarted.getCount());
+  }
+
+  @Test
+  void propagatesFailuresTest() {
+    final List<Class<?>> resolved = new CopyOnWriteArrayList<>();
+    final Function<Class<?>, Object> resolver =
+        type -> {
+          if (type == Config.class) {
+            throw new IllegalArgumentException("Broken configuration");
+          }
+
+          resolved.add(type);
+          return type;
+        };
+
+    final var exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> plan().run(resolver, true, new StartupTimeline()));
+    assertEquals("Broken configuration", exception.getMessage());
+    assertFalse(resolved.contains(Database.class), "Dependents must not be initialized");
+  }
+
+  @Test
+  void initializesRequiredDependenciesOnlyTest() {
+    final List<Class<?>> resolved = new CopyOnWriteArrayList<>();
+
+    plan().requiredBy(Service.class).run(resolved::add, false, new StartupTimeline());
+
+    assertEquals(
+        Set.of(
+            ConfigProvider.class,
+            Config.class,
+            DatabaseProvider.class,
+            Database.class,
+            Service.class),
+        Set.copyOf(resolved));
+    assertEquals(5, resolved.size());
+    assertEquals(Service.class, resolved.getLast());
+  }
+
+  @Test
+  void initializesEndpointGroupsBeforeWebServerTest() {
+    final Map<Class<?>, Object> registrations = new LinkedHashMap<>();
+
+    for (final Class<?> type :
+        List.of(
+            WebServer.class,
+            EndpointGroupsCollector.class,
+            ServerProvider.class,
+            DatabaseEndpoints.class,
+            DatabaseProvider.class,
+            ConfigProvider.class)) {
+      registrations.put(type, type);
+    }
+
+    final List<Class<?>> resolved = new CopyOnWriteArrayList<>();
+    new StartupPlan(registrations).run(resolved::add, false, new StartupTimeline());
+
+    assertTrue(resolved.indexOf(DatabaseEndpoints.class) < resolved.indexOf(EndpointGroups.class));
+    assertTrue(resolved.indexOf(EndpointGroups.class) < resolved.indexOf(WebServer.class));
+    assertEquals(
+        List.of(ServerProvider.class, Server.class),
+        resolved.subList(resolved.size() - 2, resolved.size()),
+        "Web server must wait for the endpoint groups instead of being initialized last");
+  }
+
+  @Test
+  void detectsCyclesTest() {
+    final Map<Class<?>, Object> registrations = new LinkedHashMap<>();
+    registrations.put(CyclicA.class, CyclicA.class);
+    registrations.put(CyclicB.class, CyclicB.class);
+
+    assertThrows(IllegalStateException.class, () -> new StartupPlan(registrations));
+  }
+
+  static class CyclicA {
+    @Inject
+    public CyclicA(CyclicB b) {}
+  }
+
+  static class CyclicB {
+    @Inject
+    public CyclicB(CyclicA a) {}
+  }
+
+  private static StartupPlan plan() {
+    final Map<Class<?>, Object> registrations = new LinkedHashMap<>();
+
+    // Registration order is intentionally different from the dependency order
+    for (final Class<?> type :
+        List.of(
+            ServerProvider.class, Service.class, DatabaseProvider.class, ConfigProvider.class)) {
+      registrations.put(type, type);
+    }
+
+    return new StartupPlan(registrations);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Dependencies were not initialized concurrently");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
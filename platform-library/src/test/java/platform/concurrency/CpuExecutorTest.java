@@ -0,0 +1,132 @@
+package platform.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class CpuExecutorTest {
+  @Test
+  void computesOnExecutorThreadTest() {
+    try (final var cpuExecutor = new CpuExecutor(2, 1, Duration.ofSeconds(1))) {
+      final var caller = Thread.currentThread();
+
+      final var thread = cpuExecutor.compute(Thread::currentThread);
+      assertFalse(thread.isVirtual());
+      assertNotSame(caller, thread);
+      assertEquals(1, cpuExecutor.statistics().started());
+    }
+  }
+
+  @Test
+  void rethrowsTaskExceptionsTest() {
+    try (final var cpuExecutor = new CpuExecutor(1, 1, Duration.ofSeconds(1))) {
+      final var exception = new IllegalStateException("Task failed");
+
+      assertSame(
+          exception,
+          assertThrows(
+              IllegalStateException.class,
+              () ->
+                  cpuExecutor.compute(
+                      () -> {
+                        throw exception;
+                      })));
+    }
+  }
+
+  @Test
+  void rejectsWhenQueueIsFullTest() throws Exception {
+    try (final var cpuExecutor = new CpuExecutor(1, 1, Duration.ofSeconds(2));
+        final var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      final var running = new CountDownLatch(1);
+      final var release = new CountDownLatch(1);
+
+      final var busy =
+          CompletableFuture.supplyAsync(
+              () ->
+                  cpuExecutor.compute(
+                      () -> {
+                        running.countDown();
+                        await(release);
+                        return 1;
+                      }),
+              callers);
+      running.await();
+
+      final var queued = CompletableFuture.supplyAsync(() -> cpuExecutor.compute(() -> 2), callers);
+
+      while (cpuExecutor.statistics().queueDepth() == 0) {
+        Thread.onSpinWait();
+      }
+
+      final var exception =
+          assertThrows(ExecutorOverloadedException.class, () -> cpuExecutor.compute(() -> 3));
+      assertEquals(Duration.ofSeconds(2), exception.retryAfter());
+      assertEquals(1, cpuExecutor.statistics().rejected());
+
+      release.countDown();
+      assertEquals(1, busy.get());
+      assertEquals(2, queued.get());
+      assertEquals(2, cpuExecutor.statistics().started());
+    }
+  }
+
+  @Test
+  void computesAllConcurrentlyTest() {
+    try (final var cpuExecutor = new CpuExecutor(2, 2, Duration.ofSeconds(1))) {
+      final var started = new CountDownLatch(2);
+
+      // Each task waits for the other one, so they only complete if they run at the same time
+      final Supplier<Integer> first =
+          () -> {
+            started.countDown();
+            await(started);
+            return 1;
+          };
+      final Supplier<Integer> second =
+          () -> {
+            started.countDown();
+            await(started);
+            return 2;
+          };
+
+      assertEquals(List.of(1, 2), cpuExecutor.computeAll(List.of(first, second)));
+    }
+  }
+
+  @Test
+  void skipsTasksPastCallerDeadlineTest() {
+    try (final var cpuExecutor = new CpuExecutor(1, 1, Duration.ofSeconds(1))) {
+      final var ran = new AtomicBoolean();
+
+      assertThrows(
+          DeadlineExceededException.class,
+          () ->
+              Deadline.run(
+                  Deadline.after(Duration.ZERO),
+                  () -> cpuExecutor.compute(() -> ran.getAndSet(true))));
+      assertFalse(ran.get());
+      assertEquals(0, cpuExecutor.statistics().started());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
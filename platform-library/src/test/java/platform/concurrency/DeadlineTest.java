@@ -0,0 +1,57 @@
+package platform.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineTest {
+  @AfterEach
+  void tearDown() {
+    Deadline.unbind();
+  }
+
+  @Test
+  void expiresTest() {
+    final var future = Deadline.after(Duration.ofMinutes(1));
+    assertFalse(future.isExpired());
+    assertTrue(future.remaining().compareTo(Duration.ofSeconds(59)) > 0);
+    future.check("test");
+
+    final var past = Deadline.after(Duration.ofMillis(-1));
+    assertTrue(past.isExpired());
+    assertEquals(Duration.ZERO, past.remaining());
+    assertThrows(DeadlineExceededException.class, () -> past.check("test"));
+  }
+
+  @Test
+  void bindsToCurrentThreadTest() throws InterruptedException {
+    final var deadline = Deadline.after(Duration.ofMinutes(1));
+    Deadline.bind(deadline);
+
+    assertSame(deadline, Deadline.current().orElseThrow());
+
+    final var thread = Thread.ofVirtual().start(() -> assertTrue(Deadline.current().isEmpty()));
+    thread.join();
+
+    Deadline.unbind();
+    assertTrue(Deadline.current().isEmpty());
+  }
+
+  @Test
+  void restoresPreviousDeadlineTest() {
+    final var outer = Deadline.after(Duration.ofMinutes(1));
+    final var inner = Deadline.after(Duration.ofMinutes(2));
+    Deadline.bind(outer);
+
+    assertSame(inner, Deadline.call(inner, () -> Deadline.current().orElseThrow()));
+    assertEquals(Optional.empty(), Deadline.call(null, Deadline::current));
+    assertSame(outer, Deadline.current().orElseThrow());
+  }
+}
@@ -0,0 +1,100 @@
+package platform.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import org.jooq.ConnectionProvider;
+import org.junit.jupiter.api.Test;
+
+class ConnectionBulkheadTest {
+  static final ConnectionProvider NO_OP =
+      new ConnectionProvider() {
+        @Override
+        public Connection acquire() {
+          return null;
+        }
+
+        @Override
+        public void release(Connection connection) {
+          // Nothing to release
+        }
+      };
+
+  @Test
+  void releasesPermitsTest() {
+    final var bulkhead = new ConnectionBulkhead(1, 0, Duration.ZERO, Duration.ofSeconds(1));
+    final var provider = bulkhead.wrap(NO_OP);
+
+    for (int i = 0; i < 3; i++) {
+      provider.release(provider.acquire());
+    }
+
+    assertEquals(new ConnectionBulkhead.Statistics(1, 0, 0, 3, 0, 0, 0), bulkhead.statistics());
+  }
+
+  @Test
+  void rejectsWhenQueueIsFullTest() {
+    final var bulkhead =
+        new ConnectionBulkhead(1, 0, Duration.ofSeconds(10), Duration.ofSeconds(2));
+    final var provider = bulkhead.wrap(NO_OP);
+    provider.acquire();
+
+    final var exception = assertThrows(DatabaseOverloadedException.class, provider::acquire);
+    assertEquals(Duration.ofSeconds(2), exception.retryAfter());
+    assertEquals(1, bulkhead.statistics().inUse());
+    assertEquals(1, bulkhead.statistics().rejected());
+  }
+
+  @Test
+  void rejectsAfterWaitBudgetTest() {
+    final var bulkhead = new ConnectionBulkhead(1, 1, Duration.ofMillis(50), Duration.ofSeconds(1));
+    final var provider = bulkhead.wrap(NO_OP);
+    provider.acquire();
+
+    assertThrows(DatabaseOverloadedException.class, provider::acquire);
+
+    final var statistics = bulkhead.statistics();
+    assertEquals(0, statistics.queueDepth());
+    assertEquals(1, statistics.rejected());
+    assertEquals(statistics.waitNanos(), statistics.maxWaitNanos());
+  }
+
+  @Test
+  void admitsWaitingRequestOnReleaseTest() throws Exception {
+    final var bulkhead =
+        new ConnectionBulkhead(1, 1, Duration.ofSeconds(10), Duration.ofSeconds(1));
+    final var provider = bulkhead.wrap(NO_OP);
+    final var connection = provider.acquire();
+
+    try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final var waiting = CompletableFuture.runAsync(provider::acquire, executor);
+
+      while (bulkhead.statistics().queueDepth() == 0) {
+        Thread.onSpinWait();
+      }
+
+      provider.release(connection);
+      waiting.get();
+    }
+
+    assertEquals(2, bulkhead.statistics().acquired());
+    assertEquals(1, bulkhead.statistics().inUse());
+  }
+
+  @Test
+  void validatesSettingsTest() {
+    final var second = Duration.ofSeconds(1);
+
+    assertThrows(
+        IllegalArgumentException.class, () -> new ConnectionBulkhead(0, 0, second, second));
+    assertThrows(
+        IllegalArgumentException.class, () -> new ConnectionBulkhead(1, -1, second, second));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ConnectionBulkhead(1, 0, second.negated(), second));
+  }
+}
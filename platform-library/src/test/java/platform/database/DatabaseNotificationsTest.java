@@ -0,0 +1,140 @@
+package platform.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+import org.testcontainers.shaded.org.awaitility.core.ConditionFactory;
+import platform.test.AbstractApplicationTest;
+
+class DatabaseNotificationsTest extends AbstractApplicationTest {
+  static final String CHANNEL = "test_channel";
+
+  final Set<String> received = ConcurrentHashMap.newKeySet();
+  final AtomicInteger connects = new AtomicInteger();
+
+  DatabaseNotifications notifications;
+
+  @BeforeEach
+  void setUp() {
+    notifications =
+        new DatabaseNotifications(
+            testDataSource().getJdbcUrl(),
+            testDataSource().getUsername(),
+            testDataSource().getPassword());
+
+    notifications.listen(
+        CHANNEL,
+        new DatabaseNotifications.Listener() {
+          @Override
+          public void onNotifications(List<String> payloads) {
+            received.addAll(payloads);
+          }
+
+          @Override
+          public void onReconnect() {
+            connects.incrementAndGet();
+          }
+        });
+
+    await().until(() -> notifications.statistics().connected());
+  }
+
+  @AfterEach
+  void tearDown() {
+    notifications.close();
+  }
+
+  @Test
+  void deliversNotificationsAfterCommitTest() {
+    final var payloads = IntStream.range(0, 1_000).mapToObj(i -> "payload-" + i).toList();
+
+    testDsl().transaction(ctx -> notifications.notify(ctx.dsl(), CHANNEL, payloads));
+
+    await().until(() -> received.size() == payloads.size());
+    assertEquals(Set.copyOf(payloads), received);
+    assertEquals(payloads.size(), notifications.statistics().received());
+  }
+
+  @Test
+  void packsMultibytePayloadsWithinLimitTest() {
+    // Three bytes per character in UTF-8, so that character counts stay well below the limit
+    final var payloads =
+        IntStream.range(0, 1_000).mapToObj(i -> "\u7528\u6237-".repeat(20) + i).toList();
+
+    testDsl().transaction(ctx -> notifications.notify(ctx.dsl(), CHANNEL, payloads));
+
+    await().until(() -> received.size() == payloads.size());
+    assertEquals(Set.copyOf(payloads), received);
+  }
+
+  @Test
+  void embedsNotificationWithHeaderTest() {
+    // Looks like a header itself, so it is only delivered intact if the actual header precedes it
+    final var payload = "42|embedded";
+
+    testDsl()
+        .transaction(
+            ctx ->
+                ctx.dsl().select(notifications.notification(CHANNEL, DSL.val(payload))).execute());
+
+    await().until(() -> received.contains(payload));
+    assertEquals(Set.of(payload), received);
+  }
+
+  @Test
+  void dropsNotificationsOnRollbackTest() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            testDsl()
+                .transaction(
+                    ctx -> {
+                      notifications.notify(ctx.dsl(), CHANNEL, List.of("rolled-back"));
+                      throw new IllegalStateException("Rollback");
+                    }));
+
+    testDsl().transaction(ctx -> notifications.notify(ctx.dsl(), CHANNEL, List.of("committed")));
+
+    await().until(() -> received.contains("committed"));
+    assertEquals(Set.of("committed"), received);
+  }
+
+  @Test
+  void reconnectsAfterConnectionLossTest() {
+    assertEquals(1, connects.get());
+
+    testDsl()
+        .fetch(
+            "select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?",
+            "platform-notifications");
+
+    await().until(() -> connects.get() == 2 && notifications.statistics().connected());
+    assertTrue(notifications.statistics().reconnects() >= 1, "Reconnect must be recorded");
+
+    testDsl().transaction(ctx -> notifications.notify(ctx.dsl(), CHANNEL, List.of("after")));
+    await().until(() -> received.contains("after"));
+  }
+
+  @Test
+  void rejectsInvalidChannelTest() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> notifications.notify(testDsl(), "drop table users;", List.of("payload")));
+  }
+
+  private static ConditionFactory await() {
+    return Awaitility.await().pollInterval(Duration.ofMillis(50)).atMost(Duration.ofSeconds(10));
+  }
+}
@@ -0,0 +1,75 @@
+package platform.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.ConnectionProvider;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+import platform.concurrency.Deadline;
+import platform.concurrency.DeadlineExceededException;
+
+class DeadlineGuardTest {
+  private final AtomicInteger executions = new AtomicInteger();
+  private final DeadlineGuard deadlineGuard = new DeadlineGuard();
+  private final DSLContext dsl =
+      DSL.using(
+          new DefaultConfiguration()
+              .set(
+                  new MockConnection(
+                      ctx -> {
+                        executions.incrementAndGet();
+                        return new MockResult[] {new MockResult(1)};
+                      }))
+              .set(SQLDialect.POSTGRES)
+              .set(deadlineGuard));
+
+  @Test
+  void executesWithinDeadlineTest() {
+    assertEquals(1, dsl.execute("select 1"));
+    assertEquals(
+        1, Deadline.call(Deadline.after(Duration.ofMinutes(1)), () -> dsl.execute("select 1")));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void skipsQueriesAfterDeadlineTest() {
+    assertThrows(
+        DeadlineExceededException.class,
+        () -> Deadline.call(Deadline.after(Duration.ZERO), () -> dsl.execute("select 1")));
+    assertEquals(0, executions.get());
+  }
+
+  @Test
+  void skipsConnectionsAfterDeadlineTest() {
+    final var connections = new AtomicInteger();
+    final var connectionProvider =
+        deadlineGuard.wrap(
+            new ConnectionProvider() {
+              @Override
+              public Connection acquire() {
+                connections.incrementAndGet();
+                return new MockConnection(ctx -> new MockResult[0]);
+              }
+
+              @Override
+              public void release(Connection connection) {
+                // No operations required
+              }
+            });
+
+    connectionProvider.release(connectionProvider.acquire());
+    assertThrows(
+        DeadlineExceededException.class,
+        () -> Deadline.call(Deadline.after(Duration.ZERO), connectionProvider::acquire));
+    assertEquals(1, connections.get());
+  }
+}
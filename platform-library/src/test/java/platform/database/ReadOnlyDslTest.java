@@ -0,0 +1,50 @@
+package platform.database;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReadOnlyDslTest {
+  final DSLContext primary = DSL.using(SQLDialect.POSTGRES);
+  final DSLContext replica = DSL.using(SQLDialect.POSTGRES);
+
+  @AfterEach
+  void tearDown() {
+    ReadOnlyDsl.unpin();
+  }
+
+  @Test
+  void fallsBackToPrimaryWithoutReplicaTest() {
+    final var readOnlyDsl = new ReadOnlyDsl(primary, null);
+
+    assertFalse(readOnlyDsl.hasReplica());
+    assertSame(primary, readOnlyDsl.get());
+  }
+
+  @Test
+  void routesToReplicaUnlessPinnedTest() {
+    final var readOnlyDsl = new ReadOnlyDsl(primary, replica);
+    assertTrue(readOnlyDsl.hasReplica());
+    assertSame(replica, readOnlyDsl.get());
+
+    ReadOnlyDsl.pinToPrimary();
+    assertSame(primary, readOnlyDsl.get());
+
+    ReadOnlyDsl.unpin();
+    assertSame(replica, readOnlyDsl.get());
+  }
+
+  @Test
+  void rejectsNegativeReadYourWritesWindowTest() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new ReadReplica(null, Duration.ofSeconds(-1)));
+  }
+}
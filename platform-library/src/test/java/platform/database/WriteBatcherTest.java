@@ -0,0 +1,169 @@
+package platform.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.IntegrityConstraintViolationException;
+import org.junit.jupiter.api.Test;
+
+class WriteBatcherTest {
+  private static final Duration LONG_WINDOW = Duration.ofSeconds(30);
+
+  private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void batchesConcurrentWritesTest() throws Exception {
+    final var batcher = new WriteBatcher<>("test", LONG_WINDOW, 4, this::uppercase);
+
+    final var results = writeConcurrently(batcher, List.of("a", "b", "c", "d"));
+
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(List.of("A", "B", "C", "D").get(i), results.get(i).get());
+    }
+
+    assertEquals(List.of(4), batchSizes);
+  }
+
+  @Test
+  void writesAfterWindowTest() {
+    final var batcher = new WriteBatcher<>("test", Duration.ofMillis(10), 100, this::uppercase);
+
+    assertEquals("A", batcher.write("a"));
+    assertEquals("B", batcher.write("b"));
+    assertEquals(List.of(1, 1), batchSizes);
+  }
+
+  @Test
+  void writesAloneWithoutWindowTest() {
+    final var batcher = new WriteBatcher<>("test", Duration.ZERO, 100, this::uppercase);
+
+    assertEquals("A", batcher.write("a"));
+    assertEquals(List.of(1), batchSizes);
+  }
+
+  @Test
+  void reportsFailedItemsTest() throws Exception {
+    final var registry = new SimpleMeterRegistry();
+    final var batcher =
+        new WriteBatcher<String, String>(
+            "test",
+            LONG_WINDOW,
+            3,
+            items -> {
+              if (items.contains("bad")) {
+                throw new IntegrityConstraintViolationException("Bad item");
+              }
+
+              return uppercase(items);
+            });
+    batcher.bindTo(registry);
+
+    final var results = writeConcurrently(batcher, List.of("a", "bad", "c"));
+
+    assertEquals("A", results.get(0).get());
+    assertInstanceOf(
+        IntegrityConstraintViolationException.class,
+        assertThrows(ExecutionException.class, () -> results.get(1).get()).getCause());
+    assertEquals("C", results.get(2).get());
+
+    assertEquals(
+        1,
+        registry
+            .get("database.write.batch.fallbacks")
+            .tag("name", "test")
+            .functionCounter()
+            .count());
+    assertEquals(
+        2,
+        registry.get("database.write.batch.flushes").tag("name", "test").functionCounter().count());
+  }
+
+  @Test
+  void fallsBackOnDataExceptionsTest() throws Exception {
+    final var batcher =
+        new WriteBatcher<String, String>(
+            "test",
+            LONG_WINDOW,
+            2,
+            items -> {
+              if (items.contains("bad")) {
+                throw new DataAccessException(
+                    "Invalid input", new SQLException("Invalid input syntax", "22P02"));
+              }
+
+              return uppercase(items);
+            });
+
+    final var results = writeConcurrently(batcher, List.of("a", "bad"));
+
+    assertEquals("A", results.get(0).get());
+    assertThrows(ExecutionException.class, () -> results.get(1).get());
+  }
+
+  @Test
+  void failsWholeBatchOnOtherErrorsTest() throws Exception {
+    final var exception =
+        new DataAccessException("Connection lost", new SQLException("Connection failure", "08006"));
+    final var batcher =
+        new WriteBatcher<String, String>(
+            "test",
+            LONG_WINDOW,
+            3,
+            items -> {
+              batchSizes.add(items.size());
+              throw exception;
+            });
+
+    final var results = writeConcurrently(batcher, List.of("a", "b", "c"));
+
+    for (final Future<String> result : results) {
+      assertSame(exception, assertThrows(ExecutionException.class, result::get).getCause());
+    }
+
+    // Nothing is written again one by one
+    assertEquals(List.of(3), batchSizes);
+  }
+
+  @Test
+  void rejectsInvalidSettingsTest() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new WriteBatcher<>("test", Duration.ZERO, 0, this::uppercase));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new WriteBatcher<>("test", Duration.ofMillis(-1), 1, this::uppercase));
+  }
+
+  private List<String> uppercase(List<String> items) {
+    batchSizes.add(items.size());
+    return items.stream().map(String::toUpperCase).toList();
+  }
+
+  /**
+   * Writes every item from its own virtual thread, where batches are flushed only once full.
+   *
+   * @return results of the items in the same order
+   */
+  private static List<Future<String>> writeConcurrently(
+      WriteBatcher<String, String> batcher, List<String> items) {
+    try (final var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+      return items.stream()
+          .map(item -> CompletableFuture.supplyAsync(() -> batcher.write(item), callers))
+          .<Future<String>>map(future -> future)
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package platform.dependencies;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import platform.contracts.Cache;
+import platform.contracts.Caches;
+import platform.contracts.ConfigurationReader;
+
+class CacheProviderTest {
+  static final ConfigurationReader EMPTY_CONFIGURATION =
+      new ConfigurationReader() {
+        @Override
+        public <T> T read(String path, Class<T> clazz) {
+          throw new NoSuchElementException("Path " + path + " is not configured");
+        }
+      };
+
+  final Caches caches = new CacheProvider().caches(EMPTY_CONFIGURATION, new SimpleMeterRegistry());
+
+  @Test
+  void returnsSameCacheByNameTest() {
+    assertSame(caches.cache("test"), caches.cache("test"), "Caches must be reused by name");
+  }
+
+  @Test
+  void readsThroughTest() {
+    final Cache<String, String> cache = caches.cache("read-through");
+    final var loads = new AtomicInteger();
+
+    assertEquals("value", cache.get("key", key -> load(loads, "value")));
+    assertEquals("value", cache.get("key", key -> load(loads, "other")));
+    assertEquals(1, loads.get(), "Value must be loaded once");
+
+    assertEquals(
+        new Cache.Statistics(1, 1, 1, 0),
+        caches.statistics().get("read-through"),
+        "Statistics must reflect one hit and one miss");
+  }
+
+  @Test
+  void doesNotCacheMissingValuesTest() {
+    final Cache<String, String> cache = caches.cache("missing");
+
+    assertNull(cache.get("key", key -> null), "Missing value must be returned as null");
+    assertEquals("value", cache.get("key", key -> "value"), "Missing value must not be cached");
+  }
+
+  @Test
+  void invalidatesTest() {
+    final Cache<String, String> cache = caches.cache("invalidation");
+
+    cache.get("key", key -> "old");
+    cache.invalidate("key");
+    assertEquals("new", cache.get("key", key -> "new"), "Value must be reloaded");
+
+    cache.invalidateAll();
+    assertEquals(0, caches.statistics().get("invalidation").size(), "Cache must be empty");
+  }
+
+  private static String load(AtomicInteger loads, String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+}
@@ -0,0 +1,52 @@
+package platform.dependencies;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.github.gestalt.config.builder.GestaltBuilder;
+import org.github.gestalt.config.source.MapConfigSourceBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import platform.contracts.ConfigurationReader;
+
+class ConfigurationReaderProviderTest {
+  private static ConfigurationReader reader;
+
+  @BeforeAll
+  static void beforeAll() throws Exception {
+    final var gestalt =
+        new GestaltBuilder()
+            .addSource(
+                MapConfigSourceBuilder.builder()
+                    .setCustomConfig(
+                        Map.of("web.rate-limit.requests", "1k", "web.rate-limit.period", "PT2S"))
+                    .build())
+            .build();
+
+    gestalt.loadConfigs();
+    reader = ConfigurationReaderProvider.reader(gestalt);
+  }
+
+  @Test
+  void readsDefinedValuesTest() {
+    assertEquals(
+        Duration.ofSeconds(2),
+        reader.read("web.rate-limit.period", Duration.class, Duration.ofSeconds(1)));
+  }
+
+  @Test
+  void fallsBackForMissingValuesTest() {
+    assertThrows(NoSuchElementException.class, () -> reader.read("web.missing", Integer.class));
+    assertEquals(1, reader.read("web.missing", Integer.class, 1));
+  }
+
+  @Test
+  void rejectsMalformedValuesTest() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> reader.read("web.rate-limit.requests", Integer.class, 1_000));
+  }
+}
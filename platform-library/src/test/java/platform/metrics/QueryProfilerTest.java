@@ -0,0 +1,119 @@
+package platform.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+
+class QueryProfilerTest {
+  @Test
+  void replacesLiteralsTest() {
+    assertEquals(
+        "select * from \"users\" where \"name\" = ? and \"age\" > ? and \"col1\" = ?",
+        QueryProfiler.normalize(
+            "select * from \"users\" where \"name\" = 'O''Brien' and \"age\" > 42.5 and \"col1\""
+                + " = 7"));
+  }
+
+  @Test
+  void collapsesListsTest() {
+    assertEquals(
+        "select * from users where id in (?, ...)",
+        QueryProfiler.normalize("select * from users where id in (?, ?, ?)"));
+    assertEquals(
+        QueryProfiler.normalize("select * from users where id in (?, ?)"),
+        QueryProfiler.normalize("select * from users where id in (?, ?, ?, ?)"));
+  }
+
+  @Test
+  void collapsesMultiRowValuesTest() {
+    assertEquals(
+        "insert into users (id, name) values (?, ...), ...",
+        QueryProfiler.normalize("insert into users (id, name) values (?, ?), (?, ?), (?, ?)"));
+    assertEquals(
+        "insert into users (id) values (?), ...",
+        QueryProfiler.normalize("insert into users (id) values (?), (?)"));
+  }
+
+  @Test
+  void aggregatesQueriesByShapeTest() {
+    final var profiler = new QueryProfiler(Duration.ZERO, 10);
+    final var dsl = mockDsl(profiler);
+
+    dsl.fetch("select * from t where id in (?, ?)", 1, 2);
+    dsl.fetch("select * from t where id in (?, ?, ?)", 1, 2, 3);
+    dsl.fetch("select * from other");
+
+    final var top = profiler.top(10);
+    assertEquals(2, top.size());
+
+    final var profile =
+        top.stream()
+            .filter(query -> query.shape().equals("select * from t where id in (?, ...)"))
+            .findFirst()
+            .orElseThrow();
+
+    assertEquals(2, profile.count());
+    assertEquals(0, profile.errors());
+    assertEquals(2, profile.rows());
+    assertTrue(profile.maxMillis() <= profile.totalMillis(), "Max must not exceed total");
+    assertTrue(profile.p50Millis() <= profile.p99Millis(), "Percentiles must be ordered");
+
+    assertEquals(1, profiler.top(1).size());
+    assertTrue(
+        profiler.top(10).getFirst().totalMillis() >= profiler.top(10).getLast().totalMillis(),
+        "Profiles must be sorted by total time");
+
+    profiler.reset();
+    assertTrue(profiler.top(10).isEmpty(), "Profiles must be discarded");
+  }
+
+  @Test
+  void tracksExtraShapesTogetherTest() {
+    final var profiler = new QueryProfiler(Duration.ZERO, 1);
+    final var dsl = mockDsl(profiler);
+
+    dsl.fetch("select 1 from a");
+    dsl.fetch("select 1 from b");
+    dsl.fetch("select 1 from c");
+
+    final var top = profiler.top(10);
+    assertEquals(2, top.size());
+    assertTrue(top.stream().anyMatch(query -> query.shape().equals("<other>")));
+  }
+
+  @Test
+  void validatesSettingsTest() {
+    assertThrows(IllegalArgumentException.class, () -> new QueryProfiler(Duration.ZERO, 0));
+    assertThrows(
+        IllegalArgumentException.class, () -> new QueryProfiler(Duration.ofSeconds(-1), 1));
+  }
+
+  /**
+   * @return DSL answering every query with a single row
+   */
+  private static DSLContext mockDsl(QueryProfiler profiler) {
+    final var mockDsl = DSL.using(SQLDialect.POSTGRES);
+    final var field = DSL.field("id", Integer.class);
+
+    return DSL.using(
+        new DefaultConfiguration()
+            .set(
+                new MockConnection(
+                    ctx -> {
+                      final var result = mockDsl.newResult(field);
+                      result.add(mockDsl.newRecord(field).values(1));
+                      return new MockResult[] {new MockResult(1, result)};
+                    }))
+            .set(SQLDialect.POSTGRES)
+            .set(profiler));
+  }
+}
@@ -0,0 +1,11 @@
+package platform.primitives;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class AdminEndpointsTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(AdminEndpoints.class).verify();
+  }
+}
@@ -0,0 +1,11 @@
+package platform.primitives;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class ApiDocumentationTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(ApiDocumentation.class).verify();
+  }
+}
@@ -0,0 +1,11 @@
+package platform.primitives;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class EndpointGroupsTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(EndpointGroups.class).verify();
+  }
+}
@@ -0,0 +1,22 @@
+package platform.primitives;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class PageLimitsTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(PageLimits.class).verify();
+  }
+
+  @Test
+  void constructorTest() {
+    assertThrows(IllegalArgumentException.class, () -> new PageLimits(0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new PageLimits(10, -1));
+    assertThrows(IllegalArgumentException.class, () -> new PageLimits(20, 10));
+    assertDoesNotThrow(() -> new PageLimits(10, 10));
+  }
+}
@@ -0,0 +1,39 @@
+package platform.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PasswordHasherTest {
+  private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+  @Test
+  void matchesHashTest() {
+    final var hasher = new PasswordHasher(1_000);
+    final var hash = hasher.hash(PASSWORD);
+
+    assertTrue(hash.length() <= 128, "Hash must fit into the password column");
+    assertTrue(hasher.matches(PASSWORD, hash));
+    assertFalse(hasher.matches("wrong".toCharArray(), hash));
+    assertNotEquals(hash, hasher.hash(PASSWORD), "Hashes must be salted");
+  }
+
+  @Test
+  void matchesHashWithOtherIterationsTest() {
+    assertTrue(
+        new PasswordHasher(2_000).matches(PASSWORD, new PasswordHasher(1_000).hash(PASSWORD)));
+  }
+
+  @Test
+  void rejectsMalformedHashTest() {
+    final var hasher = new PasswordHasher(1_000);
+
+    assertFalse(hasher.matches(PASSWORD, new String(PASSWORD)));
+    assertFalse(hasher.matches(PASSWORD, "pbkdf2-sha256$many$salt$hash"));
+    assertFalse(hasher.matches(PASSWORD, "pbkdf2-sha256$0$c2FsdA$aGFzaA"));
+    assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(0));
+  }
+}
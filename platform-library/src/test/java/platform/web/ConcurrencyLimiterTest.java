@@ -0,0 +1,155 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+  @Test
+  void rejectsAboveLimitTest() {
+    final var limiter = new ConcurrencyLimiter(1, 1, 1, RETRY_AFTER, List.of());
+    final var first = context("/api/users");
+
+    limiter.acquire(first);
+
+    final var exception =
+        assertThrows(
+            ConcurrencyLimitExceededException.class, () -> limiter.acquire(context("/api/users")));
+    assertEquals(RETRY_AFTER, exception.retryAfter());
+    assertEquals(new ConcurrencyLimiter.Statistics(1, 1, 1), limiter.statistics());
+
+    limiter.release(first);
+    limiter.release(first);
+    limiter.acquire(context("/api/users"));
+    assertEquals(1, limiter.statistics().inFlight());
+  }
+
+  @Test
+  void exemptsPathsTest() {
+    final var limiter = new ConcurrencyLimiter(1, 1, 1, RETRY_AFTER, List.of("/api/health"));
+    limiter.acquire(context("/api/users"));
+
+    final var health = context("/api/health");
+    limiter.acquire(health);
+    limiter.release(health);
+
+    assertEquals(new ConcurrencyLimiter.Statistics(1, 1, 0), limiter.statistics());
+  }
+
+  @Test
+  void exemptsRegisteredPathsTest() {
+    final var limiter =
+        new ConcurrencyLimiter(1, 1, 1, RETRY_AFTER, List.of()).exempt("/api/users/export");
+    limiter.acquire(context("/api/users"));
+
+    final var export = context("/api/users/export");
+    limiter.acquire(export);
+    limiter.release(export);
+
+    assertEquals(new ConcurrencyLimiter.Statistics(1, 1, 0), limiter.statistics());
+  }
+
+  @Test
+  void ignoresLatencyOfRejectedRequestsTest() {
+    final var handled = new ConcurrencyLimiter(10, 1, 1_000, RETRY_AFTER, List.of());
+    final var rejected = new ConcurrencyLimiter(10, 1, 1_000, RETRY_AFTER, List.of());
+
+    requests(handled, HttpStatus.OK);
+    requests(rejected, HttpStatus.TOO_MANY_REQUESTS);
+
+    assertTrue(handled.statistics().limit() > 10);
+    assertEquals(new ConcurrencyLimiter.Statistics(10, 0, 0), rejected.statistics());
+  }
+
+  @Test
+  void growsWhileLatencyIsStableTest() {
+    final var limiter = new ConcurrencyLimiter(100, 10, 1_000, RETRY_AFTER, List.of());
+
+    samples(limiter, 100, FAST, 100);
+
+    assertTrue(limiter.statistics().limit() > 100);
+    assertTrue(limiter.statistics().limit() <= 1_000);
+  }
+
+  @Test
+  void keepsUnusedLimitTest() {
+    final var limiter = new ConcurrencyLimiter(100, 10, 1_000, RETRY_AFTER, List.of());
+
+    samples(limiter, 100, FAST, 10);
+
+    assertEquals(100, limiter.statistics().limit());
+  }
+
+  @Test
+  void shrinksWhenLatencyGrowsTest() {
+    final var limiter = new ConcurrencyLimiter(100, 10, 1_000, RETRY_AFTER, List.of());
+
+    samples(limiter, 20, FAST, 100);
+    final var stableLimit = limiter.statistics().limit();
+
+    samples(limiter, 100, SLOW, 1_000);
+
+    assertTrue(limiter.statistics().limit() < stableLimit);
+    assertTrue(limiter.statistics().limit() >= 10);
+  }
+
+  @Test
+  void rejectsInvalidLimitsTest() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter(1, 0, 1, RETRY_AFTER, List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter(10, 20, 30, RETRY_AFTER, List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ConcurrencyLimiter(10, 1, 5, RETRY_AFTER, List.of()));
+  }
+
+  private static void samples(
+      ConcurrencyLimiter limiter, int amount, long latencyNanos, int inFlight) {
+    for (int i = 0; i < amount; i++) {
+      limiter.update(latencyNanos, inFlight);
+    }
+  }
+
+  /** Handles enough rounds of requests using the whole limit for it to grow, if they count. */
+  private static void requests(ConcurrencyLimiter limiter, HttpStatus status) {
+    for (int round = 0; round < 100; round++) {
+      final List<Context> contexts = new ArrayList<>();
+
+      for (int i = 0; i < 10; i++) {
+        final var context = context("/api/users");
+        limiter.acquire(context);
+        contexts.add(context);
+      }
+
+      for (final Context context : contexts) {
+        context.status(status);
+        limiter.release(context);
+      }
+    }
+  }
+
+  private static Context context(String path) {
+    return ContextMock.create()
+        .build(path, Body.ofString(""), config -> {})
+        .execute(new Endpoint(HandlerType.GET, path, context -> {}));
+  }
+}
@@ -0,0 +1,22 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import org.junit.jupiter.api.Test;
+
+class CursorsTest {
+  @Test
+  void roundTripTest() {
+    final var key = UuidCreator.getTimeOrderedEpoch();
+    assertEquals(
+        key, Cursors.decodeUuid(Cursors.encode(key)), "Cursor must decode to the same key");
+  }
+
+  @Test
+  void malformedCursorTest() {
+    assertThrows(IllegalArgumentException.class, () -> Cursors.decodeUuid("not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> Cursors.decodeUuid("AAAA"));
+  }
+}
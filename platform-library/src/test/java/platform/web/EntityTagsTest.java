@@ -0,0 +1,40 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class EntityTagsTest {
+  @Test
+  void formatTest() {
+    assertEquals("\"42\"", EntityTags.of(42));
+    assertEquals("\"42-gzip\"", EntityTags.variant(EntityTags.of(42), "gzip"));
+    assertEquals("\"42\"", EntityTags.of(42, "application/json"));
+    assertEquals("\"42-application/cbor\"", EntityTags.of(42, "application/cbor"));
+  }
+
+  @Test
+  void matchesTest() {
+    final var etag = EntityTags.of(2);
+
+    assertTrue(EntityTags.matches(etag, etag));
+    assertTrue(EntityTags.matches("\"1\", W/\"2\"", etag), "Weak tags must match");
+    assertTrue(EntityTags.matches("*", etag));
+    assertFalse(EntityTags.matches(null, etag));
+    assertFalse(EntityTags.matches("\"1\"", etag));
+    assertFalse(EntityTags.matches("\"22\"", etag));
+  }
+
+  @Test
+  void versionsTest() {
+    assertNull(EntityTags.versions(null));
+    assertNull(EntityTags.versions(" * "));
+    assertEquals(Set.of(1L, 3L), EntityTags.versions("\"1\", W/\"2\", \"3\""));
+    assertEquals(Set.of(4L), EntityTags.versions(EntityTags.of(4, "application/cbor")));
+    assertEquals(Set.of(), EntityTags.versions("\"other\", \"\", 4"), "Tags must be quoted");
+  }
+}
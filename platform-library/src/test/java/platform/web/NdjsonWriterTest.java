@@ -0,0 +1,72 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import io.javalin.testtools.JavalinTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NdjsonWriterTest {
+  private static final String ROUTE = "/api/users/export";
+
+  @Test
+  void writesOneElementPerLineTest() {
+    final var app =
+        Javalin.create()
+            .get(
+                ROUTE,
+                ctx -> {
+                  try (final var writer =
+                      new NdjsonWriter(new ObjectMapper(), ctx, new SimpleMeterRegistry())) {
+                    writer.write(Map.of("id", 1));
+                    writer.write(Map.of("id", 2));
+                    writer.write(Map.of("id", 3));
+                  }
+                });
+
+    JavalinTest.test(
+        app,
+        (server, client) -> {
+          try (final var response = client.get(ROUTE)) {
+            assertEquals(NdjsonWriter.CONTENT_TYPE, response.header("Content-Type"));
+            assertEquals("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n", response.body().string());
+          }
+        });
+  }
+
+  @Test
+  void recordsThroughputTest() {
+    final var meterRegistry = new SimpleMeterRegistry();
+
+    ContextMock.create()
+        .build(ROUTE, Body.ofString(""), config -> {})
+        .execute(
+            new Endpoint(
+                HandlerType.GET,
+                ROUTE,
+                ctx -> {
+                  try (final var writer =
+                      new NdjsonWriter(new ObjectMapper(), ctx, meterRegistry)) {
+                    writer.write(Map.of("id", 1));
+                    writer.write(Map.of("id", 2));
+                  }
+                }));
+
+    final var rows =
+        meterRegistry
+            .get(NdjsonWriter.ROWS)
+            .tag("uri", ROUTE)
+            .tag("outcome", "completed")
+            .summary();
+    assertEquals(1, rows.count());
+    assertEquals(2.0, rows.totalAmount());
+    assertEquals(1, meterRegistry.get(NdjsonWriter.DURATION).tag("uri", ROUTE).timer().count());
+  }
+}
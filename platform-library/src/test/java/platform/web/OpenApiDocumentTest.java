@@ -0,0 +1,130 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.mock.servlet.HttpServletResponseMock;
+import io.javalin.router.Endpoint;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OpenApiDocumentTest {
+  private static final String JSON = "{\"openapi\":\"3.0.3\"}";
+  private static final String ETAG = "\"tag\"";
+  private static final String GZIP_ETAG = "\"tag-gzip\"";
+
+  @TempDir Path directory;
+
+  private OpenApiDocument document;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    final var gzip = new ByteArrayOutputStream();
+    try (final var output = new GZIPOutputStream(gzip)) {
+      output.write(JSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+    final var resource = directory.resolve(OpenApiDocument.RESOURCE);
+    Files.createDirectories(resource.getParent());
+    Files.writeString(resource, JSON);
+    Files.write(resource.resolveSibling("openapi.json.gz"), gzip.toByteArray());
+    Files.writeString(resource.resolveSibling("openapi.json.etag"), ETAG + "\n");
+
+    try (final var classLoader = new URLClassLoader(new URL[] {directory.toUri().toURL()})) {
+      document = OpenApiDocument.load(classLoader).orElseThrow();
+    }
+  }
+
+  @Test
+  void missingDocumentTest() throws IOException {
+    try (final var classLoader = new URLClassLoader(new URL[0], null)) {
+      assertTrue(OpenApiDocument.load(classLoader).isEmpty());
+    }
+  }
+
+  @Test
+  void servesCompressedDocumentTest() throws IOException {
+    final var context = request(Map.of(Header.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"));
+
+    assertEquals("gzip", context.res().getHeader(Header.CONTENT_ENCODING));
+    assertEquals(GZIP_ETAG, context.res().getHeader(Header.ETAG));
+    assertEquals(Header.ACCEPT_ENCODING, context.res().getHeader(Header.VARY));
+
+    try (final var input = new GZIPInputStream(new ByteArrayInputStream(bytes(context)))) {
+      assertEquals(JSON, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void servesIdentityDocumentTest() {
+    for (final var acceptEncoding : List.of("identity", "gzip;q=0, deflate")) {
+      final var context = request(Map.of(Header.ACCEPT_ENCODING, acceptEncoding));
+
+      assertNull(context.res().getHeader(Header.CONTENT_ENCODING));
+      assertEquals(ETAG, context.res().getHeader(Header.ETAG));
+      assertArrayEquals(JSON.getBytes(StandardCharsets.UTF_8), bytes(context));
+    }
+  }
+
+  @Test
+  void notModifiedTest() {
+    final var context =
+        request(
+            Map.of(
+                Header.IF_NONE_MATCH, "\"other\", W/" + ETAG, Header.ACCEPT_ENCODING, "identity"));
+
+    assertEquals(HttpStatus.NOT_MODIFIED.getCode(), context.res().getStatus());
+    assertEquals(0, bytes(context).length);
+
+    assertEquals(
+        HttpStatus.OK.getCode(),
+        request(Map.of(Header.IF_NONE_MATCH, "\"other\"")).res().getStatus());
+  }
+
+  @Test
+  void revalidatesEncodingsSeparatelyTest() {
+    final var gzip =
+        request(Map.of(Header.IF_NONE_MATCH, GZIP_ETAG, Header.ACCEPT_ENCODING, "gzip"));
+    assertEquals(HttpStatus.NOT_MODIFIED.getCode(), gzip.res().getStatus());
+    assertEquals(Header.ACCEPT_ENCODING, gzip.res().getHeader(Header.VARY));
+
+    final var identity =
+        request(Map.of(Header.IF_NONE_MATCH, GZIP_ETAG, Header.ACCEPT_ENCODING, "identity"));
+    assertEquals(HttpStatus.OK.getCode(), identity.res().getStatus());
+    assertEquals(ETAG, identity.res().getHeader(Header.ETAG));
+  }
+
+  private Context request(Map<String, String> headers) {
+    return ContextMock.create()
+        .build(
+            OpenApiDocument.PATH,
+            Body.ofString(""),
+            config -> headers.forEach((name, value) -> config.getReq().addHeader(name, value)))
+        .execute(new Endpoint(HandlerType.GET, OpenApiDocument.PATH, document));
+  }
+
+  private static byte[] bytes(Context context) {
+    return ((HttpServletResponseMock) context.res()).getState().outputStream.toByteArray();
+  }
+}
@@ -0,0 +1,49 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class PageTest {
+  @Test
+  void lastPageHasNoCursorTest() {
+    final var fetched = Stream.generate(UuidCreator::getTimeOrderedEpoch).limit(2).toList();
+    final var page = Page.of(fetched, new PageRequest(2, null), Function.identity());
+
+    assertEquals(fetched, page.items(), "Page must contain all fetched elements");
+    assertNull(page.nextCursor(), "Last page must not have next cursor");
+  }
+
+  @Test
+  void extraElementProducesCursorTest() {
+    final var fetched = Stream.generate(UuidCreator::getTimeOrderedEpoch).limit(3).toList();
+    final var request = new PageRequest(2, null);
+    final var page = Page.of(fetched, request, Function.identity());
+
+    assertEquals(fetched.subList(0, 2), page.items(), "Page must not contain extra element");
+    assertEquals(
+        fetched.get(1),
+        Cursors.decodeUuid(page.nextCursor()),
+        "Cursor must point to the last element on the page");
+  }
+
+  @Test
+  void pageRequestTest() {
+    assertThrows(IllegalArgumentException.class, () -> new PageRequest(0, null));
+    assertEquals(3, new PageRequest(2, null).fetchSize(), "Fetch size must include extra element");
+    assertEquals(
+        List.of(),
+        new PageRequest(2, "").uuidCursor().stream().toList(),
+        "Blank cursor must be ignored");
+
+    final UUID key = UuidCreator.getTimeOrderedEpoch();
+    assertEquals(key, new PageRequest(2, Cursors.encode(key)).uuidCursor().orElseThrow());
+  }
+}
@@ -0,0 +1,161 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+  private static final String API_KEY = "X-Api-Key";
+  private static final String FORWARDED_FOR = "X-Forwarded-For";
+  private static final String ROUTE = "/api/users/{userId}";
+
+  @Test
+  void admitsBurstThenRejectsTest() {
+    final var limiter = limiter(2, Duration.ofHours(1), "ip");
+
+    final var first = context("/api/users/1", Map.of());
+    limiter.check(first);
+    assertEquals("2", first.res().getHeader(RateLimiter.LIMIT_HEADER));
+    assertEquals("1", first.res().getHeader(RateLimiter.REMAINING_HEADER));
+    assertEquals("1800", first.res().getHeader(RateLimiter.RESET_HEADER));
+
+    final var second = context("/api/users/1", Map.of());
+    limiter.check(second);
+    assertEquals("0", second.res().getHeader(RateLimiter.REMAINING_HEADER));
+
+    final var third = context("/api/users/1", Map.of());
+    final var exception =
+        assertThrows(RateLimitExceededException.class, () -> limiter.check(third));
+    assertTrue(exception.retryAfter().compareTo(Duration.ofMinutes(29)) > 0);
+    assertEquals("0", third.res().getHeader(RateLimiter.REMAINING_HEADER));
+    assertEquals(new RateLimiter.Statistics(1, 1), limiter.statistics());
+  }
+
+  @Test
+  void refillsBucketTest() throws InterruptedException {
+    final var limiter = limiter(1_000, Duration.ofSeconds(1), "ip");
+
+    for (int i = 0; i < 1_000; i++) {
+      limiter.check(context("/api/users/1", Map.of()));
+    }
+
+    Thread.sleep(5);
+    limiter.check(context("/api/users/1", Map.of()));
+  }
+
+  @Test
+  void limitsClientsSeparatelyTest() {
+    final var limiter = limiter(1, Duration.ofHours(1), "header:" + API_KEY);
+
+    limiter.check(context("/api/users/1", Map.of(API_KEY, "first")));
+    assertThrows(
+        RateLimitExceededException.class,
+        () -> limiter.check(context("/api/users/1", Map.of(API_KEY, "first"))));
+
+    limiter.check(context("/api/users/1", Map.of(API_KEY, "second")));
+    limiter.check(context("/api/users/1", Map.of()));
+    assertEquals(3, limiter.statistics().keys());
+  }
+
+  @Test
+  void separatesHeaderKeysFromAddressesTest() {
+    final var limiter = limiter(1, Duration.ofHours(1), "header:" + API_KEY);
+    final var address = context("/api/users/1", Map.of()).ip();
+
+    limiter.check(context("/api/users/1", Map.of(API_KEY, address)));
+    limiter.check(context("/api/users/1", Map.of()));
+    assertEquals(2, limiter.statistics().keys());
+  }
+
+  @Test
+  void limitsRoutesTest() {
+    final var limiter = limiter(1, Duration.ofHours(1), "route");
+
+    limiter.check(context("/api/users/1", Map.of()));
+    assertThrows(
+        RateLimitExceededException.class, () -> limiter.check(context("/api/users/2", Map.of())));
+  }
+
+  @Test
+  void exemptsPathsTest() {
+    final var limiter = limiter(1, Duration.ofHours(1), "ip");
+
+    for (int i = 0; i < 3; i++) {
+      limiter.check(context("/api/health", Map.of()));
+    }
+
+    assertEquals(new RateLimiter.Statistics(0, 0), limiter.statistics());
+  }
+
+  @Test
+  void limitsClientsBehindLoadBalancerTest() {
+    final var limiter =
+        new RateLimiter(
+            1,
+            Duration.ofHours(1),
+            1,
+            1_000,
+            RateLimiter.KeyExtractor.of("ip", FORWARDED_FOR),
+            List.of());
+
+    limiter.check(context("/api/users/1", Map.of(FORWARDED_FOR, "10.0.0.1")));
+    assertThrows(
+        RateLimitExceededException.class,
+        () -> limiter.check(context("/api/users/1", Map.of(FORWARDED_FOR, "10.0.0.1"))));
+
+    // Only the entry appended by the load balancer is trusted
+    assertThrows(
+        RateLimitExceededException.class,
+        () -> limiter.check(context("/api/users/1", Map.of(FORWARDED_FOR, "10.0.0.2, 10.0.0.1"))));
+
+    limiter.check(context("/api/users/1", Map.of(FORWARDED_FOR, "10.0.0.2")));
+    limiter.check(context("/api/users/1", Map.of()));
+    assertEquals(3, limiter.statistics().keys());
+  }
+
+  @Test
+  void admitsEverythingWhenDisabledTest() {
+    final var limiter = RateLimiter.disabled();
+
+    for (int i = 0; i < 3; i++) {
+      limiter.check(context("/api/users/1", Map.of()));
+    }
+
+    assertEquals(new RateLimiter.Statistics(0, 0), limiter.statistics());
+  }
+
+  @Test
+  void rejectsUnknownKeyTest() {
+    assertThrows(IllegalArgumentException.class, () -> RateLimiter.KeyExtractor.of("cookie"));
+    assertThrows(IllegalArgumentException.class, () -> RateLimiter.KeyExtractor.of("header:"));
+  }
+
+  private static RateLimiter limiter(int requests, Duration period, String key) {
+    return new RateLimiter(
+        requests,
+        period,
+        requests,
+        1_000,
+        RateLimiter.KeyExtractor.of(key),
+        List.of("/api/health"));
+  }
+
+  private static Context context(String path, Map<String, String> headers) {
+    return ContextMock.create()
+        .build(
+            path,
+            Body.ofString(""),
+            config -> headers.forEach((name, value) -> config.getReq().addHeader(name, value)))
+        .execute(new Endpoint(HandlerType.GET, ROUTE, context -> {}));
+  }
+}
@@ -0,0 +1,79 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.HandlerType;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.router.Endpoint;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import platform.concurrency.Deadline;
+
+class RequestDeadlinesTest {
+  private static final String ROUTE = "/api/users/{userId}";
+  private static final String EXPORT_ROUTE = "/api/users/export";
+
+  private final RequestDeadlines requestDeadlines =
+      new RequestDeadlines(Duration.ofSeconds(30), Duration.ofMinutes(1))
+          .route(EXPORT_ROUTE, Duration.ZERO);
+
+  @Test
+  void usesDefaultTimeoutTest() {
+    assertRemaining(deadline(ROUTE, Map.of()), Duration.ofSeconds(29), Duration.ofSeconds(30));
+    assertRemaining(
+        deadline(ROUTE, Map.of(RequestDeadlines.TIMEOUT_HEADER, "soon")),
+        Duration.ofSeconds(29),
+        Duration.ofSeconds(30));
+  }
+
+  @Test
+  void usesRequestedTimeoutTest() {
+    assertRemaining(
+        deadline(ROUTE, Map.of(RequestDeadlines.TIMEOUT_HEADER, "500")),
+        Duration.ZERO,
+        Duration.ofMillis(500));
+    assertRemaining(
+        deadline(ROUTE, Map.of(RequestDeadlines.TIMEOUT_HEADER, "3600000")),
+        Duration.ofSeconds(59),
+        Duration.ofMinutes(1));
+  }
+
+  @Test
+  void usesRouteTimeoutTest() {
+    assertTrue(deadline(EXPORT_ROUTE, Map.of()).isEmpty());
+  }
+
+  /**
+   * @return deadline bound while handling the request, which is removed afterward
+   */
+  private Optional<Deadline> deadline(String route, Map<String, String> headers) {
+    final var deadline = new AtomicReference<Optional<Deadline>>();
+
+    ContextMock.create()
+        .build(
+            route,
+            Body.ofString(""),
+            config -> headers.forEach((name, value) -> config.getReq().addHeader(name, value)))
+        .execute(
+            new Endpoint(
+                HandlerType.GET,
+                route,
+                context -> {
+                  requestDeadlines.bind(context);
+                  deadline.set(Deadline.current());
+                  requestDeadlines.unbind(context);
+                }));
+
+    assertTrue(Deadline.current().isEmpty());
+    return deadline.get();
+  }
+
+  private static void assertRemaining(Optional<Deadline> deadline, Duration min, Duration max) {
+    final var remaining = deadline.orElseThrow().remaining();
+    assertTrue(remaining.compareTo(min) >= 0 && remaining.compareTo(max) <= 0, remaining::toString);
+  }
+}
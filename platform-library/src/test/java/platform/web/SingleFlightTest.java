@@ -0,0 +1,175 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+import io.javalin.http.NotFoundResponse;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.mock.servlet.HttpServletResponseMock;
+import io.javalin.router.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+  private static final String ROUTE = "/users/{userId}";
+  private static final String PATH = "/users/1";
+  private static final int FOLLOWERS = 3;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Test
+  void collapsesConcurrentRequestsTest() throws InterruptedException {
+    final var handler =
+        new SingleFlight(Duration.ofSeconds(10), registry)
+            .collapse(
+                blocking(
+                    context -> {
+                      final var execution = executions.get();
+                      context
+                          .status(HttpStatus.CREATED)
+                          .header("X-Execution", String.valueOf(execution))
+                          .result("execution " + execution);
+                    }));
+
+    for (final Context context : concurrently(handler)) {
+      assertEquals(HttpStatus.CREATED.getCode(), context.res().getStatus());
+      assertEquals("1", context.res().getHeader("X-Execution"));
+      assertEquals("execution 1", body(context));
+    }
+
+    assertEquals(1, executions.get());
+    assertEquals(1, count("http.single.flight.executed"));
+    assertEquals(FOLLOWERS, count("http.single.flight.collapsed"));
+    assertEquals(
+        FOLLOWERS / (FOLLOWERS + 1.0),
+        registry.get("http.single.flight.collapse.ratio").tag("route", ROUTE).gauge().value());
+  }
+
+  @Test
+  void executesSequentialRequestsTest() {
+    final var handler =
+        new SingleFlight(Duration.ofSeconds(10), registry)
+            .collapse(context -> context.result("execution " + executions.incrementAndGet()));
+
+    assertEquals("execution 1", body(request(handler)));
+    assertEquals("execution 2", body(request(handler)));
+    assertEquals(0, count("http.single.flight.collapsed"));
+  }
+
+  @Test
+  void stopsWaitingTest() throws InterruptedException {
+    final var handler =
+        new SingleFlight(Duration.ZERO, registry)
+            .collapse(
+                context -> {
+                  if (executions.incrementAndGet() == 1) {
+                    started.countDown();
+                    release.await();
+                  }
+                });
+
+    final var leader = Thread.ofPlatform().start(() -> request(handler));
+    started.await();
+
+    request(handler);
+    release.countDown();
+    leader.join();
+
+    assertEquals(2, executions.get());
+    assertEquals(1, count("http.single.flight.timed.out"));
+  }
+
+  @Test
+  void sharesFailureTest() throws InterruptedException {
+    final var handler =
+        new SingleFlight(Duration.ofSeconds(10), registry)
+            .collapse(
+                blocking(
+                    context -> {
+                      throw new NotFoundResponse();
+                    }));
+
+    for (final Context context : concurrently(handler)) {
+      assertEquals(HttpStatus.NOT_FOUND.getCode(), context.res().getStatus());
+    }
+
+    assertEquals(1, executions.get());
+  }
+
+  /**
+   * @return handler which counts its executions and blocks until released
+   */
+  private Handler blocking(Handler handler) {
+    return context -> {
+      executions.incrementAndGet();
+      started.countDown();
+      release.await();
+      handler.handle(context);
+    };
+  }
+
+  /**
+   * Sends a request, waits for it to start executing the handler, sends identical requests and
+   * releases the handler once all of them wait for the first one.
+   *
+   * @return contexts of all requests
+   */
+  private List<Context> concurrently(Handler handler) throws InterruptedException {
+    final var contexts = new ArrayList<Context>();
+    final var threads = new ArrayList<Thread>();
+
+    for (int i = 0; i <= FOLLOWERS; i++) {
+      final var index = i;
+      contexts.add(null);
+      threads.add(Thread.ofPlatform().start(() -> contexts.set(index, request(handler))));
+
+      if (i == 0) {
+        started.await();
+      }
+    }
+
+    for (final Thread follower : threads.subList(1, threads.size())) {
+      while (follower.getState() != Thread.State.TIMED_WAITING) {
+        Thread.onSpinWait();
+      }
+    }
+
+    release.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(contexts.stream().allMatch(context -> context != null));
+    return contexts;
+  }
+
+  private static Context request(Handler handler) {
+    return ContextMock.create()
+        .build(PATH, Body.ofString(""), config -> {})
+        .execute(new Endpoint(HandlerType.GET, ROUTE, handler));
+  }
+
+  private double count(String counter) {
+    return registry.get(counter).tag("route", ROUTE).counter().count();
+  }
+
+  private static String body(Context context) {
+    return new String(
+        ((HttpServletResponseMock) context.res()).getState().outputStream.toByteArray(),
+        StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,147 @@
+package platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.Header;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import io.javalin.mock.Body;
+import io.javalin.mock.ContextMock;
+import io.javalin.mock.servlet.HttpServletResponseMock;
+import io.javalin.router.Endpoint;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import platform.dependencies.JacksonProvider;
+
+class StreamingJsonMapperTest {
+  record Item(String name, int amount) {}
+
+  private final ObjectMapper objectMapper = new JacksonProvider().objectMapper();
+  private final ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+  private final JavalinJackson javalinJackson = new JavalinJackson(objectMapper, true);
+  private final StreamingJsonMapper jsonMapper =
+      new StreamingJsonMapper(
+          objectMapper, javalinJackson, Map.of(StreamingJsonMapper.CBOR, cborMapper));
+
+  @Test
+  void writesSameJsonAsJavalinTest() throws JsonProcessingException {
+    final var page = new Page<>(List.of(new Item("first", 1), new Item("second", 2)), "cursor");
+    final var expected = objectMapper.writeValueAsString(page);
+
+    assertEquals(expected, body(respond(jsonMapper, null, page)));
+    assertEquals(expected, body(respond(javalinJackson, null, page)));
+    assertEquals(expected, jsonMapper.toJsonString(page, Page.class));
+  }
+
+  @Test
+  void negotiatesFormatTest() throws IOException {
+    final var item = new Item("name", 1);
+
+    final var json = respond(jsonMapper, "text/html, */*;q=0.8", item);
+    assertEquals(ContentType.JSON, json.res().getContentType());
+    assertEquals(Header.ACCEPT, json.res().getHeader(Header.VARY));
+
+    final var cbor = respond(jsonMapper, "application/CBOR;q=0.9, application/json", item);
+    assertEquals(StreamingJsonMapper.CBOR, cbor.res().getContentType());
+    assertEquals(item, cborMapper.readValue(bytes(cbor), Item.class));
+
+    final var withoutBinaryFormats =
+        respond(new StreamingJsonMapper(objectMapper, javalinJackson), "application/cbor", item);
+    assertEquals(ContentType.JSON, withoutBinaryFormats.res().getContentType());
+    assertNull(withoutBinaryFormats.res().getHeader(Header.VARY));
+  }
+
+  @Test
+  void negotiatesBeforeWritingTest() {
+    final var format = new AtomicReference<String>();
+    final var context =
+        execute(
+            jsonMapper,
+            Body.ofString(""),
+            Map.of(Header.ACCEPT, StreamingJsonMapper.CBOR),
+            ctx -> {
+              format.set(StreamingJsonMapper.negotiate(ctx));
+              StreamingJsonMapper.write(ctx, new Item("name", 1));
+            });
+
+    assertEquals(StreamingJsonMapper.CBOR, format.get());
+    assertEquals(StreamingJsonMapper.CBOR, context.res().getContentType());
+    assertEquals(List.of(Header.ACCEPT), List.copyOf(context.res().getHeaders(Header.VARY)));
+  }
+
+  @Test
+  void readsBodyByContentTypeTest() throws IOException {
+    final var item = new Item("name", 1);
+
+    assertEquals(item, read(objectMapper.writeValueAsBytes(item), ContentType.JSON));
+    assertEquals(
+        item,
+        read(cborMapper.writeValueAsBytes(item), StreamingJsonMapper.CBOR + "; charset=utf-8"));
+  }
+
+  @Test
+  void readsCachedTypesTest() {
+    final var json = "{\"name\":\"name\",\"amount\":1}";
+
+    assertEquals(new Item("name", 1), jsonMapper.fromJsonString(json, Item.class));
+    assertEquals(new Item("name", 1), jsonMapper.fromJsonString(json, Item.class));
+  }
+
+  /**
+   * @return context of the request handled by writing the value with the given mapper
+   */
+  private static Context respond(JsonMapper jsonMapper, String accept, Object value) {
+    return execute(
+        jsonMapper,
+        Body.ofString(""),
+        accept == null ? Map.of() : Map.of(Header.ACCEPT, accept),
+        context -> StreamingJsonMapper.write(context, value));
+  }
+
+  /**
+   * @return request body read by {@link StreamingJsonMapper#bodyValidator(Context, Class)}
+   */
+  private Item read(byte[] body, String contentType) {
+    final var result = new AtomicReference<Item>();
+
+    execute(
+        jsonMapper,
+        Body.ofInputStream(new ByteArrayInputStream(body), contentType),
+        Map.of(),
+        context -> result.set(StreamingJsonMapper.bodyValidator(context, Item.class).get()));
+
+    return result.get();
+  }
+
+  private static Context execute(
+      JsonMapper jsonMapper, Body body, Map<String, String> headers, Handler handler) {
+    return ContextMock.create(
+            config -> config.javalinConfig(javalin -> javalin.jsonMapper(jsonMapper)))
+        .build(
+            "/",
+            body,
+            config -> headers.forEach((name, value) -> config.getReq().addHeader(name, value)))
+        .execute(new Endpoint(HandlerType.POST, "/", handler));
+  }
+
+  private static byte[] bytes(Context context) {
+    return ((HttpServletResponseMock) context.res()).getState().outputStream.toByteArray();
+  }
+
+  private static String body(Context context) {
+    return new String(bytes(context), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,249 @@
+package platform.wiring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.suppierk.inject.Provides;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class WiredDependenciesTest {
+  record Config(String name) {}
+
+  /** Collects events of the dependencies lifecycle. */
+  static final class Events {
+    final List<String> closed = new CopyOnWriteArrayList<>();
+  }
+
+  @Singleton
+  static class ConfigProvider {
+    @Provides
+    public Config config() {
+      return new Config("default");
+    }
+  }
+
+  @Singleton
+  static class TestConfigProvider extends ConfigProvider {
+    @Override
+    public Config config() {
+      return new Config("test");
+    }
+  }
+
+  @Singleton
+  static class Database implements AutoCloseable {
+    private final Events events;
+
+    @Inject
+    Database(Config config, Events events) {
+      this.events = events;
+    }
+
+    @Override
+    public void close() {
+      events.closed.add("database");
+    }
+  }
+
+  @Singleton
+  static class Service implements AutoCloseable {
+    private final Database database;
+    private final Events events;
+
+    @Inject
+    Service(Database database, Events events) {
+      this.database = database;
+      this.events = events;
+    }
+
+    @Override
+    public void close() {
+      events.closed.add("service");
+    }
+  }
+
+  /** Product which has to be closed, like a connection pool. */
+  record Pool(Events events) implements AutoCloseable {
+    @Override
+    public void close() {
+      events.closed.add("pool");
+    }
+  }
+
+  @Singleton
+  static class PoolProvider {
+    @Provides
+    public Pool pool(Events events) {
+      return new Pool(events);
+    }
+  }
+
+  @Singleton
+  static class Repository implements AutoCloseable {
+    private final Events events;
+
+    @Inject
+    Repository(Pool pool) {
+      this.events = pool.events();
+    }
+
+    @Override
+    public void close() {
+      events.closed.add("repository");
+    }
+  }
+
+  @Singleton
+  static class FailingProvider {
+    @Provides
+    public Config config() throws Exception {
+      throw new Exception("Configuration is missing");
+    }
+  }
+
+  @Singleton
+  private static class Hidden {}
+
+  @Test
+  void createsSingletonsInDependencyOrderTest() {
+    final var events = new Events();
+    final var dependencies =
+        WiredDependencies.of(
+                registrations(
+                    Service.class,
+                    Service.class,
+                    Database.class,
+                    Database.class,
+                    ConfigProvider.class,
+                    ConfigProvider.class,
+                    Events.class,
+                    events))
+            .orElseThrow();
+
+    final var service = dependencies.get(Service.class);
+
+    assertSame(service, dependencies.get(Service.class));
+    assertSame(service.database, dependencies.get(Database.class));
+    assertEquals(new Config("default"), dependencies.get(Config.class));
+
+    dependencies.close();
+    assertEquals(List.of("service", "database"), events.closed);
+  }
+
+  @Test
+  void describesDependencyGraphTest() {
+    final var dependencies =
+        WiredDependencies.of(
+                registrations(
+                    ConfigProvider.class,
+                    ConfigProvider.class,
+                    Database.class,
+                    Database.class,
+                    Events.class,
+                    new Events()))
+            .orElseThrow();
+
+    final Map<Class<?>, WiredDependencies.Binding> bindings = new LinkedHashMap<>();
+    dependencies.bindings().forEach(binding -> bindings.put(binding.type(), binding));
+
+    assertEquals(
+        List.of(ConfigProvider.class, Config.class, Database.class, Events.class),
+        List.copyOf(bindings.keySet()));
+    assertEquals(ConfigProvider.class, bindings.get(Config.class).provider());
+    assertEquals(List.of(ConfigProvider.class), bindings.get(Config.class).dependencies());
+    assertEquals(List.of(Config.class, Events.class), bindings.get(Database.class).dependencies());
+  }
+
+  @Test
+  void replacesRegisteredClassTest() {
+    final var dependencies =
+        WiredDependencies.of(registrations(ConfigProvider.class, TestConfigProvider.class))
+            .orElseThrow();
+
+    assertTrue(dependencies.get(ConfigProvider.class) instanceof TestConfigProvider);
+    assertEquals(new Config("test"), dependencies.get(Config.class));
+  }
+
+  @Test
+  void usesRegisteredInstancesTest() {
+    final var events = new Events();
+    final var database = new Database(new Config("instance"), events);
+    final var dependencies =
+        WiredDependencies.of(
+                registrations(
+                    Database.class,
+                    database,
+                    ConfigProvider.class,
+                    new TestConfigProvider(),
+                    Events.class,
+                    events))
+            .orElseThrow();
+
+    assertSame(database, dependencies.get(Database.class));
+    assertEquals(new Config("test"), dependencies.get(Config.class));
+
+    // Registered instances belong to the caller
+    dependencies.close();
+    assertTrue(events.closed.isEmpty());
+  }
+
+  @Test
+  void closesProvidedProductsTest() {
+    final var events = new Events();
+    final var dependencies =
+        WiredDependencies.of(
+                registrations(
+                    Repository.class,
+                    Repository.class,
+                    PoolProvider.class,
+                    PoolProvider.class,
+                    Events.class,
+                    events))
+            .orElseThrow();
+
+    dependencies.get(Repository.class);
+
+    dependencies.close();
+    assertEquals(List.of("repository", "pool"), events.closed);
+  }
+
+  @Test
+  void requiresWiringForEveryDependencyTest() {
+    assertTrue(WiredDependencies.of(registrations(Hidden.class, Hidden.class)).isEmpty());
+    assertTrue(WiredDependencies.of(registrations(Database.class, Database.class)).isEmpty());
+  }
+
+  @Test
+  void wrapsCheckedExceptionsTest() {
+    final var dependencies =
+        WiredDependencies.of(registrations(FailingProvider.class, FailingProvider.class))
+            .orElseThrow();
+
+    final var exception =
+        assertThrows(IllegalStateException.class, () -> dependencies.get(Config.class));
+    assertEquals("Configuration is missing", exception.getCause().getMessage());
+    assertThrows(IllegalStateException.class, () -> dependencies.get(Service.class));
+  }
+
+  /**
+   * @param registrations pairs of the registered type and its implementation class or instance
+   * @return registrations in the given order, like the application builder keeps them
+   */
+  private static Map<Class<?>, Object> registrations(Object... registrations) {
+    final Map<Class<?>, Object> result = new LinkedHashMap<>();
+
+    for (int i = 0; i < registrations.length; i += 2) {
+      result.put((Class<?>) registrations[i], registrations[i + 1]);
+    }
+
+    return result;
+  }
+}
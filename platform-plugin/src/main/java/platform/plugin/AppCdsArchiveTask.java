@@ -0,0 +1,307 @@
+package platform.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.process.ExecOperations;
+import org.gradle.process.ExecResult;
+
+/**
+ * Creates AppCDS archive of the classes loaded during the service startup.
+ *
+ * <p>The archive is only usable by exactly the same JVM build and the same class path, so the
+ * training run happens inside the service image itself: the image built by Jib as a tarball is
+ * loaded into Docker and started next to a disposable PostgreSQL container. The service stops right
+ * after the startup, so its JVM exits and writes the archive into the mounted directory, which is
+ * then added to the final image. If the JVM does not exit on its own within the training timeout,
+ * the container is stopped, which still lets the JVM write the archive while shutting down.
+ */
+public abstract class AppCdsArchiveTask extends DefaultTask {
+  /** Provides the name of this task. */
+  public static final String NAME = "appCdsArchive";
+
+  /** Provides the name of the archive file. */
+  public static final String ARCHIVE_NAME = "app.jsa";
+
+  /** Provides the host name of the training database. */
+  public static final String DATABASE_HOST = "database";
+
+  /** Provides the database name, user name and password of the training database. */
+  public static final String DATABASE_CREDENTIALS = "postgres";
+
+  private static final String TRAINING_RUN_PROPERTY = "-Dplatform.training-run=true";
+  private static final String LOADED_IMAGE = "Loaded image: ";
+  private static final String LOADED_IMAGE_ID = "Loaded image ID: ";
+  private static final Duration DATABASE_TIMEOUT = Duration.ofSeconds(60);
+  private static final Duration TRAINING_TIMEOUT = Duration.ofMinutes(5);
+  private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+  /** Default constructor. */
+  public AppCdsArchiveTask() {
+    // No operations required
+  }
+
+  /**
+   * @return image tarball built by Jib
+   */
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getImageTar();
+
+  /**
+   * @return PostgreSQL image to start for the training run
+   */
+  @Input
+  public abstract Property<String> getDatabaseImage();
+
+  /**
+   * @return environment variables of the training run, typically pointing to the training database
+   */
+  @Input
+  public abstract MapProperty<String, String> getEnvironment();
+
+  /**
+   * @return JVM flags of the training run, which should match the production ones
+   */
+  @Input
+  public abstract ListProperty<String> getJvmFlags();
+
+  /**
+   * @return path inside the image where the archive directory is mounted
+   */
+  @Input
+  public abstract Property<String> getContainerDirectory();
+
+  /**
+   * @return directory to write the archive into
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getArchiveDirectory();
+
+  /**
+   * @return Gradle service to run Docker commands with
+   */
+  @Inject
+  protected abstract ExecOperations getExecOperations();
+
+  /** Performs the training run. */
+  @TaskAction
+  public void createArchive() {
+    final File directory = getArchiveDirectory().get().getAsFile();
+    final File archive = new File(directory, ARCHIVE_NAME);
+
+    if (archive.exists() && !archive.delete()) {
+      throw new GradleException("Cannot delete stale archive %s".formatted(archive));
+    }
+
+    final var image = loadImage();
+    final var network = "appcds-" + UUID.randomUUID();
+    final var database = network + "-" + DATABASE_HOST;
+    final var service = network + "-service";
+
+    docker("network", "create", network);
+
+    try {
+      docker(
+          "run",
+          "--detach",
+          "--name",
+          database,
+          "--network",
+          network,
+          "--network-alias",
+          DATABASE_HOST,
+          "--env",
+          "POSTGRES_PASSWORD=" + DATABASE_CREDENTIALS,
+          getDatabaseImage().get());
+      awaitDatabase(database);
+
+      final var containerArchive = getContainerDirectory().get() + "/" + ARCHIVE_NAME;
+      final List<String> arguments = new ArrayList<>();
+      arguments.addAll(
+          List.of(
+              "run",
+              "--detach",
+              "--name",
+              service,
+              "--network",
+              network,
+              "--volume",
+              directory.getAbsolutePath() + ":" + getContainerDirectory().get()));
+
+      for (Map.Entry<String, String> variable : getEnvironment().get().entrySet()) {
+        arguments.add("--env");
+        arguments.add(variable.getKey() + "=" + variable.getValue());
+      }
+
+      // Same launch command as Jib uses, except for the archive and the training run flags
+      arguments.addAll(List.of("--entrypoint", "java", image));
+      arguments.addAll(getJvmFlags().get());
+      arguments.addAll(
+          List.of(
+              "-XX:ArchiveClassesAtExit=" + containerArchive,
+              TRAINING_RUN_PROPERTY,
+              "-cp",
+              "@/app/jib-classpath-file",
+              "@/app/jib-main-class-file"));
+
+      docker(arguments.toArray(String[]::new));
+      awaitTrainingRun(service);
+    } finally {
+      dockerIgnoringFailures("rm", "--force", service);
+      dockerIgnoringFailures("rm", "--force", database);
+      dockerIgnoringFailures("network", "rm", network);
+    }
+
+    if (!archive.isFile()) {
+      throw new GradleException("Training run did not produce archive %s".formatted(archive));
+    }
+
+    getLogger().lifecycle("AppCDS archive {} ({} KiB)", archive, archive.length() / 1024);
+  }
+
+  /**
+   * @return reference to the image loaded from the tarball
+   */
+  private String loadImage() {
+    final var output = docker("load", "--input", getImageTar().get().getAsFile().getAbsolutePath());
+
+    return output
+        .lines()
+        .map(String::trim)
+        .filter(line -> line.startsWith(LOADED_IMAGE) || line.startsWith(LOADED_IMAGE_ID))
+        .map(
+            line ->
+                line.startsWith(LOADED_IMAGE)
+                    ? line.substring(LOADED_IMAGE.length())
+                    : line.substring(LOADED_IMAGE_ID.length()))
+        .reduce((first, last) -> last)
+        .orElseThrow(() -> new GradleException("Cannot find loaded image in: " + output));
+  }
+
+  private void awaitDatabase(String container) {
+    final long deadline = System.nanoTime() + DATABASE_TIMEOUT.toNanos();
+
+    while (System.nanoTime() < deadline) {
+      final var result =
+          exec(
+              false,
+              "exec",
+              container,
+              "pg_isready",
+              "--host",
+              "localhost",
+              "--username",
+              DATABASE_CREDENTIALS);
+
+      if (result.exitValue() == 0) {
+        return;
+      }
+
+      try {
+        Thread.sleep(500L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GradleException("Interrupted while waiting for the training database", e);
+      }
+    }
+
+    throw new GradleException("Training database did not start in %s".formatted(DATABASE_TIMEOUT));
+  }
+
+  /**
+   * Waits for the service to exit after the startup, stopping it if it does not exit in time.
+   *
+   * @param container of the service
+   * @throws GradleException if the service failed
+   */
+  private void awaitTrainingRun(String container) {
+    final long deadline = System.nanoTime() + TRAINING_TIMEOUT.toNanos();
+
+    while (!"exited".equals(inspect(container, "{{.State.Status}}"))) {
+      if (System.nanoTime() >= deadline) {
+        getLogger().warn("Training run did not exit in {}, stopping it", TRAINING_TIMEOUT);
+        docker("stop", "--time", Long.toString(STOP_TIMEOUT.toSeconds()), container);
+        break;
+      }
+
+      try {
+        Thread.sleep(500L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new GradleException("Interrupted while waiting for the training run", e);
+      }
+    }
+
+    final var exitCode = inspect(container, "{{.State.ExitCode}}");
+
+    if (!"0".equals(exitCode)) {
+      throw new GradleException(
+          "Training run failed with exit code %s:%n%s"
+              .formatted(exitCode, exec(false, "logs", container).output()));
+    }
+  }
+
+  private String inspect(String container, String format) {
+    return docker("inspect", "--format", format, container).trim();
+  }
+
+  private String docker(String... arguments) {
+    return exec(true, arguments).output();
+  }
+
+  private void dockerIgnoringFailures(String... arguments) {
+    exec(false, arguments);
+  }
+
+  private Execution exec(boolean failOnError, String... arguments) {
+    final var output = new ByteArrayOutputStream();
+    final ExecResult result =
+        getExecOperations()
+            .exec(
+                spec -> {
+                  spec.executable("docker");
+                  spec.args((Object[]) arguments);
+                  spec.setStandardOutput(output);
+                  spec.setErrorOutput(output);
+                  spec.setIgnoreExitValue(true);
+                });
+
+    final var text = output.toString(StandardCharsets.UTF_8);
+
+    if (failOnError && result.getExitValue() != 0) {
+      throw new GradleException(
+          "Command 'docker %s' failed with exit code %d:%n%s"
+              .formatted(String.join(" ", arguments), result.getExitValue(), text));
+    }
+
+    return new Execution(result.getExitValue(), text);
+  }
+
+  /**
+   * Outcome of the Docker command.
+   *
+   * @param exitValue of the command
+   * @param output of the command, both standard and error
+   */
+  private record Execution(int exitValue, String output) {}
+}
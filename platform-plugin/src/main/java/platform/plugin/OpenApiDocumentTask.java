@@ -0,0 +1,138 @@
+package platform.plugin;
+
+import groovy.json.JsonOutput;
+import groovy.json.JsonSlurper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Renders the final OpenAPI document from the output of the OpenAPI annotation processor, so that
+ * the service serves it as is instead of assembling it on every start.
+ *
+ * <p>Next to the document, the task writes its gzip-compressed copy and its strong {@code ETag}, to
+ * avoid compressing and hashing it at runtime. Brotli is left out, as there is no encoder in the
+ * JDK.
+ */
+public abstract class OpenApiDocumentTask extends DefaultTask {
+  /** Provides the name of this task. */
+  public static final String NAME = "openApiDocument";
+
+  /** Provides the path of the rendered document among the resources. */
+  public static final String DOCUMENT = "openapi/openapi.json";
+
+  /** Provides the path of the annotation processor output among the compiled classes. */
+  public static final String PROCESSOR_OUTPUT = "openapi-plugin/openapi-default.json";
+
+  private static final String GZIP_SUFFIX = ".gz";
+  private static final String ETAG_SUFFIX = ".etag";
+
+  /** Default constructor. */
+  public OpenApiDocumentTask() {
+    // No operations required
+  }
+
+  /**
+   * @return the annotation processor output, the task is skipped if there is none
+   */
+  @InputFiles
+  @SkipWhenEmpty
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract ConfigurableFileCollection getSource();
+
+  /**
+   * @return title of the API
+   */
+  @Input
+  public abstract Property<String> getTitle();
+
+  /**
+   * @return version of the API
+   */
+  @Input
+  public abstract Property<String> getVersion();
+
+  /**
+   * @return directory to add to the resources
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getOutputDirectory();
+
+  /**
+   * Renders the document.
+   *
+   * @throws IOException if the document cannot be read or written
+   */
+  @TaskAction
+  public void render() throws IOException {
+    @SuppressWarnings("unchecked")
+    final var document = (Map<String, Object>) new JsonSlurper().parse(getSource().getSingleFile());
+
+    @SuppressWarnings("unchecked")
+    final var info =
+        (Map<String, Object>) document.computeIfAbsent("info", key -> new LinkedHashMap<>());
+    info.put("title", getTitle().get());
+    info.put("version", getVersion().get());
+
+    final var json = JsonOutput.toJson(document).getBytes(StandardCharsets.UTF_8);
+    final var target = getOutputDirectory().file(DOCUMENT).get().getAsFile().toPath();
+
+    Files.createDirectories(target.getParent());
+    Files.write(target, json);
+    Files.write(sibling(target, GZIP_SUFFIX), gzip(json));
+    Files.writeString(sibling(target, ETAG_SUFFIX), etag(json), StandardCharsets.US_ASCII);
+  }
+
+  private static Path sibling(Path path, String suffix) {
+    return path.resolveSibling(path.getFileName() + suffix);
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+    final var result = new ByteArrayOutputStream();
+
+    // Compressed once, so the best ratio costs nothing at runtime
+    try (final var gzip =
+        new GZIPOutputStream(result) {
+          {
+            def.setLevel(Deflater.BEST_COMPRESSION);
+          }
+        }) {
+      gzip.write(content);
+    }
+
+    return result.toByteArray();
+  }
+
+  /**
+   * @return quoted strong entity tag of the content
+   */
+  private static String etag(byte[] content) {
+    try {
+      final var digest = MessageDigest.getInstance("SHA-256").digest(content);
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new GradleException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -1,5 +1,9 @@
 package platform.plugin;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -14,13 +18,78 @@ public class PlatformExtension {
   /** Provides default PostgreSQL jOOQ database generator class name. */
   @Nonnull public final String databaseJooqGeneratorClassName;
 
+  /** Provides the directory inside the image where AppCDS archive is placed. */
+  @Nonnull public static final String APP_CDS_CONTAINER_DIRECTORY = "/app/cds";
+
   /** Provides user-defined name of the destination package for generated database classes. */
   @Nullable public String generatedDatabaseClassesPackage;
 
+  /** Provides the title of the OpenAPI document, the project name is used if not set. */
+  @Nullable public String openApiTitle;
+
+  /** Whether to train and use AppCDS archive to speed up the container startup. */
+  public boolean appCdsEnabled;
+
+  /** Provides PostgreSQL image to start for the AppCDS training run. */
+  @Nonnull public String appCdsDatabaseImage;
+
+  /**
+   * Provides environment variables of the AppCDS training run, which must point the service to the
+   * training database reachable at {@link AppCdsArchiveTask#DATABASE_HOST}.
+   */
+  @Nonnull public Map<String, String> appCdsTrainingEnvironment;
+
+  /** Provides the maximum heap size as a percentage of the container memory limit. */
+  public double maxRamPercentage;
+
+  /** Provides the garbage collector name, for example {@code G1}, {@code Parallel} or {@code Z}. */
+  @Nonnull public String garbageCollector;
+
   /** Default constructor. */
   public PlatformExtension() {
     this.databaseDriverClassName = "org.postgresql.Driver";
     this.databaseJooqGeneratorClassName = "org.jooq.meta.postgres.PostgresDatabase";
+
+    this.appCdsEnabled = true;
+    this.appCdsDatabaseImage = "postgres:16-alpine";
+    this.appCdsTrainingEnvironment = new LinkedHashMap<>();
+
+    // Leaves room for metaspace, thread stacks, direct buffers and the code cache
+    this.maxRamPercentage = 75.0;
+
+    // JVM picks Serial GC in containers with less than 2 CPUs or 1792 MiB, which hurts latency
+    this.garbageCollector = "G1";
+  }
+
+  /**
+   * JVM flags for the container, to be passed to Jib.
+   *
+   * @return container-aware memory and GC flags, plus AppCDS archive if enabled
+   */
+  public @Nonnull List<String> containerJvmFlags() {
+    final List<String> flags = new ArrayList<>(trainingJvmFlags());
+
+    if (appCdsEnabled) {
+      // Falls back to the regular class loading if the archive is missing or does not match
+      flags.add(
+          "-XX:SharedArchiveFile=%s/%s"
+              .formatted(APP_CDS_CONTAINER_DIRECTORY, AppCdsArchiveTask.ARCHIVE_NAME));
+      flags.add("-Xshare:auto");
+    }
+
+    return flags;
+  }
+
+  /**
+   * JVM flags for the AppCDS training run, matching the container ones except for the archive.
+   *
+   * @return container-aware memory and GC flags
+   */
+  public @Nonnull List<String> trainingJvmFlags() {
+    return List.of(
+        "-XX:MaxRAMPercentage=%s".formatted(maxRamPercentage),
+        "-XX:+Use%sGC".formatted(garbageCollector.trim()),
+        "-XX:+ExitOnOutOfMemoryError");
   }
 
   /**
@@ -3,6 +3,8 @@ package platform.plugin;
 import com.diffplug.gradle.spotless.SpotlessExtension;
 import com.diffplug.gradle.spotless.SpotlessPlugin;
 import io.github.suppierk.codegen.GeneratorPlugin;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import nu.studer.gradle.jooq.JooqEdition;
 import nu.studer.gradle.jooq.JooqExtension;
@@ -13,6 +15,9 @@ import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.plugins.JavaBasePlugin;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.compile.JavaCompile;
 
 /** Perform registration of necessary parts. */
 @SuppressWarnings("unused")
@@ -20,6 +25,9 @@ public class PlatformPlugin implements Plugin<Project> {
   private static final String PLATFORM_LIBRARY_VERSION = "0.0.1";
   private static final String JOOQ_VERSION = "3.20.3";
   private static final String POSTGRESQL_VERSION = "42.7.5";
+  private static final String JIB_PLUGIN_ID = "com.google.cloud.tools.jib";
+  private static final String JIB_TAR_TASK = "jibBuildTar";
+  private static final List<String> JIB_IMAGE_TASKS = List.of("jib", "jibDockerBuild");
 
   /** Default constructor. */
   public PlatformPlugin() {
@@ -53,6 +61,89 @@ public class PlatformPlugin implements Plugin<Project> {
         Objects.requireNonNull(
             root.getExtensions().getByType(JooqExtension.class), "Cannot retrieve jOOQ extension");
 
+    // Rendering OpenAPI document once during the build instead of on every start
+    final var openApiDocument =
+        root.getTasks()
+            .register(
+                OpenApiDocumentTask.NAME,
+                OpenApiDocumentTask.class,
+                task -> {
+                  task.setGroup("build");
+                  task.setDescription(
+                      "Renders OpenAPI document with its compressed copy and ETag.");
+
+                  task.getSource()
+                      .from(
+                          root.getTasks()
+                              .named(JavaPlugin.COMPILE_JAVA_TASK_NAME, JavaCompile.class)
+                              .flatMap(JavaCompile::getDestinationDirectory)
+                              .map(
+                                  directory ->
+                                      directory.file(OpenApiDocumentTask.PROCESSOR_OUTPUT)));
+                  task.getTitle()
+                      .set(
+                          root.provider(
+                              () ->
+                                  extension.openApiTitle == null
+                                      ? root.getName()
+                                      : extension.openApiTitle));
+                  task.getVersion().set(root.provider(() -> root.getVersion().toString()));
+                  task.getOutputDirectory()
+                      .set(root.getLayout().getBuildDirectory().dir("generated/resources/openapi"));
+                });
+
+    root.getExtensions()
+        .getByType(JavaPluginExtension.class)
+        .getSourceSets()
+        .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+        .getOutput()
+        .dir(
+            Map.of("builtBy", openApiDocument),
+            openApiDocument.flatMap(OpenApiDocumentTask::getOutputDirectory));
+
+    // Registering AppCDS training run, which relies on the image built by Jib
+    final var appCdsArchive =
+        root.getTasks()
+            .register(
+                AppCdsArchiveTask.NAME,
+                AppCdsArchiveTask.class,
+                task -> {
+                  task.setGroup("build");
+                  task.setDescription(
+                      "Creates AppCDS archive by starting the service image against a database.");
+
+                  task.getImageTar()
+                      .set(root.getLayout().getBuildDirectory().file("jib-image.tar"));
+                  task.getDatabaseImage().set(root.provider(() -> extension.appCdsDatabaseImage));
+                  task.getEnvironment()
+                      .set(root.provider(() -> extension.appCdsTrainingEnvironment));
+                  task.getJvmFlags().set(root.provider(extension::trainingJvmFlags));
+                  task.getContainerDirectory().set(PlatformExtension.APP_CDS_CONTAINER_DIRECTORY);
+                  task.getArchiveDirectory()
+                      .set(root.getLayout().getBuildDirectory().dir("appcds"));
+                });
+
+    root.getPluginManager()
+        .withPlugin(
+            JIB_PLUGIN_ID,
+            plugin -> {
+              appCdsArchive.configure(task -> task.dependsOn(JIB_TAR_TASK));
+
+              // Images include the archive only when enabled, to avoid building the image twice
+              for (String imageTask : JIB_IMAGE_TASKS) {
+                root.getTasks()
+                    .named(imageTask)
+                    .configure(
+                        task ->
+                            task.dependsOn(
+                                root.provider(
+                                    () ->
+                                        extension.appCdsEnabled
+                                            ? List.of(appCdsArchive)
+                                            : List.of())));
+              }
+            });
+
     // Setting extension properties
     root.afterEvaluate(
         project -> {
@@ -83,6 +174,15 @@ public class PlatformPlugin implements Plugin<Project> {
                   "implementation",
                   "io.github.suppierk:platform-library:%s".formatted(PLATFORM_LIBRARY_VERSION));
 
+          // Generating dependency wiring to avoid reflection during the startup
+          for (final String configuration :
+              List.of("annotationProcessor", "testAnnotationProcessor")) {
+            root.getDependencies()
+                .add(
+                    configuration,
+                    "io.github.suppierk:platform-processor:%s".formatted(PLATFORM_LIBRARY_VERSION));
+          }
+
           // Registering additional database-specific dependency for jOOQ class generator
           root.getDependencies()
               .add("jooqGenerator", "org.postgresql:postgresql:%s".formatted(POSTGRESQL_VERSION));
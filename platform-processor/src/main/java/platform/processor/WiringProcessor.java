@@ -0,0 +1,336 @@
+package platform.processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@code platform.wiring.Wiring} class for every dependency, so that the platform can
+ * create dependencies by calling their constructors and {@code @Provides} methods directly instead
+ * of using reflection.
+ *
+ * <p>Dependencies are found by the same annotations {@code io.github.suppierk.inject.Injector}
+ * relies on: {@code @Inject} constructors, {@code @Provides} methods and {@code @Singleton}
+ * classes. Classes which cannot be called from the generated code, like private ones or ones with
+ * private {@code @Provides} methods, are skipped with a note and are left to the {@code Injector}.
+ *
+ * <p>Generated classes are listed in {@value #SERVICE_FILE} to be found by {@link
+ * java.util.ServiceLoader}.
+ */
+@SupportedAnnotationTypes({
+  WiringProcessor.INJECT,
+  WiringProcessor.SINGLETON,
+  WiringProcessor.PROVIDES
+})
+public final class WiringProcessor extends AbstractProcessor {
+  static final String INJECT = "jakarta.inject.Inject";
+  static final String SINGLETON = "jakarta.inject.Singleton";
+  static final String PROVIDES = "io.github.suppierk.inject.Provides";
+
+  static final String WIRING = "platform.wiring.Wiring";
+  static final String PRODUCT = "platform.wiring.Product";
+  static final String RESOLVER = "platform.wiring.Resolver";
+  static final String SERVICE_FILE = "META-INF/services/" + WIRING;
+  static final String SUFFIX = "Wiring";
+
+  private final Set<String> wirings = new TreeSet<>();
+
+  /** {@inheritDoc} */
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+    if (round.processingOver()) {
+      writeServiceFile();
+      return false;
+    }
+
+    final Set<TypeElement> candidates = new LinkedHashSet<>();
+
+    for (final TypeElement annotation : annotations) {
+      for (final Element element : round.getElementsAnnotatedWith(annotation)) {
+        final var type =
+            element.getKind() == ElementKind.CLASS ? element : element.getEnclosingElement();
+
+        if (type.getKind() == ElementKind.CLASS) {
+          candidates.add((TypeElement) type);
+        }
+      }
+    }
+
+    for (final TypeElement candidate : candidates) {
+      dependency(candidate).ifPresent(this::writeWiring);
+    }
+
+    // Annotations are shared with other processors, like OpenAPI one
+    return false;
+  }
+
+  /**
+   * @param type to generate the wiring for
+   * @return the dependency to wire or empty, if it cannot be called from the generated code
+   */
+  private Optional<Dependency> dependency(TypeElement type) {
+    if (type.getModifiers().contains(Modifier.ABSTRACT)
+        || !type.getTypeParameters().isEmpty()
+        || !isAccessible(type)) {
+      return skip(type, "it must be an accessible non-generic concrete class");
+    }
+
+    final var constructor = constructor(type);
+
+    if (constructor.isEmpty()) {
+      return skip(type, "it has no accessible @Inject or no-arguments constructor");
+    }
+
+    final var constructorParameters = parameters(constructor.get());
+
+    if (constructorParameters == null) {
+      return skip(type, "its constructor takes primitive or generic parameters");
+    }
+
+    final List<Provider> providers = new ArrayList<>();
+
+    for (final ExecutableElement method : providerMethods(type)) {
+      final var parameters = parameters(method);
+      final var product = erasure(method.getReturnType());
+
+      if (method.getModifiers().contains(Modifier.STATIC)
+          || !isAccessibleFrom(method, type)
+          || parameters == null
+          || product == null) {
+        return skip(type, "@Provides method %s cannot be called".formatted(method));
+      }
+
+      providers.add(new Provider(product, method.getSimpleName().toString(), parameters));
+    }
+
+    return Optional.of(new Dependency(type, constructorParameters, providers));
+  }
+
+  private Optional<Dependency> skip(TypeElement type, String reason) {
+    processingEnv
+        .getMessager()
+        .printMessage(
+            Diagnostic.Kind.NOTE,
+            "Wiring for %s is not generated, because %s".formatted(type, reason),
+            type);
+    return Optional.empty();
+  }
+
+  /**
+   * @return {@code @Inject} constructor, or the no-arguments one if there is none
+   */
+  private static Optional<ExecutableElement> constructor(TypeElement type) {
+    final var constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+    final var injectable =
+        constructors.stream().filter(constructor -> isAnnotated(constructor, INJECT)).findFirst();
+
+    return injectable
+        .or(
+            () ->
+                constructors.stream()
+                    .filter(constructor -> constructor.getParameters().isEmpty())
+                    .findFirst())
+        .filter(constructor -> !constructor.getModifiers().contains(Modifier.PRIVATE));
+  }
+
+  /**
+   * @return {@code @Provides} methods declared by the class or its superclasses, including ones
+   *     overridden without repeating the annotation
+   */
+  private List<ExecutableElement> providerMethods(TypeElement type) {
+    final Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+
+    for (TypeElement current = type; current != null; current = superclass(current)) {
+      for (final ExecutableElement method :
+          ElementFilter.methodsIn(current.getEnclosedElements())) {
+        final var product = erasure(method.getReturnType());
+
+        if (product != null && isAnnotated(method, PROVIDES)) {
+          methods.putIfAbsent(product, method);
+        }
+      }
+    }
+
+    return List.copyOf(methods.values());
+  }
+
+  private static TypeElement superclass(TypeElement type) {
+    final var superclass = type.getSuperclass();
+
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    final var element = (TypeElement) ((DeclaredType) superclass).asElement();
+    return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+  }
+
+  /**
+   * @return erased parameter types, or {@code null} if any of them cannot be resolved by type
+   */
+  private List<String> parameters(ExecutableElement executable) {
+    final List<String> parameters = new ArrayList<>();
+
+    for (final VariableElement parameter : executable.getParameters()) {
+      final var type = erasure(parameter.asType());
+
+      if (type == null) {
+        return null;
+      }
+
+      parameters.add(type);
+    }
+
+    return parameters;
+  }
+
+  /**
+   * @return canonical name of the erased type, or {@code null} if it is not a class or an interface
+   */
+  private String erasure(TypeMirror type) {
+    final var erasure = processingEnv.getTypeUtils().erasure(type);
+
+    if (erasure.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    return ((TypeElement) ((DeclaredType) erasure).asElement()).getQualifiedName().toString();
+  }
+
+  private static boolean isAnnotated(Element element, String annotation) {
+    return element.getAnnotationMirrors().stream()
+        .anyMatch(
+            mirror ->
+                ((TypeElement) mirror.getAnnotationType().asElement())
+                    .getQualifiedName()
+                    .contentEquals(annotation));
+  }
+
+  /**
+   * @return whether the type can be referred to from its own package
+   */
+  private static boolean isAccessible(TypeElement type) {
+    for (Element current = type;
+        current.getKind().isClass() || current.getKind().isInterface();
+        current = current.getEnclosingElement()) {
+      final var element = (TypeElement) current;
+
+      if (element.getModifiers().contains(Modifier.PRIVATE)
+          || (element.getNestingKind() == NestingKind.MEMBER
+              && !element.getModifiers().contains(Modifier.STATIC)
+              && current == type)
+          || element.getNestingKind() == NestingKind.LOCAL
+          || element.getNestingKind() == NestingKind.ANONYMOUS) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return whether the method can be called from the package of the given type
+   */
+  private boolean isAccessibleFrom(ExecutableElement method, TypeElement type) {
+    final var modifiers = method.getModifiers();
+
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+
+    final var elements = processingEnv.getElementUtils();
+    return !modifiers.contains(Modifier.PRIVATE)
+        && elements.getPackageOf(method).equals(elements.getPackageOf(type));
+  }
+
+  private void writeWiring(Dependency dependency) {
+    final var elements = processingEnv.getElementUtils();
+    final var packageName = elements.getPackageOf(dependency.type()).getQualifiedName().toString();
+    final var simpleName = wiringName(dependency.type(), packageName);
+    final var qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    try (final var writer =
+        processingEnv.getFiler().createSourceFile(qualifiedName, dependency.type()).openWriter()) {
+      writer.write(WiringSource.render(packageName, simpleName, dependency));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write %s".formatted(qualifiedName), e);
+    }
+
+    wirings.add(qualifiedName);
+  }
+
+  /**
+   * @return name of the wiring class, nested classes are flattened with underscores
+   */
+  private static String wiringName(TypeElement type, String packageName) {
+    final var qualifiedName = type.getQualifiedName().toString();
+    final var relativeName =
+        packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+    return relativeName.replace('.', '_') + SUFFIX;
+  }
+
+  private void writeServiceFile() {
+    if (wirings.isEmpty()) {
+      return;
+    }
+
+    try (final var writer =
+        processingEnv
+            .getFiler()
+            .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE)
+            .openWriter()) {
+      writer.write(wirings.stream().collect(Collectors.joining("\n", "", "\n")));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write %s".formatted(SERVICE_FILE), e);
+    }
+  }
+
+  /**
+   * Dependency to generate the wiring for.
+   *
+   * @param type of the dependency
+   * @param parameters of the constructor, as canonical names of the erased types
+   * @param providers of the {@code @Provides} methods
+   */
+  record Dependency(TypeElement type, List<String> parameters, List<Provider> providers) {}
+
+  /**
+   * {@code @Provides} method of the dependency.
+   *
+   * @param product canonical name of the erased return type
+   * @param method name
+   * @param parameters of the method, as canonical names of the erased types
+   */
+  record Provider(String product, String method, List<String> parameters) {}
+}
@@ -0,0 +1,125 @@
+package platform.processor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Renders the source code of the generated wiring.
+ *
+ * <p>Generated code refers to all types by their canonical names, so that it never clashes with the
+ * names in the package of the dependency.
+ */
+final class WiringSource {
+  private WiringSource() {
+    // Utility class
+  }
+
+  /**
+   * @param packageName of the wiring
+   * @param simpleName of the wiring
+   * @param dependency to render the wiring for
+   * @return source code of the wiring
+   */
+  static String render(
+      String packageName, String simpleName, WiringProcessor.Dependency dependency) {
+    final var type = dependency.type().getQualifiedName().toString();
+    final var source = new StringBuilder();
+
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    source
+        .append("/** Creates {@link ")
+        .append(type)
+        .append("} and its products without reflection. */\n")
+        .append("@javax.annotation.processing.Generated(\"")
+        .append(WiringProcessor.class.getName())
+        .append("\")\n")
+        .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+        .append("public final class ")
+        .append(simpleName)
+        .append(" implements ")
+        .append(WiringProcessor.WIRING)
+        .append('<')
+        .append(type)
+        .append("> {\n");
+
+    source
+        .append("  @Override\n")
+        .append("  public Class<")
+        .append(type)
+        .append("> type() {\n")
+        .append("    return ")
+        .append(type)
+        .append(".class;\n")
+        .append("  }\n\n");
+
+    source
+        .append("  @Override\n")
+        .append("  public java.util.List<Class<?>> dependencies() {\n")
+        .append("    return ")
+        .append(classes(dependency.parameters()))
+        .append(";\n")
+        .append("  }\n\n");
+
+    source
+        .append("  @Override\n")
+        .append("  public ")
+        .append(type)
+        .append(" create(")
+        .append(WiringProcessor.RESOLVER)
+        .append(" resolver) throws Exception {\n")
+        .append("    return new ")
+        .append(type)
+        .append('(')
+        .append(arguments(dependency.parameters()))
+        .append(");\n")
+        .append("  }\n\n");
+
+    source
+        .append("  @Override\n")
+        .append("  public java.util.List<")
+        .append(WiringProcessor.PRODUCT)
+        .append('<')
+        .append(type)
+        .append(", ?>> products() {\n")
+        .append("    return java.util.List.of(");
+
+    for (int i = 0; i < dependency.providers().size(); i++) {
+      final var provider = dependency.providers().get(i);
+
+      source
+          .append(i == 0 ? "\n" : ",\n")
+          .append("        new ")
+          .append(WiringProcessor.PRODUCT)
+          .append("<>(\n")
+          .append("            ")
+          .append(provider.product())
+          .append(".class,\n")
+          .append("            ")
+          .append(classes(provider.parameters()))
+          .append(",\n")
+          .append("            (provider, resolver) -> provider.")
+          .append(provider.method())
+          .append('(')
+          .append(arguments(provider.parameters()))
+          .append("))");
+    }
+
+    source.append(");\n").append("  }\n").append("}\n");
+    return source.toString();
+  }
+
+  private static String classes(List<String> types) {
+    return types.stream()
+        .map(type -> type + ".class")
+        .collect(Collectors.joining(", ", "java.util.List.of(", ")"));
+  }
+
+  private static String arguments(List<String> types) {
+    return types.stream()
+        .map(type -> "resolver.get(" + type + ".class)")
+        .collect(Collectors.joining(", "));
+  }
+}
@@ -0,0 +1,2 @@
+/** This package generates the dependency wiring at compile time. */
+package platform.processor;
@@ -0,0 +1,187 @@
+package platform.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WiringProcessorTest {
+  /** Minimal annotations and contracts required by the sources and the generated code. */
+  private static final Map<String, String> CONTRACTS =
+      Map.of(
+          "jakarta/inject/Inject.java",
+          "package jakarta.inject; public @interface Inject {}",
+          "jakarta/inject/Singleton.java",
+          "package jakarta.inject; public @interface Singleton {}",
+          "io/github/suppierk/inject/Provides.java",
+          "package io.github.suppierk.inject; public @interface Provides {}",
+          "platform/wiring/Resolver.java",
+          "package platform.wiring; public interface Resolver { <T> T get(Class<T> type); }",
+          "platform/wiring/Product.java",
+          """
+          package platform.wiring;
+          public record Product<P, T>(Class<T> type, java.util.List<Class<?>> dependencies, Factory<P, T> factory) {
+            public interface Factory<P, T> { T create(P provider, Resolver resolver) throws Exception; }
+          }
+          """,
+          "platform/wiring/Wiring.java",
+          """
+          package platform.wiring;
+          public interface Wiring<T> {
+            Class<T> type();
+            java.util.List<Class<?>> dependencies();
+            T create(Resolver resolver) throws Exception;
+            java.util.List<Product<T, ?>> products();
+          }
+          """);
+
+  @TempDir Path directory;
+
+  @Test
+  void generatesWiringTest() throws IOException {
+    final var output =
+        compile(
+            Map.of(
+                "sample/Config.java",
+                "package sample; public record Config(String name) {}",
+                "sample/ConfigProvider.java",
+                """
+                package sample;
+                import io.github.suppierk.inject.Provides;
+                import jakarta.inject.Singleton;
+                @Singleton
+                public class ConfigProvider {
+                  @Provides
+                  public Config config(java.util.List<String> names) throws Exception {
+                    return new Config(names.getFirst());
+                  }
+                }
+                """,
+                "sample/Service.java",
+                """
+                package sample;
+                import jakarta.inject.Inject;
+                public class Service {
+                  public static class Nested {
+                    @Inject
+                    Nested(Config config) {}
+                  }
+
+                  @Inject
+                  Service(Config config, Nested nested) {}
+                }
+                """));
+
+    final var wiring = Files.readString(sourceOutput().resolve("sample/ConfigProviderWiring.java"));
+    assertTrue(wiring.contains("return new sample.ConfigProvider();"), wiring);
+    assertTrue(
+        wiring.contains("provider.config(resolver.get(java.util.List.class))"),
+        "Generic parameters must be erased");
+
+    final var service = Files.readString(sourceOutput().resolve("sample/ServiceWiring.java"));
+    assertTrue(
+        service.contains(
+            "new sample.Service(resolver.get(sample.Config.class),"
+                + " resolver.get(sample.Service.Nested.class))"),
+        service);
+
+    assertEquals(
+        List.of(
+            "sample.ConfigProviderWiring", "sample.ServiceWiring", "sample.Service_NestedWiring"),
+        Files.readAllLines(classOutput().resolve(WiringProcessor.SERVICE_FILE)));
+    assertFalse(output.contains("not generated"), output);
+  }
+
+  @Test
+  void skipsInaccessibleDependenciesTest() throws IOException {
+    final var output =
+        compile(
+            Map.of(
+                "sample/Hidden.java",
+                """
+                package sample;
+                import io.github.suppierk.inject.Provides;
+                import jakarta.inject.Singleton;
+                public class Hidden {
+                  @Singleton
+                  private static class PrivateClass {}
+
+                  @Singleton
+                  public static class PrivateProvider {
+                    @Provides
+                    private String name() {
+                      return "name";
+                    }
+                  }
+
+                  @Singleton
+                  public abstract static class AbstractClass {}
+                }
+                """));
+
+    assertTrue(output.contains("Wiring for sample.Hidden.PrivateClass is not generated"), output);
+    assertTrue(
+        output.contains("Wiring for sample.Hidden.PrivateProvider is not generated"), output);
+    assertTrue(output.contains("Wiring for sample.Hidden.AbstractClass is not generated"), output);
+    assertFalse(Files.exists(classOutput().resolve(WiringProcessor.SERVICE_FILE)));
+  }
+
+  /**
+   * Compiles the sources together with the generated code.
+   *
+   * @return compiler output
+   */
+  private String compile(Map<String, String> sources) throws IOException {
+    final var sourceDirectory = directory.resolve("src");
+
+    for (final var source : List.of(CONTRACTS, sources)) {
+      for (final var entry : source.entrySet()) {
+        final var path = sourceDirectory.resolve(entry.getKey());
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, entry.getValue());
+      }
+    }
+
+    Files.createDirectories(sourceOutput());
+    Files.createDirectories(classOutput());
+
+    final var compiler = ToolProvider.getSystemJavaCompiler();
+    final var output = new StringWriter();
+
+    try (final var fileManager = compiler.getStandardFileManager(null, null, null);
+        final var files = Files.walk(sourceDirectory)) {
+      final var task =
+          compiler.getTask(
+              output,
+              fileManager,
+              null,
+              List.of(
+                  "-d", classOutput().toString(), "-s", sourceOutput().toString(), "-proc:full"),
+              null,
+              fileManager.getJavaFileObjectsFromPaths(
+                  files.filter(path -> path.toString().endsWith(".java")).toList()));
+      task.setProcessors(List.of(new WiringProcessor()));
+
+      assertTrue(task.call(), output.toString());
+    }
+
+    return output.toString();
+  }
+
+  private Path sourceOutput() {
+    return directory.resolve("generated");
+  }
+
+  private Path classOutput() {
+    return directory.resolve("classes");
+  }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static service.db.Tables.USERS;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import platform.ApplicationWrapper;
+import platform.test.AbstractApplicationTest;
+import service.loadtest.LatencyRecorder;
+import service.loadtest.LoadSettings;
+import service.loadtest.LoadTestReport;
+import service.loadtest.OpenModelLoadGenerator;
+import service.loadtest.UsersWorkload;
+
+/**
+ * End-to-end load test, booting the whole application against PostgreSQL container.
+ *
+ * <p>Run it with {@code ./gradlew loadTest}, see {@link LoadSettings} for the available properties.
+ */
+class LoadTest extends AbstractApplicationTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+  private static final int SEED_BATCH_SIZE = 1_000;
+
+  @Test
+  void load() throws IOException {
+    final var settings = LoadSettings.fromSystemProperties();
+    final var objectMapper = new ObjectMapper();
+    final var seededUsers = seedUsers(settings.users());
+
+    final ApplicationWrapper wrapper = useTestDatabase(new Application().wrapper);
+
+    try (final var clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        final var client =
+            HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.timeout())
+                .executor(clientThreads)
+                .build()) {
+      final var javalin = wrapper.javalin().start(0);
+      final var workload =
+          new UsersWorkload(
+              client,
+              objectMapper,
+              URI.create("http://localhost:%d".formatted(javalin.port())),
+              settings.timeout(),
+              seededUsers,
+              settings.batchSize());
+
+      final var recorder = new LatencyRecorder();
+      final var sent =
+          new OpenModelLoadGenerator(settings.rate(), settings.mix())
+              .run(settings.warmup(), settings.duration(), workload::execute, recorder);
+
+      final var report = LoadTestReport.of(settings, recorder);
+      report.writeTo(settings.reportDirectory(), objectMapper, recorder);
+
+      LOGGER.info("{}", report);
+      LOGGER.info("Reports are written to {}", settings.reportDirectory().toAbsolutePath());
+
+      assertTrue(sent > 0, "No requests were measured");
+    } finally {
+      wrapper.close();
+      testDsl().truncate(USERS).execute();
+    }
+  }
+
+  /**
+   * Inserts users directly into the database, bypassing the service.
+   *
+   * @param amount of users to insert
+   * @return IDs of the inserted users
+   */
+  private static List<UUID> seedUsers(int amount) {
+    final List<UUID> userIds = new ArrayList<>(amount);
+    final var createdAt = OffsetDateTime.now();
+
+    for (int from = 0; from < amount; from += SEED_BATCH_SIZE) {
+      var insert =
+          testDsl().insertInto(USERS, USERS.ID, USERS.CREATED_AT, USERS.NAME, USERS.PASSWORD);
+
+      for (int i = from; i < Math.min(amount, from + SEED_BATCH_SIZE); i++) {
+        final var userId = UuidCreator.getTimeOrderedEpoch();
+        userIds.add(userId);
+        insert = insert.values(userId, createdAt, "seeded-" + i, "password-" + i);
+      }
+
+      insert.execute();
+    }
+
+    return userIds;
+  }
+}
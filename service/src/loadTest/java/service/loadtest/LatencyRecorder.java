@@ -0,0 +1,119 @@
+package service.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Records latencies of completed requests per {@link Operation}, in microseconds.
+ *
+ * <p>Every request is recorded twice:
+ *
+ * <ul>
+ *   <li><b>raw</b> latency is measured from the moment the request was actually sent, which is what
+ *       most load generators report;
+ *   <li><b>corrected</b> latency is measured from the moment the request was supposed to be sent
+ *       according to the arrival schedule, so that any time the request spent waiting because the
+ *       generator itself was stalled is accounted for. This avoids coordinated omission, which
+ *       otherwise hides the tail latency.
+ * </ul>
+ *
+ * <p>The difference between the two is exposed as the scheduling lag: if it is significant, the
+ * load generator could not keep up with the requested rate, and the raw numbers must not be
+ * trusted.
+ */
+public final class LatencyRecorder {
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Map<Operation, Histogram> raw;
+  private final Map<Operation, Histogram> corrected;
+  private final Map<Operation, LongAdder> errors;
+  private final LongAccumulator maxSchedulingLagNanos;
+
+  /** Default constructor. */
+  public LatencyRecorder() {
+    this.raw = new EnumMap<>(Operation.class);
+    this.corrected = new EnumMap<>(Operation.class);
+    this.errors = new EnumMap<>(Operation.class);
+    this.maxSchedulingLagNanos = new LongAccumulator(Math::max, 0L);
+
+    for (final Operation operation : Operation.values()) {
+      raw.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+      corrected.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  /**
+   * Records a completed request. Safe to call concurrently.
+   *
+   * @param operation performed
+   * @param intendedNanos when the request had to be sent according to the schedule
+   * @param sentNanos when the request was actually sent
+   * @param completedNanos when the response was received or the request failed
+   * @param succeeded whether the response had the expected status
+   */
+  public void record(
+      Operation operation,
+      long intendedNanos,
+      long sentNanos,
+      long completedNanos,
+      boolean succeeded) {
+    raw.get(operation).recordValue(toMicros(completedNanos - sentNanos));
+    corrected.get(operation).recordValue(toMicros(completedNanos - intendedNanos));
+    maxSchedulingLagNanos.accumulate(sentNanos - intendedNanos);
+
+    if (!succeeded) {
+      errors.get(operation).increment();
+    }
+  }
+
+  /**
+   * @param operation to get histogram for
+   * @return raw latencies of the operation in microseconds
+   */
+  public Histogram raw(Operation operation) {
+    return raw.get(operation);
+  }
+
+  /**
+   * @param operation to get histogram for
+   * @return coordinated omission corrected latencies of the operation in microseconds
+   */
+  public Histogram corrected(Operation operation) {
+    return corrected.get(operation);
+  }
+
+  /**
+   * @param operation to get error count for
+   * @return amount of failed requests of the operation
+   */
+  public long errors(Operation operation) {
+    return errors.get(operation).sum();
+  }
+
+  /**
+   * @return the longest time a request was delayed past its scheduled send time, in nanoseconds
+   */
+  public long maxSchedulingLagNanos() {
+    return maxSchedulingLagNanos.get();
+  }
+
+  /**
+   * @param histograms to merge
+   * @return a new histogram containing values of all given histograms
+   */
+  static Histogram merge(Iterable<Histogram> histograms) {
+    final var merged = new Histogram(SIGNIFICANT_DIGITS);
+    histograms.forEach(merged::add);
+    return merged;
+  }
+
+  private static long toMicros(long nanos) {
+    return Math.max(0L, TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+}
@@ -0,0 +1,107 @@
+package service.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties which Gradle forwards from the
+ * project properties, for example {@code -PloadTest.rate=500}.
+ *
+ * @param rate of requests per second to offer, regardless of how fast the service responds
+ * @param warmup to exclude from the results, while JIT and connection pools settle
+ * @param duration of the measured run, after the warmup
+ * @param users to seed before the run
+ * @param timeout of every request
+ * @param mix of operations with their relative weights
+ * @param batchSize of every {@link Operation#BATCH} request
+ * @param reportDirectory to write reports into
+ */
+public record LoadSettings(
+    int rate,
+    Duration warmup,
+    Duration duration,
+    int users,
+    Duration timeout,
+    Map<Operation, Integer> mix,
+    int batchSize,
+    Path reportDirectory) {
+  private static final String PREFIX = "loadTest.";
+
+  /**
+   * Default constructor.
+   *
+   * @throws IllegalArgumentException if any setting is out of range
+   */
+  public LoadSettings {
+    if (rate <= 0) {
+      throw new IllegalArgumentException("Rate %s must be positive".formatted(rate));
+    }
+
+    if (warmup.isNegative() || duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException(
+          "Warmup %s must not be negative and duration %s must be positive"
+              .formatted(warmup, duration));
+    }
+
+    if (users <= 0) {
+      throw new IllegalArgumentException("Users %s must be positive".formatted(users));
+    }
+
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("Timeout %s must be positive".formatted(timeout));
+    }
+
+    if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)) {
+      throw new IllegalArgumentException("Mix %s must have non-negative weights".formatted(mix));
+    }
+
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size %s must be positive".formatted(batchSize));
+    }
+
+    mix = Map.copyOf(mix);
+  }
+
+  /**
+   * @return settings from the system properties, falling back to defaults
+   */
+  public static LoadSettings fromSystemProperties() {
+    return new LoadSettings(
+        Integer.parseInt(property("rate", "200")),
+        Duration.parse(property("warmup", "PT10S")),
+        Duration.parse(property("duration", "PT30S")),
+        Integer.parseInt(property("users", "1000")),
+        Duration.parse(property("timeout", "PT5S")),
+        parseMix(property("mix", "read=70,list=10,create=10,update=8,delete=2")),
+        Integer.parseInt(property("batchSize", "100")),
+        Path.of(property("reportDirectory", "build/reports/load-test")));
+  }
+
+  /**
+   * @param mix in the {@code operation=weight,...} format
+   * @return weights of operations
+   * @throws IllegalArgumentException if the mix cannot be parsed
+   */
+  static Map<Operation, Integer> parseMix(String mix) {
+    final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+    for (final String entry : mix.split(",")) {
+      final var parts = entry.trim().split("=");
+
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Mix entry '%s' must be 'name=weight'".formatted(entry));
+      }
+
+      weights.put(Operation.fromName(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    return weights;
+  }
+
+  private static String property(String name, String defaultValue) {
+    final var value = System.getProperty(PREFIX + name);
+    return value == null || value.isBlank() ? defaultValue : value;
+  }
+}
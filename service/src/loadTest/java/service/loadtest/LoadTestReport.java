@@ -0,0 +1,259 @@
+package service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of a load test run, written as JSON to be compared between releases and as HTML to be
+ * read by humans.
+ *
+ * @param offeredRate of requests per second
+ * @param achievedRate of completed requests per second during the measured part of the run
+ * @param durationSeconds of the measured part of the run
+ * @param maxSchedulingLagMillis the longest time a request was delayed past its scheduled send time
+ * @param total summary of all operations
+ * @param operations summaries of individual operations
+ */
+public record LoadTestReport(
+    int offeredRate,
+    double achievedRate,
+    double durationSeconds,
+    double maxSchedulingLagMillis,
+    OperationSummary total,
+    List<OperationSummary> operations) {
+  private static final double MICROS_PER_MILLI = 1_000.0;
+
+  /**
+   * Builds the report out of the recorded latencies.
+   *
+   * @param settings of the run
+   * @param recorder with the recorded latencies
+   * @return a new {@link LoadTestReport}
+   */
+  public static LoadTestReport of(LoadSettings settings, LatencyRecorder recorder) {
+    final var durationSeconds =
+        settings.duration().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+    final List<OperationSummary> operations = new ArrayList<>();
+    final List<Histogram> raw = new ArrayList<>();
+    final List<Histogram> corrected = new ArrayList<>();
+    long errors = 0;
+
+    for (final Operation operation : Operation.values()) {
+      if (recorder.raw(operation).getTotalCount() == 0) {
+        continue;
+      }
+
+      operations.add(
+          OperationSummary.of(
+              operation.displayName(),
+              recorder.raw(operation),
+              recorder.corrected(operation),
+              recorder.errors(operation)));
+      raw.add(recorder.raw(operation));
+      corrected.add(recorder.corrected(operation));
+      errors += recorder.errors(operation);
+    }
+
+    final var total =
+        OperationSummary.of(
+            "total", LatencyRecorder.merge(raw), LatencyRecorder.merge(corrected), errors);
+
+    return new LoadTestReport(
+        settings.rate(),
+        total.count() / durationSeconds,
+        durationSeconds,
+        recorder.maxSchedulingLagNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1),
+        total,
+        List.copyOf(operations));
+  }
+
+  /**
+   * Writes {@code report.json} and {@code report.html} into the directory.
+   *
+   * @param directory to write reports into, created if missing
+   * @param objectMapper to write JSON with
+   * @param recorder to include full latency distributions from
+   * @throws IOException if reports cannot be written
+   */
+  public void writeTo(Path directory, ObjectMapper objectMapper, LatencyRecorder recorder)
+      throws IOException {
+    Files.createDirectories(directory);
+    objectMapper
+        .writerWithDefaultPrettyPrinter()
+        .writeValue(directory.resolve("report.json").toFile(), this);
+    Files.writeString(directory.resolve("report.html"), toHtml(recorder), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return short human-readable summary
+   */
+  @Override
+  public String toString() {
+    final var summary = new StringBuilder();
+    summary.append(
+        "Offered %d req/s, achieved %.1f req/s, max scheduling lag %.1f ms%n"
+            .formatted(offeredRate, achievedRate, maxSchedulingLagMillis));
+
+    for (final OperationSummary operation : withTotal()) {
+      summary.append(
+          "%-8s count=%d errors=%d p50=%.2f/%.2f p99=%.2f/%.2f p99.9=%.2f/%.2f ms (raw/corrected)%n"
+              .formatted(
+                  operation.name(),
+                  operation.count(),
+                  operation.errors(),
+                  operation.raw().p50Millis(),
+                  operation.corrected().p50Millis(),
+                  operation.raw().p99Millis(),
+                  operation.corrected().p99Millis(),
+                  operation.raw().p999Millis(),
+                  operation.corrected().p999Millis()));
+    }
+
+    return summary.toString();
+  }
+
+  private List<OperationSummary> withTotal() {
+    final List<OperationSummary> all = new ArrayList<>(operations);
+    all.add(total);
+    return all;
+  }
+
+  private String toHtml(LatencyRecorder recorder) {
+    final var html = new StringBuilder();
+    html.append(
+        """
+        <!DOCTYPE html>
+        <html lang="en">
+        <head>
+          <meta charset="utf-8">
+          <title>Load test report</title>
+          <style>
+            body { font-family: sans-serif; margin: 2em; }
+            table { border-collapse: collapse; }
+            th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+            th:first-child, td:first-child { text-align: left; }
+            pre { background: #f6f6f6; padding: 1em; overflow-x: auto; }
+          </style>
+        </head>
+        <body>
+        <h1>Load test report</h1>
+        """);
+    html.append(
+        "<p>Offered %d req/s for %.0f s, achieved %.1f req/s, max scheduling lag %.1f ms.</p>%n"
+            .formatted(offeredRate, durationSeconds, achievedRate, maxSchedulingLagMillis));
+    html.append(
+        """
+        <p>Corrected latency is measured from the scheduled send time and includes any delay \
+        caused by the load generator; raw latency is measured from the actual send time. \
+        Trust the corrected numbers when they differ.</p>
+        <table>
+        <tr><th>Operation</th><th>Count</th><th>Errors</th>\
+        <th>Latency</th><th>Mean</th><th>p50</th><th>p90</th><th>p99</th><th>p99.9</th><th>Max</th>\
+        </tr>
+        """);
+
+    for (final OperationSummary operation : withTotal()) {
+      appendRow(html, operation, "corrected", operation.corrected());
+      appendRow(html, operation, "raw", operation.raw());
+    }
+
+    html.append("</table>\n<p>All latencies are in milliseconds.</p>\n");
+
+    for (final Operation operation : Operation.values()) {
+      if (recorder.raw(operation).getTotalCount() == 0) {
+        continue;
+      }
+
+      html.append("<h2>%s</h2>%n".formatted(operation.displayName()));
+      html.append("<h3>Corrected distribution</h3>\n<pre>");
+      html.append(distribution(recorder.corrected(operation)));
+      html.append("</pre>\n<h3>Raw distribution</h3>\n<pre>");
+      html.append(distribution(recorder.raw(operation)));
+      html.append("</pre>\n");
+    }
+
+    html.append("</body>\n</html>\n");
+    return html.toString();
+  }
+
+  private static void appendRow(
+      StringBuilder html, OperationSummary operation, String type, LatencySummary latency) {
+    html.append(
+        "<tr><td>%s</td><td>%d</td><td>%d</td><td>%s</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>%n"
+            .formatted(
+                operation.name(),
+                operation.count(),
+                operation.errors(),
+                type,
+                latency.meanMillis(),
+                latency.p50Millis(),
+                latency.p90Millis(),
+                latency.p99Millis(),
+                latency.p999Millis(),
+                latency.maxMillis()));
+  }
+
+  private static String distribution(Histogram histogram) {
+    final var output = new ByteArrayOutputStream();
+
+    try (final var stream = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      histogram.outputPercentileDistribution(stream, 5, MICROS_PER_MILLI);
+    }
+
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Summary of a single operation.
+   *
+   * @param name of the operation
+   * @param count of measured requests
+   * @param errors amount of requests which failed or returned unexpected status
+   * @param raw latency measured from the actual send time
+   * @param corrected latency measured from the scheduled send time
+   */
+  public record OperationSummary(
+      String name, long count, long errors, LatencySummary raw, LatencySummary corrected) {
+    static OperationSummary of(String name, Histogram raw, Histogram corrected, long errors) {
+      return new OperationSummary(
+          name, raw.getTotalCount(), errors, LatencySummary.of(raw), LatencySummary.of(corrected));
+    }
+  }
+
+  /**
+   * Latency percentiles in milliseconds.
+   *
+   * @param meanMillis mean latency
+   * @param p50Millis median latency
+   * @param p90Millis 90th percentile
+   * @param p99Millis 99th percentile
+   * @param p999Millis 99.9th percentile
+   * @param maxMillis maximum latency
+   */
+  public record LatencySummary(
+      double meanMillis,
+      double p50Millis,
+      double p90Millis,
+      double p99Millis,
+      double p999Millis,
+      double maxMillis) {
+    static LatencySummary of(Histogram histogram) {
+      return new LatencySummary(
+          histogram.getMean() / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(50.0) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(90.0) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99.0) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+          histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package service.loadtest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Offers requests at a constant arrival rate, regardless of how fast the service responds.
+ *
+ * <p>Unlike closed-loop generators, where each client waits for a response before sending the next
+ * request, new requests keep arriving on schedule while the service is slow, just like real users.
+ * Every request is sent from its own virtual thread, so the amount of in-flight requests is not
+ * capped by the generator.
+ */
+public final class OpenModelLoadGenerator {
+  private final int rate;
+  private final Operation[] schedule;
+
+  /**
+   * Default constructor.
+   *
+   * @param rate of requests per second
+   * @param mix of operations with their relative weights
+   * @throws IllegalArgumentException if the mix has no positive weights
+   */
+  public OpenModelLoadGenerator(int rate, Map<Operation, Integer> mix) {
+    this.rate = rate;
+    this.schedule =
+        mix.entrySet().stream()
+            .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+            .toArray(Operation[]::new);
+
+    if (schedule.length == 0) {
+      throw new IllegalArgumentException("Mix %s must have positive weights".formatted(mix));
+    }
+  }
+
+  /**
+   * Runs the load, blocking until all requests are completed.
+   *
+   * @param warmup during which requests are sent but not recorded
+   * @param duration of the measured part of the run
+   * @param executor to perform operations with, returning {@code true} on success
+   * @param recorder to record the measured requests into
+   * @return amount of requests sent during the measured part of the run
+   */
+  public long run(
+      Duration warmup, Duration duration, Predicate<Operation> executor, LatencyRecorder recorder) {
+    final var intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / rate;
+    final var startedAt = System.nanoTime();
+    final var measuredFrom = startedAt + warmup.toNanos();
+    final var endsAt = measuredFrom + duration.toNanos();
+    final var measured = new AtomicLong();
+
+    try (final var threads = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        // Schedule is computed from the start, so that delays do not accumulate
+        final var intendedAt = startedAt + (long) (i * intervalNanos);
+
+        if (intendedAt >= endsAt) {
+          break;
+        }
+
+        parkUntil(intendedAt);
+
+        final var operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+        final var record = intendedAt >= measuredFrom;
+
+        if (record) {
+          measured.incrementAndGet();
+        }
+
+        threads.execute(
+            () -> {
+              final var sentAt = System.nanoTime();
+              final var succeeded = executor.test(operation);
+              final var completedAt = System.nanoTime();
+
+              if (record) {
+                recorder.record(operation, intendedAt, sentAt, completedAt, succeeded);
+              }
+            });
+      }
+    }
+
+    return measured.get();
+  }
+
+  /**
+   * Parks for the most of the remaining time and spins for the rest, as parking alone can overshoot
+   * by more than the interval between requests at high rates.
+   */
+  private static void parkUntil(long deadlineNanos) {
+    final var spinThresholdNanos = TimeUnit.MICROSECONDS.toNanos(100);
+
+    for (long remaining = deadlineNanos - System.nanoTime();
+        remaining > 0;
+        remaining = deadlineNanos - System.nanoTime()) {
+      if (remaining > spinThresholdNanos) {
+        LockSupport.parkNanos(remaining - spinThresholdNanos);
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package service.loadtest;
+
+import java.util.Locale;
+
+/** Operations of the users API included in the load mix. */
+public enum Operation {
+  /** Fetches a single seeded user. */
+  READ,
+
+  /** Fetches the first page of users. */
+  LIST,
+
+  /** Creates a new user. */
+  CREATE,
+
+  /** Renames a seeded user, without a password, so that it measures writes rather than hashing. */
+  UPDATE,
+
+  /** Renames a batch of seeded users in one request, to compare with {@link #UPDATE}. */
+  BATCH,
+
+  /** Deletes a user created during the run. */
+  DELETE;
+
+  /**
+   * @return lowercase name used in settings and reports
+   */
+  public String displayName() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @param name of the operation, case-insensitive
+   * @return matching {@link Operation}
+   * @throws IllegalArgumentException if there is no such operation
+   */
+  public static Operation fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,165 @@
+package service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import service.models.requests.UserBatchOperation;
+import service.models.requests.UserBatchRequest;
+import service.models.requests.UserRequest;
+import service.models.responses.UserResponse;
+
+/**
+ * Performs {@link Operation}s against the users API over HTTP.
+ *
+ * <p>Reads and updates target the seeded users, so that their outcome does not depend on the order
+ * of concurrent requests. Deletes target the users created during the run, falling back to a
+ * missing user which still costs a database round trip.
+ *
+ * <p>Updates and batches only rename users, as passwords are hashed by creates already and batches
+ * cap the amount of passwords they carry, so that a batch does the same work as that many updates.
+ */
+public final class UsersWorkload {
+  private static final String USERS_ENDPOINT = "/api/users";
+  private static final String BATCH_ENDPOINT = "/api/users/batch";
+  private static final String JSON = "application/json";
+  private static final int LIST_LIMIT = 50;
+
+  private final HttpClient client;
+  private final ObjectMapper objectMapper;
+  private final URI baseUri;
+  private final Duration timeout;
+  private final List<UUID> seededUsers;
+  private final int batchSize;
+  private final Queue<UUID> createdUsers;
+
+  /**
+   * Default constructor.
+   *
+   * @param client to send requests with
+   * @param objectMapper to (de)serialize request and response bodies
+   * @param baseUri of the running service
+   * @param timeout of every request
+   * @param seededUsers which exist in the database for the whole run
+   * @param batchSize of every {@link Operation#BATCH} request
+   */
+  public UsersWorkload(
+      HttpClient client,
+      ObjectMapper objectMapper,
+      URI baseUri,
+      Duration timeout,
+      List<UUID> seededUsers,
+      int batchSize) {
+    if (seededUsers.isEmpty()) {
+      throw new IllegalArgumentException("At least one seeded user is required");
+    }
+
+    this.client = client;
+    this.objectMapper = objectMapper;
+    this.baseUri = baseUri;
+    this.timeout = timeout;
+    this.seededUsers = List.copyOf(seededUsers);
+    this.batchSize = batchSize;
+    this.createdUsers = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Performs the operation, blocking until the response is received.
+   *
+   * @param operation to perform
+   * @return {@code true} if the service responded with the expected status
+   */
+  public boolean execute(Operation operation) {
+    try {
+      return switch (operation) {
+        case READ -> send(get(USERS_ENDPOINT + "/" + randomSeededUser())).statusCode() == 200;
+        case LIST -> send(get(USERS_ENDPOINT + "?limit=" + LIST_LIMIT)).statusCode() == 200;
+        case CREATE -> create();
+        case UPDATE ->
+            send(request(USERS_ENDPOINT + "/" + randomSeededUser())
+                        .method("PATCH", body(renameRequest()))
+                        .build())
+                    .statusCode()
+                == 200;
+        case BATCH -> batch();
+        case DELETE -> {
+          final var userId = createdUsers.poll();
+          final var target = userId == null ? UUID.randomUUID() : userId;
+          yield send(request(USERS_ENDPOINT + "/" + target).DELETE().build()).statusCode() == 204;
+        }
+      };
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private boolean create() throws IOException, InterruptedException {
+    final var response = send(request(USERS_ENDPOINT).POST(body(newUserRequest())).build());
+
+    if (response.statusCode() != 200) {
+      return false;
+    }
+
+    createdUsers.add(objectMapper.readValue(response.body(), UserResponse.class).id());
+    return true;
+  }
+
+  private boolean batch() throws IOException, InterruptedException {
+    final var operations = new ArrayList<UserBatchOperation>(batchSize);
+
+    for (int i = 0; i < batchSize; i++) {
+      operations.add(
+          new UserBatchOperation(
+              UserBatchOperation.Type.UPDATE, randomSeededUser(), renameRequest()));
+    }
+
+    final var response =
+        send(request(BATCH_ENDPOINT).POST(body(new UserBatchRequest(operations))).build());
+    return response.statusCode() == 200;
+  }
+
+  private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  private HttpRequest get(String path) {
+    return request(path).GET().build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .timeout(timeout)
+        .header("Accept", JSON)
+        .header("Content-Type", JSON);
+  }
+
+  private HttpRequest.BodyPublisher body(Object value) throws IOException {
+    return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+  }
+
+  private UUID randomSeededUser() {
+    return seededUsers.get(ThreadLocalRandom.current().nextInt(seededUsers.size()));
+  }
+
+  private static UserRequest renameRequest() {
+    return new UserRequest(
+        "load-" + Long.toHexString(ThreadLocalRandom.current().nextLong()), null);
+  }
+
+  private static UserRequest newUserRequest() {
+    final var suffix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    return new UserRequest("load-" + suffix, ("password-" + suffix).toCharArray());
+  }
+}
@@ -1,21 +1,47 @@
 package service.endpoints;
 
-import static io.javalin.apibuilder.ApiBuilder.crud;
+import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.javalin.apibuilder.ApiBuilder.patch;
+import static io.javalin.apibuilder.ApiBuilder.post;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.f4b6a3.uuid.UuidCreator;
 import com.github.f4b6a3.uuid.util.UuidValidator;
+import io.javalin.apibuilder.ApiBuilder;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.apibuilder.EndpointGroup;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
+import io.javalin.http.Header;
 import io.javalin.http.HttpStatus;
 import io.javalin.http.NotFoundResponse;
+import io.javalin.http.PreconditionFailedResponse;
 import io.javalin.openapi.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import org.jooq.exception.DataChangedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import platform.primitives.PageLimits;
+import platform.web.ConcurrencyLimiter;
+import platform.web.EntityTags;
+import platform.web.NdjsonWriter;
+import platform.web.Page;
+import platform.web.PageRequest;
+import platform.web.RequestDeadlines;
+import platform.web.SingleFlight;
+import platform.web.StreamingJsonMapper;
+import service.models.requests.UserBatchOperation;
+import service.models.requests.UserBatchRequest;
 import service.models.requests.UserRequest;
+import service.models.responses.UserBatchResponse;
 import service.models.responses.UserResponse;
 import service.services.UsersService;
 
@@ -26,29 +52,77 @@ import service.services.UsersService;
  */
 @Singleton
 public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(UsersEndpointGroup.class);
   private static final String USER_ID = "userId";
   private static final String PLURAL_USERS_ENDPOINT = "/api/users";
   private static final String SINGULAR_USER_ENDPOINT = "/api/users/{userId}";
+  private static final String EXPORT_USERS_ENDPOINT = "/api/users/export";
+  private static final String BATCH_USERS_ENDPOINT = "/api/users/batch";
+  private static final int MAX_BATCH_SIZE = 1_000;
+  // Every password takes tens to hundreds of milliseconds of CPU to hash
+  private static final int MAX_BATCH_PASSWORDS = 16;
 
   private final UsersService service;
+  private final PageLimits pageLimits;
+  private final ObjectMapper objectMapper;
+  private final SingleFlight singleFlight;
+  private final RequestDeadlines requestDeadlines;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final MeterRegistry meterRegistry;
 
   /**
    * Default constructor.
    *
    * <p>Because of the way how {@link io.github.suppierk.inject.Injector} is implemented,
-   * constructor parameter will never be {@code null}.
+   * constructor parameters will never be {@code null}.
    *
    * @param service to invoke database operations.
+   * @param pageLimits to guard paginated endpoints with
+   * @param objectMapper to stream bulk responses with
+   * @param singleFlight to collapse concurrent reads of the same user with
+   * @param requestDeadlines to exempt long-running exports from the default deadline with
+   * @param concurrencyLimiter to exempt long-running exports from the concurrency limit with
+   * @param meterRegistry to record the export throughput into
    */
   @Inject
-  public UsersEndpointGroup(UsersService service) {
+  public UsersEndpointGroup(
+      UsersService service,
+      PageLimits pageLimits,
+      ObjectMapper objectMapper,
+      SingleFlight singleFlight,
+      RequestDeadlines requestDeadlines,
+      ConcurrencyLimiter concurrencyLimiter,
+      MeterRegistry meterRegistry) {
     this.service = service;
+    this.pageLimits = pageLimits;
+    this.objectMapper = objectMapper;
+    this.singleFlight = singleFlight;
+    this.requestDeadlines = requestDeadlines;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.meterRegistry = meterRegistry;
   }
 
   /** {@inheritDoc} */
   @Override
   public void addEndpoints() {
-    crud(SINGULAR_USER_ENDPOINT, this);
+    // Export streams the whole table for as long as the client reads it
+    requestDeadlines.route(EXPORT_USERS_ENDPOINT, Duration.ZERO);
+    concurrencyLimiter.exempt(EXPORT_USERS_ENDPOINT);
+
+    // Must be registered before single user endpoints to take precedence over the user ID path
+    // parameter
+    get(EXPORT_USERS_ENDPOINT, this::export);
+    post(BATCH_USERS_ENDPOINT, this::batch);
+
+    // Same routes as CRUD endpoints, except that reads of a single user are collapsed
+    get(PLURAL_USERS_ENDPOINT, this::getAll);
+    post(PLURAL_USERS_ENDPOINT, this::create);
+    get(
+        SINGULAR_USER_ENDPOINT,
+        singleFlight.collapse(context -> getOne(context, context.pathParam(USER_ID))));
+    patch(SINGULAR_USER_ENDPOINT, context -> update(context, context.pathParam(USER_ID)));
+    ApiBuilder.delete(
+        SINGULAR_USER_ENDPOINT, context -> delete(context, context.pathParam(USER_ID)));
   }
 
   /** {@inheritDoc} */
@@ -59,14 +133,26 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
       path = PLURAL_USERS_ENDPOINT,
       methods = HttpMethod.POST,
       tags = {"User"},
-      requestBody = @OpenApiRequestBody(content = {@OpenApiContent(from = UserRequest.class)}),
+      requestBody =
+          @OpenApiRequestBody(
+              content = {
+                @OpenApiContent(from = UserRequest.class),
+                @OpenApiContent(from = UserRequest.class, mimeType = StreamingJsonMapper.SMILE),
+                @OpenApiContent(from = UserRequest.class, mimeType = StreamingJsonMapper.CBOR)
+              }),
       responses = {
-        @OpenApiResponse(status = "200", content = @OpenApiContent(from = UserResponse.class))
+        @OpenApiResponse(
+            status = "200",
+            content = {
+              @OpenApiContent(from = UserResponse.class),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.SMILE),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.CBOR)
+            })
       })
   public void create(Context context) {
-    final var request = context.bodyValidator(UserRequest.class).get();
+    final var request = StreamingJsonMapper.bodyValidator(context, UserRequest.class).get();
     final var response = service.create(request);
-    context.json(response);
+    StreamingJsonMapper.write(context, response);
   }
 
   /** {@inheritDoc} */
@@ -76,12 +162,111 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
       operationId = "getUsers",
       path = PLURAL_USERS_ENDPOINT,
       methods = HttpMethod.GET,
+      queryParams = {
+        @OpenApiParam(
+            name = PageRequest.LIMIT,
+            type = Integer.class,
+            description = "The maximum amount of users to return"),
+        @OpenApiParam(
+            name = PageRequest.CURSOR,
+            description = "The cursor from the previous page to continue from")
+      },
       tags = {"User"},
       responses = {
-        @OpenApiResponse(status = "200", content = @OpenApiContent(from = UserResponse[].class))
+        @OpenApiResponse(
+            status = "200",
+            content = {
+              @OpenApiContent(from = Page.class),
+              @OpenApiContent(from = Page.class, mimeType = StreamingJsonMapper.SMILE),
+              @OpenApiContent(from = Page.class, mimeType = StreamingJsonMapper.CBOR)
+            }),
+        @OpenApiResponse(status = "400")
       })
   public void getAll(Context context) {
-    context.json(service.getAll());
+    final var pageRequest = PageRequest.from(context, pageLimits);
+    service.getAll(pageRequest).writeTo(context, pageRequest);
+  }
+
+  /**
+   * Executes multiple user operations in one round trip and one database transaction.
+   *
+   * @param context of the current request
+   */
+  @OpenApi(
+      summary = "Create, update and delete multiple users",
+      operationId = "batchUsers",
+      path = BATCH_USERS_ENDPOINT,
+      methods = HttpMethod.POST,
+      tags = {"User"},
+      requestBody =
+          @OpenApiRequestBody(
+              content = {
+                @OpenApiContent(from = UserBatchRequest.class),
+                @OpenApiContent(
+                    from = UserBatchRequest.class,
+                    mimeType = StreamingJsonMapper.SMILE),
+                @OpenApiContent(from = UserBatchRequest.class, mimeType = StreamingJsonMapper.CBOR)
+              }),
+      responses = {
+        @OpenApiResponse(
+            status = "200",
+            content = {
+              @OpenApiContent(from = UserBatchResponse.class),
+              @OpenApiContent(from = UserBatchResponse.class, mimeType = StreamingJsonMapper.SMILE),
+              @OpenApiContent(from = UserBatchResponse.class, mimeType = StreamingJsonMapper.CBOR)
+            }),
+        @OpenApiResponse(status = "400")
+      })
+  public void batch(Context context) {
+    final var request =
+        StreamingJsonMapper.bodyValidator(context, UserBatchRequest.class)
+            .check(
+                batch -> batch.operations() != null && !batch.operations().isEmpty(),
+                "Batch must contain at least one operation")
+            .check(
+                batch -> batch.operations() == null || batch.operations().size() <= MAX_BATCH_SIZE,
+                "Batch must not contain more than %d operations".formatted(MAX_BATCH_SIZE))
+            .check(
+                batch ->
+                    batch.operations() == null
+                        || batch.operations().stream()
+                                .filter(operation -> operation != null && operation.user() != null)
+                                .filter(
+                                    operation -> operation.type() != UserBatchOperation.Type.DELETE)
+                                .filter(operation -> operation.user().password() != null)
+                                .count()
+                            <= MAX_BATCH_PASSWORDS,
+                "Batch must not contain more than %d operations with passwords"
+                    .formatted(MAX_BATCH_PASSWORDS))
+            .get();
+
+    StreamingJsonMapper.write(context, new UserBatchResponse(service.batch(request.operations())));
+  }
+
+  /**
+   * Streams all users as newline-delimited JSON without loading them into memory.
+   *
+   * @param context of the current request
+   */
+  @OpenApi(
+      summary = "Export all users",
+      operationId = "exportUsers",
+      path = EXPORT_USERS_ENDPOINT,
+      methods = HttpMethod.GET,
+      tags = {"User"},
+      responses = {
+        @OpenApiResponse(
+            status = "200",
+            content =
+                @OpenApiContent(from = UserResponse.class, mimeType = NdjsonWriter.CONTENT_TYPE))
+      })
+  public void export(Context context) {
+    try (final var writer = new NdjsonWriter(objectMapper, context, meterRegistry)) {
+      service.export(writer::write);
+    } catch (UncheckedIOException e) {
+      // Client went away: the database cursor is already closed, and there is nobody to respond to
+      LOGGER.debug("Users export to {} was aborted", context.ip(), e);
+    }
   }
 
   /** {@inheritDoc} */
@@ -90,7 +275,7 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
       summary = "Get user by ID",
       operationId = "getUserById",
       path = SINGULAR_USER_ENDPOINT,
-      methods = HttpMethod.PATCH,
+      methods = HttpMethod.GET,
       pathParams = {
         @OpenApiParam(
             name = USER_ID,
@@ -98,9 +283,21 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
             description = "The user ID",
             required = true)
       },
+      headers = {
+        @OpenApiParam(
+            name = Header.IF_NONE_MATCH,
+            description = "The ETag of the user the client already has")
+      },
       tags = {"User"},
       responses = {
-        @OpenApiResponse(status = "200", content = @OpenApiContent(from = UserResponse.class)),
+        @OpenApiResponse(
+            status = "200",
+            content = {
+              @OpenApiContent(from = UserResponse.class),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.SMILE),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.CBOR)
+            }),
+        @OpenApiResponse(status = "304"),
         @OpenApiResponse(status = "400"),
         @OpenApiResponse(status = "404")
       })
@@ -118,7 +315,14 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
                 () ->
                     new NotFoundResponse(
                         HttpStatus.NOT_FOUND.getMessage(), Map.of(USER_ID, userId.toString())));
-    context.json(response);
+
+    // Cached users are revalidated without touching the database or serializing the body
+    final var etag = EntityTags.of(response.version(), StreamingJsonMapper.negotiate(context));
+    if (EntityTags.notModified(context, etag)) {
+      return;
+    }
+
+    StreamingJsonMapper.write(context, response);
   }
 
   /** {@inheritDoc} */
@@ -135,12 +339,30 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
             description = "The user ID",
             required = true)
       },
+      headers = {
+        @OpenApiParam(
+            name = Header.IF_MATCH,
+            description = "The ETag of the user to update, to not overwrite concurrent changes")
+      },
       tags = {"User"},
-      requestBody = @OpenApiRequestBody(content = {@OpenApiContent(from = UserRequest.class)}),
+      requestBody =
+          @OpenApiRequestBody(
+              content = {
+                @OpenApiContent(from = UserRequest.class),
+                @OpenApiContent(from = UserRequest.class, mimeType = StreamingJsonMapper.SMILE),
+                @OpenApiContent(from = UserRequest.class, mimeType = StreamingJsonMapper.CBOR)
+              }),
       responses = {
-        @OpenApiResponse(status = "204", content = @OpenApiContent(from = UserResponse.class)),
+        @OpenApiResponse(
+            status = "204",
+            content = {
+              @OpenApiContent(from = UserResponse.class),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.SMILE),
+              @OpenApiContent(from = UserResponse.class, mimeType = StreamingJsonMapper.CBOR)
+            }),
         @OpenApiResponse(status = "400"),
-        @OpenApiResponse(status = "404")
+        @OpenApiResponse(status = "404"),
+        @OpenApiResponse(status = "412")
       })
   public void update(Context context, String resourceId) {
     if (!UuidValidator.isValid(resourceId)) {
@@ -149,15 +371,17 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
     }
 
     final var userId = UuidCreator.fromString(resourceId);
-    final var request = context.bodyValidator(UserRequest.class).get();
+    final var request = StreamingJsonMapper.bodyValidator(context, UserRequest.class).get();
+    final var expectedVersions = EntityTags.versions(context.header(Header.IF_MATCH));
     final var response =
-        service
-            .update(userId, request)
+        update(userId, request, expectedVersions)
             .orElseThrow(
                 () ->
                     new NotFoundResponse(
                         HttpStatus.NOT_FOUND.getMessage(), Map.of(USER_ID, userId.toString())));
-    context.json(response);
+    context.header(
+        Header.ETAG, EntityTags.of(response.version(), StreamingJsonMapper.negotiate(context)));
+    StreamingJsonMapper.write(context, response);
   }
 
   /** {@inheritDoc} */
@@ -189,4 +413,18 @@ public class UsersEndpointGroup implements EndpointGroup, CrudHandler {
     service.delete(userId);
     context.status(HttpStatus.NO_CONTENT);
   }
+
+  /**
+   * @return updated user, if it was found
+   * @throws PreconditionFailedResponse if the user has none of the expected versions
+   */
+  private Optional<UserResponse> update(
+      UUID userId, UserRequest request, Set<Long> expectedVersions) {
+    try {
+      return service.update(userId, request, expectedVersions);
+    } catch (DataChangedException e) {
+      throw new PreconditionFailedResponse(
+          HttpStatus.PRECONDITION_FAILED.getMessage(), Map.of(USER_ID, userId.toString()));
+    }
+  }
 }
@@ -0,0 +1,19 @@
+package service.models.requests;
+
+import java.util.UUID;
+
+/**
+ * Single operation within {@link UserBatchRequest}.
+ *
+ * @param type of the operation
+ * @param id of the user to update or delete, ignored for {@link Type#CREATE}
+ * @param user to create or values to update, ignored for {@link Type#DELETE}
+ */
+public record UserBatchOperation(Type type, UUID id, UserRequest user) {
+  /** Supported operation types. */
+  public enum Type {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+}
@@ -0,0 +1,10 @@
+package service.models.requests;
+
+import java.util.List;
+
+/**
+ * Multiple user operations to execute in one round trip.
+ *
+ * @param operations to execute
+ */
+public record UserBatchRequest(List<UserBatchOperation> operations) {}
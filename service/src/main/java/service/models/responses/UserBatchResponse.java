@@ -0,0 +1,10 @@
+package service.models.responses;
+
+import java.util.List;
+
+/**
+ * Outcomes of the batch operations, in the same order as in the batch request.
+ *
+ * @param results of the operations
+ */
+public record UserBatchResponse(List<UserBatchResult> results) {}
@@ -0,0 +1,19 @@
+package service.models.responses;
+
+/**
+ * Outcome of a single operation within a batch.
+ *
+ * @param index of the operation in the batch request
+ * @param status of the operation
+ * @param user after the operation, {@code null} for deleted, missing or invalid users
+ */
+public record UserBatchResult(int index, Status status, UserResponse user) {
+  /** Possible operation outcomes. */
+  public enum Status {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    INVALID
+  }
+}
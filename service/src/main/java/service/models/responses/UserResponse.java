@@ -3,8 +3,13 @@ package service.models.responses;
 import java.util.UUID;
 import service.db.tables.records.UsersRecord;
 
-public record UserResponse(UUID id, String username) {
+/**
+ * @param id of the user
+ * @param username of the user
+ * @param version of the user, which changes on every update
+ */
+public record UserResponse(UUID id, String username, long version) {
   public UserResponse(UsersRecord databaseRecord) {
-    this(databaseRecord.getId(), databaseRecord.getName());
+    this(databaseRecord.getId(), databaseRecord.getName(), databaseRecord.getVersion());
   }
 }
@@ -6,105 +6,569 @@ import com.github.f4b6a3.uuid.UuidCreator;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.exception.DataChangedException;
+import org.jooq.impl.DSL;
+import platform.concurrency.CpuExecutor;
+import platform.contracts.Cache;
+import platform.contracts.Caches;
+import platform.database.DatabaseNotifications;
+import platform.database.ReadOnlyDsl;
+import platform.database.WriteBatcher;
+import platform.database.WriteBatchers;
+import platform.security.PasswordHasher;
+import platform.web.Page;
+import platform.web.PageRequest;
+import service.db.tables.records.UsersRecord;
+import service.models.requests.UserBatchOperation;
 import service.models.requests.UserRequest;
+import service.models.responses.UserBatchResult;
 import service.models.responses.UserResponse;
 
 /** Defines data operations in database. */
 @Singleton
 public class UsersService {
+  private static final int EXPORT_FETCH_SIZE = 1_000;
+  private static final long INITIAL_VERSION = 1L;
+  private static final String USERS_CACHE = "users";
+  private static final String USERS_CHANNEL = "users_changed";
+  private static final String VERSION_CONFLICT = "User %s has a different version";
+
   private final DSLContext dsl;
+  private final ReadOnlyDsl readOnlyDsl;
+  private final Cache<UUID, UserResponse> cache;
+  private final DatabaseNotifications notifications;
+  private final CpuExecutor cpuExecutor;
+  private final PasswordHasher passwordHasher;
+  private final WriteBatcher<NewUser, UserResponse> inserts;
 
   /**
    * Default constructor.
    *
+   * <p>Subscribes to user changes made by other service instances to keep the cache consistent.
+   *
    * @param dsl to talk to the database
+   * @param readOnlyDsl to run read-only queries against the read replica
+   * @param caches to get users cache from
+   * @param notifications to exchange user changes between service instances
+   * @param cpuExecutor to hash passwords on
+   * @param passwordHasher to store passwords with
+   * @param writeBatchers to combine concurrent user creations with
    */
   @Inject
-  public UsersService(DSLContext dsl) {
+  public UsersService(
+      DSLContext dsl,
+      ReadOnlyDsl readOnlyDsl,
+      Caches caches,
+      DatabaseNotifications notifications,
+      CpuExecutor cpuExecutor,
+      PasswordHasher passwordHasher,
+      WriteBatchers writeBatchers) {
     this.dsl = dsl;
+    this.readOnlyDsl = readOnlyDsl;
+    this.cache = caches.cache(USERS_CACHE);
+    this.notifications = notifications;
+    this.cpuExecutor = cpuExecutor;
+    this.passwordHasher = passwordHasher;
+    this.inserts = writeBatchers.batcher(USERS.getName(), this::insert);
+
+    this.notifications.listen(
+        USERS_CHANNEL,
+        new DatabaseNotifications.Listener() {
+          @Override
+          public void onNotifications(List<String> payloads) {
+            payloads.forEach(userId -> cache.invalidate(UUID.fromString(userId)));
+          }
+
+          @Override
+          public void onReconnect() {
+            cache.invalidateAll();
+          }
+        });
   }
 
   /**
    * Creates new user.
    *
+   * <p>Password is hashed before the database is involved, so that no connection is held meanwhile.
+   *
+   * <p>Concurrent creations are combined into a single multi-row {@code INSERT}, which saves a
+   * commit per user under signup bursts.
+   *
    * @param userRequest to set parameters from
    * @return new {@link UserResponse}
    */
-  @SuppressWarnings("squid:S2129")
   public UserResponse create(UserRequest userRequest) {
-    final var newRecord = dsl.newRecord(USERS);
-    newRecord.setId(UuidCreator.getTimeOrderedEpoch());
-    newRecord.setCreatedAt(OffsetDateTime.now());
-    newRecord.setName(userRequest.username());
-    newRecord.setPassword(new String(userRequest.password()));
-    newRecord.insert();
-
-    return new UserResponse(newRecord);
+    final var passwordHash = hash(userRequest.password());
+    return inserts.write(
+        new NewUser(UuidCreator.getTimeOrderedEpoch(), userRequest.username(), passwordHash));
+  }
+
+  /**
+   * Fetches a page of users.
+   *
+   * <p>Uses keyset pagination over the primary key: user IDs are time-ordered UUIDs, so ordering by
+   * ID is stable and each page is a single index range scan regardless of the page depth.
+   *
+   * <p>Reads from the replica, if it is configured.
+   *
+   * @param pageRequest to select the page with
+   * @return a {@link Page} of users
+   */
+  public Page<UserResponse> getAll(PageRequest pageRequest) {
+    final var users =
+        readOnlyDsl
+            .get()
+            .selectFrom(USERS)
+            .where(pageRequest.uuidCursor().map(USERS.ID::gt).orElse(DSL.noCondition()))
+            .orderBy(USERS.ID)
+            .limit(pageRequest.fetchSize())
+            .fetch(UserResponse::new);
+
+    return Page.of(users, pageRequest, UserResponse::id);
   }
 
   /**
-   * Fetches all available users.
+   * Streams every user to the consumer using a server-side cursor.
+   *
+   * <p>PostgreSQL driver only honors the fetch size when auto-commit is disabled, hence the
+   * transaction: rows are pulled from the database in chunks of {@link #EXPORT_FETCH_SIZE} instead
+   * of loading the whole table into memory.
+   *
+   * <p>If the consumer throws, the cursor is closed and no further rows are fetched.
+   *
+   * <p>Reads from the replica, if it is configured.
    *
-   * @return a {@link List} of available users
+   * @param consumer to receive users one by one
+   * @return amount of exported users
    */
-  public List<UserResponse> getAll() {
-    return dsl.selectFrom(USERS).fetchStream().map(UserResponse::new).toList();
+  public long export(Consumer<UserResponse> consumer) {
+    return readOnlyDsl
+        .get()
+        .transactionResult(
+            ctx -> {
+              try (final var cursor =
+                  ctx.dsl()
+                      .selectFrom(USERS)
+                      .orderBy(USERS.ID)
+                      .fetchSize(EXPORT_FETCH_SIZE)
+                      .fetchLazy()) {
+                long rows = 0;
+
+                for (final var databaseRecord : cursor) {
+                  consumer.accept(new UserResponse(databaseRecord));
+                  rows++;
+                }
+
+                return rows;
+              }
+            });
   }
 
   /**
    * Fetch a single user.
    *
+   * <p>Reads through the cache: missing users are not cached to let them appear as soon as they are
+   * created.
+   *
+   * <p>Unlike other reads, cache misses are loaded from the primary database: invalidation happens
+   * on commit, so loading from a lagging replica could put the outdated user back into the cache
+   * until it expires.
+   *
    * @param userId to fetch
    * @return an empty {@link Optional} if user was not found or {@link UserResponse} with the user
    *     data
    */
   public Optional<UserResponse> getOne(UUID userId) {
-    return dsl.selectFrom(USERS).where(USERS.ID.eq(userId)).fetchOptional().map(UserResponse::new);
+    return Optional.ofNullable(
+        cache.get(
+            userId,
+            id ->
+                dsl.selectFrom(USERS)
+                    .where(USERS.ID.eq(id))
+                    .fetchOptional()
+                    .map(UserResponse::new)
+                    .orElse(null)));
   }
 
   /**
-   * Updates single user.
+   * Updates single user if it still has one of the expected versions.
+   *
+   * <p>Only provided fields are set by a single {@code UPDATE ... RETURNING}, which also bumps the
+   * user version and notifies other service instances within the same statement, so neither an
+   * explicit transaction nor a preceding {@code SELECT} are needed. The cached user is invalidated
+   * after the statement commits.
    *
-   * <p>Uses jOOQ transactional capability.
+   * <p>Request without any fields to change is served as a read.
    *
    * @param userId to update
    * @param userRequest to get values for update from
+   * @param expectedVersions one of which the user must have, {@code null} to update any version
    * @return an empty {@link Optional} if user was not found or {@link UserResponse} with updated
    *     user data
+   * @throws DataChangedException if the user exists, but has none of the expected versions
    */
-  @SuppressWarnings("squid:S2129")
-  public Optional<UserResponse> update(UUID userId, UserRequest userRequest) {
-    return dsl.transactionResult(
-        ctx ->
-            ctx.dsl()
-                .selectFrom(USERS)
-                .where(USERS.ID.eq(userId))
-                .fetchOptional()
-                .map(
-                    databaseRecord -> {
-                      if (userRequest.username() != null) {
-                        databaseRecord.setName(userRequest.username());
-                      }
-
-                      if (userRequest.password() != null) {
-                        databaseRecord.setPassword(new String(userRequest.password()));
-                      }
-
-                      databaseRecord.update();
-                      return new UserResponse(databaseRecord);
-                    }));
+  public Optional<UserResponse> update(
+      UUID userId, UserRequest userRequest, Set<Long> expectedVersions) {
+    final var changes = new LinkedHashMap<Field<?>, Object>();
+
+    if (userRequest.username() != null) {
+      changes.put(USERS.NAME, userRequest.username());
+    }
+
+    if (userRequest.password() != null) {
+      changes.put(USERS.PASSWORD, hash(userRequest.password()));
+    }
+
+    if (changes.isEmpty()) {
+      final var user = getOne(userId);
+
+      if (user.isPresent()
+          && expectedVersions != null
+          && !expectedVersions.contains(user.get().version())) {
+        throw new DataChangedException(VERSION_CONFLICT.formatted(userId));
+      }
+
+      return user;
+    }
+
+    changes.put(USERS.VERSION, USERS.VERSION.plus(DSL.inline(1L)));
+
+    final var updated =
+        DSL.name("updated")
+            .as(
+                dsl.update(USERS)
+                    .set(changes)
+                    .where(
+                        USERS.ID.eq(userId),
+                        expectedVersions == null
+                            ? DSL.noCondition()
+                            : USERS.VERSION.in(expectedVersions))
+                    .returning(USERS.ID, USERS.NAME, USERS.VERSION));
+
+    final var id = updated.field(USERS.ID);
+    final var name = updated.field(USERS.NAME);
+    final var version = updated.field(USERS.VERSION);
+
+    final var response =
+        dsl.with(updated)
+            .select(
+                id, name, version, notifications.notification(USERS_CHANNEL, id.cast(String.class)))
+            .from(updated)
+            .fetchOptional(
+                databaseRecord ->
+                    new UserResponse(
+                        databaseRecord.get(id),
+                        databaseRecord.get(name),
+                        databaseRecord.get(version)));
+
+    // Invalidating only after the commit, otherwise concurrent reads could cache stale data again
+    cache.invalidate(userId);
+
+    if (response.isEmpty()
+        && expectedVersions != null
+        && dsl.fetchExists(USERS, USERS.ID.eq(userId))) {
+      throw new DataChangedException(VERSION_CONFLICT.formatted(userId));
+    }
+
+    return response;
   }
 
   /**
    * Delete user.
    *
+   * <p>Invalidates the cached user after the commit.
+   *
    * @param userId to delete
    */
   public void delete(UUID userId) {
-    dsl.deleteFrom(USERS).where(USERS.ID.eq(userId)).execute();
+    dsl.transaction(
+        ctx -> {
+          if (ctx.dsl().deleteFrom(USERS).where(USERS.ID.eq(userId)).execute() > 0) {
+            notifyChanged(ctx.dsl(), List.of(userId));
+          }
+        });
+
+    cache.invalidate(userId);
+  }
+
+  /**
+   * Executes multiple operations in a single transaction.
+   *
+   * <p>Operations are grouped by type and each group is sent to the database at once: creates as a
+   * single multi-row {@code INSERT}, updates as a JDBC batch and deletes as a single {@code
+   * DELETE}. Groups are executed in the order of creates, updates and deletes, which means that the
+   * operations within the same batch must not depend on any other order.
+   *
+   * <p>Passwords are hashed concurrently before the transaction, so the amount of operations
+   * carrying them has to be bounded by the caller to what the CPU executor can handle within the
+   * request deadline.
+   *
+   * @param operations to execute
+   * @return results of the operations in the same order as operations
+   */
+  public List<UserBatchResult> batch(List<UserBatchOperation> operations) {
+    final var results = new UserBatchResult[operations.size()];
+    final var creates = new ArrayList<Integer>();
+    final var updates = new ArrayList<Integer>();
+    final var deletes = new ArrayList<Integer>();
+
+    for (int i = 0; i < operations.size(); i++) {
+      final var operation = operations.get(i);
+
+      if (!isValid(operation)) {
+        results[i] = new UserBatchResult(i, UserBatchResult.Status.INVALID, null);
+        continue;
+      }
+
+      switch (operation.type()) {
+        case CREATE -> creates.add(i);
+        case UPDATE -> updates.add(i);
+        case DELETE -> deletes.add(i);
+      }
+    }
+
+    final var changedIds =
+        Stream.concat(updates.stream(), deletes.stream())
+            .map(index -> operations.get(index).id())
+            .toList();
+
+    // Hashing before the transaction, so that no connection is held meanwhile, and all at once, so
+    // that the batch takes as long as the slowest hash per thread rather than the sum of them
+    final var passwordHashes = new String[operations.size()];
+    final var hashed =
+        Stream.concat(creates.stream(), updates.stream())
+            .filter(index -> operations.get(index).user().password() != null)
+            .toList();
+    final var hashes =
+        cpuExecutor.computeAll(
+            hashed.stream()
+                .map(index -> operations.get(index).user().password())
+                .map(password -> (Supplier<String>) () -> passwordHasher.hash(password))
+                .toList());
+
+    for (int i = 0; i < hashed.size(); i++) {
+      passwordHashes[hashed.get(i)] = hashes.get(i);
+    }
+
+    dsl.transaction(
+        ctx -> {
+          batchCreate(ctx.dsl(), operations, creates, passwordHashes, results);
+          batchUpdate(ctx.dsl(), operations, updates, passwordHashes, results);
+          batchDelete(ctx.dsl(), operations, deletes, results);
+          notifyChanged(ctx.dsl(), changedIds);
+        });
+
+    changedIds.forEach(cache::invalidate);
+
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Lets other service instances know that users changed once the current transaction commits.
+   *
+   * @param dsl bound to the current transaction
+   * @param userIds of changed users
+   */
+  private void notifyChanged(DSLContext dsl, List<UUID> userIds) {
+    notifications.notify(dsl, USERS_CHANNEL, userIds.stream().map(UUID::toString).toList());
+  }
+
+  /**
+   * Inserts users with a single multi-row {@code INSERT ... RETURNING}, which commits on its own.
+   *
+   * @param users to insert
+   * @return inserted users in the same order
+   */
+  private List<UserResponse> insert(List<NewUser> users) {
+    final var createdAt = OffsetDateTime.now();
+    var insert =
+        dsl.insertInto(
+            USERS, USERS.ID, USERS.CREATED_AT, USERS.NAME, USERS.PASSWORD, USERS.VERSION);
+
+    for (final NewUser user : users) {
+      insert =
+          insert.values(
+              user.id(), createdAt, user.username(), user.passwordHash(), INITIAL_VERSION);
+    }
+
+    final Map<UUID, UserResponse> inserted =
+        insert.returning(USERS.ID, USERS.NAME, USERS.VERSION).fetch().stream()
+            .collect(Collectors.toMap(UsersRecord::getId, UserResponse::new));
+
+    return users.stream().map(user -> inserted.get(user.id())).toList();
+  }
+
+  /**
+   * Hashing takes tens of milliseconds of CPU, so it is offloaded from the request handling virtual
+   * thread, which only parks until the hash is ready.
+   *
+   * @param password to hash
+   * @return encoded password hash to store
+   */
+  private String hash(char[] password) {
+    return cpuExecutor.compute(() -> passwordHasher.hash(password));
+  }
+
+  /**
+   * @param operation to check
+   * @return {@code true} if operation has all the data necessary for its type
+   */
+  private static boolean isValid(UserBatchOperation operation) {
+    if (operation == null || operation.type() == null) {
+      return false;
+    }
+
+    return switch (operation.type()) {
+      case CREATE ->
+          operation.user() != null
+              && operation.user().username() != null
+              && operation.user().password() != null;
+      case UPDATE -> operation.id() != null && operation.user() != null;
+      case DELETE -> operation.id() != null;
+    };
+  }
+
+  /**
+   * User waiting to be inserted.
+   *
+   * @param id of the user
+   * @param username of the user
+   * @param passwordHash to store
+   */
+  private record NewUser(UUID id, String username, String passwordHash) {}
+
+  /** Inserts all new users with a single multi-row {@code INSERT}. */
+  private static void batchCreate(
+      DSLContext dsl,
+      List<UserBatchOperation> operations,
+      List<Integer> indexes,
+      String[] passwordHashes,
+      UserBatchResult[] results) {
+    if (indexes.isEmpty()) {
+      return;
+    }
+
+    final var createdAt = OffsetDateTime.now();
+    var insert =
+        dsl.insertInto(
+            USERS, USERS.ID, USERS.CREATED_AT, USERS.NAME, USERS.PASSWORD, USERS.VERSION);
+
+    for (final int index : indexes) {
+      final var user = operations.get(index).user();
+      final var userId = UuidCreator.getTimeOrderedEpoch();
+
+      insert =
+          insert.values(userId, createdAt, user.username(), passwordHashes[index], INITIAL_VERSION);
+      results[index] =
+          new UserBatchResult(
+              index,
+              UserBatchResult.Status.CREATED,
+              new UserResponse(userId, user.username(), INITIAL_VERSION));
+    }
+
+    insert.execute();
+  }
+
+  /**
+   * Applies all updates as a single JDBC batch and reads updated users back with one query.
+   *
+   * <p>Every update uses the same statement, which keeps provided fields with {@code COALESCE} and
+   * bumps the user version in place, so the batch is a single prepared statement.
+   */
+  private static void batchUpdate(
+      DSLContext dsl,
+      List<UserBatchOperation> operations,
+      List<Integer> indexes,
+      String[] passwordHashes,
+      UserBatchResult[] results) {
+    if (indexes.isEmpty()) {
+      return;
+    }
+
+    final var batch =
+        dsl.batch(
+            dsl.update(USERS)
+                .set(
+                    USERS.NAME,
+                    DSL.coalesce(DSL.param(USERS.NAME.getName(), String.class), USERS.NAME))
+                .set(
+                    USERS.PASSWORD,
+                    DSL.coalesce(DSL.param(USERS.PASSWORD.getName(), String.class), USERS.PASSWORD))
+                .set(USERS.VERSION, USERS.VERSION.plus(DSL.inline(1L)))
+                .where(USERS.ID.eq(DSL.param(USERS.ID.getName(), UUID.class))));
+
+    // Rows are locked in the order of their IDs, so that concurrent batches updating the same users
+    // wait for each other instead of deadlocking, while the stable sort keeps repeated IDs in order
+    final var lockOrder =
+        indexes.stream().sorted(Comparator.comparing(index -> operations.get(index).id())).toList();
+
+    for (final int index : lockOrder) {
+      final var user = operations.get(index).user();
+
+      // Nothing to change, which must not bump the version either
+      if (user.username() == null && user.password() == null) {
+        continue;
+      }
+
+      batch.bind(user.username(), passwordHashes[index], operations.get(index).id());
+    }
+
+    if (batch.size() > 0) {
+      batch.execute();
+    }
+
+    final var ids = indexes.stream().map(index -> operations.get(index).id()).toList();
+    final Map<UUID, UserResponse> users =
+        dsl.selectFrom(USERS).where(USERS.ID.in(ids)).fetch(UserResponse::new).stream()
+            .collect(Collectors.toMap(UserResponse::id, Function.identity()));
+
+    for (final int index : indexes) {
+      final var user = users.get(operations.get(index).id());
+      results[index] =
+          user == null
+              ? new UserBatchResult(index, UserBatchResult.Status.NOT_FOUND, null)
+              : new UserBatchResult(index, UserBatchResult.Status.UPDATED, user);
+    }
+  }
+
+  /** Deletes all users with a single {@code DELETE}, reporting users which were not found. */
+  private static void batchDelete(
+      DSLContext dsl,
+      List<UserBatchOperation> operations,
+      List<Integer> indexes,
+      UserBatchResult[] results) {
+    if (indexes.isEmpty()) {
+      return;
+    }
+
+    final var ids = indexes.stream().map(index -> operations.get(index).id()).toList();
+    final var deletedIds =
+        dsl.deleteFrom(USERS).where(USERS.ID.in(ids)).returning(USERS.ID).fetchSet(USERS.ID);
+
+    for (final int index : indexes) {
+      results[index] =
+          new UserBatchResult(
+              index,
+              deletedIds.contains(operations.get(index).id())
+                  ? UserBatchResult.Status.DELETED
+                  : UserBatchResult.Status.NOT_FOUND,
+              null);
+    }
   }
 }
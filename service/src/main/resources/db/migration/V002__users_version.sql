@@ -0,0 +1,3 @@
+-- Bumped on every update to let clients revalidate users with ETag
+ALTER TABLE users
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 1;
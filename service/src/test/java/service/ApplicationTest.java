@@ -3,24 +3,48 @@ package service;
 import static org.junit.jupiter.api.Assertions.*;
 import static service.db.Tables.USERS;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import io.javalin.Javalin;
+import io.javalin.http.ContentType;
+import io.javalin.http.Header;
 import io.javalin.http.HttpStatus;
 import io.javalin.testtools.JavalinTest;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.shaded.org.apache.commons.lang3.RandomStringUtils;
 import platform.ApplicationWrapper;
+import platform.security.PasswordHasher;
 import platform.test.AbstractApplicationTest;
+import platform.web.NdjsonWriter;
+import platform.web.Page;
+import platform.web.StreamingJsonMapper;
+import service.models.requests.UserBatchOperation;
+import service.models.requests.UserBatchRequest;
 import service.models.requests.UserRequest;
+import service.models.responses.UserBatchResponse;
+import service.models.responses.UserBatchResult;
 import service.models.responses.UserResponse;
 
 class ApplicationTest extends AbstractApplicationTest {
   static final ObjectMapper MAPPER = new ObjectMapper();
+  static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+  static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+  static final TypeReference<Page<UserResponse>> USERS_PAGE = new TypeReference<>() {};
+
+  /** Verifies hashes regardless of the amount of iterations they were created with. */
+  static final PasswordHasher PASSWORD_HASHER = new PasswordHasher(1);
 
   ApplicationWrapper wrapper;
   Javalin javalin;
@@ -68,6 +92,67 @@ class ApplicationTest extends AbstractApplicationTest {
         });
   }
 
+  @Test
+  void exposesPrometheusMetrics() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          try (final var usersResponse = client.get("/api/users")) {
+            assertEquals(HttpStatus.OK.getCode(), usersResponse.code(), "Response code is not OK");
+          }
+
+          try (final var metricsResponse = client.get("/metrics")) {
+            assertEquals(
+                HttpStatus.OK.getCode(), metricsResponse.code(), "Response code is not OK");
+
+            final var responseBody = metricsResponse.body().string();
+
+            assertTrue(
+                responseBody.contains(
+                    "http_server_requests_seconds_count{method=\"GET\",status=\"200\",uri=\"/api/users\"} 1"),
+                "HTTP request metrics are missing");
+            assertTrue(
+                responseBody.contains("hikaricp_connections_active{pool=\"primary\"}"),
+                "Connection pool metrics are missing");
+            assertTrue(
+                responseBody.contains(
+                    "db_queries_seconds_count{outcome=\"success\",pool=\"primary\",type=\"read\"}"),
+                "Query metrics are missing");
+            assertTrue(responseBody.contains("jvm_memory_used_bytes"), "JVM metrics are missing");
+          }
+        });
+  }
+
+  @Test
+  void profilesQueries() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          try (final var resetResponse = client.delete("/admin/queries")) {
+            assertEquals(
+                HttpStatus.NO_CONTENT.getCode(),
+                resetResponse.code(),
+                "Response code is not No Content");
+          }
+
+          try (final var usersResponse = client.get("/api/users")) {
+            assertEquals(HttpStatus.OK.getCode(), usersResponse.code(), "Response code is not OK");
+          }
+
+          try (final var queriesResponse = client.get("/admin/queries")) {
+            assertEquals(
+                HttpStatus.OK.getCode(), queriesResponse.code(), "Response code is not OK");
+
+            final var profiles = MAPPER.readTree(queriesResponse.body().string());
+            assertEquals(1, profiles.size(), "Only users query must be profiled");
+            assertTrue(
+                profiles.get(0).get("shape").asText().contains("\"users\""),
+                "Users query shape is missing");
+            assertEquals(1, profiles.get(0).get("count").asLong(), "Users query count is wrong");
+          }
+        });
+  }
+
   @Test
   void returnsBadRequestForIncorrectUserCreateRequest() {
     JavalinTest.test(
@@ -113,9 +198,8 @@ class ApplicationTest extends AbstractApplicationTest {
             final var databaseRecord = optionalRecord.get();
             assertEquals(
                 request.username(), databaseRecord.getName(), "Database username is not correct");
-            assertArrayEquals(
-                request.password(),
-                databaseRecord.getPassword().toCharArray(),
+            assertTrue(
+                PASSWORD_HASHER.matches(request.password(), databaseRecord.getPassword()),
                 "Database password is not correct");
           }
         });
@@ -133,9 +217,216 @@ class ApplicationTest extends AbstractApplicationTest {
             assertNotNull(responseBody, "Response body is null");
 
             final var parsedResponse =
-                assertDoesNotThrow(
-                    () -> MAPPER.readValue(responseBody.bytes(), UserResponse[].class));
-            assertEquals(0, parsedResponse.length, "Response body should be empty");
+                assertDoesNotThrow(() -> MAPPER.readValue(responseBody.bytes(), USERS_PAGE));
+            assertTrue(parsedResponse.items().isEmpty(), "Response body should be empty");
+            assertNull(parsedResponse.nextCursor(), "There should be no next page");
+          }
+        });
+  }
+
+  @Test
+  void paginatesUsers() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var createdIds = new ArrayList<UUID>();
+
+          for (int i = 0; i < 3; i++) {
+            final var request =
+                new UserRequest(
+                    RandomStringUtils.randomAlphanumeric(16),
+                    RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+            try (final var response = client.post("/api/users", request)) {
+              assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+              createdIds.add(MAPPER.readValue(response.body().bytes(), UserResponse.class).id());
+            }
+          }
+
+          final var nextCursor = new AtomicReference<String>(null);
+
+          try (final var response = client.get("/api/users?limit=2")) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertNotNull(response.header(Header.LINK), "Link to the next page is missing");
+
+            final var parsedResponse = MAPPER.readValue(response.body().bytes(), USERS_PAGE);
+            assertEquals(
+                createdIds.subList(0, 2),
+                parsedResponse.items().stream().map(UserResponse::id).toList(),
+                "First page must contain the oldest users");
+            nextCursor.set(parsedResponse.nextCursor());
+          }
+
+          try (final var response = client.get("/api/users?limit=2&cursor=" + nextCursor.get())) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertNull(response.header(Header.LINK), "Last page must not link to the next one");
+
+            final var parsedResponse = MAPPER.readValue(response.body().bytes(), USERS_PAGE);
+            assertEquals(
+                createdIds.subList(2, 3),
+                parsedResponse.items().stream().map(UserResponse::id).toList(),
+                "Second page must contain the remaining users");
+            assertNull(parsedResponse.nextCursor(), "There should be no next page");
+          }
+
+          try (final var response = client.get("/api/users?cursor=invalid")) {
+            assertEquals(
+                HttpStatus.BAD_REQUEST.getCode(),
+                response.code(),
+                "Response code is not Bad Request");
+          }
+        });
+  }
+
+  @Test
+  void exportsAllUsersAsNdjson() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var createdIds = new ArrayList<UUID>();
+
+          for (int i = 0; i < 3; i++) {
+            final var request =
+                new UserRequest(
+                    RandomStringUtils.randomAlphanumeric(16),
+                    RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+            try (final var response = client.post("/api/users", request)) {
+              assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+              createdIds.add(MAPPER.readValue(response.body().bytes(), UserResponse.class).id());
+            }
+          }
+
+          try (final var response = client.get("/api/users/export")) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertTrue(
+                response.header(Header.CONTENT_TYPE).startsWith(NdjsonWriter.CONTENT_TYPE),
+                "Response content type is not NDJSON");
+
+            final var exportedIds =
+                response
+                    .body()
+                    .string()
+                    .lines()
+                    .map(this::parseUser)
+                    .map(UserResponse::id)
+                    .toList();
+            assertEquals(createdIds, exportedIds, "Export must contain all users in order");
+          }
+        });
+  }
+
+  @Test
+  void executesBatchOfOperations() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var firstUser =
+              new UserRequest(
+                  RandomStringUtils.randomAlphanumeric(16),
+                  RandomStringUtils.randomAlphanumeric(16).toCharArray());
+          final var secondUser =
+              new UserRequest(
+                  RandomStringUtils.randomAlphanumeric(16),
+                  RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+          final var createdIds = new ArrayList<UUID>();
+
+          try (final var response =
+              client.post(
+                  "/api/users/batch",
+                  new UserBatchRequest(
+                      List.of(
+                          new UserBatchOperation(UserBatchOperation.Type.CREATE, null, firstUser),
+                          new UserBatchOperation(
+                              UserBatchOperation.Type.CREATE, null, secondUser))))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+
+            final var parsedResponse =
+                MAPPER.readValue(response.body().bytes(), UserBatchResponse.class);
+            assertEquals(2, parsedResponse.results().size(), "Every operation must have result");
+
+            for (final var result : parsedResponse.results()) {
+              assertEquals(UserBatchResult.Status.CREATED, result.status(), "User is not created");
+              createdIds.add(result.user().id());
+            }
+          }
+
+          final var missingId = UUID.randomUUID();
+          final var patch = new UserRequest(RandomStringUtils.randomAlphanumeric(16), null);
+
+          try (final var response =
+              client.post(
+                  "/api/users/batch",
+                  new UserBatchRequest(
+                      List.of(
+                          new UserBatchOperation(
+                              UserBatchOperation.Type.UPDATE, createdIds.get(0), patch),
+                          new UserBatchOperation(
+                              UserBatchOperation.Type.DELETE, createdIds.get(1), null),
+                          new UserBatchOperation(UserBatchOperation.Type.DELETE, missingId, null),
+                          new UserBatchOperation(UserBatchOperation.Type.UPDATE, null, null))))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+
+            final var results =
+                MAPPER.readValue(response.body().bytes(), UserBatchResponse.class).results();
+            assertEquals(UserBatchResult.Status.UPDATED, results.get(0).status());
+            assertEquals(patch.username(), results.get(0).user().username());
+            assertEquals(UserBatchResult.Status.DELETED, results.get(1).status());
+            assertEquals(UserBatchResult.Status.NOT_FOUND, results.get(2).status());
+            assertEquals(UserBatchResult.Status.INVALID, results.get(3).status());
+          }
+
+          // Check the database
+          final var databaseRecord =
+              testDsl().selectFrom(USERS).where(USERS.ID.eq(createdIds.get(0))).fetchSingle();
+          assertEquals(patch.username(), databaseRecord.getName(), "Username is not updated");
+          assertTrue(
+              PASSWORD_HASHER.matches(firstUser.password(), databaseRecord.getPassword()),
+              "Password must not change");
+          assertFalse(
+              testDsl().fetchExists(USERS, USERS.ID.eq(createdIds.get(1))), "User must be deleted");
+        });
+  }
+
+  @Test
+  void returnsBadRequestForEmptyBatch() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          try (final var response =
+              client.post("/api/users/batch", new UserBatchRequest(List.of()))) {
+            assertEquals(
+                HttpStatus.BAD_REQUEST.getCode(),
+                response.code(),
+                "Response code is not Bad Request");
+          }
+        });
+  }
+
+  @Test
+  void returnsBadRequestForBatchWithTooManyPasswords() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var operations =
+              IntStream.range(0, 17)
+                  .mapToObj(
+                      i ->
+                          new UserBatchOperation(
+                              UserBatchOperation.Type.CREATE,
+                              null,
+                              new UserRequest(
+                                  RandomStringUtils.randomAlphanumeric(16),
+                                  RandomStringUtils.randomAlphanumeric(16).toCharArray())))
+                  .toList();
+
+          try (final var response =
+              client.post("/api/users/batch", new UserBatchRequest(operations))) {
+            assertEquals(
+                HttpStatus.BAD_REQUEST.getCode(),
+                response.code(),
+                "Response code is not Bad Request");
           }
         });
   }
@@ -207,6 +498,203 @@ class ApplicationTest extends AbstractApplicationTest {
         });
   }
 
+  @Test
+  void revalidatesUserWithEtag() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var request =
+              new UserRequest(
+                  RandomStringUtils.randomAlphanumeric(16),
+                  RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+          final var userId = new AtomicReference<UUID>(null);
+          final var etag = new AtomicReference<String>(null);
+
+          try (final var response = client.post("/api/users", request)) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            userId.set(MAPPER.readValue(response.body().bytes(), UserResponse.class).id());
+          }
+
+          try (final var response = client.get("/api/users/" + userId.get())) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertNotNull(response.header(Header.ETAG), "ETag is missing");
+            etag.set(response.header(Header.ETAG));
+          }
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.IF_NONE_MATCH, etag.get()))) {
+            assertEquals(
+                HttpStatus.NOT_MODIFIED.getCode(), response.code(), "Response code is not 304");
+            assertEquals(0, response.body().bytes().length, "Response body is not empty");
+          }
+
+          final var patchRequest = new UserRequest(RandomStringUtils.randomAlphanumeric(16), null);
+
+          try (final var response = client.patch("/api/users/" + userId.get(), patchRequest)) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertNotEquals(etag.get(), response.header(Header.ETAG), "ETag did not change");
+          }
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.IF_NONE_MATCH, etag.get()))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+
+            final var parsedResponse =
+                MAPPER.readValue(response.body().bytes(), UserResponse.class);
+            assertEquals(
+                patchRequest.username(), parsedResponse.username(), "Username is not correct");
+            assertEquals(2L, parsedResponse.version(), "Version is not bumped");
+          }
+        });
+  }
+
+  @Test
+  void rejectsUpdateOfChangedUser() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var request =
+              new UserRequest(
+                  RandomStringUtils.randomAlphanumeric(16),
+                  RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+          final var userId = new AtomicReference<UUID>(null);
+          final var etag = new AtomicReference<String>(null);
+
+          try (final var response = client.post("/api/users", request)) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            userId.set(MAPPER.readValue(response.body().bytes(), UserResponse.class).id());
+          }
+
+          try (final var response = client.get("/api/users/" + userId.get())) {
+            etag.set(response.header(Header.ETAG));
+          }
+
+          final var patchBody =
+              RequestBody.create(
+                  MAPPER.writeValueAsBytes(
+                      new UserRequest(RandomStringUtils.randomAlphanumeric(16), null)),
+                  MediaType.get(ContentType.JSON));
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.IF_MATCH, etag.get()).patch(patchBody))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+          }
+
+          // The same ETag is outdated after the first update
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.IF_MATCH, etag.get()).patch(patchBody))) {
+            assertEquals(
+                HttpStatus.PRECONDITION_FAILED.getCode(),
+                response.code(),
+                "Response code is not 412");
+          }
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + UUID.randomUUID(),
+                  builder -> builder.header(Header.IF_MATCH, etag.get()).patch(patchBody))) {
+            assertEquals(
+                HttpStatus.NOT_FOUND.getCode(), response.code(), "Response code is not 404");
+          }
+
+          // Database keeps the first update only
+          assertEquals(
+              2L,
+              testDsl()
+                  .select(USERS.VERSION)
+                  .from(USERS)
+                  .where(USERS.ID.eq(userId.get()))
+                  .fetchOne(USERS.VERSION),
+              "Version is not correct");
+        });
+  }
+
+  @Test
+  void exchangesBinaryFormats() {
+    JavalinTest.test(
+        javalin,
+        (server, client) -> {
+          final var request =
+              new UserRequest(
+                  RandomStringUtils.randomAlphanumeric(16),
+                  RandomStringUtils.randomAlphanumeric(16).toCharArray());
+
+          final var requestBody =
+              RequestBody.create(
+                  SMILE_MAPPER.writeValueAsBytes(request),
+                  MediaType.get(StreamingJsonMapper.SMILE));
+          final var userId = new AtomicReference<UUID>(null);
+          final var etag = new AtomicReference<String>(null);
+
+          try (final var response =
+              client.request(
+                  "/api/users",
+                  builder ->
+                      builder.header(Header.ACCEPT, StreamingJsonMapper.CBOR).post(requestBody))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertTrue(
+                response.header(Header.CONTENT_TYPE).startsWith(StreamingJsonMapper.CBOR),
+                "Response content type is not CBOR");
+
+            final var parsedResponse =
+                CBOR_MAPPER.readValue(response.body().bytes(), UserResponse.class);
+            assertEquals(
+                request.username(), parsedResponse.username(), "Response username is not correct");
+            userId.set(parsedResponse.id());
+          }
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.ACCEPT, StreamingJsonMapper.SMILE))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertTrue(
+                response.header(Header.CONTENT_TYPE).startsWith(StreamingJsonMapper.SMILE),
+                "Response content type is not Smile");
+
+            assertEquals(Header.ACCEPT, response.header(Header.VARY), "Vary is not Accept");
+
+            final var parsedResponse =
+                SMILE_MAPPER.readValue(response.body().bytes(), UserResponse.class);
+            assertEquals(userId.get(), parsedResponse.id(), "IDs do not match");
+            etag.set(response.header(Header.ETAG));
+          }
+
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder ->
+                      builder
+                          .header(Header.ACCEPT, StreamingJsonMapper.SMILE)
+                          .header(Header.IF_NONE_MATCH, etag.get()))) {
+            assertEquals(
+                HttpStatus.NOT_MODIFIED.getCode(), response.code(), "Response code is not 304");
+            assertEquals(Header.ACCEPT, response.header(Header.VARY), "Vary is not Accept");
+          }
+
+          // Smile representation must not revalidate the JSON one
+          try (final var response =
+              client.request(
+                  "/api/users/" + userId.get(),
+                  builder -> builder.header(Header.IF_NONE_MATCH, etag.get()))) {
+            assertEquals(HttpStatus.OK.getCode(), response.code(), "Response code is not OK");
+            assertTrue(
+                response.header(Header.CONTENT_TYPE).startsWith(ContentType.JSON),
+                "JSON must remain the default");
+          }
+        });
+  }
+
   @Test
   void returnsBadRequestWhenUpdatingUserWithIncorrectId() {
     JavalinTest.test(
@@ -318,9 +806,8 @@ class ApplicationTest extends AbstractApplicationTest {
             final var databaseRecord = optionalRecord.get();
             assertEquals(
                 request.username(), databaseRecord.getName(), "Database username is not correct");
-            assertArrayEquals(
-                request.password(),
-                databaseRecord.getPassword().toCharArray(),
+            assertTrue(
+                PASSWORD_HASHER.matches(request.password(), databaseRecord.getPassword()),
                 "Database password is not correct");
           }
         });
@@ -380,9 +867,8 @@ class ApplicationTest extends AbstractApplicationTest {
                 patchRequest.username(),
                 databaseRecord.getName(),
                 "Database username is not correct");
-            assertArrayEquals(
-                patchRequest.password(),
-                databaseRecord.getPassword().toCharArray(),
+            assertTrue(
+                PASSWORD_HASHER.matches(patchRequest.password(), databaseRecord.getPassword()),
                 "Database password is not correct");
           }
         });
@@ -438,4 +924,8 @@ class ApplicationTest extends AbstractApplicationTest {
           }
         });
   }
+
+  private UserResponse parseUser(String line) {
+    return assertDoesNotThrow(() -> MAPPER.readValue(line, UserResponse.class));
+  }
 }
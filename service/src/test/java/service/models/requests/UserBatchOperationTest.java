@@ -0,0 +1,11 @@
+package service.models.requests;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class UserBatchOperationTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(UserBatchOperation.class).verify();
+  }
+}
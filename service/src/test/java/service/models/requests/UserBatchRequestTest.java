@@ -0,0 +1,11 @@
+package service.models.requests;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class UserBatchRequestTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(UserBatchRequest.class).verify();
+  }
+}
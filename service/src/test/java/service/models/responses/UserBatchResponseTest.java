@@ -0,0 +1,11 @@
+package service.models.responses;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.jupiter.api.Test;
+
+class UserBatchResponseTest {
+  @Test
+  void pojoTest() {
+    EqualsVerifier.forClass(UserBatchResponse.class).verify();
+  }
+}